@@ -0,0 +1,97 @@
+package me.lucaspickering.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import me.lucaspickering.utils.MathFuncs;
+
+/**
+ * Benchmarks for {@link MathFuncs#min} and {@link MathFuncs#max}. The boxed benchmarks are the
+ * baseline that callers fall back to when their data is in a collection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MathFuncsBenchmark {
+
+    @Param({"16", "1024", "1048576"})
+    private int size;
+
+    private int[] ints;
+    private double[] doubles;
+    private List<Integer> boxedInts;
+    private List<Double> boxedDoubles;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(0L);
+        ints = new int[size];
+        doubles = new double[size];
+        boxedInts = new ArrayList<>(size);
+        boxedDoubles = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ints[i] = random.nextInt();
+            doubles[i] = random.nextDouble();
+            boxedInts.add(ints[i]);
+            boxedDoubles.add(doubles[i]);
+        }
+    }
+
+    @Benchmark
+    public int minInt() {
+        return MathFuncs.min(ints);
+    }
+
+    @Benchmark
+    public int minIntBoxed() {
+        return Collections.min(boxedInts);
+    }
+
+    @Benchmark
+    public int maxInt() {
+        return MathFuncs.max(ints);
+    }
+
+    @Benchmark
+    public int maxIntBoxed() {
+        return Collections.max(boxedInts);
+    }
+
+    @Benchmark
+    public double minDouble() {
+        return MathFuncs.min(doubles);
+    }
+
+    @Benchmark
+    public double minDoubleBoxed() {
+        return Collections.min(boxedDoubles);
+    }
+
+    @Benchmark
+    public double maxDouble() {
+        return MathFuncs.max(doubles);
+    }
+
+    @Benchmark
+    public double maxDoubleBoxed() {
+        return Collections.max(boxedDoubles);
+    }
+}
@@ -0,0 +1,133 @@
+package me.lucaspickering.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import me.lucaspickering.utils.Point2;
+import me.lucaspickering.utils.Point2Buffer;
+import me.lucaspickering.utils.Point3;
+import me.lucaspickering.utils.Point3Buffer;
+
+/**
+ * Benchmarks for {@link Point2#distanceTo} and {@link Point3#distanceTo}, computing the total
+ * distance from one point to every point in an array. The primitive benchmarks compute the same
+ * thing over raw coordinate arrays, as a lower bound, and the buffer benchmarks use the bulk
+ * {@link Point2Buffer#distancesTo} and {@link Point3Buffer#distancesTo}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PointBenchmark {
+
+    @Param({"1024", "1048576"})
+    private int size;
+
+    private Point2[] points2;
+    private Point3[] points3;
+    private Point2Buffer buffer2;
+    private Point3Buffer buffer3;
+    private double[] distances;
+    private double[] xs;
+    private double[] ys;
+    private double[] zs;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(0L);
+        points2 = new Point2[size];
+        points3 = new Point3[size];
+        xs = new double[size];
+        ys = new double[size];
+        zs = new double[size];
+        buffer2 = new Point2Buffer(size);
+        buffer3 = new Point3Buffer(size);
+        distances = new double[size];
+        for (int i = 0; i < size; i++) {
+            xs[i] = random.nextDouble();
+            ys[i] = random.nextDouble();
+            zs[i] = random.nextDouble();
+            points2[i] = new Point2(xs[i], ys[i]);
+            points3[i] = new Point3(xs[i], ys[i], zs[i]);
+            buffer2.add(xs[i], ys[i]);
+            buffer3.add(xs[i], ys[i], zs[i]);
+        }
+    }
+
+    @Benchmark
+    public double distanceTo2() {
+        final Point2 origin = new Point2(0.5, 0.5);
+        double sum = 0.0;
+        for (Point2 point : points2) {
+            sum += origin.distanceTo(point);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double distanceTo2Primitive() {
+        double sum = 0.0;
+        for (int i = 0; i < size; i++) {
+            final double xDiff = xs[i] - 0.5;
+            final double yDiff = ys[i] - 0.5;
+            sum += Math.sqrt(xDiff * xDiff + yDiff * yDiff);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double distanceTo2Buffer() {
+        buffer2.distancesTo(new Point2(0.5, 0.5), distances);
+        double sum = 0.0;
+        for (double distance : distances) {
+            sum += distance;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double distanceTo3() {
+        final Point3 origin = new Point3(0.5, 0.5, 0.5);
+        double sum = 0.0;
+        for (Point3 point : points3) {
+            sum += origin.distanceTo(point);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double distanceTo3Primitive() {
+        double sum = 0.0;
+        for (int i = 0; i < size; i++) {
+            final double xDiff = xs[i] - 0.5;
+            final double yDiff = ys[i] - 0.5;
+            final double zDiff = zs[i] - 0.5;
+            sum += Math.sqrt(xDiff * xDiff + yDiff * yDiff + zDiff * zDiff);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double distanceTo3Buffer() {
+        buffer3.distancesTo(new Point3(0.5, 0.5, 0.5), distances);
+        double sum = 0.0;
+        for (double distance : distances) {
+            sum += distance;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,140 @@
+package me.lucaspickering.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import me.lucaspickering.utils.random.Xoroshiro128PlusPlus;
+import me.lucaspickering.utils.range.DoubleRange;
+import me.lucaspickering.utils.range.IntRange;
+import me.lucaspickering.utils.range.Range;
+
+/**
+ * Benchmarks for the hot methods of {@link Range}. Each op runs over a whole array of inputs. The
+ * boxed benchmarks use pre-boxed inputs, while the others box on every call, which is what happens
+ * when callers have their values in primitive arrays.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RangeBenchmark {
+
+    private final Range<Integer> intRange = new IntRange(-1000, Range.BoundType.EXCLUSIVE,
+                                                         1000, Range.BoundType.INCLUSIVE);
+    private final Range<Double> doubleRange = new DoubleRange(-0.5, 0.5);
+
+    private Random random;
+    private Xoroshiro128PlusPlus fastRandom;
+
+    /**
+     * The arrays of inputs. This is its own state so that only the benchmarks that use it are
+     * run for every size.
+     */
+    @State(Scope.Benchmark)
+    public static class Inputs {
+
+        @Param({"1024", "1048576"})
+        private int size;
+
+        private int[] ints;
+        private Integer[] boxedInts;
+        private double[] doubles;
+        private Double[] boxedDoubles;
+
+        @Setup
+        public void setup() {
+            final Random random = new Random(0L);
+            ints = new int[size];
+            boxedInts = new Integer[size];
+            doubles = new double[size];
+            boxedDoubles = new Double[size];
+            for (int i = 0; i < size; i++) {
+                ints[i] = random.nextInt(4000) - 2000;
+                boxedInts[i] = ints[i];
+                doubles[i] = random.nextDouble() * 2.0 - 1.0;
+                boxedDoubles[i] = doubles[i];
+            }
+        }
+    }
+
+    @Setup
+    public void setup() {
+        random = new Random(0L);
+        fastRandom = new Xoroshiro128PlusPlus(0L);
+    }
+
+    @Benchmark
+    public int containsInt(Inputs inputs) {
+        int count = 0;
+        for (int value : inputs.ints) {
+            count += intRange.contains(value) ? 1 : 0;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int containsIntBoxed(Inputs inputs) {
+        int count = 0;
+        for (Integer value : inputs.boxedInts) {
+            count += intRange.contains(value) ? 1 : 0;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public double normalizeDouble(Inputs inputs) {
+        double sum = 0.0;
+        for (double value : inputs.doubles) {
+            sum += doubleRange.normalize(value);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double normalizeDoubleBoxed(Inputs inputs) {
+        double sum = 0.0;
+        for (Double value : inputs.boxedDoubles) {
+            sum += doubleRange.normalize(value);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public void coerceDouble(Inputs inputs, Blackhole blackhole) {
+        for (double value : inputs.doubles) {
+            blackhole.consume(doubleRange.coerce(value));
+        }
+    }
+
+    @Benchmark
+    public void coerceDoubleBoxed(Inputs inputs, Blackhole blackhole) {
+        for (Double value : inputs.boxedDoubles) {
+            blackhole.consume(doubleRange.coerce(value));
+        }
+    }
+
+    @Benchmark
+    public int randomInInt() {
+        return intRange.randomIn(random);
+    }
+
+    @Benchmark
+    public int randomInIntFast() {
+        return intRange.randomIn(fastRandom);
+    }
+}
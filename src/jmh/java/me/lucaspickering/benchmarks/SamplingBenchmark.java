@@ -0,0 +1,173 @@
+package me.lucaspickering.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+import me.lucaspickering.utils.GeneralFuncs;
+import me.lucaspickering.utils.random.DynamicWeightedSampler;
+import me.lucaspickering.utils.random.ReservoirSampler;
+import me.lucaspickering.utils.random.WeightedSampler;
+
+/**
+ * Benchmarks for the samplers in {@link GeneralFuncs} and the sampler classes built on them.
+ * Weighted benchmarks are also run over a few weight distributions, with weights provided either
+ * through a boxed {@code Function<T, Integer>} or a primitive {@code ToDoubleFunction<T>}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SamplingBenchmark {
+
+    private Random random;
+
+    /**
+     * The elements to sample from, for the unweighted benchmarks.
+     */
+    @State(Scope.Benchmark)
+    public static class Elements {
+
+        @Param({"10", "1000", "100000"})
+        private int size;
+
+        private List<Integer> list;
+        private Set<Integer> set;
+
+        @Setup
+        public void setup() {
+            list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(i);
+            }
+            set = new HashSet<>(list);
+        }
+    }
+
+    /**
+     * The elements and their weights, for the weighted benchmarks. This is its own state so that
+     * only the weighted benchmarks are run for every distribution.
+     */
+    @State(Scope.Benchmark)
+    public static class Weights {
+
+        @Param({"10", "1000", "100000"})
+        private int size;
+
+        /**
+         * uniform: every weight is the same. linear: weights go from 1 to size. skewed: a few
+         * elements hold almost all the weight.
+         */
+        @Param({"uniform", "linear", "skewed"})
+        private String distribution;
+
+        private List<Integer> list;
+        private int[] weights;
+        private Function<Integer, Integer> boxedWeight;
+        private ToDoubleFunction<Integer> primitiveWeight;
+        private WeightedSampler<Integer> sampler;
+        private DynamicWeightedSampler<Integer> dynamicSampler;
+
+        @Setup
+        public void setup() {
+            list = new ArrayList<>(size);
+            weights = new int[size];
+            for (int i = 0; i < size; i++) {
+                list.add(i);
+                switch (distribution) {
+                    case "uniform":
+                        weights[i] = 10;
+                        break;
+                    case "linear":
+                        weights[i] = i + 1;
+                        break;
+                    default:
+                        weights[i] = i % 100 == 0 ? 100000 : 1;
+                        break;
+                }
+            }
+            boxedWeight = (e) -> weights[e];
+            primitiveWeight = (e) -> weights[e];
+            sampler = new WeightedSampler<>(list, primitiveWeight);
+            dynamicSampler = new DynamicWeightedSampler<>(list, primitiveWeight);
+        }
+    }
+
+    @Setup
+    public void setup() {
+        random = new Random(0L);
+    }
+
+    @Benchmark
+    public int randomFromList(Elements elements) {
+        return GeneralFuncs.randomFromCollection(random, elements.list);
+    }
+
+    @Benchmark
+    public int randomFromSet(Elements elements) {
+        return GeneralFuncs.randomFromCollection(random, elements.set);
+    }
+
+    @Benchmark
+    public List<Integer> randomSubset(Elements elements) {
+        return GeneralFuncs.randomSubset(random, elements.list, Math.min(elements.size, 10));
+    }
+
+    @Benchmark
+    public List<Integer> reservoirSample(Elements elements) {
+        return ReservoirSampler.sample(random, elements.list.iterator(), 10);
+    }
+
+    @Benchmark
+    public int randomFromCollectionWeighted(Weights weights) {
+        return GeneralFuncs.randomFromCollectionWeighted(random, weights.list,
+                                                         weights.boxedWeight);
+    }
+
+    @Benchmark
+    public int randomFromCollectionWeightedPrimitive(Weights weights) {
+        return new WeightedSampler<>(weights.list, weights.primitiveWeight).next(random);
+    }
+
+    @Benchmark
+    public int weightedSamplerNext(Weights weights) {
+        return weights.sampler.next(random);
+    }
+
+    @Benchmark
+    public int dynamicSamplerNext(Weights weights) {
+        return weights.dynamicSampler.next(random);
+    }
+
+    @Benchmark
+    public int dynamicSamplerUpdate(Weights weights) {
+        final int index = random.nextInt(weights.size);
+        weights.dynamicSampler.setWeight(index, weights.weights[index]);
+        return index;
+    }
+
+    @Benchmark
+    public List<Integer> reservoirSampleWeighted(Weights weights) {
+        return ReservoirSampler.sampleWeighted(random, weights.list.iterator(), 10,
+                                               weights.primitiveWeight);
+    }
+}
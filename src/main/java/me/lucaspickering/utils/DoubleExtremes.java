@@ -0,0 +1,182 @@
+package me.lucaspickering.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.function.DoubleConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+import java.util.stream.DoubleStream;
+
+/**
+ * Tracks the minimum and maximum of a sequence of doubles, along with the position in the sequence
+ * where each first occurred, without boxing. If there is a tie, the earliest position is kept.
+ *
+ * To use this with a {@link DoubleStream}, use {@link #of(DoubleStream)}, or {@code
+ * stream.collect(DoubleExtremes::new, DoubleExtremes::accept, DoubleExtremes::merge)}. For object
+ * streams, use {@link #collector(ToDoubleFunction)}. Parallel streams work as long as they are
+ * ordered, because the parts are merged in order.
+ *
+ * NaN values are ignored, unless every value is NaN, in which case the first value is both the
+ * minimum and maximum.
+ *
+ * This class is <b>not</b> thread-safe.
+ */
+public class DoubleExtremes implements DoubleConsumer {
+
+    private long count;
+    private long minIndex;
+    private long maxIndex;
+    private double min;
+    private double max;
+
+    /**
+     * Creates a {@code DoubleExtremes} from every value in the given stream.
+     *
+     * @param stream the values (non-null)
+     * @return a new {@code DoubleExtremes}
+     */
+    @NotNull
+    public static DoubleExtremes of(@NotNull DoubleStream stream) {
+        return stream.collect(DoubleExtremes::new, DoubleExtremes::accept, DoubleExtremes::merge);
+    }
+
+    /**
+     * Creates a {@link Collector} that tracks the extremes of a value taken from each element.
+     * The indices are positions in the stream.
+     *
+     * @param mapper the function that gets each element's value (non-null)
+     * @param <T>    the type of the elements
+     * @return a collector that produces a {@code DoubleExtremes}
+     */
+    @NotNull
+    public static <T> Collector<T, ?, DoubleExtremes> collector(
+        @NotNull ToDoubleFunction<? super T> mapper) {
+        Objects.requireNonNull(mapper);
+        return Collector.of(DoubleExtremes::new,
+                            (extremes, element) -> extremes.accept(mapper.applyAsDouble(element)),
+                            (left, right) -> {
+                                left.merge(right);
+                                return left;
+                            },
+                            Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    /**
+     * Adds the next value in the sequence.
+     *
+     * @param value the value
+     */
+    @Override
+    public void accept(double value) {
+        if (count == 0 || value < min || (Double.isNaN(min) && !Double.isNaN(value))) {
+            min = value;
+            minIndex = count;
+        }
+        if (count == 0 || value > max || (Double.isNaN(max) && !Double.isNaN(value))) {
+            max = value;
+            maxIndex = count;
+        }
+        count++;
+    }
+
+    /**
+     * Appends another sequence to this one. Every value in the other sequence comes after every
+     * value in this one, so its indices are shifted by this one's count. The other object is not
+     * modified.
+     *
+     * @param other the sequence that follows this one (non-null)
+     */
+    public void merge(@NotNull DoubleExtremes other) {
+        Objects.requireNonNull(other);
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0 || other.min < min || (Double.isNaN(min) && !Double.isNaN(other.min))) {
+            min = other.min;
+            minIndex = count + other.minIndex;
+        }
+        if (count == 0 || other.max > max || (Double.isNaN(max) && !Double.isNaN(other.max))) {
+            max = other.max;
+            maxIndex = count + other.maxIndex;
+        }
+        count += other.count;
+    }
+
+    /**
+     * Gets the number of values seen.
+     *
+     * @return the number of values
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Gets whether no values have been seen.
+     *
+     * @return true if there are no values
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Gets the smallest value.
+     *
+     * @return the minimum
+     * @throws IllegalStateException if no values have been seen
+     */
+    public double min() {
+        checkNotEmpty();
+        return min;
+    }
+
+    /**
+     * Gets the position of the first occurrence of the smallest value.
+     *
+     * @return the index of the minimum
+     * @throws IllegalStateException if no values have been seen
+     */
+    public long minIndex() {
+        checkNotEmpty();
+        return minIndex;
+    }
+
+    /**
+     * Gets the largest value.
+     *
+     * @return the maximum
+     * @throws IllegalStateException if no values have been seen
+     */
+    public double max() {
+        checkNotEmpty();
+        return max;
+    }
+
+    /**
+     * Gets the position of the first occurrence of the largest value.
+     *
+     * @return the index of the maximum
+     * @throws IllegalStateException if no values have been seen
+     */
+    public long maxIndex() {
+        checkNotEmpty();
+        return maxIndex;
+    }
+
+    private void checkNotEmpty() {
+        if (count == 0) {
+            throw new IllegalStateException("No values have been seen");
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (count == 0) {
+            return getClass().getSimpleName() + "{count=0}";
+        }
+        return String.format("%s{count=%d, min=%s at [%d], max=%s at [%d]}",
+                             getClass().getSimpleName(), count, min, minIndex, max, maxIndex);
+    }
+}
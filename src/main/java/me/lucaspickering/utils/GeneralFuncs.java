@@ -2,9 +2,20 @@ package me.lucaspickering.utils;
 
 import org.jetbrains.annotations.NotNull;
 
+import me.lucaspickering.utils.random.ParallelRandom;
+import me.lucaspickering.utils.random.RandomSource;
+import me.lucaspickering.utils.random.RandomizedSet;
+import me.lucaspickering.utils.random.UniformIntSampler;
+import me.lucaspickering.utils.random.WeightedSampler;
+import me.lucaspickering.utils.timing.Benchmark;
+import me.lucaspickering.utils.timing.BenchmarkResult;
+import me.lucaspickering.utils.timing.LatencyRecorder;
+
 import java.util.*;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
 
 public class GeneralFuncs {
 
@@ -24,11 +35,10 @@ public class GeneralFuncs {
     @NotNull
     public static <T> T firstFromCollection(@NotNull Collection<T> coll) {
         Objects.requireNonNull(coll);
-
-        // Exception will be thrown if the collection is empty
-        return coll.stream()
-            .findFirst()
-            .orElseThrow(() -> new IllegalArgumentException("Collection is empty"));
+        if (coll.isEmpty()) {
+            throw new IllegalArgumentException("Collection is empty");
+        }
+        return coll.iterator().next();
     }
 
     /**
@@ -44,24 +54,177 @@ public class GeneralFuncs {
     public static <T> T randomFromCollection(@NotNull Random random, @NotNull Collection<T> coll) {
         Objects.requireNonNull(random);
         Objects.requireNonNull(coll);
+        if (coll.isEmpty()) {
+            throw new IllegalArgumentException("Collection is empty");
+        }
+
+        return elementAt(coll, random.nextInt(coll.size()));
+    }
+
+    /**
+     * Randomly selects one element from the given non-empty collection. Each element has an equal
+     * chance of being chosen. This is the same as {@link #randomFromCollection(Random,
+     * Collection)}.
+     *
+     * @param random the {@link RandomSource} to generate numbers from (non-null)
+     * @param coll   the collection to be chosen from (non-null, non-empty)
+     * @param <T>    the type of the element in the collection
+     * @return one randomly-selected, even-distributed element from the given collection
+     */
+    @NotNull
+    public static <T> T randomFromCollection(@NotNull RandomSource random,
+                                             @NotNull Collection<T> coll) {
+        Objects.requireNonNull(random);
+        Objects.requireNonNull(coll);
+        if (coll.isEmpty()) {
+            throw new IllegalArgumentException("Collection is empty");
+        }
+        return elementAt(coll, random.nextInt(coll.size()));
+    }
+
+    /**
+     * Randomly selects one element from the given non-empty array. Each element has an equal
+     * chance of being chosen.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @param array  the array to be chosen from (non-null, non-empty)
+     * @param <T>    the type of the element in the array
+     * @return one randomly-selected, even-distributed element from the given array
+     */
+    @NotNull
+    public static <T> T randomFromArray(@NotNull Random random, @NotNull T[] array) {
+        Objects.requireNonNull(random);
+        Objects.requireNonNull(array);
+        if (array.length == 0) {
+            throw new IllegalArgumentException("Array is empty");
+        }
+        return array[random.nextInt(array.length)];
+    }
+
+    /**
+     * Randomly selects {@code k} distinct elements (by position) from the given collection. Every
+     * subset of size {@code k} has an equal chance of being chosen. The order of the returned list
+     * is unspecified. This runs in O(k) expected time for {@link RandomAccess} lists; other
+     * collections must be copied first, which is O(n).
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @param coll   the collection to be chosen from (non-null)
+     * @param k      the number of elements to choose, in the range {@code [0, coll.size()]}
+     * @param <T>    the type of the element in the collection
+     * @return a new list of {@code k} randomly-selected elements from the given collection
+     * @throws IllegalArgumentException if {@code k} is negative or greater than the collection's
+     *                                  size
+     */
+    @NotNull
+    public static <T> List<T> randomSubset(@NotNull Random random, @NotNull Collection<T> coll,
+                                           int k) {
+        Objects.requireNonNull(random);
+        Objects.requireNonNull(coll);
+        checkSubsetSize(coll.size(), k);
 
-        // Select a random element from the collection, exception is thrown if coll is empty
-        return coll.stream()
-            .skip(random.nextInt(coll.size()))
-            .findFirst()
-            .orElseThrow(() -> new IllegalArgumentException("Collection is empty"));
+        if (coll instanceof List && coll instanceof RandomAccess) {
+            final List<T> list = (List<T>) coll;
+            final List<T> rv = new ArrayList<>(k);
+            for (int index : randomIndices(random, list.size(), k)) {
+                rv.add(list.get(index));
+            }
+            return rv;
+        }
+
+        // No random access, so copy into an array and do a partial Fisher-Yates shuffle on that
+        @SuppressWarnings("unchecked") final T[] copy = (T[]) coll.toArray();
+        for (int i = 0; i < k; i++) {
+            final int j = i + random.nextInt(copy.length - i);
+            final T temp = copy[i];
+            copy[i] = copy[j];
+            copy[j] = temp;
+        }
+        return new ArrayList<>(Arrays.asList(copy).subList(0, k));
+    }
+
+    /**
+     * Randomly selects {@code k} distinct elements (by position) from the given array, without
+     * modifying it. Every subset of size {@code k} has an equal chance of being chosen. The order
+     * of the returned list is unspecified. This runs in O(k) expected time.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @param array  the array to be chosen from (non-null)
+     * @param k      the number of elements to choose, in the range {@code [0, array.length]}
+     * @param <T>    the type of the element in the array
+     * @return a new list of {@code k} randomly-selected elements from the given array
+     * @throws IllegalArgumentException if {@code k} is negative or greater than the array's length
+     */
+    @NotNull
+    public static <T> List<T> randomSubset(@NotNull Random random, @NotNull T[] array, int k) {
+        Objects.requireNonNull(random);
+        Objects.requireNonNull(array);
+        checkSubsetSize(array.length, k);
+
+        final List<T> rv = new ArrayList<>(k);
+        for (int index : randomIndices(random, array.length, k)) {
+            rv.add(array[index]);
+        }
+        return rv;
+    }
+
+    /**
+     * Gets the element at the given position in the collection's iteration order.
+     */
+    private static <T> T elementAt(Collection<T> coll, int n) {
+        if (coll instanceof List && coll instanceof RandomAccess) {
+            // Fast path, we can jump straight to the element
+            return ((List<T>) coll).get(n);
+        }
+        if (coll instanceof RandomizedSet) {
+            return ((RandomizedSet<T>) coll).get(n);
+        }
+
+        final Iterator<T> iter = coll.iterator();
+        for (int i = 0; i < n; i++) {
+            iter.next();
+        }
+        return iter.next();
+    }
+
+    private static void checkSubsetSize(int size, int k) {
+        if (k < 0 || k > size) {
+            throw new IllegalArgumentException(String.format(
+                "Subset size must be in the range [0, %d]. Size [%d]", size, k));
+        }
+    }
+
+    /**
+     * Picks {@code k} distinct indices in {@code [0, n)} using Floyd's algorithm, which needs
+     * exactly {@code k} random numbers and no rejection.
+     */
+    private static int[] randomIndices(Random random, int n, int k) {
+        final Set<Integer> chosen = new HashSet<>(k * 2);
+        final int[] rv = new int[k];
+        int count = 0;
+        for (int j = n - k; j < n; j++) {
+            final int t = random.nextInt(j + 1);
+            // If t was already taken, then j can't have been, since it's new this iteration
+            final int index = chosen.add(t) ? t : j;
+            if (index == j) {
+                chosen.add(j);
+            }
+            rv[count++] = index;
+        }
+        return rv;
     }
 
     /**
      * Randomly selects one element from the given non-empty collection. Each element has a chance
      * of being chosen that is proportional to that element's return value from {@code
-     * weightFunction}.
+     * weightFunction}. Elements with a weight of 0 or less will never be chosen.
      *
      * @param random         the {@link Random} to generate numbers from
      * @param coll           the collection to be chosen from (non-null, non-empty)
      * @param weightFunction the function that provides a weight for each element in the collection
      * @param <T>            the type of the element in the collection
      * @return one randomly-selected element from the given collection
+     * @throws IllegalArgumentException if the collection is empty or has no positive weights
+     * @see WeightedSampler
      */
     @NotNull
     public static <T> T randomFromCollectionWeighted(@NotNull Random random,
@@ -70,22 +233,308 @@ public class GeneralFuncs {
         Objects.requireNonNull(random);
         Objects.requireNonNull(coll);
         Objects.requireNonNull(weightFunction);
-        if (coll.isEmpty()) {
-            throw new IllegalArgumentException("Collection cannot be empty");
+
+        // Build a one-off alias table, which costs O(n) regardless of how large the weights are.
+        // If you're drawing from the same collection repeatedly, use a WeightedSampler directly.
+        return new WeightedSampler<>(coll, weightFunction::apply).next(random);
+    }
+
+    /**
+     * Finds the element of the given collection with the smallest key, in a single pass and without
+     * boxing the keys. The key function is called exactly once per element. If there is a tie,
+     * the first such element (in iteration order) is returned.
+     *
+     * @param coll the collection to search (non-null, non-empty)
+     * @param key  the function that gets each element's key (non-null)
+     * @param <T>  the type of the element in the collection
+     * @return the element with the smallest key
+     * @throws IllegalArgumentException if the collection is empty
+     */
+    public static <T> T minByInt(@NotNull Collection<T> coll,
+                                 @NotNull ToIntFunction<? super T> key) {
+        Objects.requireNonNull(key);
+        final Iterator<T> iter = nonEmptyIterator(coll);
+        T best = iter.next();
+        int bestKey = key.applyAsInt(best);
+        while (iter.hasNext()) {
+            final T element = iter.next();
+            final int elementKey = key.applyAsInt(element);
+            if (elementKey < bestKey) {
+                best = element;
+                bestKey = elementKey;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds the element of the given collection with the smallest key, in a single pass and without
+     * boxing the keys. The key function is called exactly once per element. If there is a tie,
+     * the first such element (in iteration order) is returned. Elements with a NaN key are
+     * ignored, unless every key is NaN, in which case the first element is returned.
+     *
+     * @param coll the collection to search (non-null, non-empty)
+     * @param key  the function that gets each element's key (non-null)
+     * @param <T>  the type of the element in the collection
+     * @return the element with the smallest key
+     * @throws IllegalArgumentException if the collection is empty
+     */
+    public static <T> T minByDouble(@NotNull Collection<T> coll,
+                                    @NotNull ToDoubleFunction<? super T> key) {
+        Objects.requireNonNull(key);
+        final Iterator<T> iter = nonEmptyIterator(coll);
+        T best = iter.next();
+        double bestKey = key.applyAsDouble(best);
+        while (iter.hasNext()) {
+            final T element = iter.next();
+            final double elementKey = key.applyAsDouble(element);
+            if (elementKey < bestKey || (Double.isNaN(bestKey) && !Double.isNaN(elementKey))) {
+                best = element;
+                bestKey = elementKey;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds the element of the given collection with the largest key, in a single pass and without
+     * boxing the keys. The key function is called exactly once per element. If there is a tie,
+     * the first such element (in iteration order) is returned.
+     *
+     * @param coll the collection to search (non-null, non-empty)
+     * @param key  the function that gets each element's key (non-null)
+     * @param <T>  the type of the element in the collection
+     * @return the element with the largest key
+     * @throws IllegalArgumentException if the collection is empty
+     */
+    public static <T> T maxByInt(@NotNull Collection<T> coll,
+                                 @NotNull ToIntFunction<? super T> key) {
+        Objects.requireNonNull(key);
+        final Iterator<T> iter = nonEmptyIterator(coll);
+        T best = iter.next();
+        int bestKey = key.applyAsInt(best);
+        while (iter.hasNext()) {
+            final T element = iter.next();
+            final int elementKey = key.applyAsInt(element);
+            if (elementKey > bestKey) {
+                best = element;
+                bestKey = elementKey;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds the element of the given collection with the largest key, in a single pass and without
+     * boxing the keys. The key function is called exactly once per element. If there is a tie,
+     * the first such element (in iteration order) is returned. Elements with a NaN key are
+     * ignored, unless every key is NaN, in which case the first element is returned.
+     *
+     * @param coll the collection to search (non-null, non-empty)
+     * @param key  the function that gets each element's key (non-null)
+     * @param <T>  the type of the element in the collection
+     * @return the element with the largest key
+     * @throws IllegalArgumentException if the collection is empty
+     */
+    public static <T> T maxByDouble(@NotNull Collection<T> coll,
+                                    @NotNull ToDoubleFunction<? super T> key) {
+        Objects.requireNonNull(key);
+        final Iterator<T> iter = nonEmptyIterator(coll);
+        T best = iter.next();
+        double bestKey = key.applyAsDouble(best);
+        while (iter.hasNext()) {
+            final T element = iter.next();
+            final double elementKey = key.applyAsDouble(element);
+            if (elementKey > bestKey || (Double.isNaN(bestKey) && !Double.isNaN(elementKey))) {
+                best = element;
+                bestKey = elementKey;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds the {@code k} elements of the given collection with the largest keys, with a bounded
+     * heap. The key function is called exactly once per element, and the keys are never boxed. If
+     * there is a tie, the element that comes first (in iteration order) comes first.
+     *
+     * @param coll the collection to search (non-null)
+     * @param k    the number of elements to find (non-negative). If this is more than the size of
+     *             the collection, every element is returned.
+     * @param key  the function that gets each element's key (non-null)
+     * @param <T>  the type of the element in the collection
+     * @return a new list of the elements with the largest keys, largest first
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    @NotNull
+    public static <T> List<T> topKByInt(@NotNull Collection<T> coll, int k,
+                                        @NotNull ToIntFunction<? super T> key) {
+        Objects.requireNonNull(key);
+        return bestByKey(coll, k, key::applyAsInt, 1);
+    }
+
+    /**
+     * Finds the {@code k} elements of the given collection with the largest keys, with a bounded
+     * heap. The key function is called exactly once per element, and the keys are never boxed. If
+     * there is a tie, the element that comes first (in iteration order) comes first. NaN keys
+     * count as larger than every other key.
+     *
+     * @param coll the collection to search (non-null)
+     * @param k    the number of elements to find (non-negative). If this is more than the size of
+     *             the collection, every element is returned.
+     * @param key  the function that gets each element's key (non-null)
+     * @param <T>  the type of the element in the collection
+     * @return a new list of the elements with the largest keys, largest first
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    @NotNull
+    public static <T> List<T> topKByDouble(@NotNull Collection<T> coll, int k,
+                                           @NotNull ToDoubleFunction<? super T> key) {
+        Objects.requireNonNull(key);
+        return bestByKey(coll, k, key, 1);
+    }
+
+    /**
+     * Finds the {@code k} elements of the given collection with the smallest keys, with a bounded
+     * heap. The key function is called exactly once per element, and the keys are never boxed. If
+     * there is a tie, the element that comes first (in iteration order) comes first.
+     *
+     * @param coll the collection to search (non-null)
+     * @param k    the number of elements to find (non-negative). If this is more than the size of
+     *             the collection, every element is returned.
+     * @param key  the function that gets each element's key (non-null)
+     * @param <T>  the type of the element in the collection
+     * @return a new list of the elements with the smallest keys, smallest first
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    @NotNull
+    public static <T> List<T> bottomKByInt(@NotNull Collection<T> coll, int k,
+                                           @NotNull ToIntFunction<? super T> key) {
+        Objects.requireNonNull(key);
+        return bestByKey(coll, k, key::applyAsInt, -1);
+    }
+
+    /**
+     * Finds the {@code k} elements of the given collection with the smallest keys, with a bounded
+     * heap. The key function is called exactly once per element, and the keys are never boxed. If
+     * there is a tie, the element that comes first (in iteration order) comes first. NaN keys
+     * count as larger than every other key.
+     *
+     * @param coll the collection to search (non-null)
+     * @param k    the number of elements to find (non-negative). If this is more than the size of
+     *             the collection, every element is returned.
+     * @param key  the function that gets each element's key (non-null)
+     * @param <T>  the type of the element in the collection
+     * @return a new list of the elements with the smallest keys, smallest first
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    @NotNull
+    public static <T> List<T> bottomKByDouble(@NotNull Collection<T> coll, int k,
+                                              @NotNull ToDoubleFunction<? super T> key) {
+        Objects.requireNonNull(key);
+        return bestByKey(coll, k, key, -1);
+    }
+
+    /**
+     * Finds the elements with the best {@code k} keys, best first. If {@code direction} is 1, the
+     * best keys are the largest. If it is -1, they are the smallest. The heap holds slots in the
+     * parallel arrays, with the worst element kept so far at the root.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> bestByKey(Collection<T> coll, int k,
+                                         ToDoubleFunction<? super T> key, int direction) {
+        Objects.requireNonNull(coll);
+        if (k < 0) {
+            throw new IllegalArgumentException(String.format(
+                "Count cannot be negative. Count [%d]", k));
+        }
+        final int capacity = Math.min(k, coll.size());
+        if (capacity == 0) {
+            return new ArrayList<>();
+        }
+        final double[] keys = new double[capacity];
+        final int[] ordinals = new int[capacity];
+        final Object[] elements = new Object[capacity];
+        final int[] heap = new int[capacity];
+        int size = 0;
+        int ordinal = 0;
+        for (T element : coll) {
+            final double elementKey = key.applyAsDouble(element);
+            if (size < capacity) {
+                keys[size] = elementKey;
+                ordinals[size] = ordinal;
+                elements[size] = element;
+                heap[size] = size;
+                siftUp(heap, size++, keys, ordinals, direction);
+            } else if (Double.compare(elementKey, keys[heap[0]]) * direction > 0) {
+                final int slot = heap[0];
+                keys[slot] = elementKey;
+                ordinals[slot] = ordinal;
+                elements[slot] = element;
+                siftDown(heap, size, keys, ordinals, direction);
+            }
+            ordinal++;
         }
 
-        // Potential optimization?
-        // Create a list with x entires for each element, where x is its weight of being chosen
-        final List<T> weightedList = new LinkedList<>();
-        for (T value : coll) {
-            final int weight = weightFunction.apply(value);
-            for (int i = 0; i < weight; i++) {
-                weightedList.add(value);
+        // Move the worst to the back repeatedly, which leaves the best at the front
+        for (int end = size - 1; end > 0; end--) {
+            final int temp = heap[0];
+            heap[0] = heap[end];
+            heap[end] = temp;
+            siftDown(heap, end, keys, ordinals, direction);
+        }
+        final List<T> rv = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            rv.add((T) elements[heap[i]]);
+        }
+        return rv;
+    }
+
+    private static void siftUp(int[] heap, int index, double[] keys, int[] ordinals,
+                               int direction) {
+        final int slot = heap[index];
+        while (index > 0) {
+            final int parent = (index - 1) >>> 1;
+            if (!worse(slot, heap[parent], keys, ordinals, direction)) {
+                break;
             }
+            heap[index] = heap[parent];
+            index = parent;
         }
+        heap[index] = slot;
+    }
 
-        // Select an element from the weighted list
-        return randomFromCollection(random, weightedList);
+    private static void siftDown(int[] heap, int size, double[] keys, int[] ordinals,
+                                 int direction) {
+        final int slot = heap[0];
+        int index = 0;
+        int child;
+        while ((child = 2 * index + 1) < size) {
+            if (child + 1 < size
+                && worse(heap[child + 1], heap[child], keys, ordinals, direction)) {
+                child++;
+            }
+            if (!worse(heap[child], slot, keys, ordinals, direction)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = slot;
+    }
+
+    private static boolean worse(int slot, int other, double[] keys, int[] ordinals,
+                                 int direction) {
+        final int cmp = Double.compare(keys[slot], keys[other]) * direction;
+        return cmp < 0 || (cmp == 0 && ordinals[slot] > ordinals[other]);
+    }
+
+    private static <T> Iterator<T> nonEmptyIterator(Collection<T> coll) {
+        Objects.requireNonNull(coll);
+        if (coll.isEmpty()) {
+            throw new IllegalArgumentException("Collection is empty");
+        }
+        return coll.iterator();
     }
 
     /**
@@ -100,6 +549,18 @@ public class GeneralFuncs {
         return random.nextFloat() < weight;
     }
 
+    /**
+     * Returns a random boolean, with the given chance of being true. Same as {@link
+     * #weightedChance(Random, float)}.
+     *
+     * @param weight the weight towards true, with 0.5 being a 50/50 chance
+     * @param random the {@link RandomSource} instance to use
+     * @return a random boolean with the given weight towards true
+     */
+    public static boolean weightedChance(RandomSource random, float weight) {
+        return random.nextFloat() < weight;
+    }
+
     /**
      * Applies a random amount of slop to the given value.
      *
@@ -112,6 +573,55 @@ public class GeneralFuncs {
         return x + random.nextInt(maxSlop * 2 + 1) - maxSlop;
     }
 
+    /**
+     * Applies a random amount of slop to the given value. Same as {@link #randomSlop(Random, int,
+     * int)}.
+     *
+     * @param random  the {@link RandomSource} to use
+     * @param x       the value to be randomized
+     * @param maxSlop the maximum amount of slop to apply
+     * @return a random, uniformly distributed value in the range {@code [x - maxSlop, x + maxSlop]}
+     */
+    public static int randomSlop(RandomSource random, int x, int maxSlop) {
+        return x + random.nextInt(maxSlop * 2 + 1) - maxSlop;
+    }
+
+    /**
+     * Applies a random amount of slop to every value in the given array, in place. Each value gets
+     * its own independent slop.
+     *
+     * @param random  the {@link Random} to use (non-null)
+     * @param values  the values to be randomized (non-null)
+     * @param maxSlop the maximum amount of slop to apply (non-negative)
+     * @see #randomSlop(Random, int, int)
+     */
+    public static void applySlop(@NotNull Random random, @NotNull int[] values, int maxSlop) {
+        slopSampler(maxSlop).addTo(random, values);
+    }
+
+    /**
+     * Applies a random amount of slop to every value in the given array, in place and in
+     * parallel. The output depends only on the {@link ParallelRandom}'s seed and block size, not
+     * on the number of threads.
+     *
+     * @param random  the {@link ParallelRandom} to use (non-null)
+     * @param values  the values to be randomized (non-null)
+     * @param maxSlop the maximum amount of slop to apply (non-negative)
+     * @see #randomSlop(Random, int, int)
+     */
+    public static void parallelApplySlop(@NotNull ParallelRandom random, @NotNull int[] values,
+                                         int maxSlop) {
+        slopSampler(maxSlop).parallelAddTo(random, values);
+    }
+
+    private static UniformIntSampler slopSampler(int maxSlop) {
+        if (maxSlop < 0) {
+            throw new IllegalArgumentException(String.format(
+                "Slop cannot be negative. Slop [%d]", maxSlop));
+        }
+        return new UniformIntSampler(-maxSlop, maxSlop * 2L + 1);
+    }
+
     /**
      * Run the given function and time how long it takes.
      *
@@ -136,4 +646,47 @@ public class GeneralFuncs {
         final T rv = func.get();
         return new Pair<>(System.currentTimeMillis() - startTime, rv);
     }
+
+    /**
+     * Run the given function, recording how long it takes in the given recorder.
+     *
+     * @param recorder the recorder to record the execution time in (non-null)
+     * @param func     the function to run
+     * @return the time it took to execute, in nanoseconds
+     */
+    public static long timed(@NotNull LatencyRecorder recorder, Runnable func) {
+        final long startTime = recorder.start();
+        func.run();
+        return recorder.stop(startTime);
+    }
+
+    /**
+     * Run the given function, recording how long it takes in the given recorder, and return the
+     * return value of the function.
+     *
+     * @param recorder the recorder to record the execution time in (non-null)
+     * @param func     the function to run
+     * @return the return value of the function
+     */
+    public static <T> T timedValue(@NotNull LatencyRecorder recorder, Supplier<T> func) {
+        final long startTime = recorder.start();
+        final T rv = func.get();
+        recorder.stop(startTime);
+        return rv;
+    }
+
+    /**
+     * Benchmark the given function, with warmup and multiple measurement iterations. This is much
+     * more reliable than {@link #timed(Runnable)} for short-running functions. The return value of
+     * each call is consumed, so that the JIT can't remove the call as dead code.
+     *
+     * @param benchmark the benchmark configuration to run with (non-null)
+     * @param func      the function to run (non-null)
+     * @return the measured time per call
+     */
+    @NotNull
+    public static BenchmarkResult timed(@NotNull Benchmark benchmark, Supplier<?> func) {
+        Objects.requireNonNull(func);
+        return benchmark.run(func);
+    }
 }
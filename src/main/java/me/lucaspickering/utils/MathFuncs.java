@@ -1,184 +1,1192 @@
 package me.lucaspickering.utils;
 
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
 public class MathFuncs {
 
+    /**
+     * Arrays longer than this are split up and scanned in parallel on the common
+     * {@link ForkJoinPool}. Below it, the overhead of splitting outweighs the gain.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
     private MathFuncs() {
         // Don't allow instantiation
     }
 
     /**
-     * Varargs version of {@link Math#min(int, int)}.
+     * Varargs version of {@link Math#min(int, int)}. Large arrays are scanned in parallel.
      *
      * @param values the values to find the minimum of (non-empty)
      * @return minimum of all given values
      * @throws IllegalArgumentException if no values are given
      */
     public static int min(int... values) {
-        if (values.length == 0) {
-            throw new IllegalArgumentException("Given array is empty");
+        checkSlice(values.length, 0, values.length);
+        if (values.length <= PARALLEL_THRESHOLD) {
+            return ArrayKernels.min(values, 0, values.length);
         }
-
-        int min = values[0]; // Start with the first value (we know it's not empty)
-        for (int i = 1; i < values.length; i++) {
-            final int val = values[i];
-            if (val < min) {
-                min = val;
-            }
-        }
-        return min;
+        return parallelReduce(0, values.length, (from, to) -> ArrayKernels.min(values, from, to),
+                              Math::min);
     }
 
     /**
-     * Varargs version of {@link Math#min(long, long)}.
+     * Varargs version of {@link Math#min(long, long)}. Large arrays are scanned in parallel.
      *
      * @param values the values to find the minimum of (non-empty)
      * @return minimum of all given values
      * @throws IllegalArgumentException if no values are given
      */
     public static long min(long... values) {
-        if (values.length == 0) {
-            throw new IllegalArgumentException("Given array is empty");
+        checkSlice(values.length, 0, values.length);
+        if (values.length <= PARALLEL_THRESHOLD) {
+            return ArrayKernels.min(values, 0, values.length);
         }
-
-        long min = values[0]; // Start with the first value (we know it's not empty)
-        for (int i = 1; i < values.length; i++) {
-            final long val = values[i];
-            if (val < min) {
-                min = val;
-            }
-        }
-        return min;
+        return parallelReduce(0, values.length, (from, to) -> ArrayKernels.min(values, from, to),
+                              Math::min);
     }
 
     /**
-     * Varargs version of {@link Math#min(float, float)}.
+     * Varargs version of {@link Math#min(float, float)}. Large arrays are scanned in parallel.
      *
      * @param values the values to find the minimum of (non-empty)
      * @return minimum of all given values
      * @throws IllegalArgumentException if no values are given
      */
     public static float min(float... values) {
-        if (values.length == 0) {
-            throw new IllegalArgumentException("Given array is empty");
+        checkSlice(values.length, 0, values.length);
+        if (Float.isNaN(values[0])) {
+            return values[0]; // The original loop never replaced a leading NaN
         }
-
-        float min = values[0]; // Start with the first value (we know it's not empty)
-        for (int i = 1; i < values.length; i++) {
-            final float val = values[i];
-            if (val < min) {
-                min = val;
-            }
+        if (values.length <= PARALLEL_THRESHOLD) {
+            return ArrayKernels.min(values, 0, values.length);
         }
-        return min;
+        return parallelReduce(0, values.length, (from, to) -> ArrayKernels.min(values, from, to),
+                              MathFuncs::firstMin);
     }
 
     /**
-     * Varargs version of {@link Math#min(double, double)}.
+     * Varargs version of {@link Math#min(double, double)}. Large arrays are scanned in parallel.
      *
      * @param values the values to find the minimum of (non-empty)
      * @return minimum of all given values
      * @throws IllegalArgumentException if no values are given
      */
     public static double min(double... values) {
-        if (values.length == 0) {
-            throw new IllegalArgumentException("Given array is empty");
+        checkSlice(values.length, 0, values.length);
+        if (Double.isNaN(values[0])) {
+            return values[0]; // The original loop never replaced a leading NaN
         }
-
-        double min = values[0]; // Start with the first value (we know it's not empty)
-        for (int i = 1; i < values.length; i++) {
-            final double val = values[i];
-            if (val < min) {
-                min = val;
-            }
+        if (values.length <= PARALLEL_THRESHOLD) {
+            return ArrayKernels.min(values, 0, values.length);
         }
-        return min;
+        return parallelReduce(0, values.length, (from, to) -> ArrayKernels.min(values, from, to),
+                              MathFuncs::firstMin);
     }
 
     /**
-     * Varargs version of {@link Math#max(int, int)}.
+     * Varargs version of {@link Math#max(int, int)}. Large arrays are scanned in parallel.
      *
      * @param values the values to find the maximum of (non-empty)
      * @return maximum of all given values
      * @throws IllegalArgumentException if no values are given
      */
     public static int max(int... values) {
-        if (values.length == 0) {
-            throw new IllegalArgumentException("Given array is empty");
-        }
-
-        int max = values[0]; // Start with the first value (we know it's not empty)
-        for (int i = 1; i < values.length; i++) {
-            final int val = values[i];
-            if (val > max) {
-                max = val;
-            }
+        checkSlice(values.length, 0, values.length);
+        if (values.length <= PARALLEL_THRESHOLD) {
+            return ArrayKernels.max(values, 0, values.length);
         }
-        return max;
+        return parallelReduce(0, values.length, (from, to) -> ArrayKernels.max(values, from, to),
+                              Math::max);
     }
 
     /**
-     * Varargs version of {@link Math#max(long, long)}.
+     * Varargs version of {@link Math#max(long, long)}. Large arrays are scanned in parallel.
      *
      * @param values the values to find the maximum of (non-empty)
      * @return maximum of all given values
      * @throws IllegalArgumentException if no values are given
      */
     public static long max(long... values) {
-        if (values.length == 0) {
-            throw new IllegalArgumentException("Given array is empty");
-        }
-
-        long max = values[0]; // Start with the first value (we know it's not empty)
-        for (int i = 1; i < values.length; i++) {
-            final long val = values[i];
-            if (val > max) {
-                max = val;
-            }
+        checkSlice(values.length, 0, values.length);
+        if (values.length <= PARALLEL_THRESHOLD) {
+            return ArrayKernels.max(values, 0, values.length);
         }
-        return max;
+        return parallelReduce(0, values.length, (from, to) -> ArrayKernels.max(values, from, to),
+                              Math::max);
     }
 
     /**
-     * Varargs version of {@link Math#max(float, float)}.
+     * Varargs version of {@link Math#max(float, float)}. Large arrays are scanned in parallel.
      *
      * @param values the values to find the maximum of (non-empty)
      * @return maximum of all given values
      * @throws IllegalArgumentException if no values are given
      */
     public static float max(float... values) {
-        if (values.length == 0) {
-            throw new IllegalArgumentException("Given array is empty");
+        checkSlice(values.length, 0, values.length);
+        if (Float.isNaN(values[0])) {
+            return values[0]; // The original loop never replaced a leading NaN
         }
-
-        float max = values[0]; // Start with the first value (we know it's not empty)
-        for (int i = 1; i < values.length; i++) {
-            final float val = values[i];
-            if (val > max) {
-                max = val;
-            }
+        if (values.length <= PARALLEL_THRESHOLD) {
+            return ArrayKernels.max(values, 0, values.length);
         }
-        return max;
+        return parallelReduce(0, values.length, (from, to) -> ArrayKernels.max(values, from, to),
+                              MathFuncs::firstMax);
     }
 
     /**
-     * Varargs version of {@link Math#max(double, double)}.
+     * Varargs version of {@link Math#max(double, double)}. Large arrays are scanned in parallel.
      *
      * @param values the values to find the maximum of (non-empty)
      * @return maximum of all given values
      * @throws IllegalArgumentException if no values are given
      */
     public static double max(double... values) {
-        if (values.length == 0) {
+        checkSlice(values.length, 0, values.length);
+        if (Double.isNaN(values[0])) {
+            return values[0]; // The original loop never replaced a leading NaN
+        }
+        if (values.length <= PARALLEL_THRESHOLD) {
+            return ArrayKernels.max(values, 0, values.length);
+        }
+        return parallelReduce(0, values.length, (from, to) -> ArrayKernels.max(values, from, to),
+                              MathFuncs::firstMax);
+    }
+
+    /**
+     * Finds both the minimum and maximum of the given values, in a single pass. Large arrays are
+     * scanned in parallel.
+     *
+     * @param values the values to find the extremes of (non-empty)
+     * @return a pair of the minimum (first) and maximum (second) of all given values
+     * @throws IllegalArgumentException if no values are given
+     */
+    @NotNull
+    public static Pair<Integer, Integer> minMax(int... values) {
+        return minMax(values, 0, values.length);
+    }
+
+    /**
+     * Finds both the minimum and maximum of a slice of the given array, in a single pass. Large
+     * slices are scanned in parallel.
+     *
+     * @param values the array containing the values (non-null)
+     * @param offset the index of the first value in the slice
+     * @param length the number of values in the slice (positive)
+     * @return a pair of the minimum (first) and maximum (second) of the values in the slice
+     * @throws IllegalArgumentException       if the slice is empty
+     * @throws ArrayIndexOutOfBoundsException if the slice extends outside the array
+     * @see #minMax(int...)
+     */
+    @NotNull
+    public static Pair<Integer, Integer> minMax(@NotNull int[] values, int offset, int length) {
+        checkSlice(values.length, offset, length);
+        final long[] extremes = extremes(values, offset, offset + length);
+        return new Pair<>((int) extremes[0], (int) extremes[1]);
+    }
+
+    /**
+     * Finds both the minimum and maximum of the given values, in a single pass. Large arrays are
+     * scanned in parallel.
+     *
+     * @param values the values to find the extremes of (non-empty)
+     * @return a pair of the minimum (first) and maximum (second) of all given values
+     * @throws IllegalArgumentException if no values are given
+     */
+    @NotNull
+    public static Pair<Long, Long> minMax(long... values) {
+        return minMax(values, 0, values.length);
+    }
+
+    /**
+     * Finds both the minimum and maximum of a slice of the given array, in a single pass. Large
+     * slices are scanned in parallel.
+     *
+     * @param values the array containing the values (non-null)
+     * @param offset the index of the first value in the slice
+     * @param length the number of values in the slice (positive)
+     * @return a pair of the minimum (first) and maximum (second) of the values in the slice
+     * @throws IllegalArgumentException       if the slice is empty
+     * @throws ArrayIndexOutOfBoundsException if the slice extends outside the array
+     * @see #minMax(long...)
+     */
+    @NotNull
+    public static Pair<Long, Long> minMax(@NotNull long[] values, int offset, int length) {
+        checkSlice(values.length, offset, length);
+        final long[] extremes = extremes(values, offset, offset + length);
+        return new Pair<>(extremes[0], extremes[1]);
+    }
+
+    /**
+     * Finds both the minimum and maximum of the given values, in a single pass. Large arrays are
+     * scanned in parallel. NaN values are ignored, unless the first value is NaN, in which case
+     * both results are NaN (the same as {@link #min(float...)}). Unlike {@link #min(float...)} and
+     * {@link #max(float...)}, ties between 0.0 and -0.0 don't go to the first value, so either
+     * one may be returned.
+     *
+     * @param values the values to find the extremes of (non-empty)
+     * @return a pair of the minimum (first) and maximum (second) of all given values
+     * @throws IllegalArgumentException if no values are given
+     */
+    @NotNull
+    public static Pair<Float, Float> minMax(float... values) {
+        return minMax(values, 0, values.length);
+    }
+
+    /**
+     * Finds both the minimum and maximum of a slice of the given array, in a single pass. Large
+     * slices are scanned in parallel.
+     *
+     * @param values the array containing the values (non-null)
+     * @param offset the index of the first value in the slice
+     * @param length the number of values in the slice (positive)
+     * @return a pair of the minimum (first) and maximum (second) of the values in the slice
+     * @throws IllegalArgumentException       if the slice is empty
+     * @throws ArrayIndexOutOfBoundsException if the slice extends outside the array
+     * @see #minMax(float...)
+     */
+    @NotNull
+    public static Pair<Float, Float> minMax(@NotNull float[] values, int offset, int length) {
+        checkSlice(values.length, offset, length);
+        final double[] extremes = extremes(values, offset, offset + length);
+        return new Pair<>((float) extremes[0], (float) extremes[1]);
+    }
+
+    /**
+     * Finds both the minimum and maximum of the given values, in a single pass. Large arrays are
+     * scanned in parallel. NaN values are ignored, unless the first value is NaN, in which case
+     * both results are NaN (the same as {@link #min(double...)}). Ties between 0.0 and -0.0 don't
+     * go to the first value as they do in {@link #min(double...)} and {@link #max(double...)}, so
+     * either one may be returned.
+     *
+     * @param values the values to find the extremes of (non-empty)
+     * @return a pair of the minimum (first) and maximum (second) of all given values
+     * @throws IllegalArgumentException if no values are given
+     */
+    @NotNull
+    public static Pair<Double, Double> minMax(double... values) {
+        return minMax(values, 0, values.length);
+    }
+
+    /**
+     * Finds both the minimum and maximum of a slice of the given array, in a single pass. Large
+     * slices are scanned in parallel.
+     *
+     * @param values the array containing the values (non-null)
+     * @param offset the index of the first value in the slice
+     * @param length the number of values in the slice (positive)
+     * @return a pair of the minimum (first) and maximum (second) of the values in the slice
+     * @throws IllegalArgumentException       if the slice is empty
+     * @throws ArrayIndexOutOfBoundsException if the slice extends outside the array
+     * @see #minMax(double...)
+     */
+    @NotNull
+    public static Pair<Double, Double> minMax(@NotNull double[] values, int offset, int length) {
+        checkSlice(values.length, offset, length);
+        final double[] extremes = extremes(values, offset, offset + length);
+        return new Pair<>(extremes[0], extremes[1]);
+    }
+
+    /**
+     * Finds the index of the smallest of the given values. If there is a tie, the first index is
+     * returned. Large arrays are scanned in parallel.
+     *
+     * @param values the values to search (non-empty)
+     * @return the index of the smallest value
+     * @throws IllegalArgumentException if no values are given
+     */
+    public static int argMin(int... values) {
+        return argMin(values, 0, values.length);
+    }
+
+    /**
+     * Finds the index of the smallest value in a slice of the given array. If there is a tie, the
+     * first index is returned. Large slices are scanned in parallel.
+     *
+     * @param values the array containing the values (non-null)
+     * @param offset the index of the first value in the slice
+     * @param length the number of values in the slice (positive)
+     * @return the index of the smallest value, relative to the start of the array (not the slice)
+     * @throws IllegalArgumentException       if the slice is empty
+     * @throws ArrayIndexOutOfBoundsException if the slice extends outside the array
+     * @see #argMin(int...)
+     */
+    public static int argMin(@NotNull int[] values, int offset, int length) {
+        checkSlice(values.length, offset, length);
+        return indexOfMin(values, offset, offset + length);
+    }
+
+    /**
+     * Finds the index of the smallest of the given values. If there is a tie, the first index is
+     * returned. Large arrays are scanned in parallel.
+     *
+     * @param values the values to search (non-empty)
+     * @return the index of the smallest value
+     * @throws IllegalArgumentException if no values are given
+     */
+    public static int argMin(long... values) {
+        return argMin(values, 0, values.length);
+    }
+
+    /**
+     * Finds the index of the smallest value in a slice of the given array. If there is a tie, the
+     * first index is returned. Large slices are scanned in parallel.
+     *
+     * @param values the array containing the values (non-null)
+     * @param offset the index of the first value in the slice
+     * @param length the number of values in the slice (positive)
+     * @return the index of the smallest value, relative to the start of the array (not the slice)
+     * @throws IllegalArgumentException       if the slice is empty
+     * @throws ArrayIndexOutOfBoundsException if the slice extends outside the array
+     * @see #argMin(long...)
+     */
+    public static int argMin(@NotNull long[] values, int offset, int length) {
+        checkSlice(values.length, offset, length);
+        return indexOfMin(values, offset, offset + length);
+    }
+
+    /**
+     * Finds the index of the smallest of the given values. If there is a tie, the first index is
+     * returned. Large arrays are scanned in parallel. NaN values are ignored, unless every value is
+     * NaN, in which case the first index is returned.
+     *
+     * @param values the values to search (non-empty)
+     * @return the index of the smallest value
+     * @throws IllegalArgumentException if no values are given
+     */
+    public static int argMin(float... values) {
+        return argMin(values, 0, values.length);
+    }
+
+    /**
+     * Finds the index of the smallest value in a slice of the given array. If there is a tie, the
+     * first index is returned. Large slices are scanned in parallel.
+     *
+     * @param values the array containing the values (non-null)
+     * @param offset the index of the first value in the slice
+     * @param length the number of values in the slice (positive)
+     * @return the index of the smallest value, relative to the start of the array (not the slice)
+     * @throws IllegalArgumentException       if the slice is empty
+     * @throws ArrayIndexOutOfBoundsException if the slice extends outside the array
+     * @see #argMin(float...)
+     */
+    public static int argMin(@NotNull float[] values, int offset, int length) {
+        checkSlice(values.length, offset, length);
+        return indexOfMin(values, offset, offset + length);
+    }
+
+    /**
+     * Finds the index of the smallest of the given values. If there is a tie, the first index is
+     * returned. Large arrays are scanned in parallel. NaN values are ignored, unless every value is
+     * NaN, in which case the first index is returned.
+     *
+     * @param values the values to search (non-empty)
+     * @return the index of the smallest value
+     * @throws IllegalArgumentException if no values are given
+     */
+    public static int argMin(double... values) {
+        return argMin(values, 0, values.length);
+    }
+
+    /**
+     * Finds the index of the smallest value in a slice of the given array. If there is a tie, the
+     * first index is returned. Large slices are scanned in parallel.
+     *
+     * @param values the array containing the values (non-null)
+     * @param offset the index of the first value in the slice
+     * @param length the number of values in the slice (positive)
+     * @return the index of the smallest value, relative to the start of the array (not the slice)
+     * @throws IllegalArgumentException       if the slice is empty
+     * @throws ArrayIndexOutOfBoundsException if the slice extends outside the array
+     * @see #argMin(double...)
+     */
+    public static int argMin(@NotNull double[] values, int offset, int length) {
+        checkSlice(values.length, offset, length);
+        return indexOfMin(values, offset, offset + length);
+    }
+
+    /**
+     * Finds the index of the largest of the given values. If there is a tie, the first index is
+     * returned. Large arrays are scanned in parallel.
+     *
+     * @param values the values to search (non-empty)
+     * @return the index of the largest value
+     * @throws IllegalArgumentException if no values are given
+     */
+    public static int argMax(int... values) {
+        return argMax(values, 0, values.length);
+    }
+
+    /**
+     * Finds the index of the largest value in a slice of the given array. If there is a tie, the
+     * first index is returned. Large slices are scanned in parallel.
+     *
+     * @param values the array containing the values (non-null)
+     * @param offset the index of the first value in the slice
+     * @param length the number of values in the slice (positive)
+     * @return the index of the largest value, relative to the start of the array (not the slice)
+     * @throws IllegalArgumentException       if the slice is empty
+     * @throws ArrayIndexOutOfBoundsException if the slice extends outside the array
+     * @see #argMax(int...)
+     */
+    public static int argMax(@NotNull int[] values, int offset, int length) {
+        checkSlice(values.length, offset, length);
+        return indexOfMax(values, offset, offset + length);
+    }
+
+    /**
+     * Finds the index of the largest of the given values. If there is a tie, the first index is
+     * returned. Large arrays are scanned in parallel.
+     *
+     * @param values the values to search (non-empty)
+     * @return the index of the largest value
+     * @throws IllegalArgumentException if no values are given
+     */
+    public static int argMax(long... values) {
+        return argMax(values, 0, values.length);
+    }
+
+    /**
+     * Finds the index of the largest value in a slice of the given array. If there is a tie, the
+     * first index is returned. Large slices are scanned in parallel.
+     *
+     * @param values the array containing the values (non-null)
+     * @param offset the index of the first value in the slice
+     * @param length the number of values in the slice (positive)
+     * @return the index of the largest value, relative to the start of the array (not the slice)
+     * @throws IllegalArgumentException       if the slice is empty
+     * @throws ArrayIndexOutOfBoundsException if the slice extends outside the array
+     * @see #argMax(long...)
+     */
+    public static int argMax(@NotNull long[] values, int offset, int length) {
+        checkSlice(values.length, offset, length);
+        return indexOfMax(values, offset, offset + length);
+    }
+
+    /**
+     * Finds the index of the largest of the given values. If there is a tie, the first index is
+     * returned. Large arrays are scanned in parallel. NaN values are ignored, unless every value is
+     * NaN, in which case the first index is returned.
+     *
+     * @param values the values to search (non-empty)
+     * @return the index of the largest value
+     * @throws IllegalArgumentException if no values are given
+     */
+    public static int argMax(float... values) {
+        return argMax(values, 0, values.length);
+    }
+
+    /**
+     * Finds the index of the largest value in a slice of the given array. If there is a tie, the
+     * first index is returned. Large slices are scanned in parallel.
+     *
+     * @param values the array containing the values (non-null)
+     * @param offset the index of the first value in the slice
+     * @param length the number of values in the slice (positive)
+     * @return the index of the largest value, relative to the start of the array (not the slice)
+     * @throws IllegalArgumentException       if the slice is empty
+     * @throws ArrayIndexOutOfBoundsException if the slice extends outside the array
+     * @see #argMax(float...)
+     */
+    public static int argMax(@NotNull float[] values, int offset, int length) {
+        checkSlice(values.length, offset, length);
+        return indexOfMax(values, offset, offset + length);
+    }
+
+    /**
+     * Finds the index of the largest of the given values. If there is a tie, the first index is
+     * returned. Large arrays are scanned in parallel. NaN values are ignored, unless every value is
+     * NaN, in which case the first index is returned.
+     *
+     * @param values the values to search (non-empty)
+     * @return the index of the largest value
+     * @throws IllegalArgumentException if no values are given
+     */
+    public static int argMax(double... values) {
+        return argMax(values, 0, values.length);
+    }
+
+    /**
+     * Finds the index of the largest value in a slice of the given array. If there is a tie, the
+     * first index is returned. Large slices are scanned in parallel.
+     *
+     * @param values the array containing the values (non-null)
+     * @param offset the index of the first value in the slice
+     * @param length the number of values in the slice (positive)
+     * @return the index of the largest value, relative to the start of the array (not the slice)
+     * @throws IllegalArgumentException       if the slice is empty
+     * @throws ArrayIndexOutOfBoundsException if the slice extends outside the array
+     * @see #argMax(double...)
+     */
+    public static int argMax(@NotNull double[] values, int offset, int length) {
+        checkSlice(values.length, offset, length);
+        return indexOfMax(values, offset, offset + length);
+    }
+
+    /**
+     * Finds the k-th smallest of the given values, counting from 0, by partially reordering the
+     * array in place (introselect). This takes linear time on average, unlike sorting, and doesn't
+     * copy the array. Afterwards, {@code values[k]} holds the result, the values before it are no
+     * greater, and the values after it are no smaller. Large arrays are partitioned in parallel.
+     *
+     * This applies to every {@code kthSmallest} and {@code median} overload. For {@code float} and
+     * {@code double} values, NaN counts as larger than every other value, the same as
+     * {@link java.util.Arrays#sort(double[])}.
+     *
+     * @param values the values to search (non-empty). This array is reordered.
+     * @param k      the rank of the value to find, from 0 (the minimum) to
+     *               {@code values.length - 1} (the maximum)
+     * @return the k-th smallest value
+     * @throws IllegalArgumentException if {@code k} is out of range
+     */
+    public static int kthSmallest(@NotNull int[] values, int k) {
+        return kthSmallest(values, 0, values.length, k);
+    }
+
+    /**
+     * Finds the k-th smallest value in a slice of the given array, counting from 0, by partially
+     * reordering the slice in place. Values outside the slice are not touched.
+     *
+     * @param values the array containing the values (non-null)
+     * @param offset the index of the first value in the slice
+     * @param length the number of values in the slice (positive)
+     * @param k      the rank of the value to find within the slice, from 0 to {@code length - 1}
+     * @return the k-th smallest value in the slice, which is now at {@code values[offset + k]}
+     * @throws IllegalArgumentException       if the slice is empty, or {@code k} is out of range
+     * @throws ArrayIndexOutOfBoundsException if the slice extends outside the array
+     * @see #kthSmallest(int[], int)
+     */
+    public static int kthSmallest(@NotNull int[] values, int offset, int length, int k) {
+        checkSlice(values.length, offset, length);
+        checkRank(k, length);
+        return Selection.select(values, offset, offset + length, offset + k);
+    }
+
+    /**
+     * Finds the median of the given values, by partially reordering the array in place. If there
+     * is an even number of values, this is the mean of the two middle ones.
+     *
+     * @param values the values to search (non-empty). This array is reordered.
+     * @return the median
+     * @throws IllegalArgumentException if no values are given
+     * @see #kthSmallest(int[], int)
+     */
+    public static double median(@NotNull int[] values) {
+        return median(values, 0, values.length);
+    }
+
+    /**
+     * Finds the median of a slice of the given array, by partially reordering the slice in place.
+     * If there is an even number of values, this is the mean of the two middle ones.
+     *
+     * @param values the array containing the values (non-null)
+     * @param offset the index of the first value in the slice
+     * @param length the number of values in the slice (positive)
+     * @return the median of the slice
+     * @throws IllegalArgumentException       if the slice is empty
+     * @throws ArrayIndexOutOfBoundsException if the slice extends outside the array
+     * @see #median(int[])
+     */
+    public static double median(@NotNull int[] values, int offset, int length) {
+        checkSlice(values.length, offset, length);
+        return Selection.median(values, offset, offset + length);
+    }
+
+    /**
+     * Finds the indices of the {@code k} largest values in the given array, with a bounded heap.
+     * This takes {@code O(n log k)} time and only allocates the result, and the array is not
+     * modified. If there is a tie, the lower index comes first.
+     *
+     * This applies to every {@code topK} and {@code bottomK} overload. For {@code float} and
+     * {@code double} values, NaN counts as larger than every other value, the same as
+     * {@link java.util.Arrays#sort(double[])}.
+     *
+     * @param values the values to search (non-null)
+     * @param k      the number of indices to find (non-negative). If this is more than the number
+     *               of values, every index is returned.
+     * @return the indices of the largest values, largest first
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    @NotNull
+    public static int[] topK(@NotNull int[] values, int k) {
+        checkCount(k);
+        return Selection.top(values, k, 1);
+    }
+
+    /**
+     * Finds the indices of the {@code k} smallest values in the given array, with a bounded heap.
+     * This takes {@code O(n log k)} time and only allocates the result, and the array is not
+     * modified. If there is a tie, the lower index comes first.
+     *
+     * @param values the values to search (non-null)
+     * @param k      the number of indices to find (non-negative). If this is more than the number
+     *               of values, every index is returned.
+     * @return the indices of the smallest values, smallest first
+     * @throws IllegalArgumentException if {@code k} is negative
+     * @see #topK(int[], int)
+     */
+    @NotNull
+    public static int[] bottomK(@NotNull int[] values, int k) {
+        checkCount(k);
+        return Selection.top(values, k, -1);
+    }
+
+    /**
+     * Finds the k-th smallest of the given values, counting from 0, by partially reordering the
+     * array in place. See {@link #kthSmallest(int[], int)} for details.
+     *
+     * @param values the values to search (non-empty). This array is reordered.
+     * @param k      the rank of the value to find, from 0 (the minimum) to
+     *               {@code values.length - 1} (the maximum)
+     * @return the k-th smallest value
+     * @throws IllegalArgumentException if {@code k} is out of range
+     */
+    public static long kthSmallest(@NotNull long[] values, int k) {
+        return kthSmallest(values, 0, values.length, k);
+    }
+
+    /**
+     * Finds the k-th smallest value in a slice of the given array, counting from 0, by partially
+     * reordering the slice in place. Values outside the slice are not touched.
+     *
+     * @param values the array containing the values (non-null)
+     * @param offset the index of the first value in the slice
+     * @param length the number of values in the slice (positive)
+     * @param k      the rank of the value to find within the slice, from 0 to {@code length - 1}
+     * @return the k-th smallest value in the slice, which is now at {@code values[offset + k]}
+     * @throws IllegalArgumentException       if the slice is empty, or {@code k} is out of range
+     * @throws ArrayIndexOutOfBoundsException if the slice extends outside the array
+     * @see #kthSmallest(long[], int)
+     */
+    public static long kthSmallest(@NotNull long[] values, int offset, int length, int k) {
+        checkSlice(values.length, offset, length);
+        checkRank(k, length);
+        return Selection.select(values, offset, offset + length, offset + k);
+    }
+
+    /**
+     * Finds the median of the given values, by partially reordering the array in place. If there
+     * is an even number of values, this is the mean of the two middle ones.
+     *
+     * @param values the values to search (non-empty). This array is reordered.
+     * @return the median
+     * @throws IllegalArgumentException if no values are given
+     * @see #kthSmallest(long[], int)
+     */
+    public static double median(@NotNull long[] values) {
+        return median(values, 0, values.length);
+    }
+
+    /**
+     * Finds the median of a slice of the given array, by partially reordering the slice in place.
+     * If there is an even number of values, this is the mean of the two middle ones.
+     *
+     * @param values the array containing the values (non-null)
+     * @param offset the index of the first value in the slice
+     * @param length the number of values in the slice (positive)
+     * @return the median of the slice
+     * @throws IllegalArgumentException       if the slice is empty
+     * @throws ArrayIndexOutOfBoundsException if the slice extends outside the array
+     * @see #median(long[])
+     */
+    public static double median(@NotNull long[] values, int offset, int length) {
+        checkSlice(values.length, offset, length);
+        return Selection.median(values, offset, offset + length);
+    }
+
+    /**
+     * Finds the indices of the {@code k} largest values in the given array, with a bounded heap.
+     * This takes {@code O(n log k)} time and only allocates the result, and the array is not
+     * modified. If there is a tie, the lower index comes first.
+     *
+     * @param values the values to search (non-null)
+     * @param k      the number of indices to find (non-negative). If this is more than the number
+     *               of values, every index is returned.
+     * @return the indices of the largest values, largest first
+     * @throws IllegalArgumentException if {@code k} is negative
+     * @see #topK(int[], int)
+     */
+    @NotNull
+    public static int[] topK(@NotNull long[] values, int k) {
+        checkCount(k);
+        return Selection.top(values, k, 1);
+    }
+
+    /**
+     * Finds the indices of the {@code k} smallest values in the given array, with a bounded heap.
+     * This takes {@code O(n log k)} time and only allocates the result, and the array is not
+     * modified. If there is a tie, the lower index comes first.
+     *
+     * @param values the values to search (non-null)
+     * @param k      the number of indices to find (non-negative). If this is more than the number
+     *               of values, every index is returned.
+     * @return the indices of the smallest values, smallest first
+     * @throws IllegalArgumentException if {@code k} is negative
+     * @see #topK(int[], int)
+     */
+    @NotNull
+    public static int[] bottomK(@NotNull long[] values, int k) {
+        checkCount(k);
+        return Selection.top(values, k, -1);
+    }
+
+    /**
+     * Finds the k-th smallest of the given values, counting from 0, by partially reordering the
+     * array in place. See {@link #kthSmallest(int[], int)} for details.
+     *
+     * @param values the values to search (non-empty). This array is reordered.
+     * @param k      the rank of the value to find, from 0 (the minimum) to
+     *               {@code values.length - 1} (the maximum)
+     * @return the k-th smallest value
+     * @throws IllegalArgumentException if {@code k} is out of range
+     */
+    public static float kthSmallest(@NotNull float[] values, int k) {
+        return kthSmallest(values, 0, values.length, k);
+    }
+
+    /**
+     * Finds the k-th smallest value in a slice of the given array, counting from 0, by partially
+     * reordering the slice in place. Values outside the slice are not touched.
+     *
+     * @param values the array containing the values (non-null)
+     * @param offset the index of the first value in the slice
+     * @param length the number of values in the slice (positive)
+     * @param k      the rank of the value to find within the slice, from 0 to {@code length - 1}
+     * @return the k-th smallest value in the slice, which is now at {@code values[offset + k]}
+     * @throws IllegalArgumentException       if the slice is empty, or {@code k} is out of range
+     * @throws ArrayIndexOutOfBoundsException if the slice extends outside the array
+     * @see #kthSmallest(float[], int)
+     */
+    public static float kthSmallest(@NotNull float[] values, int offset, int length, int k) {
+        checkSlice(values.length, offset, length);
+        checkRank(k, length);
+        return Selection.select(values, offset, offset + length, offset + k);
+    }
+
+    /**
+     * Finds the median of the given values, by partially reordering the array in place. If there
+     * is an even number of values, this is the mean of the two middle ones.
+     *
+     * @param values the values to search (non-empty). This array is reordered.
+     * @return the median
+     * @throws IllegalArgumentException if no values are given
+     * @see #kthSmallest(float[], int)
+     */
+    public static double median(@NotNull float[] values) {
+        return median(values, 0, values.length);
+    }
+
+    /**
+     * Finds the median of a slice of the given array, by partially reordering the slice in place.
+     * If there is an even number of values, this is the mean of the two middle ones.
+     *
+     * @param values the array containing the values (non-null)
+     * @param offset the index of the first value in the slice
+     * @param length the number of values in the slice (positive)
+     * @return the median of the slice
+     * @throws IllegalArgumentException       if the slice is empty
+     * @throws ArrayIndexOutOfBoundsException if the slice extends outside the array
+     * @see #median(float[])
+     */
+    public static double median(@NotNull float[] values, int offset, int length) {
+        checkSlice(values.length, offset, length);
+        return Selection.median(values, offset, offset + length);
+    }
+
+    /**
+     * Finds the indices of the {@code k} largest values in the given array, with a bounded heap.
+     * This takes {@code O(n log k)} time and only allocates the result, and the array is not
+     * modified. If there is a tie, the lower index comes first.
+     *
+     * @param values the values to search (non-null)
+     * @param k      the number of indices to find (non-negative). If this is more than the number
+     *               of values, every index is returned.
+     * @return the indices of the largest values, largest first
+     * @throws IllegalArgumentException if {@code k} is negative
+     * @see #topK(int[], int)
+     */
+    @NotNull
+    public static int[] topK(@NotNull float[] values, int k) {
+        checkCount(k);
+        return Selection.top(values, k, 1);
+    }
+
+    /**
+     * Finds the indices of the {@code k} smallest values in the given array, with a bounded heap.
+     * This takes {@code O(n log k)} time and only allocates the result, and the array is not
+     * modified. If there is a tie, the lower index comes first.
+     *
+     * @param values the values to search (non-null)
+     * @param k      the number of indices to find (non-negative). If this is more than the number
+     *               of values, every index is returned.
+     * @return the indices of the smallest values, smallest first
+     * @throws IllegalArgumentException if {@code k} is negative
+     * @see #topK(int[], int)
+     */
+    @NotNull
+    public static int[] bottomK(@NotNull float[] values, int k) {
+        checkCount(k);
+        return Selection.top(values, k, -1);
+    }
+
+    /**
+     * Finds the k-th smallest of the given values, counting from 0, by partially reordering the
+     * array in place. See {@link #kthSmallest(int[], int)} for details.
+     *
+     * @param values the values to search (non-empty). This array is reordered.
+     * @param k      the rank of the value to find, from 0 (the minimum) to
+     *               {@code values.length - 1} (the maximum)
+     * @return the k-th smallest value
+     * @throws IllegalArgumentException if {@code k} is out of range
+     */
+    public static double kthSmallest(@NotNull double[] values, int k) {
+        return kthSmallest(values, 0, values.length, k);
+    }
+
+    /**
+     * Finds the k-th smallest value in a slice of the given array, counting from 0, by partially
+     * reordering the slice in place. Values outside the slice are not touched.
+     *
+     * @param values the array containing the values (non-null)
+     * @param offset the index of the first value in the slice
+     * @param length the number of values in the slice (positive)
+     * @param k      the rank of the value to find within the slice, from 0 to {@code length - 1}
+     * @return the k-th smallest value in the slice, which is now at {@code values[offset + k]}
+     * @throws IllegalArgumentException       if the slice is empty, or {@code k} is out of range
+     * @throws ArrayIndexOutOfBoundsException if the slice extends outside the array
+     * @see #kthSmallest(double[], int)
+     */
+    public static double kthSmallest(@NotNull double[] values, int offset, int length, int k) {
+        checkSlice(values.length, offset, length);
+        checkRank(k, length);
+        return Selection.select(values, offset, offset + length, offset + k);
+    }
+
+    /**
+     * Finds the median of the given values, by partially reordering the array in place. If there
+     * is an even number of values, this is the mean of the two middle ones.
+     *
+     * @param values the values to search (non-empty). This array is reordered.
+     * @return the median
+     * @throws IllegalArgumentException if no values are given
+     * @see #kthSmallest(double[], int)
+     */
+    public static double median(@NotNull double[] values) {
+        return median(values, 0, values.length);
+    }
+
+    /**
+     * Finds the median of a slice of the given array, by partially reordering the slice in place.
+     * If there is an even number of values, this is the mean of the two middle ones.
+     *
+     * @param values the array containing the values (non-null)
+     * @param offset the index of the first value in the slice
+     * @param length the number of values in the slice (positive)
+     * @return the median of the slice
+     * @throws IllegalArgumentException       if the slice is empty
+     * @throws ArrayIndexOutOfBoundsException if the slice extends outside the array
+     * @see #median(double[])
+     */
+    public static double median(@NotNull double[] values, int offset, int length) {
+        checkSlice(values.length, offset, length);
+        return Selection.median(values, offset, offset + length);
+    }
+
+    /**
+     * Finds the indices of the {@code k} largest values in the given array, with a bounded heap.
+     * This takes {@code O(n log k)} time and only allocates the result, and the array is not
+     * modified. If there is a tie, the lower index comes first.
+     *
+     * @param values the values to search (non-null)
+     * @param k      the number of indices to find (non-negative). If this is more than the number
+     *               of values, every index is returned.
+     * @return the indices of the largest values, largest first
+     * @throws IllegalArgumentException if {@code k} is negative
+     * @see #topK(int[], int)
+     */
+    @NotNull
+    public static int[] topK(@NotNull double[] values, int k) {
+        checkCount(k);
+        return Selection.top(values, k, 1);
+    }
+
+    /**
+     * Finds the indices of the {@code k} smallest values in the given array, with a bounded heap.
+     * This takes {@code O(n log k)} time and only allocates the result, and the array is not
+     * modified. If there is a tie, the lower index comes first.
+     *
+     * @param values the values to search (non-null)
+     * @param k      the number of indices to find (non-negative). If this is more than the number
+     *               of values, every index is returned.
+     * @return the indices of the smallest values, smallest first
+     * @throws IllegalArgumentException if {@code k} is negative
+     * @see #topK(int[], int)
+     */
+    @NotNull
+    public static int[] bottomK(@NotNull double[] values, int k) {
+        checkCount(k);
+        return Selection.top(values, k, -1);
+    }
+
+    private static void checkSlice(int arrayLength, int offset, int length) {
+        if (length == 0) {
             throw new IllegalArgumentException("Given array is empty");
         }
+        if (offset < 0 || length < 0 || offset > arrayLength - length) {
+            throw new ArrayIndexOutOfBoundsException(String.format(
+                "Invalid slice. Offset [%d]; Length [%d]; Array length [%d]",
+                offset, length, arrayLength));
+        }
+    }
+
+    private static void checkRank(int k, int length) {
+        if (k < 0 || k >= length) {
+            throw new IllegalArgumentException(String.format(
+                "Rank must be in the range [0, length). Rank [%d]; Length [%d]", k, length));
+        }
+    }
+
+    private static void checkCount(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException(String.format(
+                "Count cannot be negative. Count [%d]", k));
+        }
+    }
+
+    // The min and max kernels give ties to the first value, e.g. min(0.0, -0.0) is 0.0, and skip
+    // NaN. The firstMin and firstMax combiners keep those rules across slices, given the earlier
+    // slice's result as a. A slice that is all NaN gives infinity, which never wins a comparison.
+    private static float firstMin(float a, float b) {
+        return b < a ? b : a;
+    }
+
+    private static float firstMax(float a, float b) {
+        return b > a ? b : a;
+    }
+
+    private static double firstMin(double a, double b) {
+        return b < a ? b : a;
+    }
+
+    private static double firstMax(double a, double b) {
+        return b > a ? b : a;
+    }
+
+    private static long[] extremes(int[] values, int from, int to) {
+        return parallelReduce(from, to, (start, end) -> ArrayKernels.minMax(values, start, end),
+                              MathFuncs::combineLongs);
+    }
+
+    private static long[] extremes(long[] values, int from, int to) {
+        return parallelReduce(from, to, (start, end) -> ArrayKernels.minMax(values, start, end),
+                              MathFuncs::combineLongs);
+    }
+
+    private static double[] extremes(float[] values, int from, int to) {
+        if (Float.isNaN(values[from])) {
+            return new double[]{Double.NaN, Double.NaN};
+        }
+        return parallelReduce(from, to, (start, end) -> ArrayKernels.minMax(values, start, end),
+                              MathFuncs::combineDoubles);
+    }
+
+    private static double[] extremes(double[] values, int from, int to) {
+        if (Double.isNaN(values[from])) {
+            return new double[]{Double.NaN, Double.NaN};
+        }
+        return parallelReduce(from, to, (start, end) -> ArrayKernels.minMax(values, start, end),
+                              MathFuncs::combineDoubles);
+    }
+
+    // The indexOf functions below only replace the current best on a strict improvement, so ties
+    // go to the first index. The combiner always gets the earlier slice's index as a. For floating
+    // point, a NaN best is replaced by the first non-NaN value, and NaN never replaces anything.
+    private static int indexOfMin(int[] values, int from, int to) {
+        return parallelReduce(from, to, (start, end) -> {
+            int index = start;
+            int best = values[start];
+            for (int i = start + 1; i < end; i++) {
+                final int value = values[i];
+                if (value < best) {
+                    index = i;
+                    best = value;
+                }
+            }
+            return index;
+        }, (a, b) -> values[b] < values[a] ? b : a);
+    }
+
+    private static int indexOfMin(long[] values, int from, int to) {
+        return parallelReduce(from, to, (start, end) -> {
+            int index = start;
+            long best = values[start];
+            for (int i = start + 1; i < end; i++) {
+                final long value = values[i];
+                if (value < best) {
+                    index = i;
+                    best = value;
+                }
+            }
+            return index;
+        }, (a, b) -> values[b] < values[a] ? b : a);
+    }
+
+    private static int indexOfMin(float[] values, int from, int to) {
+        return parallelReduce(from, to, (start, end) -> {
+            int index = start;
+            float best = values[start];
+            for (int i = start + 1; i < end; i++) {
+                final float value = values[i];
+                if (value < best || (Float.isNaN(best) && !Float.isNaN(value))) {
+                    index = i;
+                    best = value;
+                }
+            }
+            return index;
+        }, (a, b) -> values[b] < values[a]
+                      || (Float.isNaN(values[a]) && !Float.isNaN(values[b])) ? b : a);
+    }
+
+    private static int indexOfMin(double[] values, int from, int to) {
+        return parallelReduce(from, to, (start, end) -> {
+            int index = start;
+            double best = values[start];
+            for (int i = start + 1; i < end; i++) {
+                final double value = values[i];
+                if (value < best || (Double.isNaN(best) && !Double.isNaN(value))) {
+                    index = i;
+                    best = value;
+                }
+            }
+            return index;
+        }, (a, b) -> values[b] < values[a]
+                      || (Double.isNaN(values[a]) && !Double.isNaN(values[b])) ? b : a);
+    }
+
+    private static int indexOfMax(int[] values, int from, int to) {
+        return parallelReduce(from, to, (start, end) -> {
+            int index = start;
+            int best = values[start];
+            for (int i = start + 1; i < end; i++) {
+                final int value = values[i];
+                if (value > best) {
+                    index = i;
+                    best = value;
+                }
+            }
+            return index;
+        }, (a, b) -> values[b] > values[a] ? b : a);
+    }
+
+    private static int indexOfMax(long[] values, int from, int to) {
+        return parallelReduce(from, to, (start, end) -> {
+            int index = start;
+            long best = values[start];
+            for (int i = start + 1; i < end; i++) {
+                final long value = values[i];
+                if (value > best) {
+                    index = i;
+                    best = value;
+                }
+            }
+            return index;
+        }, (a, b) -> values[b] > values[a] ? b : a);
+    }
+
+    private static int indexOfMax(float[] values, int from, int to) {
+        return parallelReduce(from, to, (start, end) -> {
+            int index = start;
+            float best = values[start];
+            for (int i = start + 1; i < end; i++) {
+                final float value = values[i];
+                if (value > best || (Float.isNaN(best) && !Float.isNaN(value))) {
+                    index = i;
+                    best = value;
+                }
+            }
+            return index;
+        }, (a, b) -> values[b] > values[a]
+                      || (Float.isNaN(values[a]) && !Float.isNaN(values[b])) ? b : a);
+    }
+
+    private static int indexOfMax(double[] values, int from, int to) {
+        return parallelReduce(from, to, (start, end) -> {
+            int index = start;
+            double best = values[start];
+            for (int i = start + 1; i < end; i++) {
+                final double value = values[i];
+                if (value > best || (Double.isNaN(best) && !Double.isNaN(value))) {
+                    index = i;
+                    best = value;
+                }
+            }
+            return index;
+        }, (a, b) -> values[b] > values[a]
+                      || (Double.isNaN(values[a]) && !Double.isNaN(values[b])) ? b : a);
+    }
+
+    private static long[] combineLongs(long[] left, long[] right) {
+        return new long[]{Math.min(left[0], right[0]), Math.max(left[1], right[1])};
+    }
+
+    private static double[] combineDoubles(double[] left, double[] right) {
+        return new double[]{Math.min(left[0], right[0]), Math.max(left[1], right[1])};
+    }
+
+    /**
+     * Reduces the range {@code [from, to)} to a single result. Small ranges are reduced directly
+     * on this thread. Larger ones are split in half recursively on the common
+     * {@link ForkJoinPool}, and the halves' results are combined.
+     */
+    static <R> R parallelReduce(int from, int to, @NotNull SliceReducer<R> reducer,
+                                @NotNull BinaryOperator<R> combiner) {
+        if (to - from <= PARALLEL_THRESHOLD) {
+            return reducer.reduce(from, to);
+        }
+        return ForkJoinPool.commonPool().invoke(new ReduceTask<>(from, to, reducer, combiner));
+    }
+
+    /**
+     * Reduces a slice {@code [from, to)} of some array to a single result.
+     */
+    @FunctionalInterface
+    interface SliceReducer<R> {
+
+        R reduce(int from, int to);
+    }
+
+    private static class ReduceTask<R> extends RecursiveTask<R> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final SliceReducer<R> reducer;
+        private final BinaryOperator<R> combiner;
+
+        private ReduceTask(int from, int to, SliceReducer<R> reducer,
+                           BinaryOperator<R> combiner) {
+            this.from = from;
+            this.to = to;
+            this.reducer = reducer;
+            this.combiner = combiner;
+        }
 
-        double max = values[0]; // Start with the first value (we know it's not empty)
-        for (int i = 1; i < values.length; i++) {
-            final double val = values[i];
-            if (val > max) {
-                max = val;
+        @Override
+        protected R compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return reducer.reduce(from, to);
             }
+            final int mid = (from + to) >>> 1;
+            final ReduceTask<R> left = new ReduceTask<>(from, mid, reducer, combiner);
+            left.fork();
+            final R right = new ReduceTask<>(mid, to, reducer, combiner).compute();
+            return combiner.apply(left.join(), right);
         }
-        return max;
     }
 }
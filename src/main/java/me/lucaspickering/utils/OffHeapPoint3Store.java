@@ -0,0 +1,587 @@
+package me.lucaspickering.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+
+/**
+ * A fixed-capacity {@link Point3Store} that keeps its points outside the Java heap, either in
+ * direct memory ({@link #allocate}) or in a memory-mapped file ({@link #create} and
+ * {@link #open}). This is for point clouds with hundreds of millions of points, which would not
+ * fit on the heap as {@link Point3}s. The OS pages a mapped file in and out as needed, so it can
+ * be even larger than physical memory, and reopening a file maps it again without reading or
+ * copying anything.
+ *
+ * Coordinates are stored as either doubles or floats (see {@link Precision}), which is chosen
+ * when the store is created and recorded in the file. Floats halve the size, at the cost of
+ * rounding every coordinate to float precision when it is written.
+ *
+ * The file layout is fixed and little-endian, so files can be shared between machines and read
+ * by other tools:
+ * <pre>
+ * offset  size  field
+ *      0     4  magic number, the ASCII bytes "P3PT"
+ *      4     1  format version (1)
+ *      5     1  bytes per coordinate (4 for floats, 8 for doubles)
+ *      6     2  reserved (0)
+ *      8     8  capacity, in points
+ *     16     8  size, in points
+ *     24     8  reserved (0)
+ *     32     -  capacity points, each stored as x, y, z
+ * </pre>
+ * The size in the header is updated on every {@link #add}, so a file that is reopened holds
+ * every point that was added to it (once the OS has written it out, or {@link #flush()} has been
+ * called).
+ *
+ * Buffers are limited to 2GB, so the points are split into chunks of 2^26 points, each in its
+ * own buffer. Reads and writes never change a buffer's position, so different threads can
+ * safely read, and modify different points, at the same time, as long as nothing is being added.
+ */
+public class OffHeapPoint3Store implements Point3Store, Closeable {
+
+    /**
+     * The type that coordinates are stored as.
+     */
+    public enum Precision {
+        FLOAT(Float.BYTES), DOUBLE(Double.BYTES);
+
+        private final int bytes;
+
+        Precision(int bytes) {
+            this.bytes = bytes;
+        }
+
+        /**
+         * Gets the number of bytes used for each coordinate.
+         *
+         * @return the number of bytes per coordinate
+         */
+        public int bytes() {
+            return bytes;
+        }
+    }
+
+    // 2^26 points of 3 doubles is 1.5GB, the largest power of 2 that fits in one buffer
+    static final int MAX_CHUNK_SHIFT = 26;
+
+    private static final int MAGIC = 0x54503350; // "P3PT", little-endian
+    private static final byte VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int VERSION_OFFSET = 4;
+    private static final int PRECISION_OFFSET = 5;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int SIZE_OFFSET = 16;
+
+    private final Precision precision;
+    private final boolean isDouble;
+    private final int coordinateBytes;
+    private final int pointBytes;
+    private final int capacity;
+    private final ByteBuffer header;
+    private final ByteBuffer[] chunks;
+    private final int chunkShift;
+    private final int chunkPoints;
+    private final FileChannel channel; // Null if this store isn't backed by a file
+    private int size;
+
+    private OffHeapPoint3Store(Precision precision, int capacity, int size, ByteBuffer header,
+                               ByteBuffer[] chunks, int chunkShift, FileChannel channel) {
+        this.precision = precision;
+        this.isDouble = precision == Precision.DOUBLE;
+        this.coordinateBytes = precision.bytes();
+        this.pointBytes = 3 * coordinateBytes;
+        this.capacity = capacity;
+        this.size = size;
+        this.header = header;
+        this.chunks = chunks;
+        this.chunkShift = chunkShift;
+        this.chunkPoints = 1 << chunkShift;
+        this.channel = channel;
+    }
+
+    /**
+     * Creates a new, empty store in direct memory.
+     *
+     * @param capacity  the maximum number of points (non-negative)
+     * @param precision the type to store coordinates as (non-null)
+     * @return the new store
+     * @throws IllegalArgumentException if {@code capacity} is negative
+     */
+    @NotNull
+    public static OffHeapPoint3Store allocate(int capacity, @NotNull Precision precision) {
+        return allocate(capacity, precision, MAX_CHUNK_SHIFT);
+    }
+
+    /**
+     * Creates a new, empty store in direct memory, split into chunks of {@code 2^chunkShift}
+     * points. This lets tests cross chunk boundaries without allocating gigabytes.
+     *
+     * @see #allocate(int, Precision)
+     */
+    @NotNull
+    static OffHeapPoint3Store allocate(int capacity, @NotNull Precision precision,
+                                       int chunkShift) {
+        checkCapacity(capacity);
+        checkChunkShift(chunkShift);
+        final ByteBuffer header = ByteBuffer.allocateDirect(HEADER_BYTES);
+        final ByteBuffer[] chunks = new ByteBuffer[chunkCount(capacity, chunkShift)];
+        for (int c = 0; c < chunks.length; c++) {
+            chunks[c] = ByteBuffer.allocateDirect(chunkBytes(capacity, c, precision, chunkShift));
+        }
+        writeHeader(header, precision, capacity);
+        return new OffHeapPoint3Store(precision, capacity, 0, header, order(chunks), chunkShift,
+                                      null);
+    }
+
+    /**
+     * Creates a new, empty store in the given file, which is created or overwritten. The whole
+     * file is sized for {@code capacity} points up front, although most file systems won't
+     * allocate disk space until the points are written.
+     *
+     * @param path      the file to create (non-null)
+     * @param capacity  the maximum number of points (non-negative)
+     * @param precision the type to store coordinates as (non-null)
+     * @return the new store, which must be {@link #close() closed}
+     * @throws IllegalArgumentException if {@code capacity} is negative
+     * @throws IOException              if the file can't be created or mapped
+     */
+    @NotNull
+    public static OffHeapPoint3Store create(@NotNull Path path, int capacity,
+                                            @NotNull Precision precision) throws IOException {
+        return create(path, capacity, precision, MAX_CHUNK_SHIFT);
+    }
+
+    /**
+     * Creates a new, empty store in the given file, mapped in chunks of {@code 2^chunkShift}
+     * points. The chunk size doesn't change the file layout.
+     *
+     * @see #create(Path, int, Precision)
+     */
+    @NotNull
+    static OffHeapPoint3Store create(@NotNull Path path, int capacity,
+                                     @NotNull Precision precision, int chunkShift)
+        throws IOException {
+        checkCapacity(capacity);
+        checkChunkShift(chunkShift);
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                                                     StandardOpenOption.TRUNCATE_EXISTING,
+                                                     StandardOpenOption.READ,
+                                                     StandardOpenOption.WRITE);
+        try {
+            final ByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            writeHeader(header.order(ByteOrder.LITTLE_ENDIAN), precision, capacity);
+            final ByteBuffer[] chunks = mapChunks(channel, FileChannel.MapMode.READ_WRITE,
+                                                  capacity, precision, chunkShift);
+            return new OffHeapPoint3Store(precision, capacity, 0, header, chunks, chunkShift,
+                                          channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a store that was created by {@link #create}. The file is mapped, not read, so this is
+     * fast no matter how big the file is.
+     *
+     * @param path     the file to open (non-null)
+     * @param readOnly whether to open the file read-only. Writes to a read-only store throw
+     *                 {@link java.nio.ReadOnlyBufferException}.
+     * @return the store, which must be {@link #close() closed}
+     * @throws IOException if the file can't be opened or mapped, or isn't a valid point file
+     */
+    @NotNull
+    public static OffHeapPoint3Store open(@NotNull Path path, boolean readOnly)
+        throws IOException {
+        return open(path, readOnly, MAX_CHUNK_SHIFT);
+    }
+
+    /**
+     * Opens a store that was created by {@link #create}, mapped in chunks of
+     * {@code 2^chunkShift} points. This doesn't have to match the chunk size it was created with.
+     *
+     * @see #open(Path, boolean)
+     */
+    @NotNull
+    static OffHeapPoint3Store open(@NotNull Path path, boolean readOnly, int chunkShift)
+        throws IOException {
+        checkChunkShift(chunkShift);
+        final FileChannel channel = readOnly
+                                    ? FileChannel.open(path, StandardOpenOption.READ)
+                                    : FileChannel.open(path, StandardOpenOption.READ,
+                                                       StandardOpenOption.WRITE);
+        try {
+            final FileChannel.MapMode mode = readOnly
+                                             ? FileChannel.MapMode.READ_ONLY
+                                             : FileChannel.MapMode.READ_WRITE;
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException(String.format(
+                    "File is too short to be a point file. Length [%d]", channel.size()));
+            }
+            final ByteBuffer header = channel.map(mode, 0, HEADER_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("File is not a point file");
+            }
+            if (header.get(VERSION_OFFSET) != VERSION) {
+                throw new IOException(String.format(
+                    "Unknown point file version. Version [%d]", header.get(VERSION_OFFSET)));
+            }
+            final Precision precision = precisionOf(header.get(PRECISION_OFFSET));
+            final long capacity = header.getLong(CAPACITY_OFFSET);
+            final long size = header.getLong(SIZE_OFFSET);
+            if (capacity < 0 || capacity > Integer.MAX_VALUE || size < 0 || size > capacity) {
+                throw new IOException(String.format(
+                    "Invalid point file header. Capacity [%d]; Size [%d]", capacity, size));
+            }
+            final long expectedLength = HEADER_BYTES + capacity * 3 * precision.bytes();
+            if (channel.size() < expectedLength) {
+                throw new IOException(String.format(
+                    "Point file is truncated. Length [%d]; Expected [%d]",
+                    channel.size(), expectedLength));
+            }
+            final ByteBuffer[] chunks =
+                mapChunks(channel, mode, (int) capacity, precision, chunkShift);
+            return new OffHeapPoint3Store(precision, (int) capacity, (int) size, header, chunks,
+                                          chunkShift, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the type that coordinates are stored as.
+     *
+     * @return the precision of this store
+     */
+    @NotNull
+    public Precision precision() {
+        return precision;
+    }
+
+    /**
+     * Gets the maximum number of points this store can hold.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int add(double x, double y, double z) {
+        if (size == capacity) {
+            throw new IllegalStateException(String.format(
+                "Store is full. Capacity [%d]", capacity));
+        }
+        final int index = size;
+        write(index, x, y, z);
+        size++;
+        header.putLong(SIZE_OFFSET, size);
+        return index;
+    }
+
+    /**
+     * Adds every point in the given store to the end of this one.
+     *
+     * @param other the points to add (non-null)
+     * @throws IllegalStateException if there isn't room for all of the points. None are added.
+     */
+    public void addAll(@NotNull Point3Store other) {
+        final int count = other.size();
+        if (count > capacity - size) {
+            throw new IllegalStateException(String.format(
+                "Not enough room in store. Capacity [%d]; Size [%d]; Count [%d]",
+                capacity, size, count));
+        }
+        for (int i = 0; i < count; i++) {
+            write(size + i, other.x(i), other.y(i), other.z(i));
+        }
+        size += count;
+        header.putLong(SIZE_OFFSET, size);
+    }
+
+    @Override
+    public double x(int index) {
+        checkIndex(index);
+        return read(index, 0);
+    }
+
+    @Override
+    public double y(int index) {
+        checkIndex(index);
+        return read(index, 1);
+    }
+
+    @Override
+    public double z(int index) {
+        checkIndex(index);
+        return read(index, 2);
+    }
+
+    @Override
+    public void set(int index, double x, double y, double z) {
+        checkIndex(index);
+        write(index, x, y, z);
+    }
+
+    @Override
+    public void translate(double dx, double dy, double dz) {
+        final int usedChunks = chunkCount(size, chunkShift);
+        for (int c = 0; c < usedChunks; c++) {
+            final ByteBuffer chunk = chunks[c];
+            final int end = pointsInChunk(c) * pointBytes;
+            for (int offset = 0; offset < end; offset += pointBytes) {
+                put(chunk, offset, get(chunk, offset) + dx);
+                put(chunk, offset + coordinateBytes, get(chunk, offset + coordinateBytes) + dy);
+                put(chunk, offset + 2 * coordinateBytes,
+                    get(chunk, offset + 2 * coordinateBytes) + dz);
+            }
+        }
+    }
+
+    @Override
+    public void scale(double scale) {
+        final int usedChunks = chunkCount(size, chunkShift);
+        for (int c = 0; c < usedChunks; c++) {
+            final ByteBuffer chunk = chunks[c];
+            final int end = pointsInChunk(c) * 3 * coordinateBytes;
+            for (int offset = 0; offset < end; offset += coordinateBytes) {
+                put(chunk, offset, get(chunk, offset) * scale);
+            }
+        }
+    }
+
+    @Override
+    public void distancesTo(@NotNull Point3 p, @NotNull double[] out) {
+        if (out.length < size) {
+            throw new IllegalArgumentException(String.format(
+                "Output array is too small. Size [%d]; Out [%d]", size, out.length));
+        }
+        final double x = p.x();
+        final double y = p.y();
+        final double z = p.z();
+        final int usedChunks = chunkCount(size, chunkShift);
+        for (int c = 0; c < usedChunks; c++) {
+            final ByteBuffer chunk = chunks[c];
+            final int first = c * chunkPoints;
+            final int count = pointsInChunk(c);
+            for (int i = 0, offset = 0; i < count; i++, offset += pointBytes) {
+                final double xDiff = get(chunk, offset) - x;
+                final double yDiff = get(chunk, offset + coordinateBytes) - y;
+                final double zDiff = get(chunk, offset + 2 * coordinateBytes) - z;
+                out[first + i] = Math.sqrt(xDiff * xDiff + yDiff * yDiff + zDiff * zDiff);
+            }
+        }
+    }
+
+    @NotNull
+    @Override
+    public View view(int index) {
+        return new View().moveTo(index);
+    }
+
+    @NotNull
+    @Override
+    public Spliterator<View> spliterator() {
+        return new ViewSpliterator<>(View::new, View::moveTo, 0, size);
+    }
+
+    /**
+     * Writes any changes to a file-backed store out to disk. Does nothing for a store in direct
+     * memory.
+     */
+    public void flush() {
+        if (channel != null) {
+            ((MappedByteBuffer) header).force();
+            for (ByteBuffer chunk : chunks) {
+                ((MappedByteBuffer) chunk).force();
+            }
+        }
+    }
+
+    /**
+     * Flushes and closes the file behind this store, if there is one. The memory stays mapped
+     * until the store is garbage collected (Java has no way to unmap a file explicitly), but the
+     * store should not be used after it is closed.
+     *
+     * @throws IOException if the file can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null && channel.isOpen()) {
+            if (!header.isReadOnly()) {
+                flush();
+            }
+            channel.close();
+        }
+    }
+
+    private double read(int index, int coordinate) {
+        return get(chunks[index >>> chunkShift],
+                   (index & (chunkPoints - 1)) * pointBytes + coordinate * coordinateBytes);
+    }
+
+    private void write(int index, double x, double y, double z) {
+        final ByteBuffer chunk = chunks[index >>> chunkShift];
+        final int offset = (index & (chunkPoints - 1)) * pointBytes;
+        put(chunk, offset, x);
+        put(chunk, offset + coordinateBytes, y);
+        put(chunk, offset + 2 * coordinateBytes, z);
+    }
+
+    private double get(ByteBuffer chunk, int offset) {
+        return isDouble ? chunk.getDouble(offset) : chunk.getFloat(offset);
+    }
+
+    private void put(ByteBuffer chunk, int offset, double value) {
+        if (isDouble) {
+            chunk.putDouble(offset, value);
+        } else {
+            chunk.putFloat(offset, (float) value);
+        }
+    }
+
+    private int pointsInChunk(int chunk) {
+        return Math.min(chunkPoints, size - chunk * chunkPoints);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.format(
+                "Index out of range. Index [%d]; Size [%d]", index, size));
+        }
+    }
+
+    private static void checkCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException(String.format(
+                "Capacity cannot be negative. Capacity [%d]", capacity));
+        }
+    }
+
+    private static void checkChunkShift(int chunkShift) {
+        if (chunkShift < 0 || chunkShift > MAX_CHUNK_SHIFT) {
+            throw new IllegalArgumentException(String.format(
+                "Chunk shift must be in the range [0, %d]. Chunk shift [%d]",
+                MAX_CHUNK_SHIFT, chunkShift));
+        }
+    }
+
+    private static Precision precisionOf(byte bytes) throws IOException {
+        for (Precision precision : Precision.values()) {
+            if (precision.bytes() == bytes) {
+                return precision;
+            }
+        }
+        throw new IOException(String.format(
+            "Invalid bytes per coordinate in point file. Bytes [%d]", bytes));
+    }
+
+    private static void writeHeader(ByteBuffer header, Precision precision, int capacity) {
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0, MAGIC);
+        header.put(VERSION_OFFSET, VERSION);
+        header.put(PRECISION_OFFSET, (byte) precision.bytes());
+        header.putLong(CAPACITY_OFFSET, capacity);
+        header.putLong(SIZE_OFFSET, 0L);
+    }
+
+    private static int chunkCount(int capacity, int chunkShift) {
+        return (int) (((long) capacity + (1 << chunkShift) - 1) >>> chunkShift);
+    }
+
+    private static int chunkBytes(int capacity, int chunk, Precision precision, int chunkShift) {
+        final long first = (long) chunk << chunkShift;
+        final int points = (int) Math.min(1 << chunkShift, capacity - first);
+        return points * 3 * precision.bytes();
+    }
+
+    private static ByteBuffer[] mapChunks(FileChannel channel, FileChannel.MapMode mode,
+                                          int capacity, Precision precision, int chunkShift)
+        throws IOException {
+        final ByteBuffer[] chunks = new ByteBuffer[chunkCount(capacity, chunkShift)];
+        final long chunkStride = (3L * precision.bytes()) << chunkShift;
+        for (int c = 0; c < chunks.length; c++) {
+            chunks[c] = channel.map(mode, HEADER_BYTES + c * chunkStride,
+                                    chunkBytes(capacity, c, precision, chunkShift));
+        }
+        return order(chunks);
+    }
+
+    private static ByteBuffer[] order(ByteBuffer[] chunks) {
+        for (ByteBuffer chunk : chunks) {
+            chunk.order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return chunks;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{precision=%s, size=%d, capacity=%d}",
+                             getClass().getSimpleName(), precision, size, capacity);
+    }
+
+    /**
+     * A {@link Point3View} of one point in an {@link OffHeapPoint3Store}.
+     */
+    public final class View implements Point3View {
+
+        private int index;
+
+        private View() {
+        }
+
+        @NotNull
+        @Override
+        public View moveTo(int index) {
+            checkIndex(index);
+            this.index = index;
+            return this;
+        }
+
+        @Override
+        public int index() {
+            return index;
+        }
+
+        @Override
+        public double x() {
+            return read(index, 0);
+        }
+
+        @Override
+        public double y() {
+            return read(index, 1);
+        }
+
+        @Override
+        public double z() {
+            return read(index, 2);
+        }
+
+        @Override
+        public void set(double x, double y, double z) {
+            write(index, x, y, z);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("(%f, %f, %f)", x(), y(), z());
+        }
+    }
+}
@@ -105,6 +105,27 @@ public class Point2 implements Cloneable {
         return Math.sqrt(xDiff * xDiff + yDiff * yDiff);
     }
 
+    /**
+     * Gets the Euclidean distance between this point and each of the points
+     * {@code (xs[i], ys[i])}, and writes them into {@code out[i]}. This is equivalent to calling
+     * {@link #distanceTo} once per point, without creating any {@code Point2}s.
+     *
+     * @param xs  the x coordinates of the other points (non-null)
+     * @param ys  the y coordinates of the other points (non-null, same length as {@code xs})
+     * @param out the array to write the distances into (non-null, at least as long as
+     *            {@code xs})
+     * @throws IllegalArgumentException if {@code ys} is a different length from {@code xs}, or
+     *                                  {@code out} is shorter
+     */
+    public void distancesTo(double[] xs, double[] ys, double[] out) {
+        if (ys.length != xs.length || out.length < xs.length) {
+            throw new IllegalArgumentException(String.format(
+                "Array lengths don't match. X [%d]; Y [%d]; Out [%d]",
+                xs.length, ys.length, out.length));
+        }
+        ArrayKernels.distances(x, y, xs, ys, out, 0, xs.length);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -0,0 +1,452 @@
+package me.lucaspickering.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A growable list of 2-dimensional points, stored as one {@code double[]} per coordinate rather
+ * than as {@link Point2} objects. This takes 16 bytes per point rather than around 40, keeps the
+ * coordinates contiguous so loops over them can be vectorized, and lets the bulk operations here
+ * ({@link #translate}, {@link #scale}, {@link #plus}, etc.) modify every point in place without
+ * allocating anything.
+ *
+ * Individual points can be read with {@link #x(int)} and {@link #y(int)}, or through a
+ * {@link View}, which is a mutable flyweight that can be moved from point to point. Streams
+ * ({@link #stream()} and {@link #parallelStream()}) pass each point to the pipeline as a
+ * {@link View}, and split by index range, so they don't allocate per point either.
+ *
+ * This class is <b>not</b> thread-safe, although different threads can safely modify different
+ * points (for example from a parallel stream) as long as nothing is being added.
+ */
+public class Point2Buffer {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private double[] xs;
+    private double[] ys;
+    private int size;
+
+    /**
+     * Constructs a new, empty {@code Point2Buffer}.
+     */
+    public Point2Buffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new, empty {@code Point2Buffer} with room for the given number of points before
+     * it needs to grow.
+     *
+     * @param initialCapacity the initial capacity (non-negative)
+     * @throws IllegalArgumentException if {@code initialCapacity} is negative
+     */
+    public Point2Buffer(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException(String.format(
+                "Capacity cannot be negative. Capacity [%d]", initialCapacity));
+        }
+        xs = new double[initialCapacity];
+        ys = new double[initialCapacity];
+    }
+
+    /**
+     * Constructs a new {@code Point2Buffer} containing every point in the given collection, in
+     * iteration order.
+     *
+     * @param coll the points (non-null, with no null elements)
+     */
+    public Point2Buffer(@NotNull Collection<Point2> coll) {
+        this(coll.size());
+        for (Point2 point : coll) {
+            add(point);
+        }
+    }
+
+    /**
+     * Gets the number of points in this buffer.
+     *
+     * @return the number of points
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets whether this buffer has no points.
+     *
+     * @return true if there are no points
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds a point to the end of this buffer.
+     *
+     * @param x the x of the new point
+     * @param y the y of the new point
+     * @return the index of the new point
+     */
+    public int add(double x, double y) {
+        if (size == xs.length) {
+            final int newCapacity = Math.max(DEFAULT_CAPACITY, xs.length * 2);
+            xs = Arrays.copyOf(xs, newCapacity);
+            ys = Arrays.copyOf(ys, newCapacity);
+        }
+        xs[size] = x;
+        ys[size] = y;
+        return size++;
+    }
+
+    /**
+     * Adds a point to the end of this buffer.
+     *
+     * @param p the point to add (non-null)
+     * @return the index of the new point
+     */
+    public int add(@NotNull Point2 p) {
+        return add(p.x(), p.y());
+    }
+
+    /**
+     * Removes every point from this buffer. The capacity is kept.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Gets the x of the point at the given index.
+     *
+     * @param index the index of the point
+     * @return the point's x
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public double x(int index) {
+        checkIndex(index);
+        return xs[index];
+    }
+
+    /**
+     * Gets the y of the point at the given index.
+     *
+     * @param index the index of the point
+     * @return the point's y
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public double y(int index) {
+        checkIndex(index);
+        return ys[index];
+    }
+
+    /**
+     * Gets the point at the given index, as a new {@link Point2}. Use {@link #view(int)} or
+     * {@link #x(int)}/{@link #y(int)} to avoid the allocation.
+     *
+     * @param index the index of the point
+     * @return a copy of the point
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    @NotNull
+    public Point2 get(int index) {
+        checkIndex(index);
+        return new Point2(xs[index], ys[index]);
+    }
+
+    /**
+     * Replaces the point at the given index.
+     *
+     * @param index the index of the point
+     * @param x     the new x
+     * @param y     the new y
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public void set(int index, double x, double y) {
+        checkIndex(index);
+        xs[index] = x;
+        ys[index] = y;
+    }
+
+    /**
+     * Replaces the point at the given index.
+     *
+     * @param index the index of the point
+     * @param p     the new point (non-null)
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public void set(int index, @NotNull Point2 p) {
+        set(index, p.x(), p.y());
+    }
+
+    /**
+     * Adds the given offset to every point, in place.
+     *
+     * @param dx the amount to add to each x
+     * @param dy the amount to add to each y
+     */
+    public void translate(double dx, double dy) {
+        for (int i = 0; i < size; i++) {
+            xs[i] += dx;
+        }
+        for (int i = 0; i < size; i++) {
+            ys[i] += dy;
+        }
+    }
+
+    /**
+     * Adds the given offset to every point, in place.
+     *
+     * @param offset the amount to add to each point (non-null)
+     */
+    public void translate(@NotNull Point2 offset) {
+        translate(offset.x(), offset.y());
+    }
+
+    /**
+     * Multiplies the coordinates of every point by the given factor, in place.
+     *
+     * @param scale the factor to multiply by
+     */
+    public void scale(double scale) {
+        for (int i = 0; i < size; i++) {
+            xs[i] *= scale;
+        }
+        for (int i = 0; i < size; i++) {
+            ys[i] *= scale;
+        }
+    }
+
+    /**
+     * Adds each point in the given buffer to the point at the same index in this one, in place.
+     * This is the bulk equivalent of {@link Point2#plus(Point2)}.
+     *
+     * @param other the points to add (non-null, the same size as this buffer)
+     * @throws IllegalArgumentException if {@code other} is a different size
+     */
+    public void plus(@NotNull Point2Buffer other) {
+        checkSameSize(other);
+        for (int i = 0; i < size; i++) {
+            xs[i] += other.xs[i];
+        }
+        for (int i = 0; i < size; i++) {
+            ys[i] += other.ys[i];
+        }
+    }
+
+    /**
+     * Subtracts each point in the given buffer from the point at the same index in this one, in
+     * place. This is the bulk equivalent of {@link Point2#minus(Point2)}.
+     *
+     * @param other the points to subtract (non-null, the same size as this buffer)
+     * @throws IllegalArgumentException if {@code other} is a different size
+     */
+    public void minus(@NotNull Point2Buffer other) {
+        checkSameSize(other);
+        for (int i = 0; i < size; i++) {
+            xs[i] -= other.xs[i];
+        }
+        for (int i = 0; i < size; i++) {
+            ys[i] -= other.ys[i];
+        }
+    }
+
+    /**
+     * Adds {@code scale} times each point in the given buffer to the point at the same index in
+     * this one, in place. With velocities in {@code other}, this moves every point forward by one
+     * time step of length {@code scale}.
+     *
+     * @param other the points to add (non-null, the same size as this buffer)
+     * @param scale the factor to multiply the points in {@code other} by
+     * @throws IllegalArgumentException if {@code other} is a different size
+     */
+    public void plusScaled(@NotNull Point2Buffer other, double scale) {
+        checkSameSize(other);
+        for (int i = 0; i < size; i++) {
+            xs[i] += other.xs[i] * scale;
+        }
+        for (int i = 0; i < size; i++) {
+            ys[i] += other.ys[i] * scale;
+        }
+    }
+
+    /**
+     * Gets the Euclidean distance between the given point and each point in this buffer, and
+     * writes them into {@code out}, so that {@code out[i]} is the distance to point {@code i}.
+     *
+     * @param p   the point to measure from (non-null)
+     * @param out the array to write the distances into (non-null, at least {@link #size()} long)
+     * @throws IllegalArgumentException if {@code out} is too small
+     */
+    public void distancesTo(@NotNull Point2 p, @NotNull double[] out) {
+        if (out.length < size) {
+            throw new IllegalArgumentException(String.format(
+                "Output array is too small. Size [%d]; Out [%d]", size, out.length));
+        }
+        ArrayKernels.distances(p.x(), p.y(), xs, ys, out, 0, size);
+    }
+
+    /**
+     * Creates a new {@link View} of the point at the given index.
+     *
+     * @param index the index of the point
+     * @return a view of the point
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    @NotNull
+    public View view(int index) {
+        return new View().moveTo(index);
+    }
+
+    /**
+     * Creates a {@link Spliterator} over the points in this buffer, which passes each point as a
+     * {@link View}. Each split reuses a single view, so the view is only valid until the action
+     * it was passed to returns; use {@link View#toPoint2()} to keep a point. The spliterator
+     * covers the points in the buffer when it is created, and must not be used after the buffer
+     * shrinks.
+     *
+     * @return a spliterator over this buffer's points
+     */
+    @NotNull
+    public Spliterator<View> spliterator() {
+        return new ViewSpliterator<>(View::new, View::moveTo, 0, size);
+    }
+
+    /**
+     * Creates a sequential stream over the points in this buffer.
+     *
+     * @return a stream of views of this buffer's points
+     * @see #spliterator()
+     */
+    @NotNull
+    public Stream<View> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Creates a parallel stream over the points in this buffer.
+     *
+     * @return a parallel stream of views of this buffer's points
+     * @see #spliterator()
+     */
+    @NotNull
+    public Stream<View> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.format(
+                "Index out of range. Index [%d]; Size [%d]", index, size));
+        }
+    }
+
+    private void checkSameSize(Point2Buffer other) {
+        if (other.size != size) {
+            throw new IllegalArgumentException(String.format(
+                "Buffer sizes don't match. Size [%d]; Other [%d]", size, other.size));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{size=%d}", getClass().getSimpleName(), size);
+    }
+
+    /**
+     * A mutable view of one point in a {@link Point2Buffer}. A view can be moved to a different
+     * point with {@link #moveTo(int)}, so one view can be used to visit every point without
+     * allocating. Reads and writes go straight to the buffer.
+     */
+    public final class View {
+
+        private int index;
+
+        private View() {
+        }
+
+        /**
+         * Moves this view to the point at the given index.
+         *
+         * @param index the index of the point
+         * @return this view
+         * @throws IndexOutOfBoundsException if the index is out of range
+         */
+        @NotNull
+        public View moveTo(int index) {
+            checkIndex(index);
+            this.index = index;
+            return this;
+        }
+
+        /**
+         * Gets the index of the point this view is on.
+         *
+         * @return the index
+         */
+        public int index() {
+            return index;
+        }
+
+        public double x() {
+            return xs[index];
+        }
+
+        public double y() {
+            return ys[index];
+        }
+
+        /**
+         * Replaces the point this view is on.
+         *
+         * @param x the new x
+         * @param y the new y
+         */
+        public void set(double x, double y) {
+            xs[index] = x;
+            ys[index] = y;
+        }
+
+        /**
+         * Adds the given offset to the point this view is on.
+         *
+         * @param dx the amount to add to the x
+         * @param dy the amount to add to the y
+         */
+        public void translate(double dx, double dy) {
+            xs[index] += dx;
+            ys[index] += dy;
+        }
+
+        /**
+         * Gets the Euclidean distance between the point this view is on and the given point.
+         *
+         * @param p the other point (non-null)
+         * @return the Euclidean distance between the two points
+         */
+        public double distanceTo(@NotNull Point2 p) {
+            final double xDiff = xs[index] - p.x();
+            final double yDiff = ys[index] - p.y();
+            return Math.sqrt(xDiff * xDiff + yDiff * yDiff);
+        }
+
+        /**
+         * Copies the point this view is on into a new {@link Point2}.
+         *
+         * @return a copy of the point
+         */
+        @NotNull
+        public Point2 toPoint2() {
+            return new Point2(xs[index], ys[index]);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("(%f, %f)", xs[index], ys[index]);
+        }
+    }
+}
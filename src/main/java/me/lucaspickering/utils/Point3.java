@@ -123,6 +123,28 @@ public class Point3 implements Cloneable {
         return Math.sqrt(xDiff * xDiff + yDiff * yDiff + zDiff * zDiff);
     }
 
+    /**
+     * Gets the Euclidean distance between this point and each of the points
+     * {@code (xs[i], ys[i], zs[i])}, and writes them into {@code out[i]}. This is equivalent to
+     * calling {@link #distanceTo} once per point, without creating any {@code Point3}s.
+     *
+     * @param xs  the x coordinates of the other points (non-null)
+     * @param ys  the y coordinates of the other points (non-null, same length as {@code xs})
+     * @param zs  the z coordinates of the other points (non-null, same length as {@code xs})
+     * @param out the array to write the distances into (non-null, at least as long as
+     *            {@code xs})
+     * @throws IllegalArgumentException if {@code ys} or {@code zs} is a different length from
+     *                                  {@code xs}, or {@code out} is shorter
+     */
+    public void distancesTo(double[] xs, double[] ys, double[] zs, double[] out) {
+        if (ys.length != xs.length || zs.length != xs.length || out.length < xs.length) {
+            throw new IllegalArgumentException(String.format(
+                "Array lengths don't match. X [%d]; Y [%d]; Z [%d]; Out [%d]",
+                xs.length, ys.length, zs.length, out.length));
+        }
+        ArrayKernels.distances(x, y, z, xs, ys, zs, out, 0, xs.length);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -0,0 +1,345 @@
+package me.lucaspickering.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A growable list of 3-dimensional points, stored as one {@code double[]} per coordinate rather
+ * than as {@link Point3} objects. This takes 24 bytes per point rather than around 48, keeps the
+ * coordinates contiguous so loops over them can be vectorized, and lets the bulk operations here
+ * ({@link #translate}, {@link #scale}, {@link #plus}, etc.) modify every point in place without
+ * allocating anything.
+ *
+ * Individual points can be read with {@link #x(int)}, {@link #y(int)} and {@link #z(int)}, or
+ * through a {@link View}, which is a mutable flyweight that can be moved from point to point.
+ * Streams ({@link #stream()} and {@link #parallelStream()}) pass each point to the pipeline as a
+ * {@link View}, and split by index range, so they don't allocate per point either.
+ *
+ * This is the on-heap {@link Point3Store}. For point clouds that are too big for the heap, see
+ * {@link OffHeapPoint3Store}.
+ *
+ * This class is <b>not</b> thread-safe, although different threads can safely modify different
+ * points (for example from a parallel stream) as long as nothing is being added.
+ */
+public class Point3Buffer implements Point3Store {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private double[] xs;
+    private double[] ys;
+    private double[] zs;
+    private int size;
+
+    /**
+     * Constructs a new, empty {@code Point3Buffer}.
+     */
+    public Point3Buffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new, empty {@code Point3Buffer} with room for the given number of points before
+     * it needs to grow.
+     *
+     * @param initialCapacity the initial capacity (non-negative)
+     * @throws IllegalArgumentException if {@code initialCapacity} is negative
+     */
+    public Point3Buffer(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException(String.format(
+                "Capacity cannot be negative. Capacity [%d]", initialCapacity));
+        }
+        xs = new double[initialCapacity];
+        ys = new double[initialCapacity];
+        zs = new double[initialCapacity];
+    }
+
+    /**
+     * Constructs a new {@code Point3Buffer} containing every point in the given collection, in
+     * iteration order.
+     *
+     * @param coll the points (non-null, with no null elements)
+     */
+    public Point3Buffer(@NotNull Collection<Point3> coll) {
+        this(coll.size());
+        for (Point3 point : coll) {
+            add(point);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int add(double x, double y, double z) {
+        if (size == xs.length) {
+            final int newCapacity = Math.max(DEFAULT_CAPACITY, xs.length * 2);
+            xs = Arrays.copyOf(xs, newCapacity);
+            ys = Arrays.copyOf(ys, newCapacity);
+            zs = Arrays.copyOf(zs, newCapacity);
+        }
+        xs[size] = x;
+        ys[size] = y;
+        zs[size] = z;
+        return size++;
+    }
+
+    /**
+     * Removes every point from this buffer. The capacity is kept.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    @Override
+    public double x(int index) {
+        checkIndex(index);
+        return xs[index];
+    }
+
+    @Override
+    public double y(int index) {
+        checkIndex(index);
+        return ys[index];
+    }
+
+    @Override
+    public double z(int index) {
+        checkIndex(index);
+        return zs[index];
+    }
+
+    @NotNull
+    @Override
+    public Point3 get(int index) {
+        checkIndex(index);
+        return new Point3(xs[index], ys[index], zs[index]);
+    }
+
+    @Override
+    public void set(int index, double x, double y, double z) {
+        checkIndex(index);
+        xs[index] = x;
+        ys[index] = y;
+        zs[index] = z;
+    }
+
+    @Override
+    public void translate(double dx, double dy, double dz) {
+        for (int i = 0; i < size; i++) {
+            xs[i] += dx;
+        }
+        for (int i = 0; i < size; i++) {
+            ys[i] += dy;
+        }
+        for (int i = 0; i < size; i++) {
+            zs[i] += dz;
+        }
+    }
+
+    @Override
+    public void scale(double scale) {
+        for (int i = 0; i < size; i++) {
+            xs[i] *= scale;
+        }
+        for (int i = 0; i < size; i++) {
+            ys[i] *= scale;
+        }
+        for (int i = 0; i < size; i++) {
+            zs[i] *= scale;
+        }
+    }
+
+    /**
+     * Adds each point in the given buffer to the point at the same index in this one, in place.
+     * This is the bulk equivalent of {@link Point3#plus(Point3)}.
+     *
+     * @param other the points to add (non-null, the same size as this buffer)
+     * @throws IllegalArgumentException if {@code other} is a different size
+     */
+    public void plus(@NotNull Point3Buffer other) {
+        checkSameSize(other);
+        for (int i = 0; i < size; i++) {
+            xs[i] += other.xs[i];
+        }
+        for (int i = 0; i < size; i++) {
+            ys[i] += other.ys[i];
+        }
+        for (int i = 0; i < size; i++) {
+            zs[i] += other.zs[i];
+        }
+    }
+
+    /**
+     * Subtracts each point in the given buffer from the point at the same index in this one, in
+     * place. This is the bulk equivalent of {@link Point3#minus(Point3)}.
+     *
+     * @param other the points to subtract (non-null, the same size as this buffer)
+     * @throws IllegalArgumentException if {@code other} is a different size
+     */
+    public void minus(@NotNull Point3Buffer other) {
+        checkSameSize(other);
+        for (int i = 0; i < size; i++) {
+            xs[i] -= other.xs[i];
+        }
+        for (int i = 0; i < size; i++) {
+            ys[i] -= other.ys[i];
+        }
+        for (int i = 0; i < size; i++) {
+            zs[i] -= other.zs[i];
+        }
+    }
+
+    /**
+     * Adds {@code scale} times each point in the given buffer to the point at the same index in
+     * this one, in place. With velocities in {@code other}, this moves every point forward by one
+     * time step of length {@code scale}.
+     *
+     * @param other the points to add (non-null, the same size as this buffer)
+     * @param scale the factor to multiply the points in {@code other} by
+     * @throws IllegalArgumentException if {@code other} is a different size
+     */
+    public void plusScaled(@NotNull Point3Buffer other, double scale) {
+        checkSameSize(other);
+        for (int i = 0; i < size; i++) {
+            xs[i] += other.xs[i] * scale;
+        }
+        for (int i = 0; i < size; i++) {
+            ys[i] += other.ys[i] * scale;
+        }
+        for (int i = 0; i < size; i++) {
+            zs[i] += other.zs[i] * scale;
+        }
+    }
+
+    @Override
+    public void distancesTo(@NotNull Point3 p, @NotNull double[] out) {
+        if (out.length < size) {
+            throw new IllegalArgumentException(String.format(
+                "Output array is too small. Size [%d]; Out [%d]", size, out.length));
+        }
+        ArrayKernels.distances(p.x(), p.y(), p.z(), xs, ys, zs, out, 0, size);
+    }
+
+    @NotNull
+    @Override
+    public View view(int index) {
+        return new View().moveTo(index);
+    }
+
+    @NotNull
+    @Override
+    public Spliterator<View> spliterator() {
+        return new ViewSpliterator<>(View::new, View::moveTo, 0, size);
+    }
+
+    @NotNull
+    @Override
+    public Stream<View> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    @NotNull
+    @Override
+    public Stream<View> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.format(
+                "Index out of range. Index [%d]; Size [%d]", index, size));
+        }
+    }
+
+    private void checkSameSize(Point3Buffer other) {
+        if (other.size != size) {
+            throw new IllegalArgumentException(String.format(
+                "Buffer sizes don't match. Size [%d]; Other [%d]", size, other.size));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{size=%d}", getClass().getSimpleName(), size);
+    }
+
+    /**
+     * A {@link Point3View} of one point in a {@link Point3Buffer}.
+     */
+    public final class View implements Point3View {
+
+        private int index;
+
+        private View() {
+        }
+
+        @NotNull
+        @Override
+        public View moveTo(int index) {
+            checkIndex(index);
+            this.index = index;
+            return this;
+        }
+
+        @Override
+        public int index() {
+            return index;
+        }
+
+        @Override
+        public double x() {
+            return xs[index];
+        }
+
+        @Override
+        public double y() {
+            return ys[index];
+        }
+
+        @Override
+        public double z() {
+            return zs[index];
+        }
+
+        @Override
+        public void set(double x, double y, double z) {
+            xs[index] = x;
+            ys[index] = y;
+            zs[index] = z;
+        }
+
+        @Override
+        public void translate(double dx, double dy, double dz) {
+            xs[index] += dx;
+            ys[index] += dy;
+            zs[index] += dz;
+        }
+
+        @Override
+        public double distanceTo(@NotNull Point3 p) {
+            final double xDiff = xs[index] - p.x();
+            final double yDiff = ys[index] - p.y();
+            final double zDiff = zs[index] - p.z();
+            return Math.sqrt(xDiff * xDiff + yDiff * yDiff + zDiff * zDiff);
+        }
+
+        @NotNull
+        @Override
+        public Point3 toPoint3() {
+            return new Point3(xs[index], ys[index], zs[index]);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("(%f, %f, %f)", xs[index], ys[index], zs[index]);
+        }
+    }
+}
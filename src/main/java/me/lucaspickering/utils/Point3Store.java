@@ -0,0 +1,194 @@
+package me.lucaspickering.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An indexed collection of 3-dimensional points that is stored as raw coordinates rather than as
+ * {@link Point3} objects, such as a {@link Point3Buffer} on the heap or an
+ * {@link OffHeapPoint3Store} outside it. Points are read and written by index, or through
+ * {@link Point3View}s, and the bulk operations here modify every point in place.
+ */
+public interface Point3Store {
+
+    /**
+     * Gets the number of points in this store.
+     *
+     * @return the number of points
+     */
+    int size();
+
+    /**
+     * Gets whether this store has no points.
+     *
+     * @return true if there are no points
+     */
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Adds a point to the end of this store.
+     *
+     * @param x the x of the new point
+     * @param y the y of the new point
+     * @param z the z of the new point
+     * @return the index of the new point
+     * @throws IllegalStateException if this store has a fixed capacity, and is full
+     */
+    int add(double x, double y, double z);
+
+    /**
+     * Adds a point to the end of this store.
+     *
+     * @param p the point to add (non-null)
+     * @return the index of the new point
+     * @throws IllegalStateException if this store has a fixed capacity, and is full
+     */
+    default int add(@NotNull Point3 p) {
+        return add(p.x(), p.y(), p.z());
+    }
+
+    /**
+     * Gets the x of the point at the given index.
+     *
+     * @param index the index of the point
+     * @return the point's x
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    double x(int index);
+
+    /**
+     * Gets the y of the point at the given index.
+     *
+     * @param index the index of the point
+     * @return the point's y
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    double y(int index);
+
+    /**
+     * Gets the z of the point at the given index.
+     *
+     * @param index the index of the point
+     * @return the point's z
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    double z(int index);
+
+    /**
+     * Gets the point at the given index, as a new {@link Point3}. Use {@link #view(int)} or the
+     * coordinate getters to avoid the allocation.
+     *
+     * @param index the index of the point
+     * @return a copy of the point
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    @NotNull
+    default Point3 get(int index) {
+        return new Point3(x(index), y(index), z(index));
+    }
+
+    /**
+     * Replaces the point at the given index.
+     *
+     * @param index the index of the point
+     * @param x     the new x
+     * @param y     the new y
+     * @param z     the new z
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    void set(int index, double x, double y, double z);
+
+    /**
+     * Replaces the point at the given index.
+     *
+     * @param index the index of the point
+     * @param p     the new point (non-null)
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    default void set(int index, @NotNull Point3 p) {
+        set(index, p.x(), p.y(), p.z());
+    }
+
+    /**
+     * Adds the given offset to every point, in place.
+     *
+     * @param dx the amount to add to each x
+     * @param dy the amount to add to each y
+     * @param dz the amount to add to each z
+     */
+    void translate(double dx, double dy, double dz);
+
+    /**
+     * Adds the given offset to every point, in place.
+     *
+     * @param offset the amount to add to each point (non-null)
+     */
+    default void translate(@NotNull Point3 offset) {
+        translate(offset.x(), offset.y(), offset.z());
+    }
+
+    /**
+     * Multiplies the coordinates of every point by the given factor, in place.
+     *
+     * @param scale the factor to multiply by
+     */
+    void scale(double scale);
+
+    /**
+     * Gets the Euclidean distance between the given point and each point in this store, and
+     * writes them into {@code out}, so that {@code out[i]} is the distance to point {@code i}.
+     *
+     * @param p   the point to measure from (non-null)
+     * @param out the array to write the distances into (non-null, at least {@link #size()} long)
+     * @throws IllegalArgumentException if {@code out} is too small
+     */
+    void distancesTo(@NotNull Point3 p, @NotNull double[] out);
+
+    /**
+     * Creates a new {@link Point3View} of the point at the given index.
+     *
+     * @param index the index of the point
+     * @return a view of the point
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    @NotNull
+    Point3View view(int index);
+
+    /**
+     * Creates a {@link Spliterator} over the points in this store, which passes each point as a
+     * {@link Point3View}. Splits are made by index range, and each split reuses a single view,
+     * so the view is only valid until the action it was passed to returns. The spliterator
+     * covers the points in the store when it is created.
+     *
+     * @return a spliterator over this store's points
+     */
+    @NotNull
+    Spliterator<? extends Point3View> spliterator();
+
+    /**
+     * Creates a sequential stream over the points in this store.
+     *
+     * @return a stream of views of this store's points
+     * @see #spliterator()
+     */
+    @NotNull
+    default Stream<? extends Point3View> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Creates a parallel stream over the points in this store.
+     *
+     * @return a parallel stream of views of this store's points
+     * @see #spliterator()
+     */
+    @NotNull
+    default Stream<? extends Point3View> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+}
@@ -0,0 +1,77 @@
+package me.lucaspickering.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A mutable view of one point in a {@link Point3Store}. A view reads and writes the store
+ * directly, and can be moved from point to point, so one view can be used to visit every point
+ * without allocating.
+ */
+public interface Point3View {
+
+    /**
+     * Moves this view to the point at the given index.
+     *
+     * @param index the index of the point
+     * @return this view
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    @NotNull
+    Point3View moveTo(int index);
+
+    /**
+     * Gets the index of the point this view is on.
+     *
+     * @return the index
+     */
+    int index();
+
+    double x();
+
+    double y();
+
+    double z();
+
+    /**
+     * Replaces the point this view is on.
+     *
+     * @param x the new x
+     * @param y the new y
+     * @param z the new z
+     */
+    void set(double x, double y, double z);
+
+    /**
+     * Adds the given offset to the point this view is on.
+     *
+     * @param dx the amount to add to the x
+     * @param dy the amount to add to the y
+     * @param dz the amount to add to the z
+     */
+    default void translate(double dx, double dy, double dz) {
+        set(x() + dx, y() + dy, z() + dz);
+    }
+
+    /**
+     * Gets the Euclidean distance between the point this view is on and the given point.
+     *
+     * @param p the other point (non-null)
+     * @return the Euclidean distance between the two points
+     */
+    default double distanceTo(@NotNull Point3 p) {
+        final double xDiff = x() - p.x();
+        final double yDiff = y() - p.y();
+        final double zDiff = z() - p.z();
+        return Math.sqrt(xDiff * xDiff + yDiff * yDiff + zDiff * zDiff);
+    }
+
+    /**
+     * Copies the point this view is on into a new {@link Point3}.
+     *
+     * @return a copy of the point
+     */
+    @NotNull
+    default Point3 toPoint3() {
+        return new Point3(x(), y(), z());
+    }
+}
@@ -0,0 +1,606 @@
+package me.lucaspickering.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.DoubleConsumer;
+
+import me.lucaspickering.utils.random.SplitMix64;
+import me.lucaspickering.utils.range.DoubleRange;
+
+/**
+ * Estimates quantiles (e.g. the median or 99th percentile) of a stream of doubles that is too big
+ * to keep in memory, using a KLL sketch (Karnin, Lang and Liberty, 2016). The sketch keeps a
+ * bounded number of values, in levels. A value at level {@code h} stands in for {@code 2^h}
+ * values from the stream. When the sketch fills up, the lowest full level is sorted and every
+ * other value (starting at a random offset) is promoted to the next level, which halves it
+ * without biasing any rank. Higher levels get larger capacities, shrinking geometrically towards
+ * level 0, which is what keeps the total size at about {@code 3k} values regardless of the
+ * stream length.
+ *
+ * The accuracy is set by {@code k}. With the default of {@value #DEFAULT_K}, an estimated
+ * quantile's true rank is typically within about 0.2% of the requested one, and within about
+ * 0.7% with 99% confidence. The error scales with {@code 1/k}, and memory with {@code k}. The
+ * exact minimum and maximum are always kept.
+ *
+ * Sketches can be merged, so a stream can be split across threads or machines, sketched in
+ * pieces, and combined. Sketches can also be written to a {@link ByteBuffer}, so that shards can
+ * send sketches rather than raw data.
+ *
+ * NaN values are ignored. This class is <b>not</b> thread-safe. Give each thread its own sketch,
+ * and merge them.
+ */
+public class QuantileSketch implements DoubleConsumer {
+
+    /**
+     * The default value of {@code k}, which gives a rank error of well under 1%.
+     */
+    public static final int DEFAULT_K = 200;
+    public static final int MIN_K = 8;
+    public static final int MAX_K = 1 << 16;
+
+    private static final int MIN_LEVEL_CAPACITY = 8;
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+    private static final byte SERIAL_VERSION = 1;
+    private static final int HEADER_BYTES = 2 * Byte.BYTES + Integer.BYTES + Long.BYTES
+                                            + 2 * Double.BYTES;
+
+    private final int k;
+    private final SplitMix64 random;
+
+    private double[][] levels;
+    private int[] sizes;
+    private int[] capacities;
+    private int totalCapacity;
+    private int numLevels;
+    private int retained;
+    private long count;
+    private double min;
+    private double max;
+
+    // Every retained value in order, and the total weight up to and including each one. Rebuilt
+    // lazily by the first query after a change.
+    private double[] sortedValues;
+    private long[] cumulativeWeights;
+    private int sortedSize;
+    private boolean sorted;
+
+    /**
+     * Constructs a new, empty {@code QuantileSketch} with the default accuracy.
+     */
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * Constructs a new, empty {@code QuantileSketch}.
+     *
+     * @param k the accuracy parameter, in the range {@code [MIN_K, MAX_K]}. The error is
+     *          proportional to {@code 1/k}, and the memory used to {@code k}.
+     * @throws IllegalArgumentException if {@code k} is out of range
+     */
+    public QuantileSketch(int k) {
+        this(k, new SplitMix64());
+    }
+
+    /**
+     * Constructs a new, empty {@code QuantileSketch}, which makes its random choices from the
+     * given seed. Two sketches with the same seed, given the same values, will give the same
+     * results.
+     *
+     * @param k    the accuracy parameter, in the range {@code [MIN_K, MAX_K]}
+     * @param seed the seed for the random choices
+     * @throws IllegalArgumentException if {@code k} is out of range
+     */
+    public QuantileSketch(int k, long seed) {
+        this(k, new SplitMix64(seed));
+    }
+
+    private QuantileSketch(int k, SplitMix64 random) {
+        if (k < MIN_K || k > MAX_K) {
+            throw new IllegalArgumentException(String.format(
+                "k must be in the range [%d, %d]. k [%d]", MIN_K, MAX_K, k));
+        }
+        this.k = k;
+        this.random = random;
+        reset();
+    }
+
+    /**
+     * Adds one value. This doesn't allocate, except when the sketch grows a new level, which
+     * happens only {@code O(log(n / k))} times over the whole stream.
+     *
+     * @param value the value to add. NaN is ignored.
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        count++;
+        sorted = false;
+        append(0, value);
+        if (retained >= totalCapacity) {
+            compress();
+        }
+    }
+
+    /**
+     * Adds one value. This is the same as {@link #add}, so that this can be used as a
+     * {@link DoubleConsumer}.
+     *
+     * @param value the value to add
+     */
+    @Override
+    public void accept(double value) {
+        add(value);
+    }
+
+    /**
+     * Adds every value in the given array.
+     *
+     * @param values the values to add (non-null)
+     */
+    public void addAll(@NotNull double[] values) {
+        for (double value : values) {
+            add(value);
+        }
+    }
+
+    /**
+     * Adds every value summarized by another sketch to this one. The other sketch is not
+     * modified. The result is as accurate as if every value had been added to this sketch.
+     *
+     * @param other the sketch to merge in (non-null, with the same {@code k} as this one)
+     * @throws IllegalArgumentException if the sketches have different values of {@code k}
+     */
+    public void merge(@NotNull QuantileSketch other) {
+        Objects.requireNonNull(other);
+        if (other.k != k) {
+            throw new IllegalArgumentException(String.format(
+                "Can't merge sketches with different k. This [%d]; Other [%d]", k, other.k));
+        }
+        if (other.count == 0) {
+            return;
+        }
+        while (numLevels < other.numLevels) {
+            addLevel();
+        }
+        for (int h = 0; h < other.numLevels; h++) {
+            final int size = other.sizes[h]; // Read first, in case other is this
+            for (int i = 0; i < size; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        count += other.count;
+        sorted = false;
+        compress();
+    }
+
+    /**
+     * Removes all values.
+     */
+    public void reset() {
+        levels = new double[][]{new double[k]};
+        sizes = new int[1];
+        numLevels = 1;
+        computeCapacities();
+        retained = 0;
+        count = 0L;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+        sorted = false;
+    }
+
+    private void append(int level, double value) {
+        double[] items = levels[level];
+        if (sizes[level] == items.length) {
+            items = levels[level] = Arrays.copyOf(items, items.length * 2);
+        }
+        items[sizes[level]++] = value;
+        retained++;
+    }
+
+    /**
+     * Compacts levels until the sketch is under its total capacity. Compaction is lazy: a level
+     * can go over its own capacity while there is room elsewhere, and only the lowest full level
+     * is compacted each time. This lets level 0 buffer many values between compactions, rather
+     * than sorting a handful every few adds. Since the sketch is over its total capacity, at least
+     * one level must be over its own.
+     */
+    private void compress() {
+        while (retained >= totalCapacity) {
+            int h = 0;
+            while (sizes[h] < capacities[h]) {
+                h++;
+            }
+            if (h + 1 == numLevels) {
+                addLevel();
+            }
+            compact(h);
+        }
+    }
+
+    /**
+     * Halves a level by promoting every other value to the next level. If the level has an odd
+     * number of values, the largest stays behind, so the rest pair up and no weight is lost.
+     */
+    private void compact(int level) {
+        final double[] items = levels[level];
+        int size = sizes[level];
+        Arrays.sort(items, 0, size);
+        final boolean odd = (size & 1) == 1;
+        if (odd) {
+            size--;
+        }
+        retained -= size;
+        for (int i = random.nextLong() < 0L ? 1 : 0; i < size; i += 2) {
+            append(level + 1, items[i]);
+        }
+        if (odd) {
+            items[0] = items[size];
+            sizes[level] = 1;
+        } else {
+            sizes[level] = 0;
+        }
+    }
+
+    private void addLevel() {
+        levels = Arrays.copyOf(levels, numLevels + 1);
+        sizes = Arrays.copyOf(sizes, numLevels + 1);
+        numLevels++;
+        computeCapacities();
+        levels[numLevels - 1] = new double[capacities[numLevels - 1]];
+    }
+
+    /**
+     * The top level has capacity {@code k}, and each level below it has 2/3 the capacity of the
+     * one above, down to a minimum.
+     */
+    private void computeCapacities() {
+        capacities = new int[numLevels];
+        totalCapacity = 0;
+        for (int h = 0; h < numLevels; h++) {
+            final double capacity = k * Math.pow(CAPACITY_DECAY, numLevels - 1 - h);
+            capacities[h] = Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(capacity));
+            totalCapacity += capacities[h];
+        }
+    }
+
+    /**
+     * Gets the number of values that have been added, not counting NaN.
+     *
+     * @return the number of values
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Gets whether no values have been added.
+     *
+     * @return true if the sketch is empty
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Gets the number of values that the sketch is actually storing. This stays around
+     * {@code 3k} no matter how many values are added.
+     *
+     * @return the number of retained values
+     */
+    public int retained() {
+        return retained;
+    }
+
+    /**
+     * Gets the accuracy parameter of this sketch.
+     *
+     * @return {@code k}
+     */
+    public int k() {
+        return k;
+    }
+
+    /**
+     * Gets the exact smallest value that has been added.
+     *
+     * @return the minimum
+     * @throws IllegalStateException if the sketch is empty
+     */
+    public double min() {
+        checkNotEmpty();
+        return min;
+    }
+
+    /**
+     * Gets the exact largest value that has been added.
+     *
+     * @return the maximum
+     * @throws IllegalStateException if the sketch is empty
+     */
+    public double max() {
+        checkNotEmpty();
+        return max;
+    }
+
+    /**
+     * Estimates the value at the given quantile, i.e. the smallest value {@code v} such that a
+     * fraction {@code q} of all added values are at most {@code v}. Quantiles 0 and 1 give the
+     * exact minimum and maximum.
+     *
+     * @param q the quantile, in the range {@code [0, 1]} (e.g. 0.99 for the 99th percentile)
+     * @return the estimated value at that quantile
+     * @throws IllegalArgumentException if {@code q} is out of range
+     * @throws IllegalStateException    if the sketch is empty
+     */
+    public double quantile(double q) {
+        checkQuantile(q);
+        checkNotEmpty();
+        if (q == 0.0) {
+            return min;
+        }
+        if (q == 1.0) {
+            return max;
+        }
+        buildSortedView();
+        final long target = Math.max(1L, (long) Math.ceil(q * count));
+
+        // Find the first value whose cumulative weight reaches the target
+        int low = 0;
+        int high = sortedSize - 1;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (cumulativeWeights[mid] < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return sortedValues[low];
+    }
+
+    /**
+     * Estimates the values at several quantiles at once.
+     *
+     * @param qs the quantiles, each in the range {@code [0, 1]} (non-null)
+     * @return the estimated values, in the same order as the quantiles
+     * @throws IllegalArgumentException if any quantile is out of range
+     * @throws IllegalStateException    if the sketch is empty
+     */
+    @NotNull
+    public double[] quantiles(@NotNull double... qs) {
+        for (double q : qs) {
+            checkQuantile(q);
+        }
+        final double[] rv = new double[qs.length];
+        for (int i = 0; i < qs.length; i++) {
+            rv[i] = quantile(qs[i]);
+        }
+        return rv;
+    }
+
+    /**
+     * Estimates the fraction of added values that are at most the given value. This is the
+     * inverse of {@link #quantile(double)}.
+     *
+     * @param value the value
+     * @return the estimated rank of the value, in the range {@code [0, 1]}
+     * @throws IllegalStateException if the sketch is empty
+     */
+    public double rank(double value) {
+        checkNotEmpty();
+        buildSortedView();
+
+        // Find the number of values that are at most the given one
+        int low = 0;
+        int high = sortedSize;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (sortedValues[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low == 0 ? 0.0 : (double) cumulativeWeights[low - 1] / count;
+    }
+
+    /**
+     * Creates a range that covers the values between two quantiles. Using e.g. the 1st and 99th
+     * percentiles, rather than the minimum and maximum, gives bounds that aren't thrown off by a
+     * few outliers.
+     *
+     * @param qLow  the quantile for the lower bound, in the range {@code [0, qHigh]}
+     * @param qHigh the quantile for the upper bound, in the range {@code [qLow, 1]}
+     * @return a new inclusive {@link DoubleRange} between the two estimated values
+     * @throws IllegalArgumentException if either quantile is out of range
+     * @throws IllegalStateException    if the sketch is empty
+     */
+    @NotNull
+    public DoubleRange toDoubleRange(double qLow, double qHigh) {
+        checkQuantile(qLow);
+        checkQuantile(qHigh);
+        if (qLow > qHigh) {
+            throw new IllegalArgumentException(String.format(
+                "Lower quantile cannot be greater than upper quantile. Lower [%s]; Upper [%s]",
+                qLow, qHigh));
+        }
+        return new DoubleRange(quantile(qLow), quantile(qHigh));
+    }
+
+    /**
+     * Merges the retained values of every level into one sorted list, with cumulative weights.
+     * Each level is sorted in place, then the levels are merged in one at a time.
+     */
+    private void buildSortedView() {
+        if (sorted) {
+            return;
+        }
+        final int total = retained();
+        if (sortedValues == null || sortedValues.length < total) {
+            sortedValues = new double[total];
+            cumulativeWeights = new long[total];
+        }
+        final double[] mergedValues = new double[total];
+        final long[] mergedWeights = new long[total];
+
+        // Merge into the scratch arrays, then copy back, with weights held per value for now
+        int size = 0;
+        for (int h = 0; h < numLevels; h++) {
+            final double[] items = levels[h];
+            final int levelSize = sizes[h];
+            Arrays.sort(items, 0, levelSize);
+            final long weight = 1L << h;
+            int i = size - 1;
+            int j = levelSize - 1;
+            int out = size + levelSize - 1;
+            while (j >= 0) {
+                if (i >= 0 && sortedValues[i] > items[j]) {
+                    mergedValues[out] = sortedValues[i];
+                    mergedWeights[out--] = cumulativeWeights[i--];
+                } else {
+                    mergedValues[out] = items[j--];
+                    mergedWeights[out--] = weight;
+                }
+            }
+            while (i >= 0) {
+                mergedValues[out] = sortedValues[i];
+                mergedWeights[out--] = cumulativeWeights[i--];
+            }
+            size += levelSize;
+            System.arraycopy(mergedValues, 0, sortedValues, 0, size);
+            System.arraycopy(mergedWeights, 0, cumulativeWeights, 0, size);
+        }
+
+        for (int i = 1; i < size; i++) {
+            cumulativeWeights[i] += cumulativeWeights[i - 1];
+        }
+        sortedSize = size;
+        sorted = true;
+    }
+
+    /**
+     * Gets the number of bytes that {@link #writeTo} will write.
+     *
+     * @return the serialized size, in bytes
+     */
+    public int serializedSize() {
+        return HEADER_BYTES + numLevels * Integer.BYTES + retained() * Double.BYTES;
+    }
+
+    /**
+     * Writes this sketch to the given buffer, at its current position, in the buffer's byte
+     * order. The buffer's position is advanced past the sketch.
+     *
+     * @param buffer the buffer to write to (non-null, with at least {@link #serializedSize()}
+     *               bytes remaining)
+     * @throws java.nio.BufferOverflowException if there isn't enough space in the buffer
+     * @see #readFrom(ByteBuffer)
+     */
+    public void writeTo(@NotNull ByteBuffer buffer) {
+        buffer.put(SERIAL_VERSION);
+        buffer.put((byte) numLevels);
+        buffer.putInt(k);
+        buffer.putLong(count);
+        buffer.putDouble(min);
+        buffer.putDouble(max);
+        for (int h = 0; h < numLevels; h++) {
+            buffer.putInt(sizes[h]);
+        }
+        for (int h = 0; h < numLevels; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                buffer.putDouble(levels[h][i]);
+            }
+        }
+    }
+
+    /**
+     * Writes this sketch to a new buffer.
+     *
+     * @return a new big-endian buffer holding the sketch, ready to be read
+     * @see #writeTo(ByteBuffer)
+     */
+    @NotNull
+    public ByteBuffer toByteBuffer() {
+        final ByteBuffer rv = ByteBuffer.allocate(serializedSize());
+        writeTo(rv);
+        rv.flip();
+        return rv;
+    }
+
+    /**
+     * Reads a sketch that was written by {@link #writeTo(ByteBuffer)}, from the given buffer's
+     * current position, in the buffer's byte order. The buffer's position is advanced past the
+     * sketch. The new sketch makes its own random choices from here on.
+     *
+     * @param buffer the buffer to read from (non-null)
+     * @return the sketch
+     * @throws IllegalArgumentException          if the data is not a valid sketch
+     * @throws java.nio.BufferUnderflowException if the buffer ends before the sketch does
+     */
+    @NotNull
+    public static QuantileSketch readFrom(@NotNull ByteBuffer buffer) {
+        final byte version = buffer.get();
+        if (version != SERIAL_VERSION) {
+            throw new IllegalArgumentException(String.format(
+                "Unknown serial version. Version [%d]", version));
+        }
+        final int numLevels = buffer.get();
+        final QuantileSketch rv = new QuantileSketch(buffer.getInt());
+        if (numLevels < 1 || numLevels > Long.SIZE) {
+            throw new IllegalArgumentException(String.format(
+                "Invalid number of levels. Levels [%d]", numLevels));
+        }
+        rv.count = buffer.getLong();
+        rv.min = buffer.getDouble();
+        rv.max = buffer.getDouble();
+        while (rv.numLevels < numLevels) {
+            rv.addLevel();
+        }
+        for (int h = 0; h < numLevels; h++) {
+            final int size = buffer.getInt();
+            if (size < 0) {
+                throw new IllegalArgumentException(String.format(
+                    "Invalid level size. Level [%d]; Size [%d]", h, size));
+            }
+            rv.sizes[h] = size;
+            rv.retained += size;
+            if (rv.levels[h].length < size) {
+                rv.levels[h] = new double[size];
+            }
+        }
+        for (int h = 0; h < numLevels; h++) {
+            for (int i = 0; i < rv.sizes[h]; i++) {
+                rv.levels[h][i] = buffer.getDouble();
+            }
+        }
+        return rv;
+    }
+
+    private void checkNotEmpty() {
+        if (count == 0) {
+            throw new IllegalStateException("Sketch is empty");
+        }
+    }
+
+    private static void checkQuantile(double q) {
+        if (!(q >= 0.0 && q <= 1.0)) {
+            throw new IllegalArgumentException(String.format(
+                "Quantile must be in the range [0, 1]. Quantile [%s]", q));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{k=%d, count=%d, retained=%d, min=%s, max=%s}",
+                             getClass().getSimpleName(), k, count, retained(), min, max);
+    }
+}
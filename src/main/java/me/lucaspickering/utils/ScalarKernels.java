@@ -0,0 +1,380 @@
+package me.lucaspickering.utils;
+
+/**
+ * Plain Java implementations of the loops in {@link ArrayKernels}. These are always used on Java
+ * 8, and are the fallback on newer versions when the Vector API isn't available.
+ */
+final class ScalarKernels {
+
+    private ScalarKernels() {
+        // Don't allow instantiation
+    }
+
+    // The single-extreme scans are unrolled the same way as minMax below. Equal ints and longs are
+    // identical, so the lanes can be combined in any order. Equal floating point values are
+    // identical too, except for 0.0 and -0.0, so if the result is a zero, it is replaced by the
+    // first zero in the slice. That keeps the rule that ties go to the first value. NaN is skipped,
+    // and a slice that is all NaN gives infinity (positive for min, negative for max).
+
+    static int min(int[] values, int from, int to) {
+        int min0 = values[from];
+        int min1 = min0;
+        int min2 = min0;
+        int min3 = min0;
+        int i = from + 1;
+        for (; i + 3 < to; i += 4) {
+            min0 = Math.min(min0, values[i]);
+            min1 = Math.min(min1, values[i + 1]);
+            min2 = Math.min(min2, values[i + 2]);
+            min3 = Math.min(min3, values[i + 3]);
+        }
+        for (; i < to; i++) {
+            min0 = Math.min(min0, values[i]);
+        }
+        return Math.min(Math.min(min0, min1), Math.min(min2, min3));
+    }
+
+    static int max(int[] values, int from, int to) {
+        int max0 = values[from];
+        int max1 = max0;
+        int max2 = max0;
+        int max3 = max0;
+        int i = from + 1;
+        for (; i + 3 < to; i += 4) {
+            max0 = Math.max(max0, values[i]);
+            max1 = Math.max(max1, values[i + 1]);
+            max2 = Math.max(max2, values[i + 2]);
+            max3 = Math.max(max3, values[i + 3]);
+        }
+        for (; i < to; i++) {
+            max0 = Math.max(max0, values[i]);
+        }
+        return Math.max(Math.max(max0, max1), Math.max(max2, max3));
+    }
+
+    static long min(long[] values, int from, int to) {
+        long min0 = values[from];
+        long min1 = min0;
+        long min2 = min0;
+        long min3 = min0;
+        int i = from + 1;
+        for (; i + 3 < to; i += 4) {
+            min0 = Math.min(min0, values[i]);
+            min1 = Math.min(min1, values[i + 1]);
+            min2 = Math.min(min2, values[i + 2]);
+            min3 = Math.min(min3, values[i + 3]);
+        }
+        for (; i < to; i++) {
+            min0 = Math.min(min0, values[i]);
+        }
+        return Math.min(Math.min(min0, min1), Math.min(min2, min3));
+    }
+
+    static long max(long[] values, int from, int to) {
+        long max0 = values[from];
+        long max1 = max0;
+        long max2 = max0;
+        long max3 = max0;
+        int i = from + 1;
+        for (; i + 3 < to; i += 4) {
+            max0 = Math.max(max0, values[i]);
+            max1 = Math.max(max1, values[i + 1]);
+            max2 = Math.max(max2, values[i + 2]);
+            max3 = Math.max(max3, values[i + 3]);
+        }
+        for (; i < to; i++) {
+            max0 = Math.max(max0, values[i]);
+        }
+        return Math.max(Math.max(max0, max1), Math.max(max2, max3));
+    }
+
+    static float min(float[] values, int from, int to) {
+        float min0 = Float.POSITIVE_INFINITY;
+        float min1 = min0;
+        float min2 = min0;
+        float min3 = min0;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            final float v0 = values[i];
+            final float v1 = values[i + 1];
+            final float v2 = values[i + 2];
+            final float v3 = values[i + 3];
+            min0 = v0 < min0 ? v0 : min0;
+            min1 = v1 < min1 ? v1 : min1;
+            min2 = v2 < min2 ? v2 : min2;
+            min3 = v3 < min3 ? v3 : min3;
+        }
+        for (; i < to; i++) {
+            final float v = values[i];
+            min0 = v < min0 ? v : min0;
+        }
+        final float min = Math.min(Math.min(min0, min1), Math.min(min2, min3));
+        return min == 0.0f ? firstZero(values, from) : min;
+    }
+
+    static float max(float[] values, int from, int to) {
+        float max0 = Float.NEGATIVE_INFINITY;
+        float max1 = max0;
+        float max2 = max0;
+        float max3 = max0;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            final float v0 = values[i];
+            final float v1 = values[i + 1];
+            final float v2 = values[i + 2];
+            final float v3 = values[i + 3];
+            max0 = v0 > max0 ? v0 : max0;
+            max1 = v1 > max1 ? v1 : max1;
+            max2 = v2 > max2 ? v2 : max2;
+            max3 = v3 > max3 ? v3 : max3;
+        }
+        for (; i < to; i++) {
+            final float v = values[i];
+            max0 = v > max0 ? v : max0;
+        }
+        final float max = Math.max(Math.max(max0, max1), Math.max(max2, max3));
+        return max == 0.0f ? firstZero(values, from) : max;
+    }
+
+    static double min(double[] values, int from, int to) {
+        double min0 = Double.POSITIVE_INFINITY;
+        double min1 = min0;
+        double min2 = min0;
+        double min3 = min0;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            final double v0 = values[i];
+            final double v1 = values[i + 1];
+            final double v2 = values[i + 2];
+            final double v3 = values[i + 3];
+            min0 = v0 < min0 ? v0 : min0;
+            min1 = v1 < min1 ? v1 : min1;
+            min2 = v2 < min2 ? v2 : min2;
+            min3 = v3 < min3 ? v3 : min3;
+        }
+        for (; i < to; i++) {
+            final double v = values[i];
+            min0 = v < min0 ? v : min0;
+        }
+        final double min = Math.min(Math.min(min0, min1), Math.min(min2, min3));
+        return min == 0.0 ? firstZero(values, from) : min;
+    }
+
+    static double max(double[] values, int from, int to) {
+        double max0 = Double.NEGATIVE_INFINITY;
+        double max1 = max0;
+        double max2 = max0;
+        double max3 = max0;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            final double v0 = values[i];
+            final double v1 = values[i + 1];
+            final double v2 = values[i + 2];
+            final double v3 = values[i + 3];
+            max0 = v0 > max0 ? v0 : max0;
+            max1 = v1 > max1 ? v1 : max1;
+            max2 = v2 > max2 ? v2 : max2;
+            max3 = v3 > max3 ? v3 : max3;
+        }
+        for (; i < to; i++) {
+            final double v = values[i];
+            max0 = v > max0 ? v : max0;
+        }
+        final double max = Math.max(Math.max(max0, max1), Math.max(max2, max3));
+        return max == 0.0 ? firstZero(values, from) : max;
+    }
+
+    /**
+     * Gets the first zero (0.0 or -0.0) at or after {@code from}. There must be one.
+     */
+    static float firstZero(float[] values, int from) {
+        int i = from;
+        while (values[i] != 0.0f) {
+            i++;
+        }
+        return values[i];
+    }
+
+    /**
+     * Gets the first zero (0.0 or -0.0) at or after {@code from}. There must be one.
+     */
+    static double firstZero(double[] values, int from) {
+        int i = from;
+        while (values[i] != 0.0) {
+            i++;
+        }
+        return values[i];
+    }
+
+    // Each minMax scan is unrolled into four independent lanes, which breaks up the dependency
+    // chain between iterations, and uses Math.min/max or conditional moves rather than branches,
+    // so the cost doesn't depend on the data. Floating point scans skip NaN.
+
+    static long[] minMax(int[] values, int from, int to) {
+        int min0 = values[from];
+        int min1 = min0;
+        int min2 = min0;
+        int min3 = min0;
+        int max0 = min0;
+        int max1 = min0;
+        int max2 = min0;
+        int max3 = min0;
+        int i = from + 1;
+        for (; i + 3 < to; i += 4) {
+            min0 = Math.min(min0, values[i]);
+            max0 = Math.max(max0, values[i]);
+            min1 = Math.min(min1, values[i + 1]);
+            max1 = Math.max(max1, values[i + 1]);
+            min2 = Math.min(min2, values[i + 2]);
+            max2 = Math.max(max2, values[i + 2]);
+            min3 = Math.min(min3, values[i + 3]);
+            max3 = Math.max(max3, values[i + 3]);
+        }
+        for (; i < to; i++) {
+            min0 = Math.min(min0, values[i]);
+            max0 = Math.max(max0, values[i]);
+        }
+        return new long[]{Math.min(Math.min(min0, min1), Math.min(min2, min3)),
+                          Math.max(Math.max(max0, max1), Math.max(max2, max3))};
+    }
+
+    static long[] minMax(long[] values, int from, int to) {
+        long min0 = values[from];
+        long min1 = min0;
+        long min2 = min0;
+        long min3 = min0;
+        long max0 = min0;
+        long max1 = min0;
+        long max2 = min0;
+        long max3 = min0;
+        int i = from + 1;
+        for (; i + 3 < to; i += 4) {
+            min0 = Math.min(min0, values[i]);
+            max0 = Math.max(max0, values[i]);
+            min1 = Math.min(min1, values[i + 1]);
+            max1 = Math.max(max1, values[i + 1]);
+            min2 = Math.min(min2, values[i + 2]);
+            max2 = Math.max(max2, values[i + 2]);
+            min3 = Math.min(min3, values[i + 3]);
+            max3 = Math.max(max3, values[i + 3]);
+        }
+        for (; i < to; i++) {
+            min0 = Math.min(min0, values[i]);
+            max0 = Math.max(max0, values[i]);
+        }
+        return new long[]{Math.min(Math.min(min0, min1), Math.min(min2, min3)),
+                          Math.max(Math.max(max0, max1), Math.max(max2, max3))};
+    }
+
+    static double[] minMax(float[] values, int from, int to) {
+        // Math.min/max propagate NaN, so compare directly instead. Starting from infinity rather
+        // than the first value means a slice that starts with NaN still skips it.
+        float min0 = Float.POSITIVE_INFINITY;
+        float min1 = min0;
+        float min2 = min0;
+        float min3 = min0;
+        float max0 = Float.NEGATIVE_INFINITY;
+        float max1 = max0;
+        float max2 = max0;
+        float max3 = max0;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            final float v0 = values[i];
+            final float v1 = values[i + 1];
+            final float v2 = values[i + 2];
+            final float v3 = values[i + 3];
+            min0 = v0 < min0 ? v0 : min0;
+            max0 = v0 > max0 ? v0 : max0;
+            min1 = v1 < min1 ? v1 : min1;
+            max1 = v1 > max1 ? v1 : max1;
+            min2 = v2 < min2 ? v2 : min2;
+            max2 = v2 > max2 ? v2 : max2;
+            min3 = v3 < min3 ? v3 : min3;
+            max3 = v3 > max3 ? v3 : max3;
+        }
+        for (; i < to; i++) {
+            final float v = values[i];
+            min0 = v < min0 ? v : min0;
+            max0 = v > max0 ? v : max0;
+        }
+        return new double[]{Math.min(Math.min(min0, min1), Math.min(min2, min3)),
+                            Math.max(Math.max(max0, max1), Math.max(max2, max3))};
+    }
+
+    static double[] minMax(double[] values, int from, int to) {
+        // Math.min/max propagate NaN, so compare directly instead. Starting from infinity rather
+        // than the first value means a slice that starts with NaN still skips it.
+        double min0 = Double.POSITIVE_INFINITY;
+        double min1 = min0;
+        double min2 = min0;
+        double min3 = min0;
+        double max0 = Double.NEGATIVE_INFINITY;
+        double max1 = max0;
+        double max2 = max0;
+        double max3 = max0;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            final double v0 = values[i];
+            final double v1 = values[i + 1];
+            final double v2 = values[i + 2];
+            final double v3 = values[i + 3];
+            min0 = v0 < min0 ? v0 : min0;
+            max0 = v0 > max0 ? v0 : max0;
+            min1 = v1 < min1 ? v1 : min1;
+            max1 = v1 > max1 ? v1 : max1;
+            min2 = v2 < min2 ? v2 : min2;
+            max2 = v2 > max2 ? v2 : max2;
+            min3 = v3 < min3 ? v3 : min3;
+            max3 = v3 > max3 ? v3 : max3;
+        }
+        for (; i < to; i++) {
+            final double v = values[i];
+            min0 = v < min0 ? v : min0;
+            max0 = v > max0 ? v : max0;
+        }
+        return new double[]{Math.min(Math.min(min0, min1), Math.min(min2, min3)),
+                            Math.max(Math.max(max0, max1), Math.max(max2, max3))};
+    }
+
+    static void distances(double x, double y, double[] xs, double[] ys, double[] out,
+                          int from, int to) {
+        for (int i = from; i < to; i++) {
+            final double xDiff = xs[i] - x;
+            final double yDiff = ys[i] - y;
+            out[i] = Math.sqrt(xDiff * xDiff + yDiff * yDiff);
+        }
+    }
+
+    static void distances(double x, double y, double z, double[] xs, double[] ys, double[] zs,
+                          double[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            final double xDiff = xs[i] - x;
+            final double yDiff = ys[i] - y;
+            final double zDiff = zs[i] - z;
+            out[i] = Math.sqrt(xDiff * xDiff + yDiff * yDiff + zDiff * zDiff);
+        }
+    }
+
+    static void coerce(double[] values, double lower, double upper, double[] out,
+                       int from, int to) {
+        for (int i = from; i < to; i++) {
+            out[i] = coerce(values[i], lower, upper);
+        }
+    }
+
+    static void normalize(double[] values, double lower, double upper, double[] out,
+                          int from, int to) {
+        final double span = upper - lower;
+        for (int i = from; i < to; i++) {
+            out[i] = (coerce(values[i], lower, upper) - lower) / span;
+        }
+    }
+
+    /**
+     * Clamps a value to {@code [lower, upper]}. NaN is treated as above everything, the same as
+     * {@link Double#compareTo}, so it becomes {@code upper}.
+     */
+    private static double coerce(double value, double lower, double upper) {
+        return value < lower ? lower : (value <= upper ? value : upper);
+    }
+}
@@ -0,0 +1,917 @@
+package me.lucaspickering.utils;
+
+import java.util.Arrays;
+
+/**
+ * Selection algorithms behind {@link MathFuncs#kthSmallest}, {@link MathFuncs#median},
+ * {@link MathFuncs#topK} and {@link MathFuncs#bottomK}.
+ *
+ * Selection is introselect: quickselect with a median-of-3 pivot and a Hoare partition, which
+ * stays linear on inputs with many duplicates. If it recurses too deeply (from adversarial
+ * input), it falls back to sorting the remaining range, which bounds the worst case at
+ * O(n log n). Ranges larger than {@link MathFuncs#PARALLEL_THRESHOLD} are first narrowed down in
+ * parallel, Floyd-Rivest style. Two pivots that bracket the target rank are picked from an evenly
+ * spaced sample, then the range is split around them with a parallel partition. Only the (small)
+ * middle range is then searched sequentially. Floating point NaN sorts after everything, the same
+ * as {@link Arrays#sort(double[])}, but -0.0 and 0.0 are treated as equal.
+ *
+ * Top-k keeps a bounded heap of indices, whose root is the worst index kept so far, so each value
+ * costs one comparison unless it beats the root. Values are ordered like {@code compare} on the
+ * boxed type, so NaN counts as the largest value, and ties go to the lower index.
+ */
+final class Selection {
+
+    private static final int INSERTION_THRESHOLD = 16;
+    private static final int SAMPLE_SIZE = 4096;
+    /**
+     * How far either side of the target's rank in the sample the two pivots are. This is twice the
+     * standard deviation of the target's rank, so the target almost always ends up between them.
+     */
+    private static final int SAMPLE_GAP = 128;
+
+    private Selection() {
+        // Don't allow instantiation
+    }
+
+    // ===== int =====
+
+    static int select(int[] values, int from, int to, int k) {
+        if (to - from > MathFuncs.PARALLEL_THRESHOLD) {
+            final int[] range = narrow(values, from, to, k);
+            from = range[0];
+            to = range[1];
+        }
+        return introselect(values, from, to, k);
+    }
+
+    static double median(int[] values, int from, int to) {
+        final int mid = from + (to - from) / 2;
+        final int upper = select(values, from, to, mid);
+        if (((to - from) & 1) == 1) {
+            return upper;
+        }
+        // Selection leaves everything before mid no greater than upper, so the lower middle value
+        // is the largest of those
+        int lower = values[from];
+        for (int i = from + 1; i < mid; i++) {
+            lower = values[i] > lower ? values[i] : lower;
+        }
+        return ((long) lower + upper) / 2.0;
+    }
+
+    /**
+     * Narrows a large range down to a much smaller one that contains index {@code k}, in parallel.
+     *
+     * @return {from, to} of the new range
+     */
+    private static int[] narrow(int[] values, int from, int to, int k) {
+        // Gather an evenly spaced sample at the front of the range
+        final int n = to - from;
+        final int stride = n / SAMPLE_SIZE;
+        for (int i = 1; i < SAMPLE_SIZE; i++) {
+            swap(values, from + i, from + i * stride);
+        }
+
+        final long rank = (long) (k - from) * SAMPLE_SIZE / n;
+        final int lowRank = (int) Math.max(0L, rank - SAMPLE_GAP);
+        final int highRank = (int) Math.min(SAMPLE_SIZE - 1, rank + SAMPLE_GAP);
+        final int sampleEnd = from + SAMPLE_SIZE;
+        final int low = introselect(values, from, sampleEnd, from + lowRank);
+        final int high = introselect(values, from + lowRank, sampleEnd, from + highRank);
+
+        final int lowEnd = partition(values, from, to, low, false);
+        final int highEnd = partition(values, lowEnd, to, high, true);
+        if (k < lowEnd) {
+            return new int[]{from, lowEnd};
+        }
+        if (k < highEnd) {
+            return new int[]{lowEnd, highEnd};
+        }
+        return new int[]{highEnd, to};
+    }
+
+    private static int introselect(int[] values, int from, int to, int k) {
+        int depth = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+        while (to - from > INSERTION_THRESHOLD) {
+            if (depth-- == 0) {
+                Arrays.sort(values, from, to);
+                return values[k];
+            }
+            final int pivot = medianOf3(values[from], values[(from + to) >>> 1], values[to - 1]);
+            int i = from;
+            int j = to - 1;
+            while (i <= j) {
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (values[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(values, i++, j--);
+                }
+            }
+            if (k <= j) {
+                to = j + 1;
+            } else if (k >= i) {
+                from = i;
+            } else {
+                return values[k]; // Everything between j and i is equal to the pivot
+            }
+        }
+        for (int i = from + 1; i < to; i++) {
+            final int value = values[i];
+            int j = i - 1;
+            for (; j >= from && values[j] > value; j--) {
+                values[j + 1] = values[j];
+            }
+            values[j + 1] = value;
+        }
+        return values[k];
+    }
+
+    private static int medianOf3(int a, int b, int c) {
+        if (a > b) {
+            final int temp = a;
+            a = b;
+            b = temp;
+        }
+        return c <= a ? a : (c >= b ? b : c);
+    }
+
+    /**
+     * Moves every value below the pivot (or at most the pivot, if inclusive) to the front of the
+     * range, in parallel for large ranges. Each half is partitioned separately, then the high run
+     * of the left half and the low run of the right half are swapped into place.
+     *
+     * @return the index of the first value that isn't low
+     */
+    private static int partition(int[] values, int from, int to, int pivot,
+                                 boolean inclusive) {
+        return MathFuncs.parallelReduce(from, to, (start, end) -> {
+            int i = start;
+            int j = end - 1;
+            while (true) {
+                while (i <= j && (inclusive ? values[i] <= pivot : values[i] < pivot)) {
+                    i++;
+                }
+                while (i <= j && !(inclusive ? values[j] <= pivot : values[j] < pivot)) {
+                    j--;
+                }
+                if (i >= j) {
+                    return new int[]{start, i, end};
+                }
+                swap(values, i++, j--);
+            }
+        }, (left, right) -> {
+            final int highs = left[2] - left[1];
+            final int lows = right[1] - right[0];
+            final int count = Math.min(highs, lows);
+            swapRuns(values, left[1], right[1] - count, count);
+            return new int[]{left[0], left[1] + lows, right[2]};
+        })[1];
+    }
+
+    private static void swapRuns(int[] values, int first, int second, int count) {
+        MathFuncs.parallelReduce(0, count, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                swap(values, first + i, second + i);
+            }
+            return null;
+        }, (left, right) -> null);
+    }
+
+    private static void swap(int[] values, int i, int j) {
+        final int temp = values[i];
+        values[i] = values[j];
+        values[j] = temp;
+    }
+
+    /**
+     * Finds the indices of the best {@code k} values, best first. If {@code direction} is 1,
+     * the best are the largest. If it is -1, they are the smallest.
+     */
+    static int[] top(int[] values, int k, int direction) {
+        final int[] heap = new int[Math.min(k, values.length)];
+        int size = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (size < heap.length) {
+                heap[size] = i;
+                siftUp(values, heap, size++, direction);
+            } else if (size > 0 && Integer.compare(values[i], values[heap[0]]) * direction > 0) {
+                heap[0] = i;
+                siftDown(values, heap, size, direction);
+            }
+        }
+
+        // Move the worst to the back repeatedly, which leaves the best at the front
+        for (int end = size - 1; end > 0; end--) {
+            final int temp = heap[0];
+            heap[0] = heap[end];
+            heap[end] = temp;
+            siftDown(values, heap, end, direction);
+        }
+        return heap;
+    }
+
+    private static void siftUp(int[] values, int[] heap, int index, int direction) {
+        final int element = heap[index];
+        while (index > 0) {
+            final int parent = (index - 1) >>> 1;
+            if (!worse(values, element, heap[parent], direction)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = element;
+    }
+
+    private static void siftDown(int[] values, int[] heap, int size, int direction) {
+        final int element = heap[0];
+        int index = 0;
+        int child;
+        while ((child = 2 * index + 1) < size) {
+            if (child + 1 < size && worse(values, heap[child + 1], heap[child], direction)) {
+                child++;
+            }
+            if (!worse(values, heap[child], element, direction)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = element;
+    }
+
+    private static boolean worse(int[] values, int i, int j, int direction) {
+        final int cmp = Integer.compare(values[i], values[j]) * direction;
+        return cmp < 0 || (cmp == 0 && i > j);
+    }
+
+    // ===== long =====
+
+    static long select(long[] values, int from, int to, int k) {
+        if (to - from > MathFuncs.PARALLEL_THRESHOLD) {
+            final int[] range = narrow(values, from, to, k);
+            from = range[0];
+            to = range[1];
+        }
+        return introselect(values, from, to, k);
+    }
+
+    static double median(long[] values, int from, int to) {
+        final int mid = from + (to - from) / 2;
+        final long upper = select(values, from, to, mid);
+        if (((to - from) & 1) == 1) {
+            return upper;
+        }
+        // Selection leaves everything before mid no greater than upper, so the lower middle value
+        // is the largest of those
+        long lower = values[from];
+        for (int i = from + 1; i < mid; i++) {
+            lower = values[i] > lower ? values[i] : lower;
+        }
+        return lower / 2.0 + upper / 2.0;
+    }
+
+    /**
+     * Narrows a large range down to a much smaller one that contains index {@code k}, in parallel.
+     *
+     * @return {from, to} of the new range
+     */
+    private static int[] narrow(long[] values, int from, int to, int k) {
+        // Gather an evenly spaced sample at the front of the range
+        final int n = to - from;
+        final int stride = n / SAMPLE_SIZE;
+        for (int i = 1; i < SAMPLE_SIZE; i++) {
+            swap(values, from + i, from + i * stride);
+        }
+
+        final long rank = (long) (k - from) * SAMPLE_SIZE / n;
+        final int lowRank = (int) Math.max(0L, rank - SAMPLE_GAP);
+        final int highRank = (int) Math.min(SAMPLE_SIZE - 1, rank + SAMPLE_GAP);
+        final int sampleEnd = from + SAMPLE_SIZE;
+        final long low = introselect(values, from, sampleEnd, from + lowRank);
+        final long high = introselect(values, from + lowRank, sampleEnd, from + highRank);
+
+        final int lowEnd = partition(values, from, to, low, false);
+        final int highEnd = partition(values, lowEnd, to, high, true);
+        if (k < lowEnd) {
+            return new int[]{from, lowEnd};
+        }
+        if (k < highEnd) {
+            return new int[]{lowEnd, highEnd};
+        }
+        return new int[]{highEnd, to};
+    }
+
+    private static long introselect(long[] values, int from, int to, int k) {
+        int depth = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+        while (to - from > INSERTION_THRESHOLD) {
+            if (depth-- == 0) {
+                Arrays.sort(values, from, to);
+                return values[k];
+            }
+            final long pivot = medianOf3(values[from], values[(from + to) >>> 1], values[to - 1]);
+            int i = from;
+            int j = to - 1;
+            while (i <= j) {
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (values[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(values, i++, j--);
+                }
+            }
+            if (k <= j) {
+                to = j + 1;
+            } else if (k >= i) {
+                from = i;
+            } else {
+                return values[k]; // Everything between j and i is equal to the pivot
+            }
+        }
+        for (int i = from + 1; i < to; i++) {
+            final long value = values[i];
+            int j = i - 1;
+            for (; j >= from && values[j] > value; j--) {
+                values[j + 1] = values[j];
+            }
+            values[j + 1] = value;
+        }
+        return values[k];
+    }
+
+    private static long medianOf3(long a, long b, long c) {
+        if (a > b) {
+            final long temp = a;
+            a = b;
+            b = temp;
+        }
+        return c <= a ? a : (c >= b ? b : c);
+    }
+
+    /**
+     * Moves every value below the pivot (or at most the pivot, if inclusive) to the front of the
+     * range, in parallel for large ranges. Each half is partitioned separately, then the high run
+     * of the left half and the low run of the right half are swapped into place.
+     *
+     * @return the index of the first value that isn't low
+     */
+    private static int partition(long[] values, int from, int to, long pivot,
+                                 boolean inclusive) {
+        return MathFuncs.parallelReduce(from, to, (start, end) -> {
+            int i = start;
+            int j = end - 1;
+            while (true) {
+                while (i <= j && (inclusive ? values[i] <= pivot : values[i] < pivot)) {
+                    i++;
+                }
+                while (i <= j && !(inclusive ? values[j] <= pivot : values[j] < pivot)) {
+                    j--;
+                }
+                if (i >= j) {
+                    return new int[]{start, i, end};
+                }
+                swap(values, i++, j--);
+            }
+        }, (left, right) -> {
+            final int highs = left[2] - left[1];
+            final int lows = right[1] - right[0];
+            final int count = Math.min(highs, lows);
+            swapRuns(values, left[1], right[1] - count, count);
+            return new int[]{left[0], left[1] + lows, right[2]};
+        })[1];
+    }
+
+    private static void swapRuns(long[] values, int first, int second, int count) {
+        MathFuncs.parallelReduce(0, count, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                swap(values, first + i, second + i);
+            }
+            return null;
+        }, (left, right) -> null);
+    }
+
+    private static void swap(long[] values, int i, int j) {
+        final long temp = values[i];
+        values[i] = values[j];
+        values[j] = temp;
+    }
+
+    /**
+     * Finds the indices of the best {@code k} values, best first. If {@code direction} is 1,
+     * the best are the largest. If it is -1, they are the smallest.
+     */
+    static int[] top(long[] values, int k, int direction) {
+        final int[] heap = new int[Math.min(k, values.length)];
+        int size = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (size < heap.length) {
+                heap[size] = i;
+                siftUp(values, heap, size++, direction);
+            } else if (size > 0 && Long.compare(values[i], values[heap[0]]) * direction > 0) {
+                heap[0] = i;
+                siftDown(values, heap, size, direction);
+            }
+        }
+
+        // Move the worst to the back repeatedly, which leaves the best at the front
+        for (int end = size - 1; end > 0; end--) {
+            final int temp = heap[0];
+            heap[0] = heap[end];
+            heap[end] = temp;
+            siftDown(values, heap, end, direction);
+        }
+        return heap;
+    }
+
+    private static void siftUp(long[] values, int[] heap, int index, int direction) {
+        final int element = heap[index];
+        while (index > 0) {
+            final int parent = (index - 1) >>> 1;
+            if (!worse(values, element, heap[parent], direction)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = element;
+    }
+
+    private static void siftDown(long[] values, int[] heap, int size, int direction) {
+        final int element = heap[0];
+        int index = 0;
+        int child;
+        while ((child = 2 * index + 1) < size) {
+            if (child + 1 < size && worse(values, heap[child + 1], heap[child], direction)) {
+                child++;
+            }
+            if (!worse(values, heap[child], element, direction)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = element;
+    }
+
+    private static boolean worse(long[] values, int i, int j, int direction) {
+        final int cmp = Long.compare(values[i], values[j]) * direction;
+        return cmp < 0 || (cmp == 0 && i > j);
+    }
+
+    // ===== float =====
+
+    static float select(float[] values, int from, int to, int k) {
+        // NaN breaks comparisons, so move it to the end first, where it would be sorted anyway
+        final int end = partition(values, from, to, Float.POSITIVE_INFINITY, true);
+        if (k >= end) {
+            return Float.NaN;
+        }
+        to = end;
+        if (to - from > MathFuncs.PARALLEL_THRESHOLD) {
+            final int[] range = narrow(values, from, to, k);
+            from = range[0];
+            to = range[1];
+        }
+        return introselect(values, from, to, k);
+    }
+
+    static double median(float[] values, int from, int to) {
+        final int mid = from + (to - from) / 2;
+        final float upper = select(values, from, to, mid);
+        if (((to - from) & 1) == 1) {
+            return upper;
+        }
+        if (Float.isNaN(upper)) {
+            return Double.NaN;
+        }
+        // Selection leaves everything before mid no greater than upper, so the lower middle value
+        // is the largest of those
+        float lower = values[from];
+        for (int i = from + 1; i < mid; i++) {
+            lower = values[i] > lower ? values[i] : lower;
+        }
+        return lower / 2.0 + upper / 2.0;
+    }
+
+    /**
+     * Narrows a large range down to a much smaller one that contains index {@code k}, in parallel.
+     *
+     * @return {from, to} of the new range
+     */
+    private static int[] narrow(float[] values, int from, int to, int k) {
+        // Gather an evenly spaced sample at the front of the range
+        final int n = to - from;
+        final int stride = n / SAMPLE_SIZE;
+        for (int i = 1; i < SAMPLE_SIZE; i++) {
+            swap(values, from + i, from + i * stride);
+        }
+
+        final long rank = (long) (k - from) * SAMPLE_SIZE / n;
+        final int lowRank = (int) Math.max(0L, rank - SAMPLE_GAP);
+        final int highRank = (int) Math.min(SAMPLE_SIZE - 1, rank + SAMPLE_GAP);
+        final int sampleEnd = from + SAMPLE_SIZE;
+        final float low = introselect(values, from, sampleEnd, from + lowRank);
+        final float high = introselect(values, from + lowRank, sampleEnd, from + highRank);
+
+        final int lowEnd = partition(values, from, to, low, false);
+        final int highEnd = partition(values, lowEnd, to, high, true);
+        if (k < lowEnd) {
+            return new int[]{from, lowEnd};
+        }
+        if (k < highEnd) {
+            return new int[]{lowEnd, highEnd};
+        }
+        return new int[]{highEnd, to};
+    }
+
+    private static float introselect(float[] values, int from, int to, int k) {
+        int depth = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+        while (to - from > INSERTION_THRESHOLD) {
+            if (depth-- == 0) {
+                Arrays.sort(values, from, to);
+                return values[k];
+            }
+            final float pivot = medianOf3(values[from], values[(from + to) >>> 1], values[to - 1]);
+            int i = from;
+            int j = to - 1;
+            while (i <= j) {
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (values[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(values, i++, j--);
+                }
+            }
+            if (k <= j) {
+                to = j + 1;
+            } else if (k >= i) {
+                from = i;
+            } else {
+                return values[k]; // Everything between j and i is equal to the pivot
+            }
+        }
+        for (int i = from + 1; i < to; i++) {
+            final float value = values[i];
+            int j = i - 1;
+            for (; j >= from && values[j] > value; j--) {
+                values[j + 1] = values[j];
+            }
+            values[j + 1] = value;
+        }
+        return values[k];
+    }
+
+    private static float medianOf3(float a, float b, float c) {
+        if (a > b) {
+            final float temp = a;
+            a = b;
+            b = temp;
+        }
+        return c <= a ? a : (c >= b ? b : c);
+    }
+
+    /**
+     * Moves every value below the pivot (or at most the pivot, if inclusive) to the front of the
+     * range, in parallel for large ranges. Each half is partitioned separately, then the high run
+     * of the left half and the low run of the right half are swapped into place.
+     *
+     * @return the index of the first value that isn't low
+     */
+    private static int partition(float[] values, int from, int to, float pivot,
+                                 boolean inclusive) {
+        return MathFuncs.parallelReduce(from, to, (start, end) -> {
+            int i = start;
+            int j = end - 1;
+            while (true) {
+                while (i <= j && (inclusive ? values[i] <= pivot : values[i] < pivot)) {
+                    i++;
+                }
+                while (i <= j && !(inclusive ? values[j] <= pivot : values[j] < pivot)) {
+                    j--;
+                }
+                if (i >= j) {
+                    return new int[]{start, i, end};
+                }
+                swap(values, i++, j--);
+            }
+        }, (left, right) -> {
+            final int highs = left[2] - left[1];
+            final int lows = right[1] - right[0];
+            final int count = Math.min(highs, lows);
+            swapRuns(values, left[1], right[1] - count, count);
+            return new int[]{left[0], left[1] + lows, right[2]};
+        })[1];
+    }
+
+    private static void swapRuns(float[] values, int first, int second, int count) {
+        MathFuncs.parallelReduce(0, count, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                swap(values, first + i, second + i);
+            }
+            return null;
+        }, (left, right) -> null);
+    }
+
+    private static void swap(float[] values, int i, int j) {
+        final float temp = values[i];
+        values[i] = values[j];
+        values[j] = temp;
+    }
+
+    /**
+     * Finds the indices of the best {@code k} values, best first. If {@code direction} is 1,
+     * the best are the largest. If it is -1, they are the smallest.
+     */
+    static int[] top(float[] values, int k, int direction) {
+        final int[] heap = new int[Math.min(k, values.length)];
+        int size = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (size < heap.length) {
+                heap[size] = i;
+                siftUp(values, heap, size++, direction);
+            } else if (size > 0 && Float.compare(values[i], values[heap[0]]) * direction > 0) {
+                heap[0] = i;
+                siftDown(values, heap, size, direction);
+            }
+        }
+
+        // Move the worst to the back repeatedly, which leaves the best at the front
+        for (int end = size - 1; end > 0; end--) {
+            final int temp = heap[0];
+            heap[0] = heap[end];
+            heap[end] = temp;
+            siftDown(values, heap, end, direction);
+        }
+        return heap;
+    }
+
+    private static void siftUp(float[] values, int[] heap, int index, int direction) {
+        final int element = heap[index];
+        while (index > 0) {
+            final int parent = (index - 1) >>> 1;
+            if (!worse(values, element, heap[parent], direction)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = element;
+    }
+
+    private static void siftDown(float[] values, int[] heap, int size, int direction) {
+        final int element = heap[0];
+        int index = 0;
+        int child;
+        while ((child = 2 * index + 1) < size) {
+            if (child + 1 < size && worse(values, heap[child + 1], heap[child], direction)) {
+                child++;
+            }
+            if (!worse(values, heap[child], element, direction)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = element;
+    }
+
+    private static boolean worse(float[] values, int i, int j, int direction) {
+        final int cmp = Float.compare(values[i], values[j]) * direction;
+        return cmp < 0 || (cmp == 0 && i > j);
+    }
+
+    // ===== double =====
+
+    static double select(double[] values, int from, int to, int k) {
+        // NaN breaks comparisons, so move it to the end first, where it would be sorted anyway
+        final int end = partition(values, from, to, Double.POSITIVE_INFINITY, true);
+        if (k >= end) {
+            return Double.NaN;
+        }
+        to = end;
+        if (to - from > MathFuncs.PARALLEL_THRESHOLD) {
+            final int[] range = narrow(values, from, to, k);
+            from = range[0];
+            to = range[1];
+        }
+        return introselect(values, from, to, k);
+    }
+
+    static double median(double[] values, int from, int to) {
+        final int mid = from + (to - from) / 2;
+        final double upper = select(values, from, to, mid);
+        if (((to - from) & 1) == 1) {
+            return upper;
+        }
+        if (Double.isNaN(upper)) {
+            return Double.NaN;
+        }
+        // Selection leaves everything before mid no greater than upper, so the lower middle value
+        // is the largest of those
+        double lower = values[from];
+        for (int i = from + 1; i < mid; i++) {
+            lower = values[i] > lower ? values[i] : lower;
+        }
+        return lower / 2.0 + upper / 2.0;
+    }
+
+    /**
+     * Narrows a large range down to a much smaller one that contains index {@code k}, in parallel.
+     *
+     * @return {from, to} of the new range
+     */
+    private static int[] narrow(double[] values, int from, int to, int k) {
+        // Gather an evenly spaced sample at the front of the range
+        final int n = to - from;
+        final int stride = n / SAMPLE_SIZE;
+        for (int i = 1; i < SAMPLE_SIZE; i++) {
+            swap(values, from + i, from + i * stride);
+        }
+
+        final long rank = (long) (k - from) * SAMPLE_SIZE / n;
+        final int lowRank = (int) Math.max(0L, rank - SAMPLE_GAP);
+        final int highRank = (int) Math.min(SAMPLE_SIZE - 1, rank + SAMPLE_GAP);
+        final int sampleEnd = from + SAMPLE_SIZE;
+        final double low = introselect(values, from, sampleEnd, from + lowRank);
+        final double high = introselect(values, from + lowRank, sampleEnd, from + highRank);
+
+        final int lowEnd = partition(values, from, to, low, false);
+        final int highEnd = partition(values, lowEnd, to, high, true);
+        if (k < lowEnd) {
+            return new int[]{from, lowEnd};
+        }
+        if (k < highEnd) {
+            return new int[]{lowEnd, highEnd};
+        }
+        return new int[]{highEnd, to};
+    }
+
+    private static double introselect(double[] values, int from, int to, int k) {
+        int depth = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+        while (to - from > INSERTION_THRESHOLD) {
+            if (depth-- == 0) {
+                Arrays.sort(values, from, to);
+                return values[k];
+            }
+            final double pivot = medianOf3(values[from], values[(from + to) >>> 1], values[to - 1]);
+            int i = from;
+            int j = to - 1;
+            while (i <= j) {
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (values[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(values, i++, j--);
+                }
+            }
+            if (k <= j) {
+                to = j + 1;
+            } else if (k >= i) {
+                from = i;
+            } else {
+                return values[k]; // Everything between j and i is equal to the pivot
+            }
+        }
+        for (int i = from + 1; i < to; i++) {
+            final double value = values[i];
+            int j = i - 1;
+            for (; j >= from && values[j] > value; j--) {
+                values[j + 1] = values[j];
+            }
+            values[j + 1] = value;
+        }
+        return values[k];
+    }
+
+    private static double medianOf3(double a, double b, double c) {
+        if (a > b) {
+            final double temp = a;
+            a = b;
+            b = temp;
+        }
+        return c <= a ? a : (c >= b ? b : c);
+    }
+
+    /**
+     * Moves every value below the pivot (or at most the pivot, if inclusive) to the front of the
+     * range, in parallel for large ranges. Each half is partitioned separately, then the high run
+     * of the left half and the low run of the right half are swapped into place.
+     *
+     * @return the index of the first value that isn't low
+     */
+    private static int partition(double[] values, int from, int to, double pivot,
+                                 boolean inclusive) {
+        return MathFuncs.parallelReduce(from, to, (start, end) -> {
+            int i = start;
+            int j = end - 1;
+            while (true) {
+                while (i <= j && (inclusive ? values[i] <= pivot : values[i] < pivot)) {
+                    i++;
+                }
+                while (i <= j && !(inclusive ? values[j] <= pivot : values[j] < pivot)) {
+                    j--;
+                }
+                if (i >= j) {
+                    return new int[]{start, i, end};
+                }
+                swap(values, i++, j--);
+            }
+        }, (left, right) -> {
+            final int highs = left[2] - left[1];
+            final int lows = right[1] - right[0];
+            final int count = Math.min(highs, lows);
+            swapRuns(values, left[1], right[1] - count, count);
+            return new int[]{left[0], left[1] + lows, right[2]};
+        })[1];
+    }
+
+    private static void swapRuns(double[] values, int first, int second, int count) {
+        MathFuncs.parallelReduce(0, count, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                swap(values, first + i, second + i);
+            }
+            return null;
+        }, (left, right) -> null);
+    }
+
+    private static void swap(double[] values, int i, int j) {
+        final double temp = values[i];
+        values[i] = values[j];
+        values[j] = temp;
+    }
+
+    /**
+     * Finds the indices of the best {@code k} values, best first. If {@code direction} is 1,
+     * the best are the largest. If it is -1, they are the smallest.
+     */
+    static int[] top(double[] values, int k, int direction) {
+        final int[] heap = new int[Math.min(k, values.length)];
+        int size = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (size < heap.length) {
+                heap[size] = i;
+                siftUp(values, heap, size++, direction);
+            } else if (size > 0 && Double.compare(values[i], values[heap[0]]) * direction > 0) {
+                heap[0] = i;
+                siftDown(values, heap, size, direction);
+            }
+        }
+
+        // Move the worst to the back repeatedly, which leaves the best at the front
+        for (int end = size - 1; end > 0; end--) {
+            final int temp = heap[0];
+            heap[0] = heap[end];
+            heap[end] = temp;
+            siftDown(values, heap, end, direction);
+        }
+        return heap;
+    }
+
+    private static void siftUp(double[] values, int[] heap, int index, int direction) {
+        final int element = heap[index];
+        while (index > 0) {
+            final int parent = (index - 1) >>> 1;
+            if (!worse(values, element, heap[parent], direction)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = element;
+    }
+
+    private static void siftDown(double[] values, int[] heap, int size, int direction) {
+        final int element = heap[0];
+        int index = 0;
+        int child;
+        while ((child = 2 * index + 1) < size) {
+            if (child + 1 < size && worse(values, heap[child + 1], heap[child], direction)) {
+                child++;
+            }
+            if (!worse(values, heap[child], element, direction)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = element;
+    }
+
+    private static boolean worse(double[] values, int i, int j, int direction) {
+        final int cmp = Double.compare(values[i], values[j]) * direction;
+        return cmp < 0 || (cmp == 0 && i > j);
+    }
+}
@@ -0,0 +1,490 @@
+package me.lucaspickering.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.function.DoubleConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+import me.lucaspickering.utils.range.DoubleRange;
+
+/**
+ * Tracks the count, minimum, maximum, sum, mean and variance of a stream of values, in one pass
+ * and constant space. The mean and variance are kept with Welford's method, which stays accurate
+ * even when the values are large relative to their spread, unlike the naive sum of squares.
+ *
+ * Accumulators can be merged, so a data set can be split up, accumulated in pieces (e.g. by a
+ * parallel stream) and combined. For primitive streams, use {@link #of(DoubleStream, boolean)},
+ * or {@code stream.collect(StatsAccumulator::new, StatsAccumulator::add,
+ * StatsAccumulator::merge)}. For object streams, use {@link #collector(ToDoubleFunction,
+ * boolean)}.
+ *
+ * By default the sum is a plain running total. A compensated accumulator keeps a second term for
+ * the rounding error of each addition (Neumaier's variant of Kahan summation), which makes the
+ * sum exact to within a couple of ulps regardless of the number of values, for about twice the
+ * cost per value.
+ *
+ * NaN values are accumulated like any other, so they make every statistic except the count NaN.
+ * This class is <b>not</b> thread-safe.
+ */
+public class StatsAccumulator implements DoubleConsumer {
+
+    private final boolean compensated;
+    private long count;
+    private double min;
+    private double max;
+    private double sum;
+    private double sumCompensation;
+    private double mean;
+    private double m2; // Sum of squared differences from the mean
+
+    /**
+     * Constructs a new, empty {@code StatsAccumulator} with a plain sum.
+     */
+    public StatsAccumulator() {
+        this(false);
+    }
+
+    /**
+     * Constructs a new, empty {@code StatsAccumulator}.
+     *
+     * @param compensated whether the sum should be compensated for rounding error
+     */
+    public StatsAccumulator(boolean compensated) {
+        this.compensated = compensated;
+        reset();
+    }
+
+    /**
+     * Creates an accumulator holding the given values.
+     *
+     * @param values the values to accumulate (non-null)
+     * @return a new accumulator
+     */
+    @NotNull
+    public static StatsAccumulator of(@NotNull double... values) {
+        final StatsAccumulator rv = new StatsAccumulator();
+        rv.addAll(values);
+        return rv;
+    }
+
+    /**
+     * Creates an accumulator with a plain sum, holding every value in the given stream.
+     *
+     * @param stream the values to accumulate (non-null)
+     * @return a new accumulator
+     * @see #of(DoubleStream, boolean)
+     */
+    @NotNull
+    public static StatsAccumulator of(@NotNull DoubleStream stream) {
+        return of(stream, false);
+    }
+
+    /**
+     * Creates an accumulator holding every value in the given stream. If the stream is parallel,
+     * each thread accumulates part of it and the parts are merged.
+     *
+     * @param stream      the values to accumulate (non-null)
+     * @param compensated whether the sum should be compensated for rounding error
+     * @return a new accumulator
+     */
+    @NotNull
+    public static StatsAccumulator of(@NotNull DoubleStream stream, boolean compensated) {
+        return stream.collect(() -> new StatsAccumulator(compensated), StatsAccumulator::add,
+                              StatsAccumulator::merge);
+    }
+
+    /**
+     * Creates an accumulator with a plain sum, holding every value in the given stream.
+     *
+     * @param stream the values to accumulate (non-null)
+     * @return a new accumulator
+     * @see #of(IntStream, boolean)
+     */
+    @NotNull
+    public static StatsAccumulator of(@NotNull IntStream stream) {
+        return of(stream, false);
+    }
+
+    /**
+     * Creates an accumulator holding every value in the given stream. If the stream is parallel,
+     * each thread accumulates part of it and the parts are merged.
+     *
+     * @param stream      the values to accumulate (non-null)
+     * @param compensated whether the sum should be compensated for rounding error
+     * @return a new accumulator
+     */
+    @NotNull
+    public static StatsAccumulator of(@NotNull IntStream stream, boolean compensated) {
+        return stream.collect(() -> new StatsAccumulator(compensated), StatsAccumulator::add,
+                              StatsAccumulator::merge);
+    }
+
+    /**
+     * Creates a {@link Collector} that accumulates a value from each element, with a plain sum.
+     *
+     * @param mapper the function that gets each element's value (non-null)
+     * @param <T>    the type of the elements
+     * @return a collector that produces a {@code StatsAccumulator}
+     * @see #collector(ToDoubleFunction, boolean)
+     */
+    @NotNull
+    public static <T> Collector<T, ?, StatsAccumulator> collector(
+        @NotNull ToDoubleFunction<? super T> mapper) {
+        return collector(mapper, false);
+    }
+
+    /**
+     * Creates a {@link Collector} that accumulates a value from each element. Parallel streams
+     * accumulate each part separately, then merge the parts.
+     *
+     * @param mapper      the function that gets each element's value (non-null)
+     * @param compensated whether the sum should be compensated for rounding error
+     * @param <T>         the type of the elements
+     * @return a collector that produces a {@code StatsAccumulator}
+     */
+    @NotNull
+    public static <T> Collector<T, ?, StatsAccumulator> collector(
+        @NotNull ToDoubleFunction<? super T> mapper, boolean compensated) {
+        Objects.requireNonNull(mapper);
+        return Collector.of(() -> new StatsAccumulator(compensated),
+                            (acc, element) -> acc.add(mapper.applyAsDouble(element)),
+                            (left, right) -> {
+                                left.merge(right);
+                                return left;
+                            },
+                            Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    /**
+     * Adds one value.
+     *
+     * @param value the value to add
+     */
+    public void add(double value) {
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        addToSum(value, 0.0);
+        final double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    /**
+     * Adds one value. This is the same as {@link #add}, so that this can be used as a
+     * {@link DoubleConsumer}.
+     *
+     * @param value the value to add
+     */
+    @Override
+    public void accept(double value) {
+        add(value);
+    }
+
+    /**
+     * Adds every value in the given array.
+     *
+     * @param values the values to add (non-null)
+     */
+    public void addAll(@NotNull double[] values) {
+        addAll(values, 0, values.length);
+    }
+
+    /**
+     * Adds every value in part of the given array. This makes two passes over the slice: one for
+     * the count, sum and bounds, then one for the squared differences from the slice's mean. That
+     * is both faster than adding the values one at a time (there is no division per value) and
+     * more accurate. The slice's statistics are then merged in.
+     *
+     * @param values    the values to add (non-null)
+     * @param fromIndex the first index to add (inclusive)
+     * @param toIndex   the last index to add (exclusive)
+     * @throws ArrayIndexOutOfBoundsException if either index is out of range
+     */
+    public void addAll(@NotNull double[] values, int fromIndex, int toIndex) {
+        checkSlice(values.length, fromIndex, toIndex);
+        if (fromIndex == toIndex) {
+            return;
+        }
+        final int n = toIndex - fromIndex;
+        double sliceMin = Double.POSITIVE_INFINITY;
+        double sliceMax = Double.NEGATIVE_INFINITY;
+        double sliceSum = 0.0;
+        double sliceCompensation = 0.0;
+        for (int i = fromIndex; i < toIndex; i++) {
+            final double value = values[i];
+            sliceMin = Math.min(sliceMin, value);
+            sliceMax = Math.max(sliceMax, value);
+            if (compensated) {
+                sliceCompensation += roundingError(sliceSum, value);
+            }
+            sliceSum += value;
+        }
+
+        // The second pass also sums the raw differences, which would be 0 with exact arithmetic,
+        // and uses that to correct for the rounding error in the mean
+        final double sliceMean = (sliceSum + sliceCompensation) / n;
+        double sliceM2 = 0.0;
+        double error = 0.0;
+        for (int i = fromIndex; i < toIndex; i++) {
+            final double delta = values[i] - sliceMean;
+            sliceM2 += delta * delta;
+            error += delta;
+        }
+        sliceM2 -= error * error / n;
+        merge(n, sliceMin, sliceMax, sliceSum, sliceCompensation, sliceMean, sliceM2);
+    }
+
+    /**
+     * Adds every value in the given array.
+     *
+     * @param values the values to add (non-null)
+     */
+    public void addAll(@NotNull int[] values) {
+        addAll(values, 0, values.length);
+    }
+
+    /**
+     * Adds every value in part of the given array. Because ints are exact as doubles, the sum of
+     * the slice is computed with a long, so it has no rounding error until it is merged in.
+     *
+     * @param values    the values to add (non-null)
+     * @param fromIndex the first index to add (inclusive)
+     * @param toIndex   the last index to add (exclusive)
+     * @throws ArrayIndexOutOfBoundsException if either index is out of range
+     * @see #addAll(double[], int, int)
+     */
+    public void addAll(@NotNull int[] values, int fromIndex, int toIndex) {
+        checkSlice(values.length, fromIndex, toIndex);
+        if (fromIndex == toIndex) {
+            return;
+        }
+        final int n = toIndex - fromIndex;
+        int sliceMin = Integer.MAX_VALUE;
+        int sliceMax = Integer.MIN_VALUE;
+        long sliceSum = 0L;
+        for (int i = fromIndex; i < toIndex; i++) {
+            final int value = values[i];
+            sliceMin = Math.min(sliceMin, value);
+            sliceMax = Math.max(sliceMax, value);
+            sliceSum += value;
+        }
+
+        final double sliceMean = (double) sliceSum / n;
+        double sliceM2 = 0.0;
+        double error = 0.0;
+        for (int i = fromIndex; i < toIndex; i++) {
+            final double delta = values[i] - sliceMean;
+            sliceM2 += delta * delta;
+            error += delta;
+        }
+        sliceM2 -= error * error / n;
+
+        // Split the exact sum into a double and the part that doesn't fit in it
+        final double roundedSum = sliceSum;
+        final double sumError = (double) (sliceSum - (long) roundedSum);
+        merge(n, sliceMin, sliceMax, roundedSum, sumError, sliceMean, sliceM2);
+    }
+
+    /**
+     * Adds every value accumulated by another accumulator to this one. The result is the same as
+     * if every value had been added to this accumulator, up to rounding. The other accumulator is
+     * not modified.
+     *
+     * @param other the accumulator to merge in (non-null)
+     */
+    public void merge(@NotNull StatsAccumulator other) {
+        Objects.requireNonNull(other);
+        merge(other.count, other.min, other.max, other.sum, other.sumCompensation, other.mean,
+              other.m2);
+    }
+
+    /**
+     * Merges in the statistics of another set of values, with Chan et al.'s pairwise update.
+     */
+    private void merge(long otherCount, double otherMin, double otherMax, double otherSum,
+                       double otherCompensation, double otherMean, double otherM2) {
+        if (otherCount == 0) {
+            return;
+        }
+        min = Math.min(min, otherMin);
+        max = Math.max(max, otherMax);
+        addToSum(otherSum, otherCompensation);
+        if (count == 0) {
+            count = otherCount;
+            mean = otherMean;
+            m2 = otherM2;
+            return;
+        }
+
+        final long total = count + otherCount;
+        final double delta = otherMean - mean;
+        final double otherWeight = (double) otherCount / total;
+        mean += delta * otherWeight;
+        m2 += otherM2 + delta * delta * count * otherWeight;
+        count = total;
+    }
+
+    /**
+     * Adds a value, and the rounding error already accumulated with it, to the running sum.
+     */
+    private void addToSum(double value, double compensation) {
+        if (compensated) {
+            sumCompensation += roundingError(sum, value) + compensation;
+            sum += value;
+        } else {
+            sum += value + compensation;
+        }
+    }
+
+    /**
+     * Gets the error that will be introduced by rounding when the two values are added.
+     * Neumaier's version, which also works when the new value is larger than the running sum.
+     */
+    private static double roundingError(double sum, double value) {
+        final double total = sum + value;
+        return Math.abs(sum) >= Math.abs(value) ? (sum - total) + value : (value - total) + sum;
+    }
+
+    /**
+     * Removes all accumulated values.
+     */
+    public void reset() {
+        count = 0L;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+        sum = 0.0;
+        sumCompensation = 0.0;
+        mean = 0.0;
+        m2 = 0.0;
+    }
+
+    /**
+     * Gets whether the sum is compensated for rounding error.
+     *
+     * @return true if the sum is compensated
+     */
+    public boolean isCompensated() {
+        return compensated;
+    }
+
+    /**
+     * Gets the number of accumulated values.
+     *
+     * @return the number of values
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Gets the smallest accumulated value.
+     *
+     * @return the minimum, or positive infinity if nothing has been accumulated
+     */
+    public double min() {
+        return min;
+    }
+
+    /**
+     * Gets the largest accumulated value.
+     *
+     * @return the maximum, or negative infinity if nothing has been accumulated
+     */
+    public double max() {
+        return max;
+    }
+
+    /**
+     * Gets the sum of all accumulated values.
+     *
+     * @return the sum, or 0 if nothing has been accumulated
+     */
+    public double sum() {
+        // If the sum has overflowed, the compensation is meaningless (and probably NaN)
+        final double rv = sum + sumCompensation;
+        return Double.isNaN(rv) && Double.isInfinite(sum) ? sum : rv;
+    }
+
+    /**
+     * Gets the mean of all accumulated values.
+     *
+     * @return the mean, or 0 if nothing has been accumulated
+     */
+    public double mean() {
+        return mean;
+    }
+
+    /**
+     * Gets the population variance of all accumulated values, i.e. the mean squared difference
+     * from the mean.
+     *
+     * @return the variance, or 0 if nothing has been accumulated
+     */
+    public double variance() {
+        return count == 0 ? 0.0 : Math.max(0.0, m2 / count);
+    }
+
+    /**
+     * Gets the sample variance of all accumulated values, i.e. the unbiased estimate of the
+     * variance of the population they were drawn from.
+     *
+     * @return the sample variance, or 0 if fewer than 2 values have been accumulated
+     */
+    public double sampleVariance() {
+        return count < 2 ? 0.0 : Math.max(0.0, m2 / (count - 1));
+    }
+
+    /**
+     * Gets the population standard deviation of all accumulated values.
+     *
+     * @return the square root of {@link #variance()}
+     */
+    public double standardDeviation() {
+        return Math.sqrt(variance());
+    }
+
+    /**
+     * Gets the sample standard deviation of all accumulated values.
+     *
+     * @return the square root of {@link #sampleVariance()}
+     */
+    public double sampleStandardDeviation() {
+        return Math.sqrt(sampleVariance());
+    }
+
+    /**
+     * Creates an inclusive range from the smallest accumulated value to the largest.
+     *
+     * @return a new {@link DoubleRange} of {@code [min, max]}
+     * @throws IllegalStateException if nothing has been accumulated, or a NaN was accumulated
+     */
+    @NotNull
+    public DoubleRange toDoubleRange() {
+        if (count == 0) {
+            throw new IllegalStateException("No values have been accumulated");
+        }
+        if (Double.isNaN(min)) {
+            throw new IllegalStateException("Bounds are NaN");
+        }
+        return new DoubleRange(min, max);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{count=%d, min=%f, max=%f, sum=%f, mean=%f, variance=%f}",
+                             getClass().getSimpleName(), count, min, max, sum(), mean,
+                             variance());
+    }
+
+    private static void checkSlice(int length, int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > length || fromIndex > toIndex) {
+            throw new ArrayIndexOutOfBoundsException(String.format(
+                "Invalid slice. From [%d]; To [%d]; Length [%d]", fromIndex, toIndex, length));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package me.lucaspickering.utils;
+
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * A {@link Spliterator} over a range of indices of some column-based structure, that gives each
+ * element to the action as a reusable flyweight view, rather than as a new object. Each split
+ * gets its own view (created on its first element), so splits can be traversed on different
+ * threads, but the view passed to the action is only valid until the action returns.
+ *
+ * Splitting always halves the remaining index range, so it is cheap and balanced.
+ *
+ * @param <V> the type of the view
+ */
+final class ViewSpliterator<V> implements Spliterator<V> {
+
+    private static final int CHARACTERISTICS = ORDERED | SIZED | SUBSIZED | NONNULL;
+
+    private final Supplier<? extends V> factory;
+    private final ObjIntConsumer<? super V> mover;
+    private final int fence;
+    private int index;
+    private V view;
+
+    /**
+     * @param factory creates a new view
+     * @param mover   points a view at the given index
+     * @param from    the first index to traverse (inclusive)
+     * @param to      the last index to traverse (exclusive)
+     */
+    ViewSpliterator(Supplier<? extends V> factory, ObjIntConsumer<? super V> mover,
+                    int from, int to) {
+        this.factory = factory;
+        this.mover = mover;
+        this.index = from;
+        this.fence = to;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super V> action) {
+        Objects.requireNonNull(action);
+        if (index >= fence) {
+            return false;
+        }
+        final V view = view();
+        mover.accept(view, index++);
+        action.accept(view);
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super V> action) {
+        Objects.requireNonNull(action);
+        if (index >= fence) {
+            return;
+        }
+        final V view = view();
+        final int end = fence;
+        for (int i = index; i < end; i++) {
+            mover.accept(view, i);
+            action.accept(view);
+        }
+        index = end;
+    }
+
+    @Override
+    public Spliterator<V> trySplit() {
+        final int from = index;
+        final int mid = (from + fence) >>> 1;
+        if (from >= mid) {
+            return null;
+        }
+        index = mid;
+        return new ViewSpliterator<>(factory, mover, from, mid);
+    }
+
+    @Override
+    public long estimateSize() {
+        return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return CHARACTERISTICS;
+    }
+
+    private V view() {
+        if (view == null) {
+            view = factory.get();
+        }
+        return view;
+    }
+}
@@ -0,0 +1,248 @@
+package me.lucaspickering.utils.random;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Runs many independent true/false trials at once. This is the batch version of
+ * {@link me.lucaspickering.utils.GeneralFuncs#weightedChance}. For small probabilities, rather
+ * than rolling once per trial, this jumps straight from one success to the next by sampling the
+ * gap from a geometric distribution. The cost is then proportional to the number of successes,
+ * not the number of trials.
+ */
+public class BernoulliTrials {
+
+    /**
+     * Above this probability, one random number per trial is cheaper than one log per success.
+     */
+    private static final double SKIP_THRESHOLD = 0.1;
+
+    private BernoulliTrials() {
+        // Don't allow instantiation
+    }
+
+    /**
+     * Runs {@code n} trials, each with the given chance of success, and sets the bit for each
+     * success in the given mask. Bit {@code i} is bit {@code i % 64} of {@code mask[i / 64]}. Bits
+     * for trials in {@code [0, n)} are overwritten; bits after that are left alone.
+     *
+     * @param random      the {@link Random} to generate numbers from (non-null)
+     * @param n           the number of trials (non-negative)
+     * @param probability the chance of success for each trial. 0 or less is never, 1 or more is
+     *                    always.
+     * @param mask        the mask to write results into (non-null, at least {@code ceil(n / 64)}
+     *                    long)
+     * @return the number of successes
+     * @throws IllegalArgumentException if {@code n} is negative, the mask is too small, or the
+     *                                  probability is NaN
+     */
+    public static int fill(@NotNull Random random, int n, double probability,
+                           @NotNull long[] mask) {
+        Objects.requireNonNull(random);
+        checkMask(n, mask);
+        if (Double.isNaN(probability)) {
+            throw new IllegalArgumentException("Probability cannot be NaN");
+        }
+        clear(mask, n);
+
+        if (probability <= 0.0) {
+            return 0;
+        }
+        if (probability >= 1.0) {
+            for (int i = 0; i < n; i++) {
+                mask[i >>> 6] |= 1L << i;
+            }
+            return n;
+        }
+
+        int successes = 0;
+        if (probability > SKIP_THRESHOLD) {
+            for (int i = 0; i < n; i++) {
+                if (random.nextDouble() < probability) {
+                    mask[i >>> 6] |= 1L << i;
+                    successes++;
+                }
+            }
+        } else {
+            final double logFailure = Math.log1p(-probability);
+            for (long i = nextGap(random, logFailure); i < n;
+                 i += nextGap(random, logFailure) + 1) {
+                mask[(int) (i >>> 6)] |= 1L << i;
+                successes++;
+            }
+        }
+        return successes;
+    }
+
+    /**
+     * Runs one trial for each given probability, and sets the bit for each success in the given
+     * mask. Bit {@code i} is bit {@code i % 64} of {@code mask[i / 64]}. If every probability is
+     * small, this uses geometric skipping at the largest probability, then thins out the
+     * candidates, so the cost is proportional to {@code n * max(probabilities)}.
+     *
+     * @param random        the {@link Random} to generate numbers from (non-null)
+     * @param probabilities the chance of success for each trial (non-null). 0 or less is never, 1
+     *                      or more is always.
+     * @param mask          the mask to write results into (non-null, at least
+     *                      {@code ceil(probabilities.length / 64)} long)
+     * @return the number of successes
+     * @throws IllegalArgumentException if the mask is too small, or any probability is NaN
+     */
+    public static int fill(@NotNull Random random, @NotNull double[] probabilities,
+                           @NotNull long[] mask) {
+        Objects.requireNonNull(random);
+        Objects.requireNonNull(probabilities);
+        final int n = probabilities.length;
+        checkMask(n, mask);
+        clear(mask, n);
+
+        double maxProbability = 0.0;
+        for (double probability : probabilities) {
+            if (Double.isNaN(probability)) {
+                throw new IllegalArgumentException("Probability cannot be NaN");
+            }
+            maxProbability = Math.max(maxProbability, probability);
+        }
+        if (maxProbability <= 0.0) {
+            return 0;
+        }
+
+        int successes = 0;
+        if (maxProbability > SKIP_THRESHOLD) {
+            for (int i = 0; i < n; i++) {
+                if (random.nextDouble() < probabilities[i]) {
+                    mask[i >>> 6] |= 1L << i;
+                    successes++;
+                }
+            }
+        } else {
+            // Every trial is a candidate with the max probability, then each candidate is accepted
+            // with probability p / max, which makes its overall chance exactly p
+            final double logFailure = Math.log1p(-maxProbability);
+            for (long i = nextGap(random, logFailure); i < n;
+                 i += nextGap(random, logFailure) + 1) {
+                if (random.nextDouble() * maxProbability < probabilities[(int) i]) {
+                    mask[(int) (i >>> 6)] |= 1L << i;
+                    successes++;
+                }
+            }
+        }
+        return successes;
+    }
+
+    /**
+     * Runs {@code n} trials, each with the given chance of success.
+     *
+     * @param random      the {@link Random} to generate numbers from (non-null)
+     * @param n           the number of trials (non-negative)
+     * @param probability the chance of success for each trial
+     * @return a new {@link BitSet}, with a bit set for each successful trial
+     * @throws IllegalArgumentException if {@code n} is negative, or the probability is NaN
+     * @see #fill(Random, int, double, long[])
+     */
+    @NotNull
+    public static BitSet trials(@NotNull Random random, int n, double probability) {
+        final long[] mask = new long[maskLength(n)];
+        fill(random, n, probability, mask);
+        return BitSet.valueOf(mask);
+    }
+
+    /**
+     * Runs one trial for each given probability.
+     *
+     * @param random        the {@link Random} to generate numbers from (non-null)
+     * @param probabilities the chance of success for each trial (non-null)
+     * @return a new {@link BitSet}, with a bit set for each successful trial
+     * @throws IllegalArgumentException if any probability is NaN
+     * @see #fill(Random, double[], long[])
+     */
+    @NotNull
+    public static BitSet trials(@NotNull Random random, @NotNull double[] probabilities) {
+        final long[] mask = new long[maskLength(probabilities.length)];
+        fill(random, probabilities, mask);
+        return BitSet.valueOf(mask);
+    }
+
+    /**
+     * Runs {@code n} trials, each with the given chance of success, and returns the index of each
+     * success.
+     *
+     * @param random      the {@link Random} to generate numbers from (non-null)
+     * @param n           the number of trials (non-negative)
+     * @param probability the chance of success for each trial
+     * @return the indices of the successful trials, in ascending order
+     * @throws IllegalArgumentException if {@code n} is negative, or the probability is NaN
+     * @see #fill(Random, int, double, long[])
+     */
+    @NotNull
+    public static int[] successes(@NotNull Random random, int n, double probability) {
+        final long[] mask = new long[maskLength(n)];
+        return toIndices(mask, fill(random, n, probability, mask));
+    }
+
+    /**
+     * Runs one trial for each given probability, and returns the index of each success.
+     *
+     * @param random        the {@link Random} to generate numbers from (non-null)
+     * @param probabilities the chance of success for each trial (non-null)
+     * @return the indices of the successful trials, in ascending order
+     * @throws IllegalArgumentException if any probability is NaN
+     * @see #fill(Random, double[], long[])
+     */
+    @NotNull
+    public static int[] successes(@NotNull Random random, @NotNull double[] probabilities) {
+        final long[] mask = new long[maskLength(probabilities.length)];
+        return toIndices(mask, fill(random, probabilities, mask));
+    }
+
+    /**
+     * Samples the number of failures before the next success, from a geometric distribution.
+     */
+    private static long nextGap(Random random, double logFailure) {
+        final double gap = Math.log(1.0 - random.nextDouble()) / logFailure;
+        return gap < Long.MAX_VALUE / 2 ? (long) gap : Long.MAX_VALUE / 2;
+    }
+
+    private static int maskLength(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException(String.format(
+                "Number of trials cannot be negative. Trials [%d]", n));
+        }
+        return (n + 63) >>> 6;
+    }
+
+    private static void checkMask(int n, long[] mask) {
+        Objects.requireNonNull(mask);
+        if (mask.length < maskLength(n)) {
+            throw new IllegalArgumentException(String.format(
+                "Mask is too small. Trials [%d]; Mask length [%d]", n, mask.length));
+        }
+    }
+
+    /**
+     * Clears the first {@code n} bits of the mask.
+     */
+    private static void clear(long[] mask, int n) {
+        Arrays.fill(mask, 0, n >>> 6, 0L);
+        if ((n & 63) != 0) {
+            mask[n >>> 6] &= -1L << n;
+        }
+    }
+
+    private static int[] toIndices(long[] mask, int count) {
+        final int[] rv = new int[count];
+        int index = 0;
+        for (int word = 0; word < mask.length; word++) {
+            long bits = mask[word];
+            while (bits != 0L) {
+                rv[index++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return rv;
+    }
+}
@@ -0,0 +1,233 @@
+package me.lucaspickering.utils.random;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe version of {@link RandomizedSet}. Elements are split across several stripes by
+ * hash code, and each stripe has its own lock, so threads working on different elements rarely
+ * block each other. There is no global lock.
+ *
+ * To pick a random element, a stripe is chosen with probability proportional to its size, then
+ * an element is picked from within that stripe. This costs O(stripes), and is exactly uniform as
+ * long as no other thread modifies the set at the same time. Under concurrent modification, each
+ * pick is still an element that was in the set at the time.
+ *
+ * Iterators are weakly consistent: they iterate over a snapshot taken one stripe at a time, and
+ * never throw {@link java.util.ConcurrentModificationException}.
+ *
+ * @param <T> the type of the elements in the set
+ */
+public class ConcurrentRandomizedSet<T> extends AbstractSet<T> {
+
+    private final RandomizedSet<T>[] stripes;
+    private final ReentrantLock[] locks;
+    private final AtomicIntegerArray sizes; // Lets sizes be read without taking the locks
+    private final int stripeMask;
+
+    /**
+     * Constructs a new, empty {@code ConcurrentRandomizedSet} with four stripes per available
+     * processor.
+     */
+    public ConcurrentRandomizedSet() {
+        this(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * Constructs a new, empty {@code ConcurrentRandomizedSet} with the given number of stripes.
+     * The number is rounded up to a power of 2.
+     *
+     * @param stripeCount the number of stripes (positive)
+     * @throws IllegalArgumentException if {@code stripeCount} is not positive
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentRandomizedSet(int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException(String.format(
+                "Stripe count must be positive. Count [%d]", stripeCount));
+        }
+        final int size = Math.max(1, Integer.highestOneBit(stripeCount - 1) << 1);
+        stripes = (RandomizedSet<T>[]) new RandomizedSet<?>[size];
+        locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new RandomizedSet<>();
+            locks[i] = new ReentrantLock();
+        }
+        sizes = new AtomicIntegerArray(size);
+        stripeMask = size - 1;
+    }
+
+    @Override
+    public int size() {
+        int rv = 0;
+        for (int i = 0; i < sizes.length(); i++) {
+            rv += sizes.get(i);
+        }
+        return rv;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        final int stripe = stripeFor(o);
+        locks[stripe].lock();
+        try {
+            return stripes[stripe].contains(o);
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    @Override
+    public boolean add(T element) {
+        final int stripe = stripeFor(element);
+        locks[stripe].lock();
+        try {
+            if (stripes[stripe].add(element)) {
+                sizes.incrementAndGet(stripe);
+                return true;
+            }
+            return false;
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        final int stripe = stripeFor(o);
+        locks[stripe].lock();
+        try {
+            if (stripes[stripe].remove(o)) {
+                sizes.decrementAndGet(stripe);
+                return true;
+            }
+            return false;
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < stripes.length; i++) {
+            locks[i].lock();
+            try {
+                stripes[i].clear();
+                sizes.set(i, 0);
+            } finally {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    /**
+     * Randomly selects one element from this set. Each element has an equal chance of being chosen.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @return the selected element
+     * @throws IllegalStateException if this set is empty
+     */
+    public T randomElement(@NotNull Random random) {
+        return pickRandom(random, false);
+    }
+
+    /**
+     * Randomly selects one element from this set and removes it. Each element has an equal chance
+     * of being chosen. If several threads call this at once, they will never get the same element.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @return the removed element
+     * @throws IllegalStateException if this set is empty
+     */
+    public T removeRandom(@NotNull Random random) {
+        return pickRandom(random, true);
+    }
+
+    @NotNull
+    @Override
+    public Iterator<T> iterator() {
+        final List<T> snapshot = new ArrayList<>(size());
+        for (int i = 0; i < stripes.length; i++) {
+            locks[i].lock();
+            try {
+                snapshot.addAll(stripes[i]);
+            } finally {
+                locks[i].unlock();
+            }
+        }
+
+        final Iterator<T> iter = snapshot.iterator();
+        return new Iterator<T>() {
+
+            private T lastReturned;
+
+            @Override
+            public boolean hasNext() {
+                return iter.hasNext();
+            }
+
+            @Override
+            public T next() {
+                lastReturned = iter.next();
+                return lastReturned;
+            }
+
+            @Override
+            public void remove() {
+                iter.remove(); // Throws if next() hasn't been called
+                ConcurrentRandomizedSet.this.remove(lastReturned);
+            }
+        };
+    }
+
+    private T pickRandom(Random random, boolean remove) {
+        Objects.requireNonNull(random);
+        while (true) {
+            final int total = size();
+            if (total == 0) {
+                throw new IllegalStateException("Set is empty");
+            }
+
+            // Find the stripe that the chosen position falls in
+            int target = random.nextInt(total);
+            int stripe = 0;
+            int stripeSize = sizes.get(0);
+            while (stripe < stripeMask && target >= stripeSize) {
+                target -= stripeSize;
+                stripeSize = sizes.get(++stripe);
+            }
+
+            locks[stripe].lock();
+            try {
+                final RandomizedSet<T> set = stripes[stripe];
+                if (set.isEmpty()) {
+                    continue; // Emptied by another thread since we looked, so try again
+                }
+                if (target >= set.size()) {
+                    // Shrunk by another thread since we looked, so fall back to any element
+                    target = random.nextInt(set.size());
+                }
+                if (remove) {
+                    sizes.decrementAndGet(stripe);
+                    return set.removeAt(target);
+                }
+                return set.get(target);
+            } finally {
+                locks[stripe].unlock();
+            }
+        }
+    }
+
+    private int stripeFor(Object o) {
+        final int h = Objects.hashCode(o);
+        return (h ^ (h >>> 16)) & stripeMask;
+    }
+}
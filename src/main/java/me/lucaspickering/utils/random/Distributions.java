@@ -0,0 +1,670 @@
+package me.lucaspickering.utils.random;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Samplers for non-uniform random distributions. Each method takes the {@link Random} to draw
+ * from, so any generator (including a {@link RandomSource}) can be used.
+ */
+public class Distributions {
+
+    /**
+     * Below this mean, binomials and Poissons are sampled by inversion, which is faster for small
+     * means.
+     */
+    private static final double INVERSION_MEAN = 10.0;
+
+    private static final int LOG_FACTORIAL_TABLE_SIZE = 256;
+    private static final double[] LOG_FACTORIAL_TABLE = new double[LOG_FACTORIAL_TABLE_SIZE];
+
+    // Ziggurat tables. X holds the right edge of each layer, from widest to narrowest. F holds the
+    // (unnormalized) density at each edge, and RATIO holds how much of each layer is entirely
+    // under the curve.
+    private static final int GAUSSIAN_LAYERS = 128;
+    private static final double GAUSSIAN_R = 3.442619855899;
+    private static final double GAUSSIAN_V = 9.91256303526217e-3;
+    private static final double[] GAUSSIAN_X = new double[GAUSSIAN_LAYERS + 1];
+    private static final double[] GAUSSIAN_F = new double[GAUSSIAN_LAYERS + 1];
+    private static final double[] GAUSSIAN_RATIO = new double[GAUSSIAN_LAYERS];
+
+    private static final int EXPONENTIAL_LAYERS = 256;
+    private static final double EXPONENTIAL_R = 7.697117470131487;
+    private static final double EXPONENTIAL_V = 3.949659822581572e-3;
+    private static final double[] EXPONENTIAL_X = new double[EXPONENTIAL_LAYERS + 1];
+    private static final double[] EXPONENTIAL_F = new double[EXPONENTIAL_LAYERS + 1];
+    private static final double[] EXPONENTIAL_RATIO = new double[EXPONENTIAL_LAYERS];
+
+    // Coefficients for Wichura's AS241 normal quantile function
+    private static final double[] QUANTILE_A = {
+        3.3871328727963666080e0, 1.3314166789178437745e+2, 1.9715909503065514427e+3,
+        1.3731693765509461125e+4, 4.5921953931549871457e+4, 6.7265770927008700853e+4,
+        3.3430575583588128105e+4, 2.5090809287301226727e+3
+    };
+    private static final double[] QUANTILE_B = {
+        1.0, 4.2313330701600911252e+1, 6.8718700749205790830e+2, 5.3941960214247511077e+3,
+        2.1213794301586595867e+4, 3.9307895800092710610e+4, 2.8729085735721942674e+4,
+        5.2264952788528545610e+3
+    };
+    private static final double[] QUANTILE_C = {
+        1.42343711074968357734e0, 4.63033784615654529590e0, 5.76949722146069140550e0,
+        3.64784832476320460504e0, 1.27045825245236838258e0, 2.41780725177450611770e-1,
+        2.27238449892691845833e-2, 7.74545014278341407640e-4
+    };
+    private static final double[] QUANTILE_D = {
+        1.0, 2.05319162663775882187e0, 1.67638483018380384940e0, 6.89767334985100004550e-1,
+        1.48103976427480074590e-1, 1.51986665636164571966e-2, 5.47593808499534494600e-4,
+        1.05075007164441684324e-9
+    };
+    private static final double[] QUANTILE_E = {
+        6.65790464350110377720e0, 5.46378491116411436990e0, 1.78482653991729133580e0,
+        2.96560571828504891230e-1, 2.65321895265761230930e-2, 1.24266094738807843860e-3,
+        2.71155556874348757815e-5, 2.01033439929228813265e-7
+    };
+    private static final double[] QUANTILE_F = {
+        1.0, 5.99832206555887937690e-1, 1.36929880922735805310e-1, 1.48753612908506148525e-2,
+        7.86869131145613259100e-4, 1.84631831751005468180e-5, 1.42151175831644588870e-7,
+        2.04426310338993978564e-15
+    };
+
+    static {
+        for (int k = 1; k < LOG_FACTORIAL_TABLE_SIZE; k++) {
+            LOG_FACTORIAL_TABLE[k] = LOG_FACTORIAL_TABLE[k - 1] + Math.log(k);
+        }
+
+        // Each layer has the same area, V. The bottom layer includes the tail, so its width is
+        // stretched to make up for that.
+        GAUSSIAN_X[0] = GAUSSIAN_V / Math.exp(-0.5 * GAUSSIAN_R * GAUSSIAN_R);
+        GAUSSIAN_X[1] = GAUSSIAN_R;
+        for (int i = 2; i < GAUSSIAN_LAYERS; i++) {
+            final double prev = GAUSSIAN_X[i - 1];
+            GAUSSIAN_X[i] = Math.sqrt(-2.0 * Math.log(
+                GAUSSIAN_V / prev + Math.exp(-0.5 * prev * prev)));
+        }
+        for (int i = 0; i <= GAUSSIAN_LAYERS; i++) {
+            GAUSSIAN_F[i] = Math.exp(-0.5 * GAUSSIAN_X[i] * GAUSSIAN_X[i]);
+        }
+        for (int i = 0; i < GAUSSIAN_LAYERS; i++) {
+            GAUSSIAN_RATIO[i] = GAUSSIAN_X[i + 1] / GAUSSIAN_X[i];
+        }
+
+        EXPONENTIAL_X[0] = EXPONENTIAL_V / Math.exp(-EXPONENTIAL_R);
+        EXPONENTIAL_X[1] = EXPONENTIAL_R;
+        for (int i = 2; i < EXPONENTIAL_LAYERS; i++) {
+            final double prev = EXPONENTIAL_X[i - 1];
+            EXPONENTIAL_X[i] = -Math.log(EXPONENTIAL_V / prev + Math.exp(-prev));
+        }
+        for (int i = 0; i <= EXPONENTIAL_LAYERS; i++) {
+            EXPONENTIAL_F[i] = Math.exp(-EXPONENTIAL_X[i]);
+        }
+        for (int i = 0; i < EXPONENTIAL_LAYERS; i++) {
+            EXPONENTIAL_RATIO[i] = EXPONENTIAL_X[i + 1] / EXPONENTIAL_X[i];
+        }
+    }
+
+    private Distributions() {
+        // Don't allow instantiation
+    }
+
+    /**
+     * Samples the number of successes in {@code n} independent trials, each with the given chance
+     * of success. Large means use Hormann's BTRS transformed rejection method, which takes O(1)
+     * expected time regardless of {@code n}.
+     *
+     * @param random      the {@link Random} to generate numbers from (non-null)
+     * @param n           the number of trials (non-negative)
+     * @param probability the chance of success for each trial, in the range {@code [0, 1]}
+     * @return a binomially distributed value in {@code [0, n]}
+     * @throws IllegalArgumentException if {@code n} is negative or the probability is out of range
+     */
+    public static long binomial(@NotNull Random random, long n, double probability) {
+        Objects.requireNonNull(random);
+        if (n < 0) {
+            throw new IllegalArgumentException(String.format(
+                "Number of trials cannot be negative. Trials [%d]", n));
+        }
+        if (!(probability >= 0.0 && probability <= 1.0)) {
+            throw new IllegalArgumentException(String.format(
+                "Probability must be in the range [0, 1]. Probability [%s]", probability));
+        }
+
+        if (n == 0 || probability == 0.0) {
+            return 0;
+        }
+        if (probability == 1.0) {
+            return n;
+        }
+
+        // Both methods below need p <= 0.5, so flip it around if it's bigger
+        if (probability > 0.5) {
+            return n - binomial(random, n, 1.0 - probability);
+        }
+        if (n * probability < INVERSION_MEAN) {
+            return binomialInversion(random, n, probability);
+        }
+        return binomialBtrs(random, n, probability);
+    }
+
+    private static long binomialInversion(Random random, long n, double p) {
+        // Walk up the CDF until we pass u. The mean is small, so this takes few steps.
+        final double q = 1.0 - p;
+        final double s = p / q;
+        final double a = (n + 1) * s;
+        double r = Math.pow(q, n);
+        double u = random.nextDouble();
+        long x = 0;
+        while (u > r) {
+            u -= r;
+            x++;
+            if (x > n) {
+                // Only reachable through rounding error, so just start over
+                x = 0;
+                r = Math.pow(q, n);
+                u = random.nextDouble();
+                continue;
+            }
+            r *= a / x - s;
+        }
+        return x;
+    }
+
+    private static long binomialBtrs(Random random, long n, double p) {
+        final double q = 1.0 - p;
+        final double spq = Math.sqrt(n * p * q);
+        final double b = 1.15 + 2.53 * spq;
+        final double a = -0.0873 + 0.0248 * b + 0.01 * p;
+        final double c = n * p + 0.5;
+        final double vr = 0.92 - 4.2 / b;
+        final double alpha = (2.83 + 5.1 / b) * spq;
+        final double lpq = Math.log(p / q);
+        final long m = (long) Math.floor((n + 1) * p);
+        final double h = logFactorial(m) + logFactorial(n - m);
+
+        while (true) {
+            final double u = random.nextDouble() - 0.5;
+            double v = random.nextDouble();
+            final double us = 0.5 - Math.abs(u);
+            final long k = (long) Math.floor((2.0 * a / us + b) * u + c);
+            if (k < 0 || k > n) {
+                continue;
+            }
+
+            // Fast acceptance, which covers most draws
+            if (us >= 0.07 && v <= vr) {
+                return k;
+            }
+
+            // Full acceptance test against the log of the PMF ratio
+            v = Math.log(v * alpha / (a / (us * us) + b));
+            if (v <= h - logFactorial(k) - logFactorial(n - k) + (k - m) * lpq) {
+                return k;
+            }
+        }
+    }
+
+    /**
+     * Samples a value from the standard normal distribution, using Marsaglia and Tsang's ziggurat
+     * method. Almost all draws take a single random long and a table lookup. This is several times
+     * faster than {@link Random#nextGaussian()}, and isn't synchronized.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @return a normally distributed value, with mean 0 and standard deviation 1
+     */
+    public static double gaussian(@NotNull Random random) {
+        while (true) {
+            // The low bits pick the layer, and the top 53 bits make a uniform value in [-1, 1)
+            final long bits = random.nextLong();
+            final int i = (int) bits & (GAUSSIAN_LAYERS - 1);
+            final double u = (bits >> 11) * 0x1.0p-52;
+            final double x = u * GAUSSIAN_X[i];
+
+            if (Math.abs(u) < GAUSSIAN_RATIO[i]) {
+                return x; // Entirely under the curve
+            }
+            if (i == 0) {
+                return gaussianTail(random, u < 0.0);
+            }
+            // In the wedge between the layer and the curve
+            final double y = GAUSSIAN_F[i] +
+                             random.nextDouble() * (GAUSSIAN_F[i + 1] - GAUSSIAN_F[i]);
+            if (y < Math.exp(-0.5 * x * x)) {
+                return x;
+            }
+        }
+    }
+
+    /**
+     * Samples a value from a normal distribution with the given parameters.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @param mean   the mean of the distribution
+     * @param stddev the standard deviation of the distribution (non-negative)
+     * @return a normally distributed value
+     * @throws IllegalArgumentException if the standard deviation is negative or NaN
+     * @see #gaussian(Random)
+     */
+    public static double gaussian(@NotNull Random random, double mean, double stddev) {
+        checkNonNegative("Standard deviation", stddev);
+        return mean + stddev * gaussian(random);
+    }
+
+    /**
+     * Fills the given array with values from a normal distribution with the given parameters.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @param array  the array to fill (non-null)
+     * @param mean   the mean of the distribution
+     * @param stddev the standard deviation of the distribution (non-negative)
+     * @throws IllegalArgumentException if the standard deviation is negative or NaN
+     */
+    public static void fillGaussian(@NotNull Random random, @NotNull double[] array,
+                                    double mean, double stddev) {
+        Objects.requireNonNull(random);
+        checkNonNegative("Standard deviation", stddev);
+        for (int i = 0; i < array.length; i++) {
+            array[i] = mean + stddev * gaussian(random);
+        }
+    }
+
+    /**
+     * Samples a value from the part of the standard normal distribution beyond the ziggurat's
+     * base layer, using Marsaglia's tail method.
+     */
+    private static double gaussianTail(Random random, boolean negative) {
+        double x;
+        double y;
+        do {
+            x = -Math.log(1.0 - random.nextDouble()) / GAUSSIAN_R;
+            y = -Math.log(1.0 - random.nextDouble());
+        } while (y + y < x * x);
+        return negative ? -(GAUSSIAN_R + x) : GAUSSIAN_R + x;
+    }
+
+    /**
+     * Samples a value from the standard exponential distribution, using Marsaglia and Tsang's
+     * ziggurat method. Almost all draws take a single random long and a table lookup, with no
+     * logarithm.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @return an exponentially distributed value, with rate (and mean) 1
+     */
+    public static double exponential(@NotNull Random random) {
+        double offset = 0.0;
+        while (true) {
+            // The low bits pick the layer, and the top 53 bits make a uniform value in [0, 1)
+            final long bits = random.nextLong();
+            final int i = (int) bits & (EXPONENTIAL_LAYERS - 1);
+            final double u = (bits >>> 11) * 0x1.0p-53;
+            final double x = u * EXPONENTIAL_X[i];
+
+            if (u < EXPONENTIAL_RATIO[i]) {
+                return offset + x; // Entirely under the curve
+            }
+            if (i == 0) {
+                // The distribution is memoryless, so the tail is just another sample, shifted
+                offset += EXPONENTIAL_R;
+                continue;
+            }
+            // In the wedge between the layer and the curve
+            final double y = EXPONENTIAL_F[i] +
+                             random.nextDouble() * (EXPONENTIAL_F[i + 1] - EXPONENTIAL_F[i]);
+            if (y < Math.exp(-x)) {
+                return offset + x;
+            }
+        }
+    }
+
+    /**
+     * Samples a value from an exponential distribution with the given rate.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @param rate   the rate of the distribution, which is 1 over the mean (positive)
+     * @return an exponentially distributed value
+     * @throws IllegalArgumentException if the rate is not positive
+     * @see #exponential(Random)
+     */
+    public static double exponential(@NotNull Random random, double rate) {
+        checkRate(rate);
+        return exponential(random) / rate;
+    }
+
+    /**
+     * Fills the given array with values from an exponential distribution with the given rate.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @param array  the array to fill (non-null)
+     * @param rate   the rate of the distribution, which is 1 over the mean (positive)
+     * @throws IllegalArgumentException if the rate is not positive
+     */
+    public static void fillExponential(@NotNull Random random, @NotNull double[] array,
+                                       double rate) {
+        Objects.requireNonNull(random);
+        checkRate(rate);
+        final double mean = 1.0 / rate;
+        for (int i = 0; i < array.length; i++) {
+            array[i] = exponential(random) * mean;
+        }
+    }
+
+    /**
+     * Samples a value from a Poisson distribution with the given mean. Large means use Hormann's
+     * PTRS transformed rejection method, which takes O(1) expected time regardless of the mean.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @param mean   the mean of the distribution (non-negative, finite)
+     * @return a Poisson distributed value
+     * @throws IllegalArgumentException if the mean is negative, NaN, or infinite
+     */
+    public static long poisson(@NotNull Random random, double mean) {
+        Objects.requireNonNull(random);
+        checkPoissonMean(mean);
+        if (mean < INVERSION_MEAN) {
+            return poissonInversion(random, mean);
+        }
+        return poissonPtrs(random, mean, Math.sqrt(mean), Math.log(mean));
+    }
+
+    /**
+     * Fills the given array with values from a Poisson distribution with the given mean.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @param array  the array to fill (non-null)
+     * @param mean   the mean of the distribution (non-negative, finite)
+     * @throws IllegalArgumentException if the mean is negative, NaN, or infinite
+     * @see #poisson(Random, double)
+     */
+    public static void fillPoisson(@NotNull Random random, @NotNull long[] array, double mean) {
+        Objects.requireNonNull(random);
+        checkPoissonMean(mean);
+        if (mean < INVERSION_MEAN) {
+            for (int i = 0; i < array.length; i++) {
+                array[i] = poissonInversion(random, mean);
+            }
+        } else {
+            final double sqrtMean = Math.sqrt(mean);
+            final double logMean = Math.log(mean);
+            for (int i = 0; i < array.length; i++) {
+                array[i] = poissonPtrs(random, mean, sqrtMean, logMean);
+            }
+        }
+    }
+
+    private static long poissonInversion(Random random, double mean) {
+        // Walk up the CDF until we pass u. The mean is small, so this takes few steps.
+        final double p0 = Math.exp(-mean);
+        double p = p0;
+        double cdf = p0;
+        double u = random.nextDouble();
+        long k = 0;
+        while (u > cdf) {
+            k++;
+            p *= mean / k;
+            cdf += p;
+            if (p == 0.0) {
+                // Only reachable through rounding error, so just start over
+                k = 0;
+                p = p0;
+                cdf = p0;
+                u = random.nextDouble();
+            }
+        }
+        return k;
+    }
+
+    private static long poissonPtrs(Random random, double mean, double sqrtMean, double logMean) {
+        final double b = 0.931 + 2.53 * sqrtMean;
+        final double a = -0.059 + 0.02483 * b;
+        final double logInverseAlpha = Math.log(1.1239 + 1.1328 / (b - 3.4));
+        final double vr = 0.9277 - 3.6224 / (b - 2.0);
+
+        while (true) {
+            final double u = random.nextDouble() - 0.5;
+            final double v = random.nextDouble();
+            final double us = 0.5 - Math.abs(u);
+            final long k = (long) Math.floor((2.0 * a / us + b) * u + mean + 0.43);
+
+            // Fast acceptance, which covers most draws
+            if (us >= 0.07 && v <= vr) {
+                return k;
+            }
+            if (k < 0 || (us < 0.013 && v > us)) {
+                continue;
+            }
+
+            // Full acceptance test against the log of the PMF
+            if (Math.log(v) + logInverseAlpha - Math.log(a / (us * us) + b) <=
+                -mean + k * logMean - logFactorial(k)) {
+                return k;
+            }
+        }
+    }
+
+    /**
+     * Fills the given array with values from a binomial distribution with the given parameters.
+     *
+     * @param random      the {@link Random} to generate numbers from (non-null)
+     * @param array       the array to fill (non-null)
+     * @param n           the number of trials (non-negative)
+     * @param probability the chance of success for each trial, in the range {@code [0, 1]}
+     * @throws IllegalArgumentException if {@code n} is negative or the probability is out of range
+     * @see #binomial(Random, long, double)
+     */
+    public static void fillBinomial(@NotNull Random random, @NotNull long[] array, long n,
+                                    double probability) {
+        for (int i = 0; i < array.length; i++) {
+            array[i] = binomial(random, n, probability);
+        }
+    }
+
+    /**
+     * Splits {@code n} draws between outcomes, where each outcome's chance of being drawn is
+     * proportional to its weight. This is the same as drawing {@code n} times from a
+     * {@link WeightedSampler} and counting the results, but it only takes O(weights.length) time,
+     * regardless of {@code n}. Each count is sampled from a binomial distribution, conditioned on
+     * the draws left over after the previous outcomes.
+     *
+     * @param random  the {@link Random} to generate numbers from (non-null)
+     * @param n       the number of draws (non-negative)
+     * @param weights the weight of each outcome (non-null, non-negative, not all 0 if
+     *                {@code n > 0})
+     * @return a new array with the number of times each outcome was drawn, summing to {@code n}
+     * @throws IllegalArgumentException if {@code n} is negative, any weight is negative, NaN, or
+     *                                  infinite, or no weight is positive
+     */
+    @NotNull
+    public static long[] multinomial(@NotNull Random random, long n, @NotNull double[] weights) {
+        Objects.requireNonNull(random);
+        Objects.requireNonNull(weights);
+        if (n < 0) {
+            throw new IllegalArgumentException(String.format(
+                "Number of draws cannot be negative. Draws [%d]", n));
+        }
+
+        // Sum the weights from the back, so that each outcome's share of what's left is exact,
+        // and the last positive outcome always gets everything that remains
+        final double[] suffixSums = new double[weights.length + 1];
+        for (int i = weights.length - 1; i >= 0; i--) {
+            final double weight = weights[i];
+            if (!(weight >= 0.0) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException(String.format(
+                    "Weight must be non-negative and finite. Weight [%s]", weight));
+            }
+            suffixSums[i] = suffixSums[i + 1] + weight;
+        }
+        if (n > 0 && !(suffixSums[0] > 0.0)) {
+            throw new IllegalArgumentException("At least one weight must be positive");
+        }
+
+        final long[] counts = new long[weights.length];
+        long remaining = n;
+        for (int i = 0; i < weights.length && remaining > 0; i++) {
+            if (weights[i] > 0.0) {
+                final double share = Math.min(1.0, weights[i] / suffixSums[i]);
+                counts[i] = binomial(random, remaining, share);
+                remaining -= counts[i];
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Splits {@code n} draws between the elements of the given collection, weighted by the given
+     * function. See {@link #multinomial(Random, long, double[])}.
+     *
+     * @param random         the {@link Random} to generate numbers from (non-null)
+     * @param coll           the collection to draw from (non-null)
+     * @param weightFunction the function that provides a weight for each element (non-null)
+     * @param n              the number of draws (non-negative)
+     * @param <T>            the type of the elements in the collection
+     * @return a new array with the number of times each element was drawn, in the collection's
+     * iteration order
+     * @throws IllegalArgumentException if {@code n} is negative, any weight is negative, NaN, or
+     *                                  infinite, or no weight is positive
+     */
+    @NotNull
+    public static <T> long[] multinomial(@NotNull Random random, @NotNull Collection<T> coll,
+                                         @NotNull ToDoubleFunction<? super T> weightFunction,
+                                         long n) {
+        Objects.requireNonNull(coll);
+        Objects.requireNonNull(weightFunction);
+        final double[] weights = new double[coll.size()];
+        int i = 0;
+        for (T element : coll) {
+            weights[i++] = weightFunction.applyAsDouble(element);
+        }
+        return multinomial(random, n, weights);
+    }
+
+    /**
+     * Computes {@code ln(k!)}. Small values come from a table, larger ones from Stirling's series,
+     * which is accurate to double precision at that point.
+     */
+    static double logFactorial(long k) {
+        if (k < LOG_FACTORIAL_TABLE_SIZE) {
+            return LOG_FACTORIAL_TABLE[(int) k];
+        }
+        final double x = k;
+        final double inverse = 1.0 / x;
+        final double inverse2 = inverse * inverse;
+        return x * Math.log(x) - x + 0.5 * Math.log(2.0 * Math.PI * x) +
+               inverse * (1.0 / 12.0 - inverse2 * (1.0 / 360.0 - inverse2 / 1260.0));
+    }
+
+    /**
+     * Computes the standard normal cumulative distribution function. This has good relative
+     * accuracy far into the lower tail, which the truncated samplers rely on.
+     *
+     * @param x the value
+     * @return the probability that a standard normal value is at most {@code x}
+     */
+    static double normalCdf(double x) {
+        return 0.5 * erfc(-x / Math.sqrt(2.0));
+    }
+
+    /**
+     * Computes the inverse of {@link #normalCdf}, using Wichura's AS241 algorithm, which is
+     * accurate to about 1e-16.
+     *
+     * @param p the probability, in the range {@code [0, 1]}
+     * @return the value {@code x} where {@code normalCdf(x) == p}
+     */
+    static double normalQuantile(double p) {
+        if (p <= 0.0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (p >= 1.0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        final double q = p - 0.5;
+        if (Math.abs(q) <= 0.425) {
+            final double r = 0.180625 - q * q;
+            return q * polynomial(QUANTILE_A, r) / polynomial(QUANTILE_B, r);
+        }
+
+        double r = Math.sqrt(-Math.log(q < 0.0 ? p : 1.0 - p));
+        final double x;
+        if (r <= 5.0) {
+            r -= 1.6;
+            x = polynomial(QUANTILE_C, r) / polynomial(QUANTILE_D, r);
+        } else {
+            r -= 5.0;
+            x = polynomial(QUANTILE_E, r) / polynomial(QUANTILE_F, r);
+        }
+        return q < 0.0 ? -x : x;
+    }
+
+    /**
+     * Computes the complementary error function. Small values use a Taylor series for erf, and
+     * everything else uses a continued fraction, which keeps full relative accuracy in the tail.
+     */
+    private static double erfc(double x) {
+        final double absX = Math.abs(x);
+        if (absX < 1.5) {
+            final double x2 = x * x;
+            double acc = 0.0;
+            double fk = 25.5;
+            for (int i = 0; i < 25; i++) {
+                acc = 2.0 + x2 * acc / fk;
+                fk -= 1.0;
+            }
+            return 1.0 - acc * x * Math.exp(-x2) / Math.sqrt(Math.PI);
+        }
+        if (absX >= 30.0) {
+            return x > 0.0 ? 0.0 : 2.0;
+        }
+
+        final double x2 = absX * absX;
+        double a = 0.0;
+        double da = 0.5;
+        double p = 1.0;
+        double pLast = 0.0;
+        double q = da + x2;
+        double qLast = 1.0;
+        for (int i = 0; i < 50; i++) {
+            a += da;
+            da += 2.0;
+            final double b = da + x2;
+            double temp = p;
+            p = b * p - a * pLast;
+            pLast = temp;
+            temp = q;
+            q = b * q - a * qLast;
+            qLast = temp;
+        }
+        final double rv = p / q * absX * Math.exp(-x2) / Math.sqrt(Math.PI);
+        return x > 0.0 ? rv : 2.0 - rv;
+    }
+
+    private static double polynomial(double[] coefficients, double x) {
+        double rv = 0.0;
+        for (int i = coefficients.length - 1; i >= 0; i--) {
+            rv = rv * x + coefficients[i];
+        }
+        return rv;
+    }
+
+    private static void checkNonNegative(String name, double value) {
+        if (!(value >= 0.0)) {
+            throw new IllegalArgumentException(String.format(
+                "%s cannot be negative. Value [%s]", name, value));
+        }
+    }
+
+    private static void checkRate(double rate) {
+        if (!(rate > 0.0)) {
+            throw new IllegalArgumentException(String.format(
+                "Rate must be positive. Rate [%s]", rate));
+        }
+    }
+
+    static void checkPoissonMean(double mean) {
+        if (!(mean >= 0.0) || Double.isInfinite(mean)) {
+            throw new IllegalArgumentException(String.format(
+                "Mean must be non-negative and finite. Mean [%s]", mean));
+        }
+    }
+}
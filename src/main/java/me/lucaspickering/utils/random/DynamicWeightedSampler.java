@@ -0,0 +1,293 @@
+package me.lucaspickering.utils.random;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A mutable weighted sampler, where each element's chance of being chosen is proportional to its
+ * weight. Unlike {@link WeightedSampler}, weights can be changed and elements can be added and
+ * removed after construction. Weights are stored in a Fenwick tree, so updates and draws are both
+ * O(log n), and neither allocates. Incremental updates slowly build up floating point error in the
+ * tree, so it is rebuilt from the exact weights every so often, which is O(1) amortized.
+ *
+ * Elements are addressed by index, in the order they were added. Removing an element moves the
+ * last element into its index, so that indices stay dense.
+ *
+ * @param <T> the type of the elements being sampled
+ */
+public class DynamicWeightedSampler<T> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Object[] elements;
+    private double[] weights;
+    private double[] tree; // 1-indexed Fenwick tree over weights
+    private int size;
+    private int positiveCount; // Number of elements with a positive weight
+    private int updatesSinceRebuild;
+
+    /**
+     * Constructs a new, empty {@code DynamicWeightedSampler}.
+     */
+    public DynamicWeightedSampler() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new, empty {@code DynamicWeightedSampler} with room for the given number of
+     * elements before it needs to grow.
+     *
+     * @param initialCapacity the initial capacity (non-negative)
+     * @throws IllegalArgumentException if {@code initialCapacity} is negative
+     */
+    public DynamicWeightedSampler(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException(String.format(
+                "Capacity cannot be negative. Capacity [%d]", initialCapacity));
+        }
+        elements = new Object[initialCapacity];
+        weights = new double[initialCapacity];
+        tree = new double[initialCapacity + 1];
+    }
+
+    /**
+     * Constructs a new {@code DynamicWeightedSampler} containing every element of the given
+     * collection, in iteration order. The weight of each element is computed once, here.
+     *
+     * @param coll           the initial elements (non-null)
+     * @param weightFunction the function that provides a weight for each element (non-null)
+     * @throws IllegalArgumentException if any weight is negative, NaN, or infinite
+     */
+    public DynamicWeightedSampler(@NotNull Collection<T> coll,
+                                  @NotNull ToDoubleFunction<? super T> weightFunction) {
+        this(Objects.requireNonNull(coll).size());
+        Objects.requireNonNull(weightFunction);
+        for (T element : coll) {
+            final double weight = weightFunction.applyAsDouble(element);
+            checkWeight(weight);
+            elements[size] = element;
+            weights[size] = weight;
+            if (weight > 0.0) {
+                positiveCount++;
+            }
+            size++;
+        }
+        rebuildTree();
+    }
+
+    /**
+     * Gets the number of elements in this sampler, including those with a weight of 0.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the element at the given index.
+     *
+     * @param index the index of the element
+     * @return the element
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        checkIndex(index);
+        return (T) elements[index];
+    }
+
+    /**
+     * Gets the weight of the element at the given index.
+     *
+     * @param index the index of the element
+     * @return the element's weight
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public double getWeight(int index) {
+        checkIndex(index);
+        return weights[index];
+    }
+
+    /**
+     * Gets the sum of all weights in this sampler.
+     *
+     * @return the total weight
+     */
+    public double totalWeight() {
+        return prefixSum(size);
+    }
+
+    /**
+     * Adds an element with the given weight. The element will be at index {@code size() - 1}.
+     *
+     * @param element the element to add
+     * @param weight  the weight of the element (non-negative, finite)
+     * @return the index of the new element
+     * @throws IllegalArgumentException if the weight is negative, NaN, or infinite
+     */
+    public int add(T element, double weight) {
+        checkWeight(weight);
+        if (size == elements.length) {
+            final int newCapacity = Math.max(DEFAULT_CAPACITY, elements.length * 2);
+            elements = Arrays.copyOf(elements, newCapacity);
+            weights = Arrays.copyOf(weights, newCapacity);
+            tree = new double[newCapacity + 1];
+            rebuildTree(); // O(n), but amortized over all the adds that got us here
+        }
+        final int index = size++;
+        elements[index] = element;
+        setWeight(index, weight);
+        return index;
+    }
+
+    /**
+     * Removes the element at the given index. To keep indices dense, the last element is moved
+     * into the removed element's index.
+     *
+     * @param index the index of the element to remove
+     * @return the removed element
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public T remove(int index) {
+        final T rv = get(index);
+        final int last = size - 1;
+        if (index != last) {
+            elements[index] = elements[last];
+            setWeight(index, weights[last]);
+        }
+        setWeight(last, 0.0);
+        elements[last] = null;
+        size--;
+        return rv;
+    }
+
+    /**
+     * Changes the weight of the element at the given index.
+     *
+     * @param index  the index of the element
+     * @param weight the new weight (non-negative, finite)
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * @throws IllegalArgumentException  if the weight is negative, NaN, or infinite
+     */
+    public void setWeight(int index, double weight) {
+        checkIndex(index);
+        checkWeight(weight);
+        final double delta = weight - weights[index];
+        if (weights[index] > 0.0) {
+            positiveCount--;
+        }
+        if (weight > 0.0) {
+            positiveCount++;
+        }
+        weights[index] = weight;
+
+        // Rebuilding after as many updates as the tree has nodes keeps the cost O(1) amortized
+        if (++updatesSinceRebuild >= tree.length) {
+            rebuildTree();
+        } else {
+            for (int i = index + 1; i < tree.length; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+    }
+
+    /**
+     * Randomly selects the index of one element. Each element has a chance of being chosen that is
+     * proportional to its weight.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @return the index of a randomly-selected element
+     * @throws IllegalStateException if no element has a positive weight
+     */
+    public int nextIndex(@NotNull Random random) {
+        Objects.requireNonNull(random);
+        if (positiveCount == 0) {
+            throw new IllegalStateException("No element has a positive weight");
+        }
+
+        // Walk down the tree to find the first index whose prefix sum exceeds the target
+        double target = random.nextDouble() * totalWeight();
+        int pos = 0;
+        for (int step = Integer.highestOneBit(size); step > 0; step >>= 1) {
+            final int next = pos + step;
+            if (next <= size && tree[next] <= target) {
+                pos = next;
+                target -= tree[next];
+            }
+        }
+
+        // Floating point error can push us one past the end, or onto an element with no weight.
+        // This is rare, so just step back to the nearest element that has weight.
+        if (pos < size && weights[pos] > 0.0) {
+            return pos;
+        }
+        for (int i = Math.min(pos, size - 1); i >= 0; i--) {
+            if (weights[i] > 0.0) {
+                return i;
+            }
+        }
+        for (int i = pos + 1; ; i++) {
+            if (weights[i] > 0.0) {
+                return i;
+            }
+        }
+    }
+
+    /**
+     * Randomly selects one element. Each element has a chance of being chosen that is
+     * proportional to its weight.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @return a randomly-selected element
+     * @throws IllegalStateException if no element has a positive weight
+     */
+    public T next(@NotNull Random random) {
+        return get(nextIndex(random));
+    }
+
+    private double prefixSum(int count) {
+        double sum = 0.0;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Rebuilds the entire tree from the weights array in O(n). This also clears out any floating
+     * point error that has built up from incremental updates.
+     */
+    private void rebuildTree() {
+        updatesSinceRebuild = 0;
+        Arrays.fill(tree, 0.0);
+        for (int i = 1; i < tree.length; i++) {
+            if (i <= size) {
+                tree[i] += weights[i - 1];
+            }
+            final int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.format(
+                "Index out of range. Index [%d]; Size [%d]", index, size));
+        }
+    }
+
+    private static void checkWeight(double weight) {
+        if (!(weight >= 0.0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException(String.format(
+                "Weight must be non-negative and finite. Weight [%s]", weight));
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package me.lucaspickering.utils.random;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Generates reproducible random values in parallel. The index space {@code [0, size)} is split
+ * into fixed-size blocks, and each block gets its own generator, derived only from the seed and
+ * the block's number. Within a block, indices are always visited in order. This means the random
+ * values that each index sees are the same regardless of how many threads are used or how the
+ * work gets scheduled.
+ *
+ * Instances are immutable, and so can be shared between threads.
+ */
+public class ParallelRandom {
+
+    /**
+     * A function that receives an index, along with the generator that it should use.
+     */
+    @FunctionalInterface
+    public interface IndexedRandomConsumer {
+
+        void accept(int index, @NotNull RandomSource random);
+    }
+
+    /**
+     * A function that produces a value for an index, using the given generator.
+     *
+     * @param <T> the type of the value produced
+     */
+    @FunctionalInterface
+    public interface IndexedRandomFunction<T> {
+
+        T apply(int index, @NotNull RandomSource random);
+    }
+
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    private final long seed;
+    private final int blockSize;
+
+    /**
+     * Constructs a new {@code ParallelRandom} with the given seed and the default block size.
+     *
+     * @param seed the seed
+     */
+    public ParallelRandom(long seed) {
+        this(seed, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Constructs a new {@code ParallelRandom} with the given seed and block size. Smaller blocks
+     * balance better across threads, but have more overhead. Results depend on the block size, so
+     * it must stay the same to reproduce a run.
+     *
+     * @param seed      the seed
+     * @param blockSize the number of indices in each block (positive)
+     * @throws IllegalArgumentException if {@code blockSize} is not positive
+     */
+    public ParallelRandom(long seed, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException(String.format(
+                "Block size must be positive. Block size [%d]", blockSize));
+        }
+        this.seed = seed;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Gets the seed that every block's generator is derived from.
+     *
+     * @return the seed
+     */
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * Gets the number of indices in each block.
+     *
+     * @return the block size
+     */
+    public int blockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Creates the generator for the given block. The same seed and block number will always
+     * produce a generator with the same sequence. This can also be used directly by custom
+     * fork/join tasks, as long as each task is assigned a fixed number.
+     *
+     * @param block the block number
+     * @return a new generator for the block
+     */
+    @NotNull
+    public RandomSource blockSource(long block) {
+        // Hash the block number into a seed, the same way SplitMix64 hashes its counter
+        final long blockSeed = RandomSource.mix64(seed + (block + 1) * 0x9E3779B97F4A7C15L);
+        return new Xoroshiro128PlusPlus(blockSeed);
+    }
+
+    /**
+     * Runs the given action for each index in {@code [0, size)}, in parallel on the common
+     * {@link ForkJoinPool}.
+     *
+     * @param size   the number of indices (non-negative)
+     * @param action the action to run for each index (non-null)
+     * @throws IllegalArgumentException if {@code size} is negative
+     */
+    public void forEach(int size, @NotNull IndexedRandomConsumer action) {
+        forEach(ForkJoinPool.commonPool(), size, action);
+    }
+
+    /**
+     * Runs the given action for each index in {@code [0, size)}, in parallel on the given
+     * {@link ForkJoinPool}. The output is the same no matter how many threads the pool has.
+     *
+     * @param pool   the pool to run on (non-null)
+     * @param size   the number of indices (non-negative)
+     * @param action the action to run for each index (non-null)
+     * @throws IllegalArgumentException if {@code size} is negative
+     */
+    public void forEach(@NotNull ForkJoinPool pool, int size,
+                        @NotNull IndexedRandomConsumer action) {
+        Objects.requireNonNull(pool);
+        Objects.requireNonNull(action);
+        final int blocks = blockCount(size);
+        if (blocks > 0) {
+            pool.invoke(new BlockAction(size, 0, blocks, action));
+        }
+    }
+
+    /**
+     * Returns a parallel, ordered {@link Stream} of one value for each index in
+     * {@code [0, size)}. The values, and their order, are the same no matter how many threads
+     * process the stream.
+     *
+     * @param size     the number of values (non-negative)
+     * @param function the function that produces the value for each index (non-null)
+     * @param <T>      the type of the values
+     * @return a parallel stream of the produced values
+     * @throws IllegalArgumentException if {@code size} is negative
+     */
+    @NotNull
+    public <T> Stream<T> stream(int size, @NotNull IndexedRandomFunction<T> function) {
+        Objects.requireNonNull(function);
+        return IntStream.range(0, blockCount(size))
+            .parallel()
+            .boxed()
+            .flatMap(block -> {
+                // Inner streams are always consumed sequentially, in order
+                final RandomSource random = blockSource(block);
+                final int start = block * blockSize;
+                final int end = (int) Math.min(size, (long) start + blockSize);
+                return IntStream.range(start, end).mapToObj(i -> function.apply(i, random));
+            });
+    }
+
+    private int blockCount(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException(String.format(
+                "Size cannot be negative. Size [%d]", size));
+        }
+        return (int) ((size + (long) blockSize - 1) / blockSize);
+    }
+
+    private void runBlock(int size, int block, IndexedRandomConsumer action) {
+        final RandomSource random = blockSource(block);
+        final int start = block * blockSize;
+        final int end = (int) Math.min(size, (long) start + blockSize);
+        for (int i = start; i < end; i++) {
+            action.accept(i, random);
+        }
+    }
+
+    /**
+     * Recursively halves a range of blocks until each task has a single block.
+     */
+    private class BlockAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int size;
+        private final int startBlock;
+        private final int endBlock;
+        private final IndexedRandomConsumer action;
+
+        private BlockAction(int size, int startBlock, int endBlock,
+                            IndexedRandomConsumer action) {
+            this.size = size;
+            this.startBlock = startBlock;
+            this.endBlock = endBlock;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (endBlock - startBlock == 1) {
+                runBlock(size, startBlock, action);
+            } else {
+                final int mid = (startBlock + endBlock) >>> 1;
+                invokeAll(new BlockAction(size, startBlock, mid, action),
+                          new BlockAction(size, mid, endBlock, action));
+            }
+        }
+    }
+}
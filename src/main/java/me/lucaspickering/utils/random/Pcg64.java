@@ -0,0 +1,90 @@
+package me.lucaspickering.utils.random;
+
+/**
+ * The PCG64 (XSL-RR 128/64) generator, by O'Neill. It has a 128-bit LCG as its state, with a
+ * period of 2^128, and permutes that state into each 64-bit output.
+ *
+ * Instances are <b>not</b> thread-safe. Each thread should have its own.
+ */
+public class Pcg64 extends RandomSource {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final long MULTIPLIER_HIGH = 0x2360ED051FC65DA4L;
+    private static final long MULTIPLIER_LOW = 0x4385DF649FCCF645L;
+
+    private long stateHigh, stateLow;
+    private long incHigh, incLow; // Must be odd
+
+    /**
+     * Constructs a new {@code Pcg64} with a seed derived from the current time.
+     */
+    public Pcg64() {
+        this(System.nanoTime() ^ mix64(System.currentTimeMillis()));
+    }
+
+    /**
+     * Constructs a new {@code Pcg64} with the given seed. The seed is expanded to the full state
+     * and stream increment using SplitMix64.
+     *
+     * @param seed the seed
+     */
+    public Pcg64(long seed) {
+        setSeed(seed);
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        final SplitMix64 seeder = new SplitMix64(seed);
+        incHigh = seeder.nextLong();
+        incLow = seeder.nextLong() | 1L;
+
+        // Standard PCG seeding: start from zero, step, add the initial state, step again
+        stateHigh = 0L;
+        stateLow = 0L;
+        step();
+        final long initLow = seeder.nextLong();
+        final long initHigh = seeder.nextLong();
+        final long newLow = stateLow + initLow;
+        stateHigh = stateHigh + initHigh + (Long.compareUnsigned(newLow, stateLow) < 0 ? 1L : 0L);
+        stateLow = newLow;
+        step();
+    }
+
+    @Override
+    public long nextLong() {
+        step();
+        // XSL-RR: xor the two halves together, then rotate by the top 6 bits
+        return Long.rotateRight(stateHigh ^ stateLow, (int) (stateHigh >>> 58));
+    }
+
+    /**
+     * Advances the 128-bit LCG: {@code state = state * MULTIPLIER + inc}.
+     */
+    private void step() {
+        // 128-bit multiply, keeping only the low 128 bits
+        final long high = unsignedMultiplyHigh(stateLow, MULTIPLIER_LOW) +
+                          stateLow * MULTIPLIER_HIGH + stateHigh * MULTIPLIER_LOW;
+        final long low = stateLow * MULTIPLIER_LOW;
+
+        // 128-bit add
+        final long newLow = low + incLow;
+        stateHigh = high + incHigh + (Long.compareUnsigned(newLow, low) < 0 ? 1L : 0L);
+        stateLow = newLow;
+    }
+
+    /**
+     * Returns the high 64 bits of the unsigned 128-bit product of the two values.
+     */
+    private static long unsignedMultiplyHigh(long x, long y) {
+        final long x0 = x & 0xFFFFFFFFL;
+        final long x1 = x >>> 32;
+        final long y0 = y & 0xFFFFFFFFL;
+        final long y1 = y >>> 32;
+
+        final long w0 = x0 * y0;
+        final long t = x1 * y0 + (w0 >>> 32);
+        final long w1 = x0 * y1 + (t & 0xFFFFFFFFL);
+        return x1 * y1 + (t >>> 32) + (w1 >>> 32);
+    }
+}
@@ -0,0 +1,108 @@
+package me.lucaspickering.utils.random;
+
+import java.util.Random;
+
+/**
+ * Base class for fast, non-synchronized pseudo-random number generators. Subclasses only have to
+ * provide {@link #nextLong()} and {@link #setSeed(long)}; every other method is derived from
+ * 64-bit outputs, without touching the {@link java.util.concurrent.atomic.AtomicLong} that
+ * {@link Random} uses internally.
+ *
+ * This extends {@link Random} so that it can be passed anywhere a {@link Random} is accepted.
+ * Methods that have an overload taking a {@code RandomSource} will pick that overload instead,
+ * which calls the final methods here directly.
+ *
+ * Instances are <b>not</b> thread-safe. Each thread should have its own.
+ */
+public abstract class RandomSource extends Random {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates a new {@code RandomSource}. The subclass is responsible for seeding itself.
+     */
+    protected RandomSource() {
+        super(0L); // Random's constructor calls setSeed, which subclasses must tolerate
+    }
+
+    /**
+     * Generates the next 64 pseudo-random bits.
+     *
+     * @return a uniformly distributed {@code long}
+     */
+    @Override
+    public abstract long nextLong();
+
+    /**
+     * Re-seeds this generator. The same seed will always produce the same sequence. This is called
+     * from {@link Random}'s constructor, before any subclass fields have been initialized.
+     *
+     * @param seed the seed
+     */
+    @Override
+    public abstract void setSeed(long seed);
+
+    @Override
+    protected final int next(int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    @Override
+    public final int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+
+    /**
+     * Returns a uniformly distributed int in the range {@code [0, bound)}. This uses Lemire's
+     * multiply-shift method, which only needs a division in the rare case that the first number
+     * lands in the biased region.
+     *
+     * @param bound the upper bound (exclusive, positive)
+     * @return a random int in {@code [0, bound)}
+     * @throws IllegalArgumentException if {@code bound} is not positive
+     */
+    @Override
+    public final int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("Bound must be positive");
+        }
+        long m = (nextLong() >>> 32) * bound;
+        long low = m & 0xFFFFFFFFL;
+        if (low < bound) {
+            final long threshold = (0x100000000L - bound) % bound;
+            while (low < threshold) {
+                m = (nextLong() >>> 32) * bound;
+                low = m & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (m >>> 32);
+    }
+
+    @Override
+    public final double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    @Override
+    public final float nextFloat() {
+        return (nextLong() >>> 40) * 0x1.0p-24f;
+    }
+
+    @Override
+    public final boolean nextBoolean() {
+        return nextLong() < 0L;
+    }
+
+    /**
+     * Mixes a 64-bit value using the SplitMix64 finalizer. Used by subclasses to expand a single
+     * seed into well-distributed initial state.
+     *
+     * @param z the value to mix
+     * @return the mixed value
+     */
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
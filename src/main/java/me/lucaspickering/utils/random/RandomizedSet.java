@@ -0,0 +1,220 @@
+package me.lucaspickering.utils.random;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * A set that can pick a uniformly random element in O(1) time. Elements are stored in a dense list,
+ * with a hash map from each element to its index. Removing an element moves the last element into
+ * its place, so {@link #add}, {@link #remove}, {@link #contains}, {@link #randomElement} and
+ * {@link #removeRandom} are all O(1).
+ *
+ * Iteration order is the order of the dense list, which changes as elements are removed. Passing
+ * one of these to {@link me.lucaspickering.utils.GeneralFuncs#randomFromCollection} also picks in
+ * O(1) time.
+ *
+ * This class is <b>not</b> thread-safe. For concurrent use, see {@link ConcurrentRandomizedSet}.
+ *
+ * @param <T> the type of the elements in the set
+ */
+public class RandomizedSet<T> extends AbstractSet<T> {
+
+    private final Map<T, Integer> indices;
+    private final List<T> elements;
+    private int modCount;
+
+    /**
+     * Constructs a new, empty {@code RandomizedSet}.
+     */
+    public RandomizedSet() {
+        indices = new HashMap<>();
+        elements = new ArrayList<>();
+    }
+
+    /**
+     * Constructs a new, empty {@code RandomizedSet} with room for the given number of elements
+     * before it needs to grow.
+     *
+     * @param initialCapacity the initial capacity (non-negative)
+     * @throws IllegalArgumentException if {@code initialCapacity} is negative
+     */
+    public RandomizedSet(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException(String.format(
+                "Capacity cannot be negative. Capacity [%d]", initialCapacity));
+        }
+        // HashMap resizes at 75% full
+        indices = new HashMap<>(Math.max(16, (int) (initialCapacity / 0.75f) + 1));
+        elements = new ArrayList<>(initialCapacity);
+    }
+
+    /**
+     * Constructs a new {@code RandomizedSet} containing every element of the given collection.
+     *
+     * @param coll the initial elements (non-null)
+     */
+    public RandomizedSet(@NotNull Collection<? extends T> coll) {
+        this(Objects.requireNonNull(coll).size());
+        addAll(coll);
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indices.containsKey(o);
+    }
+
+    @Override
+    public boolean add(T element) {
+        if (indices.containsKey(element)) {
+            return false;
+        }
+        indices.put(element, elements.size());
+        elements.add(element);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        final Integer index = indices.remove(o);
+        if (index == null) {
+            return false;
+        }
+        removeIndex(index);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        indices.clear();
+        elements.clear();
+        modCount++;
+    }
+
+    /**
+     * Gets the element at the given index. Indices are in {@code [0, size())}, and match the
+     * iteration order.
+     *
+     * @param index the index of the element
+     * @return the element
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public T get(int index) {
+        return elements.get(index);
+    }
+
+    /**
+     * Randomly selects one element from this set. Each element has an equal chance of being chosen.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @return the selected element
+     * @throws IllegalStateException if this set is empty
+     */
+    public T randomElement(@NotNull Random random) {
+        return elements.get(randomIndex(random));
+    }
+
+    /**
+     * Randomly selects one element from this set and removes it. Each element has an equal chance
+     * of being chosen.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @return the removed element
+     * @throws IllegalStateException if this set is empty
+     */
+    public T removeRandom(@NotNull Random random) {
+        return removeAt(randomIndex(random));
+    }
+
+    /**
+     * Removes the element at the given index.
+     */
+    T removeAt(int index) {
+        final T element = elements.get(index);
+        indices.remove(element);
+        removeIndex(index);
+        return element;
+    }
+
+    @NotNull
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+
+            private int cursor;
+            private int lastReturned = -1;
+            private int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return cursor < elements.size();
+            }
+
+            @Override
+            public T next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (cursor >= elements.size()) {
+                    throw new NoSuchElementException();
+                }
+                lastReturned = cursor;
+                return elements.get(cursor++);
+            }
+
+            @Override
+            public void remove() {
+                if (lastReturned < 0) {
+                    throw new IllegalStateException();
+                }
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                RandomizedSet.this.remove(elements.get(lastReturned));
+                expectedModCount = modCount;
+
+                // The last element was moved into the removed slot, so it needs to be visited
+                cursor = lastReturned;
+                lastReturned = -1;
+            }
+        };
+    }
+
+    private int randomIndex(Random random) {
+        Objects.requireNonNull(random);
+        if (elements.isEmpty()) {
+            throw new IllegalStateException("Set is empty");
+        }
+        return random.nextInt(elements.size());
+    }
+
+    /**
+     * Removes the element at the given index from the list, by moving the last element into its
+     * place. The element must already have been removed from the index map.
+     */
+    private void removeIndex(int index) {
+        final int lastIndex = elements.size() - 1;
+        final T last = elements.remove(lastIndex);
+        if (index != lastIndex) {
+            elements.set(index, last);
+            indices.put(last, index);
+        }
+        modCount++;
+    }
+}
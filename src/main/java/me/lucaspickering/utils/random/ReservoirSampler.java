@@ -0,0 +1,403 @@
+package me.lucaspickering.utils.random;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * Single-pass samplers that select {@code k} elements from a sequence of unknown size, using only
+ * O(k) memory. Useful for iterators and streams that are too large to collect into a
+ * {@link java.util.Collection} first.
+ */
+public class ReservoirSampler {
+
+    private ReservoirSampler() {
+        // Don't allow instantiation
+    }
+
+    /**
+     * Randomly selects up to {@code k} elements from the given iterator, consuming it entirely.
+     * Every subset of size {@code k} has an equal chance of being chosen. If the iterator has
+     * fewer than {@code k} elements, all of them are returned. The order of the returned list is
+     * unspecified.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @param iter   the iterator to be chosen from (non-null)
+     * @param k      the maximum number of elements to choose (non-negative)
+     * @param <T>    the type of the elements
+     * @return a new list of up to {@code k} randomly-selected elements
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    @NotNull
+    public static <T> List<T> sample(@NotNull Random random, @NotNull Iterator<T> iter, int k) {
+        Objects.requireNonNull(iter);
+        final UniformReservoir<T> reservoir = new UniformReservoir<>(random, k);
+        while (iter.hasNext()) {
+            reservoir.accept(iter.next());
+        }
+        return reservoir.toList();
+    }
+
+    /**
+     * Randomly selects up to {@code k} elements from the given stream, consuming it. Behaves the
+     * same as {@link #sample(Random, Iterator, int)}, but parallel streams will sample each
+     * chunk separately, then merge the results.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @param stream the stream to be chosen from (non-null)
+     * @param k      the maximum number of elements to choose (non-negative)
+     * @param <T>    the type of the elements
+     * @return a new list of up to {@code k} randomly-selected elements
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    @NotNull
+    public static <T> List<T> sample(@NotNull Random random, @NotNull Stream<T> stream, int k) {
+        Objects.requireNonNull(stream);
+        return stream.collect(sampleCollector(random, k));
+    }
+
+    /**
+     * Randomly selects up to {@code k} distinct elements from the given iterator, consuming it
+     * entirely. Elements are chosen one at a time, where each remaining element's chance of being
+     * chosen next is proportional to its weight. Elements with a weight of 0 or less will never be
+     * chosen. The order of the returned list is unspecified.
+     *
+     * @param random         the {@link Random} to generate numbers from (non-null)
+     * @param iter           the iterator to be chosen from (non-null)
+     * @param k              the maximum number of elements to choose (non-negative)
+     * @param weightFunction the function that provides a weight for each element (non-null)
+     * @param <T>            the type of the elements
+     * @return a new list of up to {@code k} randomly-selected elements
+     * @throws IllegalArgumentException if {@code k} is negative, or any weight is NaN
+     */
+    @NotNull
+    public static <T> List<T> sampleWeighted(@NotNull Random random, @NotNull Iterator<T> iter,
+                                             int k,
+                                             @NotNull ToDoubleFunction<? super T> weightFunction) {
+        Objects.requireNonNull(iter);
+        final WeightedReservoir<T> reservoir = new WeightedReservoir<>(random, k, weightFunction);
+        while (iter.hasNext()) {
+            reservoir.accept(iter.next());
+        }
+        return reservoir.toList();
+    }
+
+    /**
+     * Randomly selects up to {@code k} distinct elements from the given stream, consuming it.
+     * Behaves the same as {@link #sampleWeighted(Random, Iterator, int, ToDoubleFunction)}, but
+     * parallel streams will sample each chunk separately, then merge the results.
+     *
+     * @param random         the {@link Random} to generate numbers from (non-null)
+     * @param stream         the stream to be chosen from (non-null)
+     * @param k              the maximum number of elements to choose (non-negative)
+     * @param weightFunction the function that provides a weight for each element (non-null)
+     * @param <T>            the type of the elements
+     * @return a new list of up to {@code k} randomly-selected elements
+     * @throws IllegalArgumentException if {@code k} is negative, or any weight is NaN
+     */
+    @NotNull
+    public static <T> List<T> sampleWeighted(@NotNull Random random, @NotNull Stream<T> stream,
+                                             int k,
+                                             @NotNull ToDoubleFunction<? super T> weightFunction) {
+        Objects.requireNonNull(stream);
+        return stream.collect(weightedSampleCollector(random, k, weightFunction));
+    }
+
+    /**
+     * Returns a {@link Collector} that uniformly samples up to {@code k} elements from a
+     * {@link Stream}. See {@link #sample(Random, Iterator, int)}. The given {@link Random} will be
+     * shared between threads if the stream is parallel.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @param k      the maximum number of elements to choose (non-negative)
+     * @param <T>    the type of the elements
+     * @return a {@link Collector} that will sample elements into a {@link List}
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    @NotNull
+    public static <T> Collector<T, ?, List<T>> sampleCollector(@NotNull Random random, int k) {
+        Objects.requireNonNull(random);
+        checkSampleSize(k);
+        return Collector.of(() -> new UniformReservoir<T>(random, k),
+                            UniformReservoir::accept,
+                            UniformReservoir::merge,
+                            UniformReservoir::toList,
+                            Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Returns a {@link Collector} that samples up to {@code k} elements from a {@link Stream},
+     * weighted by the given function. See
+     * {@link #sampleWeighted(Random, Iterator, int, ToDoubleFunction)}. The given {@link Random}
+     * will be shared between threads if the stream is parallel.
+     *
+     * @param random         the {@link Random} to generate numbers from (non-null)
+     * @param k              the maximum number of elements to choose (non-negative)
+     * @param weightFunction the function that provides a weight for each element (non-null)
+     * @param <T>            the type of the elements
+     * @return a {@link Collector} that will sample elements into a {@link List}
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    @NotNull
+    public static <T> Collector<T, ?, List<T>> weightedSampleCollector(
+        @NotNull Random random, int k, @NotNull ToDoubleFunction<? super T> weightFunction) {
+        Objects.requireNonNull(random);
+        Objects.requireNonNull(weightFunction);
+        checkSampleSize(k);
+        return Collector.of(() -> new WeightedReservoir<T>(random, k, weightFunction),
+                            WeightedReservoir::accept,
+                            WeightedReservoir::merge,
+                            WeightedReservoir::toList,
+                            Collector.Characteristics.UNORDERED);
+    }
+
+    private static void checkSampleSize(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException(String.format(
+                "Sample size cannot be negative. Size [%d]", k));
+        }
+    }
+
+    /**
+     * Returns a uniformly-distributed random double in the range {@code (0, 1]}, so that it is
+     * always safe to take the log of.
+     */
+    private static double nextPositiveDouble(Random random) {
+        return 1.0 - random.nextDouble();
+    }
+
+    /**
+     * A uniform reservoir, filled using Algorithm L. Rather than rolling a random number for every
+     * element, this computes how many elements to skip until the next replacement, so the number
+     * of random numbers needed is O(k * log(n / k)).
+     */
+    private static class UniformReservoir<T> {
+
+        private final Random random;
+        private final Object[] items;
+        private int size;
+        private long count; // Number of elements seen so far
+        private double w;
+        private long nextReplacement; // Value of count at which the next replacement happens
+
+        private UniformReservoir(@NotNull Random random, int k) {
+            Objects.requireNonNull(random);
+            checkSampleSize(k);
+            this.random = random;
+            this.items = new Object[k];
+        }
+
+        private void accept(T item) {
+            count++;
+            if (size < items.length) {
+                items[size++] = item;
+                if (size == items.length && nextReplacement >= 0) {
+                    w = Math.exp(Math.log(nextPositiveDouble(random)) / items.length);
+                    computeNextReplacement();
+                }
+            } else if (count == nextReplacement) {
+                items[random.nextInt(items.length)] = item;
+                w *= Math.exp(Math.log(nextPositiveDouble(random)) / items.length);
+                computeNextReplacement();
+            } else if (nextReplacement < 0 && random.nextDouble() * count < items.length) {
+                // We're in the fallback mode after a merge, see below
+                items[random.nextInt(items.length)] = item;
+            }
+        }
+
+        private void computeNextReplacement() {
+            final double skip =
+                Math.floor(Math.log(nextPositiveDouble(random)) / Math.log1p(-w));
+            // If the skip overflows, we'll never replace anything again anyway
+            nextReplacement = skip < Long.MAX_VALUE - count ? count + (long) skip + 1 :
+                              Long.MAX_VALUE;
+        }
+
+        private UniformReservoir<T> merge(UniformReservoir<T> other) {
+            // Each reservoir is a uniform sample of its own chunk, so draw from the two without
+            // replacement, picking each side with probability proportional to the number of
+            // elements it has seen that haven't been accounted for yet
+            final UniformReservoir<T> rv = new UniformReservoir<>(random, items.length);
+            final Object[] left = Arrays.copyOf(items, size);
+            final Object[] right = Arrays.copyOf(other.items, other.size);
+            long leftRemaining = count;
+            long rightRemaining = other.count;
+            int leftSize = left.length;
+            int rightSize = right.length;
+            while (rv.size < items.length && leftRemaining + rightRemaining > 0) {
+                final boolean takeLeft = (long) (random.nextDouble() *
+                                                 (leftRemaining + rightRemaining)) < leftRemaining;
+                if (takeLeft) {
+                    rv.items[rv.size++] = removeRandom(left, leftSize--);
+                    leftRemaining--;
+                } else {
+                    rv.items[rv.size++] = removeRandom(right, rightSize--);
+                    rightRemaining--;
+                }
+            }
+            rv.count = count + other.count;
+
+            // We don't have a valid skip state anymore, so if any more elements get added after
+            // this, fall back to rolling for each one (Algorithm R)
+            rv.nextReplacement = -1;
+            return rv;
+        }
+
+        /**
+         * Removes a random element from the first {@code size} elements of the array, by swapping
+         * it to the end.
+         */
+        private Object removeRandom(Object[] array, int size) {
+            final int index = random.nextInt(size);
+            final Object rv = array[index];
+            array[index] = array[size - 1];
+            return rv;
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<T> toList() {
+            final List<T> rv = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                rv.add((T) items[i]);
+            }
+            return rv;
+        }
+    }
+
+    /**
+     * A weighted reservoir, filled using Efraimidis and Spirakis' A-ExpJ algorithm. Each element
+     * in the reservoir is given a key of {@code u ^ (1 / weight)}, and the elements with the
+     * {@code k} largest keys are kept. Keys are stored as logs, to avoid underflow with large
+     * weights. Rather than generating a key for every element, this computes how much weight can
+     * be skipped until the next replacement.
+     */
+    private static class WeightedReservoir<T> {
+
+        private final Random random;
+        private final ToDoubleFunction<? super T> weightFunction;
+
+        // Min-heap of log-keys, with items stored in parallel
+        private final double[] keys;
+        private final Object[] items;
+        private int size;
+        private double weightToSkip;
+
+        private WeightedReservoir(@NotNull Random random, int k,
+                                  @NotNull ToDoubleFunction<? super T> weightFunction) {
+            Objects.requireNonNull(random);
+            Objects.requireNonNull(weightFunction);
+            checkSampleSize(k);
+            this.random = random;
+            this.weightFunction = weightFunction;
+            this.keys = new double[k];
+            this.items = new Object[k];
+        }
+
+        private void accept(T item) {
+            final double weight = weightFunction.applyAsDouble(item);
+            if (Double.isNaN(weight)) {
+                throw new IllegalArgumentException(String.format(
+                    "Weight cannot be NaN. Element [%s]", item));
+            }
+            if (weight <= 0.0 || keys.length == 0) {
+                return; // This element can never be chosen
+            }
+
+            if (size < keys.length) {
+                push(Math.log(nextPositiveDouble(random)) / weight, item);
+                if (size == keys.length) {
+                    computeWeightToSkip();
+                }
+            } else {
+                weightToSkip -= weight;
+                if (weightToSkip <= 0.0) {
+                    // This element replaces the one with the min key. Its key is conditioned to be
+                    // above the current min, so we don't need to check.
+                    final double threshold = Math.exp(keys[0] * weight);
+                    final double u = threshold + (1.0 - threshold) * nextPositiveDouble(random);
+                    replaceMin(Math.log(u) / weight, item);
+                    computeWeightToSkip();
+                }
+            }
+        }
+
+        private void computeWeightToSkip() {
+            // Both logs are negative, so this is positive
+            weightToSkip = Math.log(nextPositiveDouble(random)) / keys[0];
+        }
+
+        private WeightedReservoir<T> merge(WeightedReservoir<T> other) {
+            // Keys are independent of each other, so we can just keep the k largest of both
+            for (int i = 0; i < other.size; i++) {
+                offer(other.keys[i], other.items[i]);
+            }
+            if (size == keys.length && size > 0) {
+                computeWeightToSkip();
+            }
+            return this;
+        }
+
+        private void offer(double key, Object item) {
+            if (size < keys.length) {
+                push(key, item);
+            } else if (size > 0 && key > keys[0]) {
+                replaceMin(key, item);
+            }
+        }
+
+        private void push(double key, Object item) {
+            // Sift up
+            int index = size++;
+            while (index > 0) {
+                final int parent = (index - 1) / 2;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                keys[index] = keys[parent];
+                items[index] = items[parent];
+                index = parent;
+            }
+            keys[index] = key;
+            items[index] = item;
+        }
+
+        private void replaceMin(double key, Object item) {
+            // Sift down from the root
+            int index = 0;
+            while (true) {
+                int child = index * 2 + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (key <= keys[child]) {
+                    break;
+                }
+                keys[index] = keys[child];
+                items[index] = items[child];
+                index = child;
+            }
+            keys[index] = key;
+            items[index] = item;
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<T> toList() {
+            final List<T> rv = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                rv.add((T) items[i]);
+            }
+            return rv;
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package me.lucaspickering.utils.random;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * In-place shuffles for arrays. The sequential versions are plain Fisher-Yates shuffles, like
+ * {@link java.util.Collections#shuffle(java.util.List, Random)}, but they work on primitive arrays
+ * and slices without boxing.
+ *
+ * The parallel versions use MergeShuffle (Bacher et al.): each block of the array is shuffled on
+ * its own, then neighbouring blocks are merged pairwise by random coin flips, with both halves of
+ * each level running in parallel. Every permutation is equally likely. Like the rest of
+ * {@link ParallelRandom}, the result depends only on its seed and block size, not on the number
+ * of threads.
+ */
+public class Shuffles {
+
+    private Shuffles() {
+        // Don't allow instantiation
+    }
+
+    /**
+     * Shuffles the given array in place.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @param array  the array to shuffle (non-null)
+     */
+    public static void shuffle(@NotNull Random random, @NotNull int[] array) {
+        shuffle(random, array, 0, array.length);
+    }
+
+    /**
+     * Shuffles part of the given array in place. Elements outside the slice are untouched.
+     *
+     * @param random    the {@link Random} to generate numbers from (non-null)
+     * @param array     the array to shuffle (non-null)
+     * @param fromIndex the first index to shuffle (inclusive)
+     * @param toIndex   the last index to shuffle (exclusive)
+     * @throws ArrayIndexOutOfBoundsException if either index is out of range
+     */
+    public static void shuffle(@NotNull Random random, @NotNull int[] array,
+                               int fromIndex, int toIndex) {
+        Objects.requireNonNull(random);
+        checkSlice(array.length, fromIndex, toIndex);
+        for (int i = toIndex - 1; i > fromIndex; i--) {
+            final int j = fromIndex + random.nextInt(i - fromIndex + 1);
+            final int tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+
+    /**
+     * Shuffles the given array in place.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @param array  the array to shuffle (non-null)
+     */
+    public static void shuffle(@NotNull Random random, @NotNull long[] array) {
+        shuffle(random, array, 0, array.length);
+    }
+
+    /**
+     * Shuffles part of the given array in place. Elements outside the slice are untouched.
+     *
+     * @param random    the {@link Random} to generate numbers from (non-null)
+     * @param array     the array to shuffle (non-null)
+     * @param fromIndex the first index to shuffle (inclusive)
+     * @param toIndex   the last index to shuffle (exclusive)
+     * @throws ArrayIndexOutOfBoundsException if either index is out of range
+     */
+    public static void shuffle(@NotNull Random random, @NotNull long[] array,
+                               int fromIndex, int toIndex) {
+        Objects.requireNonNull(random);
+        checkSlice(array.length, fromIndex, toIndex);
+        for (int i = toIndex - 1; i > fromIndex; i--) {
+            final int j = fromIndex + random.nextInt(i - fromIndex + 1);
+            final long tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+
+    /**
+     * Shuffles the given array in place.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @param array  the array to shuffle (non-null)
+     */
+    public static void shuffle(@NotNull Random random, @NotNull double[] array) {
+        shuffle(random, array, 0, array.length);
+    }
+
+    /**
+     * Shuffles part of the given array in place. Elements outside the slice are untouched.
+     *
+     * @param random    the {@link Random} to generate numbers from (non-null)
+     * @param array     the array to shuffle (non-null)
+     * @param fromIndex the first index to shuffle (inclusive)
+     * @param toIndex   the last index to shuffle (exclusive)
+     * @throws ArrayIndexOutOfBoundsException if either index is out of range
+     */
+    public static void shuffle(@NotNull Random random, @NotNull double[] array,
+                               int fromIndex, int toIndex) {
+        Objects.requireNonNull(random);
+        checkSlice(array.length, fromIndex, toIndex);
+        for (int i = toIndex - 1; i > fromIndex; i--) {
+            final int j = fromIndex + random.nextInt(i - fromIndex + 1);
+            final double tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+
+    /**
+     * Shuffles the given array in place.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @param array  the array to shuffle (non-null)
+     * @param <T>    the type of the elements in the array
+     */
+    public static <T> void shuffle(@NotNull Random random, @NotNull T[] array) {
+        shuffle(random, array, 0, array.length);
+    }
+
+    /**
+     * Shuffles part of the given array in place. Elements outside the slice are untouched.
+     *
+     * @param random    the {@link Random} to generate numbers from (non-null)
+     * @param array     the array to shuffle (non-null)
+     * @param fromIndex the first index to shuffle (inclusive)
+     * @param toIndex   the last index to shuffle (exclusive)
+     * @param <T>       the type of the elements in the array
+     * @throws ArrayIndexOutOfBoundsException if either index is out of range
+     */
+    public static <T> void shuffle(@NotNull Random random, @NotNull T[] array,
+                                   int fromIndex, int toIndex) {
+        Objects.requireNonNull(random);
+        checkSlice(array.length, fromIndex, toIndex);
+        for (int i = toIndex - 1; i > fromIndex; i--) {
+            final int j = fromIndex + random.nextInt(i - fromIndex + 1);
+            final T tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+
+    /**
+     * Shuffles the given array in place, in parallel on the common {@link ForkJoinPool}.
+     *
+     * @param random the {@link ParallelRandom} to generate numbers from (non-null)
+     * @param array  the array to shuffle (non-null)
+     */
+    public static void parallelShuffle(@NotNull ParallelRandom random, @NotNull int[] array) {
+        Objects.requireNonNull(array);
+        parallelShuffle(random, array.length, new Swapper() {
+            @Override
+            void shuffle(Random blockRandom, int fromIndex, int toIndex) {
+                Shuffles.shuffle(blockRandom, array, fromIndex, toIndex);
+            }
+
+            @Override
+            void swap(int i, int j) {
+                final int tmp = array[i];
+                array[i] = array[j];
+                array[j] = tmp;
+            }
+        });
+    }
+
+    /**
+     * Shuffles the given array in place, in parallel on the common {@link ForkJoinPool}.
+     *
+     * @param random the {@link ParallelRandom} to generate numbers from (non-null)
+     * @param array  the array to shuffle (non-null)
+     */
+    public static void parallelShuffle(@NotNull ParallelRandom random, @NotNull long[] array) {
+        Objects.requireNonNull(array);
+        parallelShuffle(random, array.length, new Swapper() {
+            @Override
+            void shuffle(Random blockRandom, int fromIndex, int toIndex) {
+                Shuffles.shuffle(blockRandom, array, fromIndex, toIndex);
+            }
+
+            @Override
+            void swap(int i, int j) {
+                final long tmp = array[i];
+                array[i] = array[j];
+                array[j] = tmp;
+            }
+        });
+    }
+
+    /**
+     * Shuffles the given array in place, in parallel on the common {@link ForkJoinPool}.
+     *
+     * @param random the {@link ParallelRandom} to generate numbers from (non-null)
+     * @param array  the array to shuffle (non-null)
+     */
+    public static void parallelShuffle(@NotNull ParallelRandom random, @NotNull double[] array) {
+        Objects.requireNonNull(array);
+        parallelShuffle(random, array.length, new Swapper() {
+            @Override
+            void shuffle(Random blockRandom, int fromIndex, int toIndex) {
+                Shuffles.shuffle(blockRandom, array, fromIndex, toIndex);
+            }
+
+            @Override
+            void swap(int i, int j) {
+                final double tmp = array[i];
+                array[i] = array[j];
+                array[j] = tmp;
+            }
+        });
+    }
+
+    /**
+     * Shuffles the given array in place, in parallel on the common {@link ForkJoinPool}.
+     *
+     * @param random the {@link ParallelRandom} to generate numbers from (non-null)
+     * @param array  the array to shuffle (non-null)
+     * @param <T>    the type of the elements in the array
+     */
+    public static <T> void parallelShuffle(@NotNull ParallelRandom random, @NotNull T[] array) {
+        Objects.requireNonNull(array);
+        parallelShuffle(random, array.length, new Swapper() {
+            @Override
+            void shuffle(Random blockRandom, int fromIndex, int toIndex) {
+                Shuffles.shuffle(blockRandom, array, fromIndex, toIndex);
+            }
+
+            @Override
+            void swap(int i, int j) {
+                final T tmp = array[i];
+                array[i] = array[j];
+                array[j] = tmp;
+            }
+        });
+    }
+
+    private static void parallelShuffle(ParallelRandom random, int length, Swapper swapper) {
+        Objects.requireNonNull(random);
+        final int blockSize = random.blockSize();
+        final int blocks = (int) ((length + (long) blockSize - 1) / blockSize);
+        if (blocks > 0) {
+            ForkJoinPool.commonPool().invoke(
+                new ShuffleAction(random, swapper, length, blocks, 0, blocks));
+        }
+    }
+
+    /**
+     * Merges two adjacent shuffled slices, {@code [start, mid)} and {@code [mid, end)}, into one
+     * shuffled slice. Elements are taken from either side by coin flip until one side runs out,
+     * then each remaining element is inserted at a uniformly random earlier position.
+     */
+    private static void merge(RandomSource random, Swapper swapper, int start, int mid, int end) {
+        int i = start;
+        int j = mid;
+        long bits = 0L;
+        int bitsLeft = 0;
+        while (true) {
+            // Use all 64 bits of each random long as separate coin flips
+            if (bitsLeft == 0) {
+                bits = random.nextLong();
+                bitsLeft = 64;
+            }
+            final boolean takeRight = (bits & 1L) != 0L;
+            bits >>>= 1;
+            bitsLeft--;
+
+            if (takeRight) {
+                if (j == end) {
+                    break;
+                }
+                swapper.swap(i, j++);
+            } else if (i == j) {
+                break;
+            }
+            i++;
+        }
+
+        for (; i < end; i++) {
+            swapper.swap(i, start + random.nextInt(i - start + 1));
+        }
+    }
+
+    private static void checkSlice(int length, int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > length || fromIndex > toIndex) {
+            throw new ArrayIndexOutOfBoundsException(String.format(
+                "Invalid slice. From [%d]; To [%d]; Length [%d]", fromIndex, toIndex, length));
+        }
+    }
+
+    /**
+     * Type-specific operations on the array being shuffled, so that the parallel logic only
+     * needs to be written once.
+     */
+    private abstract static class Swapper {
+
+        abstract void shuffle(Random random, int fromIndex, int toIndex);
+
+        abstract void swap(int i, int j);
+    }
+
+    /**
+     * Recursively halves a range of blocks, shuffling single blocks directly and merging the two
+     * halves of everything bigger.
+     */
+    private static class ShuffleAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ParallelRandom random;
+        private final Swapper swapper;
+        private final int length;
+        private final int blockCount;
+        private final int startBlock;
+        private final int endBlock;
+
+        private ShuffleAction(ParallelRandom random, Swapper swapper, int length, int blockCount,
+                              int startBlock, int endBlock) {
+            this.random = random;
+            this.swapper = swapper;
+            this.length = length;
+            this.blockCount = blockCount;
+            this.startBlock = startBlock;
+            this.endBlock = endBlock;
+        }
+
+        @Override
+        protected void compute() {
+            final int start = startBlock * random.blockSize();
+            final int end = (int) Math.min(length, (long) endBlock * random.blockSize());
+            if (endBlock - startBlock == 1) {
+                swapper.shuffle(random.blockSource(startBlock), start, end);
+            } else {
+                final int midBlock = (startBlock + endBlock) >>> 1;
+                invokeAll(new ShuffleAction(random, swapper, length, blockCount,
+                                            startBlock, midBlock),
+                          new ShuffleAction(random, swapper, length, blockCount,
+                                            midBlock, endBlock));
+
+                // Every split point is unique, so it gives each merge its own generator, numbered
+                // after the ones used for the blocks
+                merge(random.blockSource(blockCount + midBlock), swapper,
+                      start, midBlock * random.blockSize(), end);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package me.lucaspickering.utils.random;
+
+/**
+ * The SplitMix64 generator. It has only 64 bits of state, so its period is 2^64, but it is very
+ * fast and every seed produces a good sequence. Mostly useful for seeding other generators.
+ *
+ * Instances are <b>not</b> thread-safe. Each thread should have its own.
+ */
+public class SplitMix64 extends RandomSource {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state;
+
+    /**
+     * Constructs a new {@code SplitMix64} with a seed derived from the current time.
+     */
+    public SplitMix64() {
+        this(System.nanoTime() ^ mix64(System.currentTimeMillis()));
+    }
+
+    /**
+     * Constructs a new {@code SplitMix64} with the given seed.
+     *
+     * @param seed the seed
+     */
+    public SplitMix64(long seed) {
+        setSeed(seed);
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        state = seed;
+    }
+
+    @Override
+    public long nextLong() {
+        return mix64(state += GOLDEN_GAMMA);
+    }
+}
@@ -0,0 +1,167 @@
+package me.lucaspickering.utils.random;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Generates values from a continuous distribution, restricted to a fixed range. Values are
+ * generated by inverting the distribution's CDF over just the part of it that lies in the range,
+ * so each value takes exactly one uniform random number, with no rejection. This works no matter
+ * how little of the distribution falls in the range, even far out in a tail.
+ *
+ * Usually created through {@link me.lucaspickering.utils.range.DoubleRange}, which handles bound
+ * types. Instances are immutable, and so can be shared between threads.
+ */
+public class TruncatedDoubleSampler {
+
+    /**
+     * Past this many standard deviations from the mean, the normal CDF underflows to 0.
+     */
+    private static final double GAUSSIAN_TAIL = 37.5;
+
+    private final double lower;
+    private final double upper;
+    private final DoubleUnaryOperator quantile;
+
+    private TruncatedDoubleSampler(double lower, double upper, DoubleUnaryOperator quantile) {
+        this.lower = lower;
+        this.upper = upper;
+        this.quantile = quantile;
+    }
+
+    /**
+     * Creates a sampler for a normal distribution, restricted to {@code [lower, upper]}. Either
+     * bound can be infinite.
+     *
+     * @param mean   the mean of the distribution (finite)
+     * @param stddev the standard deviation of the distribution (positive, finite)
+     * @param lower  the lowest value that can be generated (inclusive)
+     * @param upper  the highest value that can be generated (inclusive)
+     * @return a new sampler
+     * @throws IllegalArgumentException if any parameter is out of range, or {@code lower > upper}
+     */
+    @NotNull
+    public static TruncatedDoubleSampler gaussian(double mean, double stddev,
+                                                  double lower, double upper) {
+        if (!Double.isFinite(mean) || !(stddev > 0.0) || Double.isInfinite(stddev)) {
+            throw new IllegalArgumentException(String.format(
+                "Mean must be finite and standard deviation must be positive. Mean [%s]; "
+                + "Standard deviation [%s]", mean, stddev));
+        }
+        checkBounds(lower, upper);
+        final double a = (lower - mean) / stddev;
+        final double b = (upper - mean) / stddev;
+
+        if (b > -GAUSSIAN_TAIL && a < GAUSSIAN_TAIL) {
+            // Track the probability below a and above b separately, since the CDF is much more
+            // accurate near 0 than near 1. Then each value is computed from whichever tail it's in.
+            final double belowA = Distributions.normalCdf(a);
+            final double aboveB = Distributions.normalCdf(-b);
+            final double width;
+            if (a > 0.0) {
+                width = Distributions.normalCdf(-a) - aboveB;
+            } else if (b < 0.0) {
+                width = Distributions.normalCdf(b) - belowA;
+            } else {
+                width = 1.0 - belowA - aboveB;
+            }
+            return new TruncatedDoubleSampler(lower, upper, u -> {
+                final double p = belowA + u * width;
+                if (p <= 0.5) {
+                    return mean + stddev * Distributions.normalQuantile(p);
+                }
+                return mean - stddev * Distributions.normalQuantile(aboveB + (1.0 - u) * width);
+            });
+        }
+
+        // The whole range is so far out in one tail that the CDF underflows. Out there, the
+        // density drops off exponentially from the bound closest to the mean, at a rate of about
+        // that bound's distance from the mean, so use that instead.
+        final double near = b <= -GAUSSIAN_TAIL ? b : a;
+        final double direction = Math.signum(near);
+        final double rate = Math.abs(near);
+        final double scale = Math.expm1(-rate * (b - a));
+        return new TruncatedDoubleSampler(lower, upper, u -> {
+            final double z = near - direction * Math.log1p(u * scale) / rate;
+            return mean + stddev * z;
+        });
+    }
+
+    /**
+     * Creates a sampler for an exponential distribution, restricted to {@code [lower, upper]}.
+     * The upper bound can be infinite.
+     *
+     * @param rate  the rate of the distribution, which is 1 over the mean (positive, finite)
+     * @param lower the lowest value that can be generated (inclusive)
+     * @param upper the highest value that can be generated (inclusive, non-negative)
+     * @return a new sampler
+     * @throws IllegalArgumentException if any parameter is out of range, or {@code lower > upper}
+     */
+    @NotNull
+    public static TruncatedDoubleSampler exponential(double rate, double lower, double upper) {
+        if (!(rate > 0.0) || Double.isInfinite(rate)) {
+            throw new IllegalArgumentException(String.format(
+                "Rate must be positive and finite. Rate [%s]", rate));
+        }
+        checkBounds(lower, upper);
+        if (upper < 0.0) {
+            throw new IllegalArgumentException(String.format(
+                "Range must include non-negative values. Upper [%s]", upper));
+        }
+
+        // Thanks to memorylessness, this is just an exponential shifted up to the lower bound
+        final double start = Math.max(lower, 0.0);
+        final double scale = Math.expm1(-rate * (upper - start));
+        return new TruncatedDoubleSampler(
+            start, upper, u -> start - Math.log1p(u * scale) / rate);
+    }
+
+    /**
+     * Generates one value.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @return a value from the distribution, in this sampler's range
+     */
+    public double next(@NotNull Random random) {
+        // Keep u away from 0, where some quantile functions are infinite
+        final double u = ((random.nextLong() >>> 11) + 0.5) * 0x1.0p-53;
+        final double value = quantile.applyAsDouble(u);
+
+        // Rounding can push values just past the bounds, so pull them back in
+        return Math.max(lower, Math.min(value, upper));
+    }
+
+    /**
+     * Fills the given array with generated values.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @param array  the array to fill (non-null)
+     */
+    public void fill(@NotNull Random random, @NotNull double[] array) {
+        Objects.requireNonNull(random);
+        for (int i = 0; i < array.length; i++) {
+            array[i] = next(random);
+        }
+    }
+
+    /**
+     * Fills the given array with generated values, in parallel. The output depends only on the
+     * {@link ParallelRandom}'s seed and block size, not on the number of threads.
+     *
+     * @param random the {@link ParallelRandom} to generate numbers from (non-null)
+     * @param array  the array to fill (non-null)
+     */
+    public void parallelFill(@NotNull ParallelRandom random, @NotNull double[] array) {
+        random.forEach(array.length, (i, r) -> array[i] = next(r));
+    }
+
+    private static void checkBounds(double lower, double upper) {
+        if (!(lower <= upper)) {
+            throw new IllegalArgumentException(String.format(
+                "Lower bound must be at most upper bound. Lower [%s]; Upper [%s]", lower, upper));
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package me.lucaspickering.utils.random;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Generates values from a discrete distribution, restricted to a fixed range. On construction,
+ * the distribution's probabilities are tabulated over the part of the range where they aren't
+ * negligible (all but about 1e-17 of the mass). Each value then takes exactly one uniform random
+ * number and a binary search of that table, with no rejection. This works no matter how little of
+ * the distribution falls in the range, even far out in a tail.
+ *
+ * The table covers O(sqrt(mean)) values for distributions centered in the range, and fewer for
+ * ranges in a tail. Usually created through {@link me.lucaspickering.utils.range.IntRange}, which
+ * handles bound types. Instances are immutable, and so can be shared between threads.
+ */
+public class TruncatedIntSampler {
+
+    /**
+     * Values whose log probability is this far below the most likely value in the range are
+     * dropped from the table.
+     */
+    private static final double LOG_CUTOFF = -40.0;
+
+    private final int offset;
+    private final double[] cumulative;
+    private final double total;
+
+    private TruncatedIntSampler(int lower, int upper, int mode, IntToDoubleFunction logPmf) {
+        if (lower > upper) {
+            throw new IllegalArgumentException(String.format(
+                "Lower bound must be at most upper bound. Lower [%d]; Upper [%d]", lower, upper));
+        }
+
+        // The distributions are unimodal, so the most likely value in the range is the one closest
+        // to the mode, and probability only drops off moving away from it
+        final int peak = Math.max(lower, Math.min(mode, upper));
+        final double peakLog = logPmf.applyAsDouble(peak);
+        if (peakLog == Double.NEGATIVE_INFINITY) {
+            throw new IllegalArgumentException(String.format(
+                "Range has no probability. Lower [%d]; Upper [%d]", lower, upper));
+        }
+        int start = peak;
+        while (start > lower && logPmf.applyAsDouble(start - 1) - peakLog > LOG_CUTOFF) {
+            start--;
+        }
+        int end = peak;
+        while (end < upper && logPmf.applyAsDouble(end + 1) - peakLog > LOG_CUTOFF) {
+            end++;
+        }
+
+        offset = start;
+        cumulative = new double[end - start + 1];
+        double sum = 0.0;
+        for (int i = 0; i < cumulative.length; i++) {
+            sum += Math.exp(logPmf.applyAsDouble(start + i) - peakLog);
+            cumulative[i] = sum;
+        }
+        total = sum;
+    }
+
+    /**
+     * Creates a sampler for a Poisson distribution, restricted to {@code [lower, upper]}.
+     *
+     * @param mean  the mean of the distribution (non-negative, finite)
+     * @param lower the lowest value that can be generated (inclusive)
+     * @param upper the highest value that can be generated (inclusive, non-negative)
+     * @return a new sampler
+     * @throws IllegalArgumentException if the mean is out of range, {@code lower > upper}, or
+     *                                  {@code upper} is negative
+     */
+    @NotNull
+    public static TruncatedIntSampler poisson(double mean, int lower, int upper) {
+        Distributions.checkPoissonMean(mean);
+        final double logMean = Math.log(mean);
+        final int mode = (int) Math.min(mean, Integer.MAX_VALUE);
+        return new TruncatedIntSampler(Math.max(lower, 0), upper, mode, k -> {
+            final double logPower = k == 0 ? 0.0 : k * logMean;
+            return logPower - mean - Distributions.logFactorial(k);
+        });
+    }
+
+    /**
+     * Creates a sampler for a binomial distribution, restricted to {@code [lower, upper]}.
+     *
+     * @param n           the number of trials (non-negative)
+     * @param probability the chance of success for each trial, in the range {@code [0, 1]}
+     * @param lower       the lowest value that can be generated (inclusive)
+     * @param upper       the highest value that can be generated (inclusive)
+     * @return a new sampler
+     * @throws IllegalArgumentException if {@code n} or the probability is out of range, or the
+     *                                  range has no overlap with {@code [0, n]}
+     */
+    @NotNull
+    public static TruncatedIntSampler binomial(int n, double probability, int lower, int upper) {
+        if (n < 0 || !(probability >= 0.0 && probability <= 1.0)) {
+            throw new IllegalArgumentException(String.format(
+                "Trials must be non-negative and probability must be in the range [0, 1]. "
+                + "Trials [%d]; Probability [%s]", n, probability));
+        }
+        final double logP = Math.log(probability);
+        final double logQ = Math.log1p(-probability);
+        final double logN = Distributions.logFactorial(n);
+        final int mode = (int) Math.min(n, Math.floor((n + 1) * probability));
+        return new TruncatedIntSampler(Math.max(lower, 0), Math.min(upper, n), mode, k -> {
+            // Skip the power terms when they are 0, so that 0 * -Infinity doesn't make NaN
+            final double logSuccesses = k == 0 ? 0.0 : k * logP;
+            final double logFailures = k == n ? 0.0 : (n - k) * logQ;
+            return logN - Distributions.logFactorial(k) - Distributions.logFactorial(n - k)
+                   + logSuccesses + logFailures;
+        });
+    }
+
+    /**
+     * Generates one value.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @return a value from the distribution, in this sampler's range
+     */
+    public int next(@NotNull Random random) {
+        final double target = random.nextDouble() * total;
+
+        // Find the first entry whose cumulative weight is above the target
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (cumulative[mid] > target) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return offset + low;
+    }
+
+    /**
+     * Fills the given array with generated values.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @param array  the array to fill (non-null)
+     */
+    public void fill(@NotNull Random random, @NotNull int[] array) {
+        Objects.requireNonNull(random);
+        for (int i = 0; i < array.length; i++) {
+            array[i] = next(random);
+        }
+    }
+
+    /**
+     * Fills the given array with generated values, in parallel. The output depends only on the
+     * {@link ParallelRandom}'s seed and block size, not on the number of threads.
+     *
+     * @param random the {@link ParallelRandom} to generate numbers from (non-null)
+     * @param array  the array to fill (non-null)
+     */
+    public void parallelFill(@NotNull ParallelRandom random, @NotNull int[] array) {
+        random.forEach(array.length, (i, r) -> array[i] = next(r));
+    }
+}
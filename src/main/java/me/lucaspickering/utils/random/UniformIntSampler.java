@@ -0,0 +1,144 @@
+package me.lucaspickering.utils.random;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Generates uniformly distributed ints in a fixed range. Values are generated with Lemire's
+ * multiply-shift method, and the rejection threshold for that method is computed once here,
+ * rather than on every call like {@link Random#nextInt(int)} does. This makes it much cheaper to
+ * generate many values in the same range.
+ *
+ * Instances are immutable, and so can be shared between threads.
+ */
+public class UniformIntSampler {
+
+    private static final long MAX_SPAN = 1L << 32;
+
+    private final int lower;
+    private final long span;
+    private final long threshold;
+
+    /**
+     * Constructs a new {@code UniformIntSampler} that generates values in
+     * {@code [lower, lower + span)}.
+     *
+     * @param lower the lowest value that can be generated
+     * @param span  the number of values that can be generated, in the range {@code [1, 2^32]}
+     * @throws IllegalArgumentException if the span is out of range, or the range extends past
+     *                                  {@link Integer#MAX_VALUE}
+     */
+    public UniformIntSampler(int lower, long span) {
+        if (span <= 0 || span > MAX_SPAN) {
+            throw new IllegalArgumentException(String.format(
+                "Span must be in the range [1, 2^32]. Span [%d]", span));
+        }
+        if (lower + span - 1 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format(
+                "Range cannot extend past Integer.MAX_VALUE. Lower [%d]; Span [%d]", lower, span));
+        }
+        this.lower = lower;
+        this.span = span;
+        this.threshold = (MAX_SPAN - span) % span;
+    }
+
+    /**
+     * Generates one value.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @return a uniformly distributed value in this sampler's range
+     */
+    public int next(@NotNull Random random) {
+        long m = (random.nextInt() & 0xFFFFFFFFL) * span;
+        while ((m & 0xFFFFFFFFL) < threshold) {
+            m = (random.nextInt() & 0xFFFFFFFFL) * span;
+        }
+        return (int) (lower + (m >>> 32));
+    }
+
+    /**
+     * Fills the given array with generated values.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @param array  the array to fill (non-null)
+     */
+    public void fill(@NotNull Random random, @NotNull int[] array) {
+        fill(random, array, 0, array.length);
+    }
+
+    /**
+     * Fills part of the given array with generated values.
+     *
+     * @param random    the {@link Random} to generate numbers from (non-null)
+     * @param array     the array to fill (non-null)
+     * @param fromIndex the first index to fill (inclusive)
+     * @param toIndex   the last index to fill (exclusive)
+     * @throws ArrayIndexOutOfBoundsException if either index is out of range
+     */
+    public void fill(@NotNull Random random, @NotNull int[] array, int fromIndex, int toIndex) {
+        Objects.requireNonNull(random);
+        checkSlice(array.length, fromIndex, toIndex);
+        for (int i = fromIndex; i < toIndex; i++) {
+            array[i] = next(random);
+        }
+    }
+
+    /**
+     * Fills the given array with generated values, in parallel. The output depends only on the
+     * {@link ParallelRandom}'s seed and block size, not on the number of threads.
+     *
+     * @param random the {@link ParallelRandom} to generate numbers from (non-null)
+     * @param array  the array to fill (non-null)
+     */
+    public void parallelFill(@NotNull ParallelRandom random, @NotNull int[] array) {
+        random.forEach(array.length, (i, r) -> array[i] = next(r));
+    }
+
+    /**
+     * Returns a sequential stream of generated values.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @param count  the number of values to generate (non-negative)
+     * @return an {@link IntStream} of {@code count} generated values
+     */
+    @NotNull
+    public IntStream ints(@NotNull Random random, long count) {
+        Objects.requireNonNull(random);
+        return IntStream.generate(() -> next(random)).limit(count);
+    }
+
+    /**
+     * Adds a generated value to each element of the given array, in place.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @param array  the array to modify (non-null)
+     */
+    public void addTo(@NotNull Random random, @NotNull int[] array) {
+        Objects.requireNonNull(random);
+        for (int i = 0; i < array.length; i++) {
+            array[i] += next(random);
+        }
+    }
+
+    /**
+     * Adds a generated value to each element of the given array, in place and in parallel. The
+     * output depends only on the {@link ParallelRandom}'s seed and block size, not on the number of
+     * threads.
+     *
+     * @param random the {@link ParallelRandom} to generate numbers from (non-null)
+     * @param array  the array to modify (non-null)
+     */
+    public void parallelAddTo(@NotNull ParallelRandom random, @NotNull int[] array) {
+        random.forEach(array.length, (i, r) -> array[i] += next(r));
+    }
+
+    private static void checkSlice(int length, int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > length || fromIndex > toIndex) {
+            throw new ArrayIndexOutOfBoundsException(String.format(
+                "Invalid slice. From [%d]; To [%d]; Length [%d]", fromIndex, toIndex, length));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package me.lucaspickering.utils.random;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A reusable sampler that randomly selects elements from a fixed collection, where each element's
+ * chance of being chosen is proportional to its weight. Built using Vose's alias method, so
+ * construction is O(n) and each draw is O(1), regardless of the magnitude of the weights.
+ *
+ * @param <T> the type of the elements being sampled
+ */
+public class WeightedSampler<T> {
+
+    private final List<T> elements;
+    private final double[] probabilities;
+    private final int[] aliases;
+
+    /**
+     * Constructs a new {@code WeightedSampler} over the given collection. The weight of each
+     * element is computed exactly once, here. Elements with a weight of 0 or less will never be
+     * chosen. Integer weights can be passed in directly, as {@code int} widens to {@code double}.
+     *
+     * @param coll           the collection to be chosen from (non-null, non-empty)
+     * @param weightFunction the function that provides a weight for each element (non-null)
+     * @throws IllegalArgumentException if the collection is empty, any weight is NaN or infinite,
+     *                                  no element has a positive weight, or the weights add up to
+     *                                  more than {@link Double#MAX_VALUE}
+     */
+    public WeightedSampler(@NotNull Collection<T> coll,
+                           @NotNull ToDoubleFunction<? super T> weightFunction) {
+        Objects.requireNonNull(coll);
+        Objects.requireNonNull(weightFunction);
+        if (coll.isEmpty()) {
+            throw new IllegalArgumentException("Collection cannot be empty");
+        }
+
+        // Compute each weight once, dropping any elements that can never be chosen
+        elements = new ArrayList<>(coll.size());
+        double[] weights = new double[coll.size()];
+        double totalWeight = 0.0;
+        for (T element : coll) {
+            final double weight = weightFunction.applyAsDouble(element);
+            if (Double.isNaN(weight) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException(String.format(
+                    "Weight must be finite. Element [%s]; Weight [%s]", element, weight));
+            }
+            if (weight > 0.0) {
+                weights[elements.size()] = weight;
+                elements.add(element);
+                totalWeight += weight;
+            }
+        }
+        if (elements.isEmpty()) {
+            throw new IllegalArgumentException("At least one weight must be positive");
+        }
+        if (Double.isInfinite(totalWeight)) {
+            throw new IllegalArgumentException(String.format(
+                "Total weight must be finite. Total weight [%s]", totalWeight));
+        }
+
+        final int n = elements.size();
+        probabilities = new double[n];
+        aliases = new int[n];
+
+        // Scale each weight so that the average is 1, then split the indices into those that
+        // are under-full (< 1) and over-full (>= 1). Both work lists are plain int stacks.
+        // Dividing first means huge weights can't overflow.
+        final int[] small = new int[n];
+        final int[] large = new int[n];
+        int smallSize = 0;
+        int largeSize = 0;
+        for (int i = 0; i < n; i++) {
+            weights[i] = weights[i] / totalWeight * n;
+            if (weights[i] < 1.0) {
+                small[smallSize++] = i;
+            } else {
+                large[largeSize++] = i;
+            }
+        }
+
+        // Fill each under-full column with a piece of an over-full one
+        while (smallSize > 0 && largeSize > 0) {
+            final int less = small[--smallSize];
+            final int more = large[--largeSize];
+            probabilities[less] = weights[less];
+            aliases[less] = more;
+
+            weights[more] = (weights[more] + weights[less]) - 1.0;
+            if (weights[more] < 1.0) {
+                small[smallSize++] = more;
+            } else {
+                large[largeSize++] = more;
+            }
+        }
+
+        // Anything left over is full, up to floating point error
+        while (largeSize > 0) {
+            probabilities[large[--largeSize]] = 1.0;
+        }
+        while (smallSize > 0) {
+            probabilities[small[--smallSize]] = 1.0;
+        }
+    }
+
+    /**
+     * Gets the number of elements that can be chosen by this sampler, i.e. the number of elements
+     * with a positive weight.
+     *
+     * @return the number of choosable elements
+     */
+    public int size() {
+        return elements.size();
+    }
+
+    /**
+     * Randomly selects one element. Each element has a chance of being chosen that is
+     * proportional to its weight.
+     *
+     * @param random the {@link Random} to generate numbers from (non-null)
+     * @return one randomly-selected element
+     */
+    @NotNull
+    public T next(@NotNull Random random) {
+        Objects.requireNonNull(random);
+        final int column = random.nextInt(probabilities.length);
+        final int index = random.nextDouble() < probabilities[column] ? column : aliases[column];
+        return elements.get(index);
+    }
+}
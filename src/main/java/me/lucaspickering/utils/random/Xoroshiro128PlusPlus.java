@@ -0,0 +1,88 @@
+package me.lucaspickering.utils.random;
+
+/**
+ * The xoroshiro128++ generator, by Blackman and Vigna. It has 128 bits of state, a period of
+ * 2^128 - 1, and passes all standard statistical test suites. This is a good default choice.
+ *
+ * Instances are <b>not</b> thread-safe. Each thread should have its own.
+ */
+public class Xoroshiro128PlusPlus extends RandomSource {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final long[] JUMP = {0x2BD7A6A6E99C2DDCL, 0x0992CCAF6A6FCA05L};
+
+    private long s0, s1;
+
+    /**
+     * Constructs a new {@code Xoroshiro128PlusPlus} with a seed derived from the current time.
+     */
+    public Xoroshiro128PlusPlus() {
+        this(System.nanoTime() ^ mix64(System.currentTimeMillis()));
+    }
+
+    /**
+     * Constructs a new {@code Xoroshiro128PlusPlus} with the given seed. The seed is expanded
+     * to the full 128 bits of state using SplitMix64.
+     *
+     * @param seed the seed
+     */
+    public Xoroshiro128PlusPlus(long seed) {
+        setSeed(seed);
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        final SplitMix64 seeder = new SplitMix64(seed);
+        s0 = seeder.nextLong();
+        s1 = seeder.nextLong();
+        if ((s0 | s1) == 0L) {
+            s1 = 1L; // All-zero state is the one state that never leaves itself
+        }
+    }
+
+    @Override
+    public long nextLong() {
+        final long rv = Long.rotateLeft(s0 + s1, 17) + s0;
+        final long t = s1 ^ s0;
+        s0 = Long.rotateLeft(s0, 49) ^ t ^ (t << 21);
+        s1 = Long.rotateLeft(t, 28);
+        return rv;
+    }
+
+    /**
+     * Advances this generator by 2^64 steps, as if {@link #nextLong()} had been called that many
+     * times. Calling this repeatedly on copies of one generator produces up to 2^64
+     * non-overlapping subsequences, one per thread.
+     */
+    public void jump() {
+        long newS0 = 0L;
+        long newS1 = 0L;
+        for (long jump : JUMP) {
+            for (int bit = 0; bit < 64; bit++) {
+                if ((jump & (1L << bit)) != 0) {
+                    newS0 ^= s0;
+                    newS1 ^= s1;
+                }
+                nextLong();
+            }
+        }
+        s0 = newS0;
+        s1 = newS1;
+    }
+
+    /**
+     * Creates a copy of this generator with identical state, then jumps this generator ahead (see
+     * {@link #jump()}). The returned generator can produce 2^64 values before it overlaps with
+     * this one.
+     *
+     * @return a new generator that starts where this one was
+     */
+    public Xoroshiro128PlusPlus split() {
+        final Xoroshiro128PlusPlus rv = new Xoroshiro128PlusPlus(0L);
+        rv.s0 = s0;
+        rv.s1 = s1;
+        jump();
+        return rv;
+    }
+}
@@ -2,8 +2,14 @@ package me.lucaspickering.utils.range;
 
 import org.jetbrains.annotations.NotNull;
 
+import me.lucaspickering.utils.ArrayKernels;
+import me.lucaspickering.utils.random.ParallelRandom;
+import me.lucaspickering.utils.random.TruncatedDoubleSampler;
+
 import java.util.Collection;
+import java.util.Objects;
 import java.util.Random;
+import java.util.stream.DoubleStream;
 
 public class DoubleRange extends NumberRange<Double> {
 
@@ -39,21 +45,154 @@ public class DoubleRange extends NumberRange<Double> {
     @NotNull
     @Override
     public Double randomIn(@NotNull Random random) {
+        final double lower = randomLower();
+        return lower + random.nextDouble() * (randomUpper() - lower);
+    }
+
+    /**
+     * Creates a sampler that generates values from a normal distribution, restricted to this
+     * range.
+     *
+     * @param mean   the mean of the distribution (finite)
+     * @param stddev the standard deviation of the distribution (positive, finite)
+     * @return a new sampler over this range
+     * @throws IllegalArgumentException if either parameter is out of range, or this range is empty
+     * @see TruncatedDoubleSampler#gaussian(double, double, double, double)
+     */
+    @NotNull
+    public TruncatedDoubleSampler gaussianSampler(double mean, double stddev) {
+        return TruncatedDoubleSampler.gaussian(mean, stddev, inclusiveLower(), inclusiveUpper());
+    }
+
+    /**
+     * Creates a sampler that generates values from an exponential distribution, restricted to
+     * this range.
+     *
+     * @param rate the rate of the distribution, which is 1 over the mean (positive, finite)
+     * @return a new sampler over this range
+     * @throws IllegalArgumentException if the rate is out of range, or this range contains no
+     *                                  non-negative values
+     * @see TruncatedDoubleSampler#exponential(double, double, double)
+     */
+    @NotNull
+    public TruncatedDoubleSampler exponentialSampler(double rate) {
+        return TruncatedDoubleSampler.exponential(rate, inclusiveLower(), inclusiveUpper());
+    }
+
+    /**
+     * Fills the given array with randomly-selected values from this range.
+     *
+     * @param random the {@link Random} instance to use (non-null)
+     * @param array  the array to fill (non-null)
+     */
+    public void fill(@NotNull Random random, @NotNull double[] array) {
+        Objects.requireNonNull(random);
+        final double lower = randomLower();
+        final double span = randomUpper() - lower;
+        for (int i = 0; i < array.length; i++) {
+            array[i] = lower + random.nextDouble() * span;
+        }
+    }
+
+    /**
+     * Fills the given array with randomly-selected values from this range, in parallel. The output
+     * depends only on the {@link ParallelRandom}'s seed and block size, not on the number of
+     * threads.
+     *
+     * @param random the {@link ParallelRandom} instance to use (non-null)
+     * @param array  the array to fill (non-null)
+     */
+    public void parallelFill(@NotNull ParallelRandom random, @NotNull double[] array) {
+        final double lower = randomLower();
+        final double span = randomUpper() - lower;
+        random.forEach(array.length, (i, r) -> array[i] = lower + r.nextDouble() * span);
+    }
+
+    /**
+     * Returns a sequential stream of randomly-selected values from this range.
+     *
+     * @param random the {@link Random} instance to use (non-null)
+     * @param count  the number of values to generate (non-negative)
+     * @return a {@link DoubleStream} of {@code count} values in this range
+     */
+    @NotNull
+    public DoubleStream doubles(@NotNull Random random, long count) {
+        Objects.requireNonNull(random);
+        final double lower = randomLower();
+        final double span = randomUpper() - lower;
+        return DoubleStream.generate(() -> lower + random.nextDouble() * span).limit(count);
+    }
+
+    /**
+     * Coerces each of the given values into this range, and writes the results into the output
+     * array. This is the batch version of {@link #coerce}, and gives the same results.
+     *
+     * @param values the values to coerce (non-null)
+     * @param out    the array to write the results into (non-null, at least as long as
+     *               {@code values}). This may be {@code values} itself.
+     * @throws IllegalArgumentException if {@code out} is shorter than {@code values}
+     */
+    public void coerce(@NotNull double[] values, @NotNull double[] out) {
+        checkOutput(values, out);
+        ArrayKernels.coerce(values, lower(), upper(), out, 0, values.length);
+    }
+
+    /**
+     * Normalizes each of the given values in this range, and writes the results into the output
+     * array. This is the batch version of {@link #normalize}, and gives the same results.
+     *
+     * @param values the values to normalize (non-null)
+     * @param out    the array to write the results into (non-null, at least as long as
+     *               {@code values}). This may be {@code values} itself.
+     * @throws IllegalArgumentException if {@code out} is shorter than {@code values}
+     */
+    public void normalize(@NotNull double[] values, @NotNull double[] out) {
+        checkOutput(values, out);
+        ArrayKernels.normalize(values, lower(), upper(), out, 0, values.length);
+    }
+
+    private static void checkOutput(double[] values, double[] out) {
+        if (out.length < values.length) {
+            throw new IllegalArgumentException(String.format(
+                "Output array is too small. Values [%d]; Output [%d]", values.length, out.length));
+        }
+    }
+
+    private double inclusiveLower() {
+        return lowerType() == BoundType.EXCLUSIVE ? Math.nextUp(lower()) : lower();
+    }
+
+    private double inclusiveUpper() {
+        return upperType() == BoundType.EXCLUSIVE ? Math.nextDown(upper()) : upper();
+    }
+
+    /**
+     * Gets the inclusive lower bound to pass to a random number generator.
+     *
+     * @return the lower bound, shifted up one ulp if it is exclusive
+     */
+    private double randomLower() {
         // Random's lower bound is inclusive by default, so if we want it to be exclusive, we have
         // to shift it up one ulp.
         double lower = lower();
         if (lowerType() == BoundType.EXCLUSIVE) {
             lower += Math.ulp(lower);
         }
+        return lower;
+    }
 
+    /**
+     * Gets the exclusive upper bound to pass to a random number generator.
+     *
+     * @return the upper bound, shifted up one ulp if it is inclusive
+     */
+    private double randomUpper() {
         // Random's upper bound is exclusive by default, so if we want it to be inclusive, we
         // have to shift it up one ulp.
         double upper = upper();
         if (upperType() == BoundType.INCLUSIVE) {
             upper += Math.ulp(upper);
         }
-
-        final double span = upper - lower;
-        return lower + random.nextDouble() * span;
+        return upper;
     }
 }
@@ -2,8 +2,13 @@ package me.lucaspickering.utils.range;
 
 import org.jetbrains.annotations.NotNull;
 
+import me.lucaspickering.utils.random.ParallelRandom;
+import me.lucaspickering.utils.random.TruncatedIntSampler;
+import me.lucaspickering.utils.random.UniformIntSampler;
+
 import java.util.Collection;
 import java.util.Random;
+import java.util.stream.IntStream;
 
 public class IntRange extends NumberRange<Integer> {
 
@@ -46,20 +51,138 @@ public class IntRange extends NumberRange<Integer> {
     @NotNull
     @Override
     public Integer randomIn(@NotNull Random random) {
+        final int lower = randomLower();
+        return lower + random.nextInt(randomUpper() - lower);
+    }
+
+    /**
+     * Creates a sampler that generates values uniformly from this range. The bound adjustments
+     * are computed once, so this is the fastest way to generate many values.
+     *
+     * @return a new sampler over this range
+     * @throws IllegalArgumentException if this range contains no values
+     */
+    @NotNull
+    public UniformIntSampler sampler() {
+        final long lower = (long) lower() + (lowerType() == BoundType.EXCLUSIVE ? 1 : 0);
+        final long upper = (long) upper() + (upperType() == BoundType.INCLUSIVE ? 1 : 0);
+        if (upper <= lower) {
+            throw new IllegalArgumentException(String.format("Range %s is empty", this));
+        }
+        return new UniformIntSampler((int) lower, upper - lower);
+    }
+
+    /**
+     * Creates a sampler that generates values from a Poisson distribution, restricted to this
+     * range.
+     *
+     * @param mean the mean of the distribution (non-negative, finite)
+     * @return a new sampler over this range
+     * @throws IllegalArgumentException if the mean is out of range, or this range contains no
+     *                                  non-negative values
+     * @see TruncatedIntSampler#poisson(double, int, int)
+     */
+    @NotNull
+    public TruncatedIntSampler poissonSampler(double mean) {
+        return TruncatedIntSampler.poisson(mean, inclusiveLower(), inclusiveUpper());
+    }
+
+    /**
+     * Creates a sampler that generates values from a binomial distribution, restricted to this
+     * range.
+     *
+     * @param n           the number of trials (non-negative)
+     * @param probability the chance of success for each trial, in the range {@code [0, 1]}
+     * @return a new sampler over this range
+     * @throws IllegalArgumentException if either parameter is out of range, or this range has no
+     *                                  values in {@code [0, n]}
+     * @see TruncatedIntSampler#binomial(int, double, int, int)
+     */
+    @NotNull
+    public TruncatedIntSampler binomialSampler(int n, double probability) {
+        return TruncatedIntSampler.binomial(n, probability, inclusiveLower(), inclusiveUpper());
+    }
+
+    /**
+     * Fills the given array with randomly-selected values from this range.
+     *
+     * @param random the {@link Random} instance to use (non-null)
+     * @param array  the array to fill (non-null)
+     * @see #sampler()
+     */
+    public void fill(@NotNull Random random, @NotNull int[] array) {
+        sampler().fill(random, array);
+    }
+
+    /**
+     * Fills the given array with randomly-selected values from this range, in parallel.
+     *
+     * @param random the {@link ParallelRandom} instance to use (non-null)
+     * @param array  the array to fill (non-null)
+     * @see UniformIntSampler#parallelFill(ParallelRandom, int[])
+     */
+    public void parallelFill(@NotNull ParallelRandom random, @NotNull int[] array) {
+        sampler().parallelFill(random, array);
+    }
+
+    /**
+     * Returns a sequential stream of randomly-selected values from this range.
+     *
+     * @param random the {@link Random} instance to use (non-null)
+     * @param count  the number of values to generate (non-negative)
+     * @return an {@link IntStream} of {@code count} values in this range
+     */
+    @NotNull
+    public IntStream ints(@NotNull Random random, long count) {
+        return sampler().ints(random, count);
+    }
+
+    private int inclusiveLower() {
+        checkNotEmpty();
+        return lowerType() == BoundType.EXCLUSIVE ? lower() + 1 : lower();
+    }
+
+    private int inclusiveUpper() {
+        checkNotEmpty();
+        return upperType() == BoundType.EXCLUSIVE ? upper() - 1 : upper();
+    }
+
+    private void checkNotEmpty() {
+        // Done with longs, because shifting an exclusive bound inward can overflow
+        final long lower = (long) lower() + (lowerType() == BoundType.EXCLUSIVE ? 1 : 0);
+        final long upper = (long) upper() - (upperType() == BoundType.EXCLUSIVE ? 1 : 0);
+        if (upper < lower) {
+            throw new IllegalArgumentException(String.format("Range %s is empty", this));
+        }
+    }
+
+    /**
+     * Gets the inclusive lower bound to pass to a random number generator.
+     *
+     * @return the lower bound, shifted up one if it is exclusive
+     */
+    private int randomLower() {
         // Random's lower bound is inclusive by default, so if we want it to be exclusive, we have
         // to shift it up one.
         int lower = lower();
         if (lowerType() == BoundType.EXCLUSIVE) {
             lower++;
         }
+        return lower;
+    }
 
+    /**
+     * Gets the exclusive upper bound to pass to a random number generator.
+     *
+     * @return the upper bound, shifted up one if it is inclusive
+     */
+    private int randomUpper() {
         // Random's upper bound is exclusive by default, so if we want it to be inclusive, we
         // have to shift it up one.
         int upper = upper();
         if (upperType() == BoundType.INCLUSIVE) {
             upper++;
         }
-
-        return lower + random.nextInt(upper - lower);
+        return upper;
     }
 }
@@ -3,7 +3,10 @@ package me.lucaspickering.utils.range;
 
 import org.jetbrains.annotations.NotNull;
 
+import me.lucaspickering.utils.Pair;
+
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Objects;
 
 abstract class NumberRange<T extends Number & Comparable<T>> implements Range<T> {
@@ -78,19 +81,33 @@ abstract class NumberRange<T extends Number & Comparable<T>> implements Range<T>
      * @throws IllegalArgumentException if the given collection is empty
      */
     NumberRange(@NotNull Collection<T> coll) {
-        this(min(coll), max(coll)); // Compute min and max of the given collection
+        this(extremes(coll));
     }
 
-    private static <T extends Number & Comparable<T>> T min(@NotNull Collection<T> coll) {
-        return coll.stream()
-            .min(T::compareTo)
-            .orElseThrow(() -> new IllegalArgumentException("Collection cannot be empty"));
+    private NumberRange(@NotNull Pair<T, T> extremes) {
+        this(extremes.first(), extremes.second());
     }
 
-    private static <T extends Number & Comparable<T>> T max(@NotNull Collection<T> coll) {
-        return coll.stream()
-            .max(T::compareTo)
-            .orElseThrow(() -> new IllegalArgumentException("Collection cannot be empty"));
+    /**
+     * Finds the minimum and maximum of the given collection in a single pass.
+     */
+    private static <T extends Number & Comparable<T>> Pair<T, T> extremes(
+        @NotNull Collection<T> coll) {
+        final Iterator<T> iter = coll.iterator();
+        if (!iter.hasNext()) {
+            throw new IllegalArgumentException("Collection cannot be empty");
+        }
+        T min = iter.next();
+        T max = min;
+        while (iter.hasNext()) {
+            final T value = iter.next();
+            if (value.compareTo(min) < 0) {
+                min = value;
+            } else if (value.compareTo(max) > 0) {
+                max = value;
+            }
+        }
+        return new Pair<>(min, max);
     }
 
     /**
@@ -0,0 +1,395 @@
+package me.lucaspickering.utils.spatial;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import me.lucaspickering.utils.Point3;
+import me.lucaspickering.utils.Point3Store;
+
+/**
+ * A static KD-tree over a set of 3-dimensional points, for finding the nearest points to a
+ * query point, or all points within some radius or box, without checking every point. Points
+ * are identified by their index in the collection, store or arrays the tree was built from.
+ *
+ * The tree is built once, in O(n log n) time (in parallel for large inputs), and can't be
+ * changed afterwards. It keeps its own copy of the coordinates, in tree order, so later changes
+ * to the input have no effect. For points that move, see {@link SpatialHash3}.
+ *
+ * Queries compare squared distances, so no square roots are taken, and write their results into
+ * a caller-supplied {@link QueryResult}, so they don't allocate once the result is big enough.
+ * The tree is immutable, so any number of threads can query it at once, each with its own
+ * result.
+ */
+public final class KdTree3 {
+
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] zs;
+    private final int[] ids;
+
+    /**
+     * Builds a tree over the given points. Each point's index is its position in the
+     * collection's iteration order.
+     *
+     * @param points the points (non-null, with no null elements)
+     * @throws IllegalArgumentException if any coordinate is NaN
+     */
+    public KdTree3(@NotNull Collection<Point3> points) {
+        this(points.size());
+        int i = 0;
+        for (Point3 point : points) {
+            xs[i] = point.x();
+            ys[i] = point.y();
+            zs[i] = point.z();
+            i++;
+        }
+        build();
+    }
+
+    /**
+     * Builds a tree over the points in the given store, which can be on or off the heap. Each
+     * point's index is its index in the store.
+     *
+     * @param points the points (non-null)
+     * @throws IllegalArgumentException if any coordinate is NaN
+     */
+    public KdTree3(@NotNull Point3Store points) {
+        this(points.size());
+        for (int i = 0; i < ids.length; i++) {
+            xs[i] = points.x(i);
+            ys[i] = points.y(i);
+            zs[i] = points.z(i);
+        }
+        build();
+    }
+
+    /**
+     * Builds a tree over the points {@code (xs[i], ys[i], zs[i])}. Point {@code i} has index
+     * {@code i}. The arrays are copied, not modified.
+     *
+     * @param xs the x coordinates (non-null)
+     * @param ys the y coordinates (non-null, same length as {@code xs})
+     * @param zs the z coordinates (non-null, same length as {@code xs})
+     * @throws IllegalArgumentException if the arrays are different lengths, or any coordinate is
+     *                                  NaN
+     */
+    public KdTree3(@NotNull double[] xs, @NotNull double[] ys, @NotNull double[] zs) {
+        if (ys.length != xs.length || zs.length != xs.length) {
+            throw new IllegalArgumentException(String.format(
+                "Array lengths don't match. X [%d]; Y [%d]; Z [%d]",
+                xs.length, ys.length, zs.length));
+        }
+        this.xs = xs.clone();
+        this.ys = ys.clone();
+        this.zs = zs.clone();
+        this.ids = new int[xs.length];
+        build();
+    }
+
+    private KdTree3(int size) {
+        xs = new double[size];
+        ys = new double[size];
+        zs = new double[size];
+        ids = new int[size];
+    }
+
+    private void build() {
+        final double[][] columns = {xs, ys, zs};
+        KdTrees.checkCoordinates(columns);
+        Arrays.setAll(ids, i -> i);
+        KdTrees.build(columns, ids);
+    }
+
+    /**
+     * Gets the number of points in this tree.
+     *
+     * @return the number of points
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Finds the point nearest to the given one.
+     *
+     * @param x the x of the query point
+     * @param y the y of the query point
+     * @param z the z of the query point
+     * @return the index of the nearest point, or -1 if the tree is empty
+     */
+    public int nearest(double x, double y, double z) {
+        final int best = nearest(0, ids.length, 0, x, y, z, -1, Double.POSITIVE_INFINITY);
+        return best < 0 ? -1 : ids[best];
+    }
+
+    /**
+     * Finds the point nearest to the given one.
+     *
+     * @param p the query point (non-null)
+     * @return the index of the nearest point, or -1 if the tree is empty
+     */
+    public int nearest(@NotNull Point3 p) {
+        return nearest(p.x(), p.y(), p.z());
+    }
+
+    /**
+     * Finds the {@code k} points nearest to the given one. If the tree has fewer than {@code k}
+     * points, all of them are found.
+     *
+     * @param x   the x of the query point
+     * @param y   the y of the query point
+     * @param z   the z of the query point
+     * @param k   the number of points to find (non-negative)
+     * @param out the result to write the points into, nearest first (non-null). Anything
+     *            already in it is cleared.
+     * @return the number of points found
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    public int nearest(double x, double y, double z, int k, @NotNull QueryResult out) {
+        checkCount(k);
+        out.startNearest(Math.min(k, ids.length));
+        if (k > 0) {
+            nearest(0, ids.length, 0, x, y, z, k, out);
+        }
+        out.finishNearest();
+        return out.size();
+    }
+
+    /**
+     * Finds the {@code k} points nearest to the given one.
+     *
+     * @param p   the query point (non-null)
+     * @param k   the number of points to find (non-negative)
+     * @param out the result to write the points into, nearest first (non-null)
+     * @return the number of points found
+     * @throws IllegalArgumentException if {@code k} is negative
+     * @see #nearest(double, double, double, int, QueryResult)
+     */
+    public int nearest(@NotNull Point3 p, int k, @NotNull QueryResult out) {
+        return nearest(p.x(), p.y(), p.z(), k, out);
+    }
+
+    /**
+     * Finds every point within the given distance (inclusive) of the given point. The points are
+     * found in no particular order; use {@link QueryResult#sortByDistance()} to sort them.
+     *
+     * @param x      the x of the query point
+     * @param y      the y of the query point
+     * @param z      the z of the query point
+     * @param radius the maximum distance (non-negative)
+     * @param out    the result to write the points into (non-null). Anything already in it is
+     *               cleared.
+     * @return the number of points found
+     * @throws IllegalArgumentException if {@code radius} is negative or NaN
+     */
+    public int withinRadius(double x, double y, double z, double radius,
+                            @NotNull QueryResult out) {
+        checkRadius(radius);
+        out.clear();
+        withinRadius(0, ids.length, 0, x, y, z, radius * radius, out);
+        return out.size();
+    }
+
+    /**
+     * Finds every point within the given distance (inclusive) of the given point.
+     *
+     * @param p      the query point (non-null)
+     * @param radius the maximum distance (non-negative)
+     * @param out    the result to write the points into (non-null)
+     * @return the number of points found
+     * @throws IllegalArgumentException if {@code radius} is negative or NaN
+     * @see #withinRadius(double, double, double, double, QueryResult)
+     */
+    public int withinRadius(@NotNull Point3 p, double radius, @NotNull QueryResult out) {
+        return withinRadius(p.x(), p.y(), p.z(), radius, out);
+    }
+
+    /**
+     * Finds every point in the given axis-aligned box (inclusive). The points are found in no
+     * particular order, and have no distances.
+     *
+     * @param minX the lowest x in the box
+     * @param minY the lowest y in the box
+     * @param minZ the lowest z in the box
+     * @param maxX the highest x in the box
+     * @param maxY the highest y in the box
+     * @param maxZ the highest z in the box
+     * @param out  the result to write the points into (non-null). Anything already in it is
+     *             cleared.
+     * @return the number of points found
+     */
+    public int withinBox(double minX, double minY, double minZ, double maxX, double maxY,
+                         double maxZ, @NotNull QueryResult out) {
+        out.clear();
+        withinBox(0, ids.length, 0, minX, minY, minZ, maxX, maxY, maxZ, out);
+        return out.size();
+    }
+
+    /**
+     * Finds every point in the given axis-aligned box (inclusive).
+     *
+     * @param min the corner of the box with the lowest coordinates (non-null)
+     * @param max the corner of the box with the highest coordinates (non-null)
+     * @param out the result to write the points into (non-null)
+     * @return the number of points found
+     * @see #withinBox(double, double, double, double, double, double, QueryResult)
+     */
+    public int withinBox(@NotNull Point3 min, @NotNull Point3 max, @NotNull QueryResult out) {
+        return withinBox(min.x(), min.y(), min.z(), max.x(), max.y(), max.z(), out);
+    }
+
+    private int nearest(int lo, int hi, int axis, double x, double y, double z, int best,
+                        double bestDistance) {
+        if (hi - lo <= KdTrees.LEAF_SIZE) {
+            for (int i = lo; i < hi; i++) {
+                final double d = squaredDistance(i, x, y, z);
+                if (d < bestDistance) {
+                    bestDistance = d;
+                    best = i;
+                }
+            }
+            return best;
+        }
+        final int mid = (lo + hi) >>> 1;
+        final double d = squaredDistance(mid, x, y, z);
+        if (d < bestDistance) {
+            bestDistance = d;
+            best = mid;
+        }
+        final double diff = select(axis, x, y, z) - coordinate(mid, axis);
+        final int nextAxis = nextAxis(axis);
+        final int nearLo = diff < 0 ? lo : mid + 1;
+        final int nearHi = diff < 0 ? mid : hi;
+        best = nearest(nearLo, nearHi, nextAxis, x, y, z, best, bestDistance);
+        if (best >= 0) {
+            bestDistance = squaredDistance(best, x, y, z);
+        }
+        if (diff * diff < bestDistance) {
+            best = nearest(diff < 0 ? mid + 1 : lo, diff < 0 ? hi : mid, nextAxis, x, y, z, best,
+                           bestDistance);
+        }
+        return best;
+    }
+
+    private void nearest(int lo, int hi, int axis, double x, double y, double z, int k,
+                         QueryResult out) {
+        if (hi - lo <= KdTrees.LEAF_SIZE) {
+            for (int i = lo; i < hi; i++) {
+                out.offer(ids[i], squaredDistance(i, x, y, z), k);
+            }
+            return;
+        }
+        final int mid = (lo + hi) >>> 1;
+        out.offer(ids[mid], squaredDistance(mid, x, y, z), k);
+        final double diff = select(axis, x, y, z) - coordinate(mid, axis);
+        final int nextAxis = nextAxis(axis);
+        if (diff < 0) {
+            nearest(lo, mid, nextAxis, x, y, z, k, out);
+            if (diff * diff < out.bound(k)) {
+                nearest(mid + 1, hi, nextAxis, x, y, z, k, out);
+            }
+        } else {
+            nearest(mid + 1, hi, nextAxis, x, y, z, k, out);
+            if (diff * diff < out.bound(k)) {
+                nearest(lo, mid, nextAxis, x, y, z, k, out);
+            }
+        }
+    }
+
+    private void withinRadius(int lo, int hi, int axis, double x, double y, double z,
+                              double squaredRadius, QueryResult out) {
+        if (hi - lo <= KdTrees.LEAF_SIZE) {
+            for (int i = lo; i < hi; i++) {
+                final double d = squaredDistance(i, x, y, z);
+                if (d <= squaredRadius) {
+                    out.add(ids[i], d);
+                }
+            }
+            return;
+        }
+        final int mid = (lo + hi) >>> 1;
+        final double d = squaredDistance(mid, x, y, z);
+        if (d <= squaredRadius) {
+            out.add(ids[mid], d);
+        }
+        final double diff = select(axis, x, y, z) - coordinate(mid, axis);
+        final int nextAxis = nextAxis(axis);
+        if (diff <= 0 || diff * diff <= squaredRadius) {
+            withinRadius(lo, mid, nextAxis, x, y, z, squaredRadius, out);
+        }
+        if (diff >= 0 || diff * diff <= squaredRadius) {
+            withinRadius(mid + 1, hi, nextAxis, x, y, z, squaredRadius, out);
+        }
+    }
+
+    private void withinBox(int lo, int hi, int axis, double minX, double minY, double minZ,
+                           double maxX, double maxY, double maxZ, QueryResult out) {
+        if (hi - lo <= KdTrees.LEAF_SIZE) {
+            for (int i = lo; i < hi; i++) {
+                if (inBox(i, minX, minY, minZ, maxX, maxY, maxZ)) {
+                    out.add(ids[i], Double.NaN);
+                }
+            }
+            return;
+        }
+        final int mid = (lo + hi) >>> 1;
+        if (inBox(mid, minX, minY, minZ, maxX, maxY, maxZ)) {
+            out.add(ids[mid], Double.NaN);
+        }
+        final double split = coordinate(mid, axis);
+        final int nextAxis = nextAxis(axis);
+        if (select(axis, minX, minY, minZ) <= split) {
+            withinBox(lo, mid, nextAxis, minX, minY, minZ, maxX, maxY, maxZ, out);
+        }
+        if (select(axis, maxX, maxY, maxZ) >= split) {
+            withinBox(mid + 1, hi, nextAxis, minX, minY, minZ, maxX, maxY, maxZ, out);
+        }
+    }
+
+    private boolean inBox(int i, double minX, double minY, double minZ, double maxX,
+                          double maxY, double maxZ) {
+        return xs[i] >= minX && xs[i] <= maxX
+               && ys[i] >= minY && ys[i] <= maxY
+               && zs[i] >= minZ && zs[i] <= maxZ;
+    }
+
+    private double squaredDistance(int i, double x, double y, double z) {
+        final double xDiff = xs[i] - x;
+        final double yDiff = ys[i] - y;
+        final double zDiff = zs[i] - z;
+        return xDiff * xDiff + yDiff * yDiff + zDiff * zDiff;
+    }
+
+    private double coordinate(int i, int axis) {
+        return axis == 0 ? xs[i] : (axis == 1 ? ys[i] : zs[i]);
+    }
+
+    private static double select(int axis, double x, double y, double z) {
+        return axis == 0 ? x : (axis == 1 ? y : z);
+    }
+
+    private static int nextAxis(int axis) {
+        return axis == 2 ? 0 : axis + 1;
+    }
+
+    private static void checkCount(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException(String.format(
+                "Count cannot be negative. Count [%d]", k));
+        }
+    }
+
+    private static void checkRadius(double radius) {
+        if (!(radius >= 0.0)) {
+            throw new IllegalArgumentException(String.format(
+                "Radius must be non-negative. Radius [%s]", radius));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{size=%d}", getClass().getSimpleName(), ids.length);
+    }
+}
@@ -0,0 +1,150 @@
+package me.lucaspickering.utils.spatial;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Builds the implicit, balanced KD-trees used by {@link KdTree2} and {@link KdTree3}. The tree is
+ * stored in the point arrays themselves. The node for the range {@code [lo, hi)} is the point at
+ * {@code mid = (lo + hi) >>> 1}, which is the median of the range on the split axis. Every point
+ * in {@code [lo, mid)} is at most that point on the split axis, and every point in
+ * {@code (mid, hi)} is at least it. The axis cycles through the dimensions with depth, and ranges
+ * of at most {@link #LEAF_SIZE} points are leaves, which are left unordered and scanned.
+ *
+ * Each level is partitioned with quickselect, so building takes O(n log n) time. The two halves
+ * of each range are independent, so large trees are built in parallel.
+ */
+final class KdTrees {
+
+    static final int LEAF_SIZE = 8;
+
+    // Ranges smaller than this are built on the current thread, rather than being forked
+    private static final int FORK_THRESHOLD = 1 << 13;
+
+    private KdTrees() {
+    }
+
+    /**
+     * Arranges the given points into a KD-tree, in place.
+     *
+     * @param columns one array per dimension, each holding that coordinate of every point
+     * @param ids     the original index of every point, which is moved along with it
+     */
+    static void build(double[][] columns, int[] ids) {
+        if (ids.length >= 2 * FORK_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(new BuildTask(columns, ids, 0, ids.length, 0));
+        } else {
+            build(columns, ids, 0, ids.length, 0);
+        }
+    }
+
+    /**
+     * Checks that no coordinate is NaN, since NaN can't be ordered.
+     */
+    static void checkCoordinates(double[][] columns) {
+        for (double[] column : columns) {
+            for (int i = 0; i < column.length; i++) {
+                if (Double.isNaN(column[i])) {
+                    throw new IllegalArgumentException(String.format(
+                        "Coordinates cannot be NaN. Index [%d]", i));
+                }
+            }
+        }
+    }
+
+    private static void build(double[][] columns, int[] ids, int lo, int hi, int axis) {
+        while (hi - lo > LEAF_SIZE) {
+            final int mid = (lo + hi) >>> 1;
+            select(columns, ids, lo, hi, mid, axis);
+            final int nextAxis = axis + 1 == columns.length ? 0 : axis + 1;
+            build(columns, ids, lo, mid, nextAxis);
+            lo = mid + 1;
+            axis = nextAxis;
+        }
+    }
+
+    /**
+     * Moves the point that belongs at index {@code k} of {@code [lo, hi)}, when sorted on the
+     * given axis, to {@code k}, with lesser or equal points before it and greater or equal ones
+     * after it.
+     */
+    private static void select(double[][] columns, int[] ids, int lo, int hi, int k, int axis) {
+        final double[] keys = columns[axis];
+        int left = lo;
+        int right = hi - 1;
+        while (left < right) {
+            final double pivot = medianOf3(keys[left], keys[(left + right) >>> 1], keys[right]);
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (keys[i] < pivot) {
+                    i++;
+                }
+                while (keys[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(columns, ids, i++, j--);
+                }
+            }
+            // Now [left, j] <= pivot, [i, right] >= pivot, and anything between equals pivot
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static double medianOf3(double a, double b, double c) {
+        if (a < b) {
+            return b < c ? b : Math.max(a, c);
+        }
+        return a < c ? a : Math.max(b, c);
+    }
+
+    private static void swap(double[][] columns, int[] ids, int i, int j) {
+        for (double[] column : columns) {
+            final double tmp = column[i];
+            column[i] = column[j];
+            column[j] = tmp;
+        }
+        final int tmp = ids[i];
+        ids[i] = ids[j];
+        ids[j] = tmp;
+    }
+
+    private static final class BuildTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final double[][] columns;
+        private final int[] ids;
+        private final int lo;
+        private final int hi;
+        private final int axis;
+
+        private BuildTask(double[][] columns, int[] ids, int lo, int hi, int axis) {
+            this.columns = columns;
+            this.ids = ids;
+            this.lo = lo;
+            this.hi = hi;
+            this.axis = axis;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo < FORK_THRESHOLD) {
+                build(columns, ids, lo, hi, axis);
+                return;
+            }
+            final int mid = (lo + hi) >>> 1;
+            select(columns, ids, lo, hi, mid, axis);
+            final int nextAxis = axis + 1 == columns.length ? 0 : axis + 1;
+            invokeAll(new BuildTask(columns, ids, lo, mid, nextAxis),
+                      new BuildTask(columns, ids, mid + 1, hi, nextAxis));
+        }
+    }
+}
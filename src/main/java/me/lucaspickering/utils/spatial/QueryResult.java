@@ -0,0 +1,261 @@
+package me.lucaspickering.utils.spatial;
+
+import java.util.Arrays;
+
+/**
+ * A reusable list of the points found by a spatial query, as the indices they were given when
+ * the index was built, and their squared distances from the query point. Every query clears the
+ * result before filling it, and only allocates if the result has to grow, so one result can be
+ * reused across many queries without allocating.
+ *
+ * This class is <b>not</b> thread-safe. Give each thread its own result.
+ */
+public final class QueryResult {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] indices;
+    private double[] squaredDistances;
+    private int size;
+    private long[] stamps = new long[0];
+
+    /**
+     * Constructs a new, empty {@code QueryResult}.
+     */
+    public QueryResult() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new, empty {@code QueryResult} with room for the given number of points before
+     * it needs to grow.
+     *
+     * @param initialCapacity the initial capacity (non-negative)
+     * @throws IllegalArgumentException if {@code initialCapacity} is negative
+     */
+    public QueryResult(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException(String.format(
+                "Capacity cannot be negative. Capacity [%d]", initialCapacity));
+        }
+        indices = new int[initialCapacity];
+        squaredDistances = new double[initialCapacity];
+    }
+
+    /**
+     * Gets the number of points found.
+     *
+     * @return the number of points
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets whether no points were found.
+     *
+     * @return true if there are no points
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the index of the {@code i}th point found.
+     *
+     * @param i the position in this result
+     * @return the point's index
+     * @throws IndexOutOfBoundsException if {@code i} is out of range
+     */
+    public int index(int i) {
+        checkPosition(i);
+        return indices[i];
+    }
+
+    /**
+     * Gets the squared distance between the query point and the {@code i}th point found. Queries
+     * that have no query point (e.g. box queries) leave this as NaN.
+     *
+     * @param i the position in this result
+     * @return the point's squared distance
+     * @throws IndexOutOfBoundsException if {@code i} is out of range
+     */
+    public double squaredDistance(int i) {
+        checkPosition(i);
+        return squaredDistances[i];
+    }
+
+    /**
+     * Gets the distance between the query point and the {@code i}th point found.
+     *
+     * @param i the position in this result
+     * @return the point's distance
+     * @throws IndexOutOfBoundsException if {@code i} is out of range
+     * @see #squaredDistance(int)
+     */
+    public double distance(int i) {
+        return Math.sqrt(squaredDistance(i));
+    }
+
+    /**
+     * Copies the indices of the points found into a new array.
+     *
+     * @return the indices, in the same order as this result
+     */
+    public int[] toIndexArray() {
+        return Arrays.copyOf(indices, size);
+    }
+
+    /**
+     * Sorts the points found by their distance from the query point, nearest first. Nearest
+     * neighbor results are already sorted; this is for radius queries. Sorting is done in place,
+     * without allocating.
+     */
+    public void sortByDistance() {
+        // Heap sort, since it sorts both arrays together in place
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i, size);
+        }
+        for (int end = size - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+    }
+
+    /**
+     * Removes every point from this result. The capacity is kept.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    void add(int index, double squaredDistance) {
+        if (size == indices.length) {
+            grow(size + 1);
+        }
+        indices[size] = index;
+        squaredDistances[size] = squaredDistance;
+        size++;
+    }
+
+    /**
+     * Drops every point after the first {@code size}, to undo a scan that has to be retried.
+     */
+    void truncate(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Gets a scratch array of at least {@code length} zeros, for a query to keep lock stamps in
+     * while it runs. The same array is reused by every query on this result.
+     */
+    long[] stamps(int length) {
+        if (stamps.length < length) {
+            stamps = new long[length];
+        } else {
+            Arrays.fill(stamps, 0, length, 0L);
+        }
+        return stamps;
+    }
+
+    /**
+     * Prepares this result to collect the {@code k} nearest points, with {@link #offer}.
+     */
+    void startNearest(int k) {
+        clear();
+        if (indices.length < k) {
+            grow(k);
+        }
+    }
+
+    /**
+     * Gets the squared distance that a point has to beat to be one of the {@code k} nearest, which
+     * is infinite until {@code k} points have been offered.
+     */
+    double bound(int k) {
+        return size < k ? Double.POSITIVE_INFINITY : squaredDistances[0];
+    }
+
+    /**
+     * Offers a point as one of the {@code k} nearest. Until {@link #finishNearest()} is called,
+     * the points are kept as a max-heap on distance, so the farthest one is at the root.
+     */
+    void offer(int index, double squaredDistance, int k) {
+        if (size < k) {
+            int i = size++;
+            while (i > 0) {
+                final int parent = (i - 1) >>> 1;
+                if (squaredDistances[parent] >= squaredDistance) {
+                    break;
+                }
+                indices[i] = indices[parent];
+                squaredDistances[i] = squaredDistances[parent];
+                i = parent;
+            }
+            indices[i] = index;
+            squaredDistances[i] = squaredDistance;
+        } else if (squaredDistance < squaredDistances[0]) {
+            indices[0] = index;
+            squaredDistances[0] = squaredDistance;
+            siftDown(0, size);
+        }
+    }
+
+    /**
+     * Turns the heap built by {@link #offer} into a list sorted nearest first.
+     */
+    void finishNearest() {
+        for (int end = size - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+    }
+
+    private void siftDown(int i, int end) {
+        final int index = indices[i];
+        final double squaredDistance = squaredDistances[i];
+        int child = 2 * i + 1;
+        while (child < end) {
+            if (child + 1 < end && squaredDistances[child + 1] > squaredDistances[child]) {
+                child++;
+            }
+            if (squaredDistances[child] <= squaredDistance) {
+                break;
+            }
+            indices[i] = indices[child];
+            squaredDistances[i] = squaredDistances[child];
+            i = child;
+            child = 2 * i + 1;
+        }
+        indices[i] = index;
+        squaredDistances[i] = squaredDistance;
+    }
+
+    private void swap(int i, int j) {
+        final int index = indices[i];
+        indices[i] = indices[j];
+        indices[j] = index;
+        final double squaredDistance = squaredDistances[i];
+        squaredDistances[i] = squaredDistances[j];
+        squaredDistances[j] = squaredDistance;
+    }
+
+    private void grow(int minCapacity) {
+        final int newCapacity = Math.max(Math.max(DEFAULT_CAPACITY, minCapacity),
+                                         indices.length * 2);
+        indices = Arrays.copyOf(indices, newCapacity);
+        squaredDistances = Arrays.copyOf(squaredDistances, newCapacity);
+    }
+
+    private void checkPosition(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException(String.format(
+                "Index out of range. Index [%d]; Size [%d]", i, size));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{size=%d}", getClass().getSimpleName(), size);
+    }
+}
@@ -0,0 +1,514 @@
+package me.lucaspickering.utils.spatial;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+
+import me.lucaspickering.utils.Point2;
+
+/**
+ * A spatial hash for finding entities near a point, when the entities move too often for a
+ * {@link KdTree2} to be rebuilt. Space is divided into square cells, and each entity is filed
+ * under the cell its position falls in. A query only has to look at the cells that overlap the
+ * query circle. Queries are fastest when the cell size is about the same as the query radius.
+ *
+ * Entities are identified by an ID in {@code [0, capacity)}, which the caller assigns, and the
+ * hash keeps each entity's position in arrays indexed by ID. Cells are mapped onto a fixed table
+ * of buckets, and each bucket holds a linked list of its entities, threaded through those arrays.
+ * That makes every update O(1), and nothing is allocated after construction. Moving an entity
+ * within its cell only writes its new position. Moving it to a new cell unlinks it from one list
+ * and links it into another. Queries write into a caller-supplied {@link QueryResult}, so they
+ * don't allocate once the result is big enough.
+ *
+ * Many threads can insert, move, remove and query at once. Buckets are guarded by a fixed set of
+ * {@link StampedLock}s (lock striping), so updates in different parts of the table rarely
+ * contend. Queries read optimistically, without blocking writers, and only take a read lock if
+ * a bucket changed while they were scanning it. Once every bucket is scanned, a query checks that
+ * none of them has changed since, so the result is the whole hash at one instant, with no entity
+ * found twice or missed because it moved mid-query. If that check fails, the query is retried,
+ * and if it keeps failing, the query read-locks every stripe. Any one entity must only be updated
+ * by one thread at a time.
+ */
+public final class SpatialHash2 {
+
+    private static final int MIN_BUCKETS = 16;
+    private static final int MAX_BUCKETS = 1 << 30;
+    private static final int NONE = -1;
+    // Optimistic attempts at a query before it locks every stripe
+    private static final int OPTIMISTIC_ATTEMPTS = 3;
+
+    private final double cellSize;
+    private final double inverseCellSize;
+    private final int capacity;
+    private final int bucketMask;
+    private final int stripeMask;
+    private final StampedLock[] locks;
+    private final int[] heads;
+    private final AtomicInteger size = new AtomicInteger();
+
+    // Per entity, indexed by ID. An entity's bucket is NONE if it isn't in the hash.
+    private final double[] xs;
+    private final double[] ys;
+    private final int[] cellXs;
+    private final int[] cellYs;
+    private final int[] buckets;
+    private final int[] next;
+    private final int[] prev;
+
+    /**
+     * Constructs a new, empty {@code SpatialHash2}, with a lock stripe count based on the number
+     * of processors.
+     *
+     * @param cellSize the width and height of each cell (positive and finite)
+     * @param capacity the number of entity IDs, so IDs are in {@code [0, capacity)}
+     *                 (non-negative)
+     * @throws IllegalArgumentException if either argument is out of range
+     */
+    public SpatialHash2(double cellSize, int capacity) {
+        this(cellSize, capacity, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a new, empty {@code SpatialHash2}.
+     *
+     * @param cellSize the width and height of each cell (positive and finite)
+     * @param capacity the number of entity IDs, so IDs are in {@code [0, capacity)}
+     *                 (non-negative)
+     * @param stripes  the number of locks to spread the buckets over, which is rounded up to a
+     *                 power of 2 (positive). More locks means less contention between threads.
+     * @throws IllegalArgumentException if any argument is out of range
+     */
+    public SpatialHash2(double cellSize, int capacity, int stripes) {
+        if (!(cellSize > 0.0) || Double.isInfinite(cellSize)) {
+            throw new IllegalArgumentException(String.format(
+                "Cell size must be positive and finite. Cell size [%s]", cellSize));
+        }
+        if (capacity < 0) {
+            throw new IllegalArgumentException(String.format(
+                "Capacity cannot be negative. Capacity [%d]", capacity));
+        }
+        if (stripes <= 0 || stripes > 1 << 16) {
+            throw new IllegalArgumentException(String.format(
+                "Stripes must be in the range [1, 2^16]. Stripes [%d]", stripes));
+        }
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1.0 / cellSize;
+        this.capacity = capacity;
+
+        final int stripeCount = ceilPowerOf2(stripes);
+        final int bucketCount = Math.max(Math.max(MIN_BUCKETS, stripeCount),
+                                         ceilPowerOf2(capacity));
+        bucketMask = bucketCount - 1;
+        stripeMask = stripeCount - 1;
+        locks = new StampedLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            locks[i] = new StampedLock();
+        }
+        heads = new int[bucketCount];
+        Arrays.fill(heads, NONE);
+
+        xs = new double[capacity];
+        ys = new double[capacity];
+        cellXs = new int[capacity];
+        cellYs = new int[capacity];
+        buckets = new int[capacity];
+        Arrays.fill(buckets, NONE);
+        next = new int[capacity];
+        prev = new int[capacity];
+    }
+
+    public double cellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Gets the number of entity IDs, so IDs are in {@code [0, capacity)}.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the number of entities in this hash.
+     *
+     * @return the number of entities
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Gets whether the entity with the given ID is in this hash.
+     *
+     * @param id the entity's ID
+     * @return true if the entity is in the hash
+     * @throws IndexOutOfBoundsException if the ID is out of range
+     */
+    public boolean contains(int id) {
+        checkId(id);
+        return buckets[id] != NONE;
+    }
+
+    /**
+     * Gets the x of the entity with the given ID. This is only guaranteed to be up to date on
+     * the thread that last moved the entity.
+     *
+     * @param id the entity's ID
+     * @return the entity's x
+     * @throws IndexOutOfBoundsException if the ID is out of range
+     * @throws IllegalArgumentException  if the entity isn't in the hash
+     */
+    public double x(int id) {
+        checkPresent(id);
+        return xs[id];
+    }
+
+    /**
+     * Gets the y of the entity with the given ID. This is only guaranteed to be up to date on
+     * the thread that last moved the entity.
+     *
+     * @param id the entity's ID
+     * @return the entity's y
+     * @throws IndexOutOfBoundsException if the ID is out of range
+     * @throws IllegalArgumentException  if the entity isn't in the hash
+     */
+    public double y(int id) {
+        checkPresent(id);
+        return ys[id];
+    }
+
+    /**
+     * Adds the entity with the given ID at the given position, or moves it there if it is
+     * already in this hash.
+     *
+     * @param id the entity's ID
+     * @param x  the entity's new x
+     * @param y  the entity's new y
+     * @return true if the entity was added, false if it was moved
+     * @throws IndexOutOfBoundsException if the ID is out of range
+     * @throws IllegalArgumentException  if either coordinate is NaN
+     */
+    public boolean put(int id, double x, double y) {
+        checkId(id);
+        checkCoordinate(x);
+        checkCoordinate(y);
+        final int cellX = cell(x);
+        final int cellY = cell(y);
+        final int oldBucket = buckets[id];
+
+        if (oldBucket != NONE && cellXs[id] == cellX && cellYs[id] == cellY) {
+            // Same cell, so only the position changes
+            final StampedLock lock = locks[oldBucket & stripeMask];
+            final long stamp = lock.writeLock();
+            xs[id] = x;
+            ys[id] = y;
+            lock.unlockWrite(stamp);
+            return false;
+        }
+
+        final int newBucket = bucket(cellX, cellY);
+        final int newStripe = newBucket & stripeMask;
+        final int oldStripe = oldBucket == NONE ? newStripe : oldBucket & stripeMask;
+        // Always lock the lower stripe first, so two moves can't deadlock
+        final StampedLock first = locks[Math.min(oldStripe, newStripe)];
+        final StampedLock second = oldStripe == newStripe ? null
+                                                          : locks[Math.max(oldStripe, newStripe)];
+        final long firstStamp = first.writeLock();
+        final long secondStamp = second == null ? 0L : second.writeLock();
+        try {
+            if (oldBucket != newBucket) {
+                if (oldBucket != NONE) {
+                    unlink(id, oldBucket);
+                }
+                link(id, newBucket);
+            }
+            xs[id] = x;
+            ys[id] = y;
+            cellXs[id] = cellX;
+            cellYs[id] = cellY;
+            buckets[id] = newBucket;
+        } finally {
+            if (second != null) {
+                second.unlockWrite(secondStamp);
+            }
+            first.unlockWrite(firstStamp);
+        }
+
+        if (oldBucket == NONE) {
+            size.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Adds the entity with the given ID at the given position, or moves it there if it is
+     * already in this hash.
+     *
+     * @param id the entity's ID
+     * @param p  the entity's new position (non-null)
+     * @return true if the entity was added, false if it was moved
+     * @throws IndexOutOfBoundsException if the ID is out of range
+     * @throws IllegalArgumentException  if either coordinate is NaN
+     */
+    public boolean put(int id, @NotNull Point2 p) {
+        return put(id, p.x(), p.y());
+    }
+
+    /**
+     * Removes the entity with the given ID from this hash.
+     *
+     * @param id the entity's ID
+     * @return true if the entity was removed, false if it wasn't in the hash
+     * @throws IndexOutOfBoundsException if the ID is out of range
+     */
+    public boolean remove(int id) {
+        checkId(id);
+        final int bucket = buckets[id];
+        if (bucket == NONE) {
+            return false;
+        }
+        final StampedLock lock = locks[bucket & stripeMask];
+        final long stamp = lock.writeLock();
+        try {
+            unlink(id, bucket);
+            buckets[id] = NONE;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        size.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * Finds every entity within the given distance (inclusive) of the given point. The entities
+     * are found in no particular order; use {@link QueryResult#sortByDistance()} to sort them.
+     * The result holds entity IDs, each at most once. If entities move while this runs, the result
+     * is still exactly the entities in range at some single instant during the call.
+     *
+     * @param x      the x of the query point
+     * @param y      the y of the query point
+     * @param radius the maximum distance (non-negative)
+     * @param out    the result to write the entities into (non-null). Anything already in it is
+     *               cleared.
+     * @return the number of entities found
+     * @throws IllegalArgumentException if {@code radius} is negative or NaN
+     */
+    public int withinRadius(double x, double y, double radius, @NotNull QueryResult out) {
+        if (!(radius >= 0.0)) {
+            throw new IllegalArgumentException(String.format(
+                "Radius must be non-negative. Radius [%s]", radius));
+        }
+        out.clear();
+        final double squaredRadius = radius * radius;
+        final int minX = cell(x - radius);
+        final int maxX = cell(x + radius);
+        final int minY = cell(y - radius);
+        final int maxY = cell(y + radius);
+        // Can't overflow, since each factor is at most 2^32
+        final double cells = ((double) maxX - minX + 1) * ((double) maxY - minY + 1);
+        for (int attempt = 1; ; attempt++) {
+            final boolean locked = attempt > OPTIMISTIC_ATTEMPTS;
+            final long[] stamps = out.stamps(locks.length);
+            final long[] scanStamps = locked ? null : stamps;
+            if (locked) {
+                lockAll(stamps);
+            }
+            try {
+                if (cells > heads.length) {
+                    // The circle covers more cells than there are buckets, so scan every bucket
+                    for (int bucket = 0; bucket < heads.length; bucket++) {
+                        scan(bucket, false, 0, 0, x, y, squaredRadius, scanStamps, out);
+                    }
+                } else {
+                    for (long cellX = minX; cellX <= maxX; cellX++) {
+                        for (long cellY = minY; cellY <= maxY; cellY++) {
+                            final int bucket = bucket((int) cellX, (int) cellY);
+                            scan(bucket, true, (int) cellX, (int) cellY, x, y, squaredRadius,
+                                 scanStamps, out);
+                        }
+                    }
+                }
+            } finally {
+                if (locked) {
+                    unlockAll(stamps);
+                }
+            }
+            if (locked || validate(stamps)) {
+                return out.size();
+            }
+            out.clear();
+        }
+    }
+
+    /**
+     * Finds every entity within the given distance (inclusive) of the given point.
+     *
+     * @param p      the query point (non-null)
+     * @param radius the maximum distance (non-negative)
+     * @param out    the result to write the entities into (non-null)
+     * @return the number of entities found
+     * @throws IllegalArgumentException if {@code radius} is negative or NaN
+     * @see #withinRadius(double, double, double, QueryResult)
+     */
+    public int withinRadius(@NotNull Point2 p, double radius, @NotNull QueryResult out) {
+        return withinRadius(p.x(), p.y(), radius, out);
+    }
+
+    /**
+     * Scans one bucket for entities in range, optimistically at first, then under a read lock if
+     * the bucket changed during the scan. If {@code filterCell} is set, only entities in the given
+     * cell are considered, since other cells that share the bucket are scanned separately.
+     *
+     * The first stamp that this query gets for each stripe is kept in {@code stamps}, for
+     * {@link #validate}. If {@code stamps} is null, every stripe is already read-locked.
+     */
+    private void scan(int bucket, boolean filterCell, int cellX, int cellY, double x, double y,
+                      double squaredRadius, long[] stamps, QueryResult out) {
+        if (stamps == null) {
+            scanUnlocked(bucket, filterCell, cellX, cellY, x, y, squaredRadius, out);
+            return;
+        }
+        final int stripe = bucket & stripeMask;
+        final StampedLock lock = locks[stripe];
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            final int mark = out.size();
+            scanUnlocked(bucket, filterCell, cellX, cellY, x, y, squaredRadius, out);
+            if (!lock.validate(stamp)) {
+                out.truncate(mark);
+                stamp = 0L;
+            }
+        }
+        if (stamp == 0L) {
+            final long readStamp = lock.readLock();
+            try {
+                scanUnlocked(bucket, filterCell, cellX, cellY, x, y, squaredRadius, out);
+            } finally {
+                // Releases the read lock, and gives a stamp that is valid until the next write
+                stamp = lock.tryConvertToOptimisticRead(readStamp);
+            }
+        }
+        if (stamps[stripe] == 0L) {
+            stamps[stripe] = stamp;
+        }
+    }
+
+    /**
+     * Checks that no stripe has been written since this query first scanned it. If so, every
+     * bucket is still as it was when it was scanned, so the result matches the whole hash at this
+     * instant.
+     */
+    private boolean validate(long[] stamps) {
+        for (int i = 0; i < locks.length; i++) {
+            if (stamps[i] != 0L && !locks[i].validate(stamps[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Read-locks every stripe, in the same ascending order that writers lock them in, so this
+     * can't deadlock with a move.
+     */
+    private void lockAll(long[] stamps) {
+        for (int i = 0; i < locks.length; i++) {
+            stamps[i] = locks[i].readLock();
+        }
+    }
+
+    private void unlockAll(long[] stamps) {
+        for (int i = locks.length - 1; i >= 0; i--) {
+            locks[i].unlockRead(stamps[i]);
+        }
+    }
+
+    private void scanUnlocked(int bucket, boolean filterCell, int cellX, int cellY, double x,
+                              double y, double squaredRadius, QueryResult out) {
+        // An optimistic scan can see a list mid-update, so cap the steps to guarantee that it
+        // ends. The caller throws away the result of any scan that saw an update.
+        int steps = 0;
+        for (int id = heads[bucket]; id != NONE && steps < capacity; id = next[id], steps++) {
+            if (filterCell && (cellXs[id] != cellX || cellYs[id] != cellY)) {
+                continue;
+            }
+            final double xDiff = xs[id] - x;
+            final double yDiff = ys[id] - y;
+            final double d = xDiff * xDiff + yDiff * yDiff;
+            if (d <= squaredRadius) {
+                out.add(id, d);
+            }
+        }
+    }
+
+    private void link(int id, int bucket) {
+        final int head = heads[bucket];
+        next[id] = head;
+        prev[id] = NONE;
+        if (head != NONE) {
+            prev[head] = id;
+        }
+        heads[bucket] = id;
+    }
+
+    private void unlink(int id, int bucket) {
+        final int before = prev[id];
+        final int after = next[id];
+        if (before == NONE) {
+            heads[bucket] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after != NONE) {
+            prev[after] = before;
+        }
+    }
+
+    private int cell(double coordinate) {
+        return (int) Math.floor(coordinate * inverseCellSize);
+    }
+
+    private int bucket(int cellX, int cellY) {
+        final int h = cellX * 0x9E3779B1 + cellY * 0x85EBCA77;
+        return (h ^ (h >>> 16)) & bucketMask;
+    }
+
+    private void checkId(int id) {
+        if (id < 0 || id >= capacity) {
+            throw new IndexOutOfBoundsException(String.format(
+                "ID out of range. ID [%d]; Capacity [%d]", id, capacity));
+        }
+    }
+
+    private void checkPresent(int id) {
+        checkId(id);
+        if (buckets[id] == NONE) {
+            throw new IllegalArgumentException(String.format(
+                "Entity is not in the hash. ID [%d]", id));
+        }
+    }
+
+    private static void checkCoordinate(double coordinate) {
+        if (Double.isNaN(coordinate)) {
+            throw new IllegalArgumentException("Coordinates cannot be NaN");
+        }
+    }
+
+    private static int ceilPowerOf2(int n) {
+        if (n > MAX_BUCKETS) {
+            return MAX_BUCKETS;
+        }
+        return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{cellSize=%s, size=%d, capacity=%d}",
+                             getClass().getSimpleName(), cellSize, size(), capacity);
+    }
+}
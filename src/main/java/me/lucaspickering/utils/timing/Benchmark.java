@@ -0,0 +1,151 @@
+package me.lucaspickering.utils.timing;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * A small, embedded microbenchmark runner. This is meant for sanity-checking hot paths from a
+ * unit test, not as a replacement for a full harness like JMH. Each run does some warmup
+ * iterations, so the JIT can compile the code under test, then some measurement iterations. Each
+ * iteration runs the workload a fixed number of times (ops) and records the mean time per op.
+ *
+ * Workloads should pass their results to the given {@link Blackhole}, so that the JIT can't remove
+ * them as dead code.
+ */
+public class Benchmark {
+
+    /**
+     * A single op to be benchmarked.
+     */
+    @FunctionalInterface
+    public interface Workload {
+
+        void run(@NotNull Blackhole blackhole);
+    }
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final int opsPerIteration;
+    private final boolean measureAllocation;
+
+    /**
+     * Constructs a new {@code Benchmark} with the given iteration counts, that doesn't measure
+     * allocation.
+     *
+     * @param warmupIterations      the number of iterations to run before measuring (non-negative)
+     * @param measurementIterations the number of iterations to measure (positive)
+     * @param opsPerIteration       the number of times to run the workload per iteration
+     *                              (positive)
+     * @throws IllegalArgumentException if any of the counts are out of range
+     */
+    public Benchmark(int warmupIterations, int measurementIterations, int opsPerIteration) {
+        this(warmupIterations, measurementIterations, opsPerIteration, false);
+    }
+
+    /**
+     * Constructs a new {@code Benchmark} with the given iteration counts.
+     *
+     * @param warmupIterations      the number of iterations to run before measuring (non-negative)
+     * @param measurementIterations the number of iterations to measure (positive)
+     * @param opsPerIteration       the number of times to run the workload per iteration
+     *                              (positive)
+     * @param measureAllocation     whether to measure the bytes allocated per op. This is only
+     *                              supported on JVMs that provide
+     *                              {@link com.sun.management.ThreadMXBean}.
+     * @throws IllegalArgumentException if any of the counts are out of range
+     */
+    public Benchmark(int warmupIterations, int measurementIterations, int opsPerIteration,
+                     boolean measureAllocation) {
+        if (warmupIterations < 0) {
+            throw new IllegalArgumentException(String.format(
+                "Warmup iterations cannot be negative. Iterations [%d]", warmupIterations));
+        }
+        if (measurementIterations <= 0) {
+            throw new IllegalArgumentException(String.format(
+                "Measurement iterations must be positive. Iterations [%d]",
+                measurementIterations));
+        }
+        if (opsPerIteration <= 0) {
+            throw new IllegalArgumentException(String.format(
+                "Ops per iteration must be positive. Ops [%d]", opsPerIteration));
+        }
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.opsPerIteration = opsPerIteration;
+        this.measureAllocation = measureAllocation;
+    }
+
+    /**
+     * Runs the given workload and measures it.
+     *
+     * @param workload the op to benchmark (non-null)
+     * @return the measurements
+     */
+    @NotNull
+    public BenchmarkResult run(@NotNull Workload workload) {
+        Objects.requireNonNull(workload);
+        final Blackhole blackhole = new Blackhole();
+        for (int i = 0; i < warmupIterations; i++) {
+            runIteration(workload, blackhole);
+        }
+
+        final double[] samples = new double[measurementIterations];
+        final long allocatedBefore = allocatedBytes();
+        for (int i = 0; i < measurementIterations; i++) {
+            samples[i] = (double) runIteration(workload, blackhole) / opsPerIteration;
+        }
+        final long allocatedAfter = allocatedBytes();
+        blackhole.publish();
+
+        final double allocatedPerOp = allocatedBefore < 0 || allocatedAfter < 0 ? Double.NaN :
+                                      (double) (allocatedAfter - allocatedBefore) /
+                                      ((long) measurementIterations * opsPerIteration);
+        return new BenchmarkResult(samples, allocatedPerOp);
+    }
+
+    /**
+     * Runs the given function and measures it. The return value of each call is consumed by a
+     * {@link Blackhole}.
+     *
+     * @param func the function to benchmark (non-null)
+     * @param <T>  the return type of the function
+     * @return the measurements
+     */
+    @NotNull
+    public <T> BenchmarkResult run(@NotNull Supplier<T> func) {
+        Objects.requireNonNull(func);
+        return run(blackhole -> blackhole.consume(func.get()));
+    }
+
+    private long runIteration(Workload workload, Blackhole blackhole) {
+        final long startTime = System.nanoTime();
+        for (int i = 0; i < opsPerIteration; i++) {
+            workload.run(blackhole);
+        }
+        return System.nanoTime() - startTime;
+    }
+
+    /**
+     * Gets the total number of bytes allocated by the current thread so far.
+     *
+     * @return the number of bytes, or -1 if allocation isn't being measured or isn't supported
+     */
+    private long allocatedBytes() {
+        if (!measureAllocation) {
+            return -1L;
+        }
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            final com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported() &&
+                sunBean.isThreadAllocatedMemoryEnabled()) {
+                return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1L;
+    }
+}
@@ -0,0 +1,104 @@
+package me.lucaspickering.utils.timing;
+
+import java.util.Arrays;
+
+/**
+ * The result of running a {@link Benchmark}. Each measurement iteration produces one sample,
+ * which is the mean time per op during that iteration.
+ */
+public class BenchmarkResult {
+
+    private final double[] samples; // Sorted, in nanoseconds per op
+    private final double allocatedBytesPerOp;
+
+    BenchmarkResult(double[] samples, double allocatedBytesPerOp) {
+        this.samples = samples.clone();
+        Arrays.sort(this.samples);
+        this.allocatedBytesPerOp = allocatedBytesPerOp;
+    }
+
+    /**
+     * Gets the number of measurement iterations.
+     *
+     * @return the number of samples
+     */
+    public int sampleCount() {
+        return samples.length;
+    }
+
+    /**
+     * Gets the mean time per op, across all measurement iterations.
+     *
+     * @return the mean, in nanoseconds per op
+     */
+    public double mean() {
+        double sum = 0.0;
+        for (double sample : samples) {
+            sum += sample;
+        }
+        return sum / samples.length;
+    }
+
+    /**
+     * Gets the sample standard deviation of the time per op, across all measurement iterations.
+     *
+     * @return the standard deviation, in nanoseconds per op, or 0 if there is only one sample
+     */
+    public double stddev() {
+        if (samples.length < 2) {
+            return 0.0;
+        }
+        final double mean = mean();
+        double sumSquares = 0.0;
+        for (double sample : samples) {
+            final double diff = sample - mean;
+            sumSquares += diff * diff;
+        }
+        return Math.sqrt(sumSquares / (samples.length - 1));
+    }
+
+    public double min() {
+        return samples[0];
+    }
+
+    public double max() {
+        return samples[samples.length - 1];
+    }
+
+    /**
+     * Gets the iteration time per op at the given percentile, using the nearest-rank method.
+     *
+     * @param percentile the percentile, in the range {@code [0, 100]}
+     * @return the time at that percentile, in nanoseconds per op
+     * @throws IllegalArgumentException if the percentile is out of range
+     */
+    public double percentile(double percentile) {
+        if (!(percentile >= 0.0 && percentile <= 100.0)) {
+            throw new IllegalArgumentException(String.format(
+                "Percentile must be in the range [0, 100]. Percentile [%s]", percentile));
+        }
+        final int rank = (int) Math.ceil(percentile / 100.0 * samples.length);
+        return samples[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * Gets the number of bytes allocated per op by the benchmarking thread, during the
+     * measurement iterations.
+     *
+     * @return the bytes allocated per op, or {@link Double#NaN} if allocation wasn't measured
+     */
+    public double allocatedBytesPerOp() {
+        return allocatedBytesPerOp;
+    }
+
+    @Override
+    public String toString() {
+        String rv = String.format("%.2f +/- %.2f ns/op (p50=%.2f, p90=%.2f, max=%.2f; n=%d)",
+                                  mean(), stddev(), percentile(50.0), percentile(90.0), max(),
+                                  samples.length);
+        if (!Double.isNaN(allocatedBytesPerOp)) {
+            rv += String.format(", %.1f B/op", allocatedBytesPerOp);
+        }
+        return rv;
+    }
+}
@@ -0,0 +1,52 @@
+package me.lucaspickering.utils.timing;
+
+/**
+ * A sink for values computed during a benchmark. Passing a value to one of the {@code consume}
+ * methods stops the JIT from treating the computation that produced it as dead code and removing
+ * it. Consuming is very cheap, but it is not free, so only consume the final result of each op.
+ *
+ * Instances are <b>not</b> thread-safe. Each benchmark thread should have its own.
+ */
+public class Blackhole {
+
+    // These are written to on every consume, and read once at the end, so the JIT can't prove that
+    // the values are never used
+    private long longSink;
+    private double doubleSink;
+    private Object objectSink;
+    private volatile long published;
+
+    public void consume(boolean value) {
+        longSink += value ? 1L : 0L;
+    }
+
+    public void consume(int value) {
+        longSink += value;
+    }
+
+    public void consume(long value) {
+        longSink += value;
+    }
+
+    public void consume(float value) {
+        doubleSink += value;
+    }
+
+    public void consume(double value) {
+        doubleSink += value;
+    }
+
+    public void consume(Object value) {
+        objectSink = value;
+    }
+
+    /**
+     * Publishes everything consumed so far to a volatile field, so that it is observable from
+     * other threads. Called by {@link Benchmark} at the end of each run.
+     */
+    void publish() {
+        published = longSink ^ Double.doubleToRawLongBits(doubleSink) ^
+                    System.identityHashCode(objectSink);
+        objectSink = null;
+    }
+}
@@ -0,0 +1,218 @@
+package me.lucaspickering.utils.timing;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A histogram of latencies, in nanoseconds. Values are stored in log-linear buckets (the same
+ * scheme as HdrHistogram): each power of 2 is split into {@value #SUB_BUCKET_COUNT} linear
+ * sub-buckets, so every recorded value is accurate to within 1%, using a fixed amount of memory.
+ * Values above {@link #MAX_TRACKABLE} (about 4.9 hours) are clamped to it.
+ *
+ * This class is <b>not</b> thread-safe. For concurrent recording, use {@link LatencyRecorder},
+ * which produces these as snapshots.
+ */
+public class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 7;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int HIGHEST_BIT = 44;
+    static final int BUCKET_COUNT = (HIGHEST_BIT - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    /**
+     * The largest value that can be recorded without being clamped.
+     */
+    public static final long MAX_TRACKABLE = (1L << HIGHEST_BIT) - 1;
+
+    private final long[] counts;
+    private long count;
+    private long sum;
+    private long min;
+    private long max;
+
+    /**
+     * Constructs a new, empty {@code LatencyHistogram}.
+     */
+    public LatencyHistogram() {
+        counts = new long[BUCKET_COUNT];
+        reset();
+    }
+
+    /**
+     * Gets the bucket that a value belongs in. The value must be in the range
+     * {@code [0, MAX_TRACKABLE]}.
+     *
+     * @param value the value
+     * @return the index of the value's bucket
+     */
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value; // The first range is exact
+        }
+        final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    /**
+     * Gets the largest value that would be put in the given bucket.
+     *
+     * @param index the index of the bucket
+     * @return the highest value in that bucket
+     */
+    static long bucketHighestValue(int index) {
+        if (index < SUB_BUCKET_COUNT * 2) {
+            return index; // The first two ranges both have a width of 1
+        }
+        final int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        final long subBucket = SUB_BUCKET_COUNT + (index & (SUB_BUCKET_COUNT - 1));
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Coerces a value into the range that can be recorded.
+     *
+     * @param value the value
+     * @return the value, clamped to {@code [0, MAX_TRACKABLE]}
+     */
+    static long clamp(long value) {
+        return Math.max(0L, Math.min(value, MAX_TRACKABLE));
+    }
+
+    /**
+     * Records a single value.
+     *
+     * @param nanos the value to record, in nanoseconds. Negative values are recorded as 0.
+     */
+    public void record(long nanos) {
+        final long value = clamp(nanos);
+        counts[bucketIndex(value)]++;
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds the given bucket counts and summary values to this histogram. Used to build snapshots.
+     */
+    void add(long[] otherCounts, long otherSum, long otherMin, long otherMax) {
+        long otherCount = 0L;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += otherCounts[i];
+            otherCount += otherCounts[i];
+        }
+        if (otherCount > 0) {
+            count += otherCount;
+            sum += otherSum;
+            min = Math.min(min, otherMin);
+            max = Math.max(max, otherMax);
+        }
+    }
+
+    /**
+     * Adds every value recorded in the given histogram to this one.
+     *
+     * @param other the histogram to merge in (non-null)
+     */
+    public void merge(@NotNull LatencyHistogram other) {
+        Objects.requireNonNull(other);
+        add(other.counts, other.sum, other.min, other.max);
+    }
+
+    /**
+     * Removes all recorded values.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0L);
+        count = 0L;
+        sum = 0L;
+        min = Long.MAX_VALUE;
+        max = 0L;
+    }
+
+    /**
+     * Gets the number of recorded values.
+     *
+     * @return the number of recorded values
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Gets the smallest recorded value, or 0 if nothing has been recorded.
+     *
+     * @return the minimum, in nanoseconds
+     */
+    public long min() {
+        return count == 0 ? 0L : min;
+    }
+
+    /**
+     * Gets the largest recorded value, or 0 if nothing has been recorded.
+     *
+     * @return the maximum, in nanoseconds
+     */
+    public long max() {
+        return max;
+    }
+
+    /**
+     * Gets the mean of all recorded values, or 0 if nothing has been recorded.
+     *
+     * @return the mean, in nanoseconds
+     */
+    public double mean() {
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+
+    /**
+     * Gets the value at the given percentile. The returned value is the highest value in the
+     * bucket that the percentile falls into, so it is an upper bound accurate to within 1%, and
+     * never more than {@link #max()}.
+     *
+     * @param percentile the percentile, in the range {@code [0, 100]}
+     * @return the value at that percentile, in nanoseconds, or 0 if nothing has been recorded
+     * @throws IllegalArgumentException if the percentile is out of range
+     */
+    public long valueAtPercentile(double percentile) {
+        if (!(percentile >= 0.0 && percentile <= 100.0)) {
+            throw new IllegalArgumentException(String.format(
+                "Percentile must be in the range [0, 100]. Percentile [%s]", percentile));
+        }
+        if (count == 0) {
+            return 0L;
+        }
+
+        // Find the first bucket where the cumulative count reaches the target rank
+        final long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * count));
+        long cumulative = 0L;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= rank) {
+                return Math.min(bucketHighestValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    public long p50() {
+        return valueAtPercentile(50.0);
+    }
+
+    public long p99() {
+        return valueAtPercentile(99.0);
+    }
+
+    public long p999() {
+        return valueAtPercentile(99.9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, mean=%.1fns, p50=%dns, p99=%dns, p999=%dns, max=%dns",
+                             count, mean(), p50(), p99(), p999(), max);
+    }
+}
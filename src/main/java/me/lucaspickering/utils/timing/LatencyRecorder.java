@@ -0,0 +1,148 @@
+package me.lucaspickering.utils.timing;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe recorder of latencies, in nanoseconds. Recording is lock-free and never
+ * allocates. Internally, values are spread across several striped histograms based on the
+ * recording thread, so that threads rarely contend on the same counters. Use {@link #snapshot()}
+ * to combine the stripes into a {@link LatencyHistogram} for querying.
+ *
+ * Typical usage:
+ * <pre>{@code
+ * final long start = recorder.start();
+ * doWork();
+ * recorder.stop(start);
+ * }</pre>
+ */
+public class LatencyRecorder {
+
+    /**
+     * One histogram's worth of counters. Every field is atomic so that any number of threads can
+     * share a stripe safely.
+     */
+    private static class Stripe {
+
+        private final AtomicLongArray counts = new AtomicLongArray(LatencyHistogram.BUCKET_COUNT);
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+        private final AtomicLong max = new AtomicLong();
+
+        private void record(long value) {
+            counts.getAndIncrement(LatencyHistogram.bucketIndex(value));
+            sum.getAndAdd(value);
+
+            // These CAS loops only spin when the value is a new extreme, which is rare
+            long current;
+            while (value < (current = min.get()) && !min.compareAndSet(current, value)) {
+                // Retry
+            }
+            while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+                // Retry
+            }
+        }
+
+        private void reset() {
+            for (int i = 0; i < counts.length(); i++) {
+                counts.set(i, 0L);
+            }
+            sum.set(0L);
+            min.set(Long.MAX_VALUE);
+            max.set(0L);
+        }
+    }
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    /**
+     * Constructs a new {@code LatencyRecorder} with one stripe per available processor.
+     */
+    public LatencyRecorder() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a new {@code LatencyRecorder} with the given number of stripes. The number is
+     * rounded up to a power of 2. Each stripe takes about 40KB.
+     *
+     * @param stripeCount the number of stripes (positive)
+     * @throws IllegalArgumentException if {@code stripeCount} is not positive
+     */
+    public LatencyRecorder(int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException(String.format(
+                "Stripe count must be positive. Count [%d]", stripeCount));
+        }
+        final int size = Integer.highestOneBit(stripeCount - 1) << 1;
+        stripes = new Stripe[Math.max(1, size)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+        stripeMask = stripes.length - 1;
+    }
+
+    /**
+     * Gets the current time, to be passed to {@link #stop(long)} later.
+     *
+     * @return the current value of {@link System#nanoTime()}
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the time elapsed since the given start time.
+     *
+     * @param startNanos the value previously returned by {@link #start()}
+     * @return the elapsed time, in nanoseconds
+     */
+    public long stop(long startNanos) {
+        final long elapsed = System.nanoTime() - startNanos;
+        record(elapsed);
+        return elapsed;
+    }
+
+    /**
+     * Records a single latency value.
+     *
+     * @param nanos the value to record, in nanoseconds. Negative values are recorded as 0, and
+     *              values above {@link LatencyHistogram#MAX_TRACKABLE} are clamped to it.
+     */
+    public void record(long nanos) {
+        final int stripe = (int) Thread.currentThread().getId() & stripeMask;
+        stripes[stripe].record(LatencyHistogram.clamp(nanos));
+    }
+
+    /**
+     * Combines all recorded values into a new {@link LatencyHistogram}. Values that are recorded
+     * while this runs may or may not be included.
+     *
+     * @return a new histogram containing all values recorded so far
+     */
+    @NotNull
+    public LatencyHistogram snapshot() {
+        final LatencyHistogram rv = new LatencyHistogram();
+        final long[] counts = new long[LatencyHistogram.BUCKET_COUNT];
+        for (Stripe stripe : stripes) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = stripe.counts.get(i);
+            }
+            rv.add(counts, stripe.sum.get(), stripe.min.get(), stripe.max.get());
+        }
+        return rv;
+    }
+
+    /**
+     * Removes all recorded values. Values that are recorded while this runs may or may not be
+     * removed.
+     */
+    public void reset() {
+        for (Stripe stripe : stripes) {
+            stripe.reset();
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package me.lucaspickering.utils;
+
+/**
+ * Tight loops over primitive arrays, used by {@link MathFuncs}, {@link Point2}, {@link Point3} and
+ * {@link me.lucaspickering.utils.range.DoubleRange}. Every method works on the slice
+ * {@code [from, to)} of each array it is given, and throws an
+ * {@link ArrayIndexOutOfBoundsException} if the slice doesn't fit in one of them. The int and long
+ * scans also throw an {@link IllegalArgumentException} if the slice is empty.
+ *
+ * This is the Java 17+ version from the multi-release JAR. If the {@code jdk.incubator.vector}
+ * module has been added (e.g. with {@code --add-modules jdk.incubator.vector}), the kernels run
+ * on the Vector API. Otherwise they fall back to the plain loops in {@link ScalarKernels}. Both
+ * give exactly the same results.
+ */
+public final class ArrayKernels {
+
+    private static final boolean VECTORIZED =
+        ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private ArrayKernels() {
+        // Don't allow instantiation
+    }
+
+    /**
+     * Whether these kernels use the Vector API.
+     *
+     * @return true if the kernels are vectorized, false if they are plain loops
+     */
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    /**
+     * Gets the minimum of a non-empty slice.
+     *
+     * @return the minimum
+     */
+    public static int min(int[] values, int from, int to) {
+        checkNonEmptySlice(values.length, from, to);
+        return VECTORIZED ? VectorKernels.min(values, from, to)
+                          : ScalarKernels.min(values, from, to);
+    }
+
+    /**
+     * Gets the maximum of a non-empty slice.
+     *
+     * @return the maximum
+     */
+    public static int max(int[] values, int from, int to) {
+        checkNonEmptySlice(values.length, from, to);
+        return VECTORIZED ? VectorKernels.max(values, from, to)
+                          : ScalarKernels.max(values, from, to);
+    }
+
+    /**
+     * Gets the minimum of a non-empty slice.
+     *
+     * @return the minimum
+     */
+    public static long min(long[] values, int from, int to) {
+        checkNonEmptySlice(values.length, from, to);
+        return VECTORIZED ? VectorKernels.min(values, from, to)
+                          : ScalarKernels.min(values, from, to);
+    }
+
+    /**
+     * Gets the maximum of a non-empty slice.
+     *
+     * @return the maximum
+     */
+    public static long max(long[] values, int from, int to) {
+        checkNonEmptySlice(values.length, from, to);
+        return VECTORIZED ? VectorKernels.max(values, from, to)
+                          : ScalarKernels.max(values, from, to);
+    }
+
+    /**
+     * Gets the minimum of a slice, ignoring NaN. If there is a tie between 0.0 and -0.0, the first
+     * one is returned.
+     *
+     * @return the minimum, or positive infinity if every value is NaN
+     */
+    public static float min(float[] values, int from, int to) {
+        checkSlice(values.length, from, to);
+        return VECTORIZED ? VectorKernels.min(values, from, to)
+                          : ScalarKernels.min(values, from, to);
+    }
+
+    /**
+     * Gets the maximum of a slice, ignoring NaN. If there is a tie between 0.0 and -0.0, the first
+     * one is returned.
+     *
+     * @return the maximum, or negative infinity if every value is NaN
+     */
+    public static float max(float[] values, int from, int to) {
+        checkSlice(values.length, from, to);
+        return VECTORIZED ? VectorKernels.max(values, from, to)
+                          : ScalarKernels.max(values, from, to);
+    }
+
+    /**
+     * Gets the minimum of a slice, ignoring NaN. If there is a tie between 0.0 and -0.0, the first
+     * one is returned.
+     *
+     * @return the minimum, or positive infinity if every value is NaN
+     */
+    public static double min(double[] values, int from, int to) {
+        checkSlice(values.length, from, to);
+        return VECTORIZED ? VectorKernels.min(values, from, to)
+                          : ScalarKernels.min(values, from, to);
+    }
+
+    /**
+     * Gets the maximum of a slice, ignoring NaN. If there is a tie between 0.0 and -0.0, the first
+     * one is returned.
+     *
+     * @return the maximum, or negative infinity if every value is NaN
+     */
+    public static double max(double[] values, int from, int to) {
+        checkSlice(values.length, from, to);
+        return VECTORIZED ? VectorKernels.max(values, from, to)
+                          : ScalarKernels.max(values, from, to);
+    }
+
+    /**
+     * Gets the minimum and maximum of a non-empty slice.
+     *
+     * @return {@code {min, max}}
+     */
+    public static long[] minMax(int[] values, int from, int to) {
+        checkNonEmptySlice(values.length, from, to);
+        return VECTORIZED ? VectorKernels.minMax(values, from, to)
+                          : ScalarKernels.minMax(values, from, to);
+    }
+
+    /**
+     * Gets the minimum and maximum of a non-empty slice.
+     *
+     * @return {@code {min, max}}
+     */
+    public static long[] minMax(long[] values, int from, int to) {
+        checkNonEmptySlice(values.length, from, to);
+        return VECTORIZED ? VectorKernels.minMax(values, from, to)
+                          : ScalarKernels.minMax(values, from, to);
+    }
+
+    /**
+     * Gets the minimum and maximum of a slice, ignoring NaN.
+     *
+     * @return {@code {min, max}}, or {@code {+inf, -inf}} if every value is NaN
+     */
+    public static double[] minMax(float[] values, int from, int to) {
+        checkSlice(values.length, from, to);
+        return VECTORIZED ? VectorKernels.minMax(values, from, to)
+                          : ScalarKernels.minMax(values, from, to);
+    }
+
+    /**
+     * Gets the minimum and maximum of a slice, ignoring NaN.
+     *
+     * @return {@code {min, max}}, or {@code {+inf, -inf}} if every value is NaN
+     */
+    public static double[] minMax(double[] values, int from, int to) {
+        checkSlice(values.length, from, to);
+        return VECTORIZED ? VectorKernels.minMax(values, from, to)
+                          : ScalarKernels.minMax(values, from, to);
+    }
+
+    /**
+     * Writes the distance from {@code (x, y)} to each point {@code (xs[i], ys[i])} into
+     * {@code out[i]}.
+     */
+    public static void distances(double x, double y, double[] xs, double[] ys, double[] out,
+                                 int from, int to) {
+        checkSlice(xs.length, from, to);
+        checkSlice(ys.length, from, to);
+        checkSlice(out.length, from, to);
+        if (VECTORIZED) {
+            VectorKernels.distances(x, y, xs, ys, out, from, to);
+        } else {
+            ScalarKernels.distances(x, y, xs, ys, out, from, to);
+        }
+    }
+
+    /**
+     * Writes the distance from {@code (x, y, z)} to each point {@code (xs[i], ys[i], zs[i])} into
+     * {@code out[i]}.
+     */
+    public static void distances(double x, double y, double z, double[] xs, double[] ys,
+                                 double[] zs, double[] out, int from, int to) {
+        checkSlice(xs.length, from, to);
+        checkSlice(ys.length, from, to);
+        checkSlice(zs.length, from, to);
+        checkSlice(out.length, from, to);
+        if (VECTORIZED) {
+            VectorKernels.distances(x, y, z, xs, ys, zs, out, from, to);
+        } else {
+            ScalarKernels.distances(x, y, z, xs, ys, zs, out, from, to);
+        }
+    }
+
+    /**
+     * Clamps each value to {@code [lower, upper]}, writing the results into {@code out}. NaN
+     * becomes {@code upper}. {@code values} and {@code out} may be the same array.
+     */
+    public static void coerce(double[] values, double lower, double upper, double[] out,
+                              int from, int to) {
+        checkSlice(values.length, from, to);
+        checkSlice(out.length, from, to);
+        if (VECTORIZED) {
+            VectorKernels.coerce(values, lower, upper, out, from, to);
+        } else {
+            ScalarKernels.coerce(values, lower, upper, out, from, to);
+        }
+    }
+
+    /**
+     * Clamps each value to {@code [lower, upper]}, then maps it to {@code [0, 1]}, writing the
+     * results into {@code out}. {@code values} and {@code out} may be the same array.
+     */
+    public static void normalize(double[] values, double lower, double upper, double[] out,
+                                 int from, int to) {
+        checkSlice(values.length, from, to);
+        checkSlice(out.length, from, to);
+        if (VECTORIZED) {
+            VectorKernels.normalize(values, lower, upper, out, from, to);
+        } else {
+            ScalarKernels.normalize(values, lower, upper, out, from, to);
+        }
+    }
+
+    private static void checkNonEmptySlice(int length, int from, int to) {
+        if (from == to) {
+            throw new IllegalArgumentException("Slice is empty");
+        }
+        checkSlice(length, from, to);
+    }
+
+    private static void checkSlice(int length, int from, int to) {
+        if (from < 0 || to > length || from > to) {
+            throw new ArrayIndexOutOfBoundsException(String.format(
+                "Invalid slice. From [%d]; To [%d]; Length [%d]", from, to, length));
+        }
+    }
+}
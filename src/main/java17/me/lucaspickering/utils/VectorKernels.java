@@ -0,0 +1,312 @@
+package me.lucaspickering.utils;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API implementations of the loops in {@link ArrayKernels}. Each method runs full vectors
+ * over as much of the slice as it can, then finishes the tail with a scalar loop. Only
+ * {@link ArrayKernels} should touch this class, and only once it has checked that the
+ * {@code jdk.incubator.vector} module is present.
+ *
+ * Results are identical to {@link ScalarKernels}: distances use separate multiplies and adds in
+ * the same order rather than fused multiply-adds, and lanewise sqrt is correctly rounded, the
+ * same as {@link Math#sqrt}.
+ */
+final class VectorKernels {
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+    private VectorKernels() {
+        // Don't allow instantiation
+    }
+
+    static int min(int[] values, int from, int to) {
+        int result = values[from];
+        int i = from;
+        final int bound = from + INTS.loopBound(to - from);
+        if (bound > from) {
+            IntVector acc = IntVector.fromArray(INTS, values, from);
+            for (i += INTS.length(); i < bound; i += INTS.length()) {
+                acc = acc.min(IntVector.fromArray(INTS, values, i));
+            }
+            result = acc.reduceLanes(VectorOperators.MIN);
+        }
+        for (; i < to; i++) {
+            result = Math.min(result, values[i]);
+        }
+        return result;
+    }
+
+    static int max(int[] values, int from, int to) {
+        int result = values[from];
+        int i = from;
+        final int bound = from + INTS.loopBound(to - from);
+        if (bound > from) {
+            IntVector acc = IntVector.fromArray(INTS, values, from);
+            for (i += INTS.length(); i < bound; i += INTS.length()) {
+                acc = acc.max(IntVector.fromArray(INTS, values, i));
+            }
+            result = acc.reduceLanes(VectorOperators.MAX);
+        }
+        for (; i < to; i++) {
+            result = Math.max(result, values[i]);
+        }
+        return result;
+    }
+
+    static long min(long[] values, int from, int to) {
+        long result = values[from];
+        int i = from;
+        final int bound = from + LONGS.loopBound(to - from);
+        if (bound > from) {
+            LongVector acc = LongVector.fromArray(LONGS, values, from);
+            for (i += LONGS.length(); i < bound; i += LONGS.length()) {
+                acc = acc.min(LongVector.fromArray(LONGS, values, i));
+            }
+            result = acc.reduceLanes(VectorOperators.MIN);
+        }
+        for (; i < to; i++) {
+            result = Math.min(result, values[i]);
+        }
+        return result;
+    }
+
+    static long max(long[] values, int from, int to) {
+        long result = values[from];
+        int i = from;
+        final int bound = from + LONGS.loopBound(to - from);
+        if (bound > from) {
+            LongVector acc = LongVector.fromArray(LONGS, values, from);
+            for (i += LONGS.length(); i < bound; i += LONGS.length()) {
+                acc = acc.max(LongVector.fromArray(LONGS, values, i));
+            }
+            result = acc.reduceLanes(VectorOperators.MAX);
+        }
+        for (; i < to; i++) {
+            result = Math.max(result, values[i]);
+        }
+        return result;
+    }
+
+    // Lanewise min/max propagate NaN, so the floating point scans blend on comparison masks
+    // instead. A comparison with NaN is always false, so NaN lanes are never taken. The single
+    // extreme scans replace a zero result with the first zero, the same as ScalarKernels, so that
+    // ties between 0.0 and -0.0 go to the first value.
+
+    static float min(float[] values, int from, int to) {
+        FloatVector acc = FloatVector.broadcast(FLOATS, Float.POSITIVE_INFINITY);
+        final int bound = from + FLOATS.loopBound(to - from);
+        int i = from;
+        for (; i < bound; i += FLOATS.length()) {
+            final FloatVector v = FloatVector.fromArray(FLOATS, values, i);
+            acc = acc.blend(v, v.lt(acc));
+        }
+        float result = acc.reduceLanes(VectorOperators.MIN);
+        for (; i < to; i++) {
+            final float v = values[i];
+            result = v < result ? v : result;
+        }
+        return result == 0.0f ? ScalarKernels.firstZero(values, from) : result;
+    }
+
+    static float max(float[] values, int from, int to) {
+        FloatVector acc = FloatVector.broadcast(FLOATS, Float.NEGATIVE_INFINITY);
+        final int bound = from + FLOATS.loopBound(to - from);
+        int i = from;
+        for (; i < bound; i += FLOATS.length()) {
+            final FloatVector v = FloatVector.fromArray(FLOATS, values, i);
+            acc = acc.blend(v, v.compare(VectorOperators.GT, acc));
+        }
+        float result = acc.reduceLanes(VectorOperators.MAX);
+        for (; i < to; i++) {
+            final float v = values[i];
+            result = v > result ? v : result;
+        }
+        return result == 0.0f ? ScalarKernels.firstZero(values, from) : result;
+    }
+
+    static double min(double[] values, int from, int to) {
+        DoubleVector acc = DoubleVector.broadcast(DOUBLES, Double.POSITIVE_INFINITY);
+        final int bound = from + DOUBLES.loopBound(to - from);
+        int i = from;
+        for (; i < bound; i += DOUBLES.length()) {
+            final DoubleVector v = DoubleVector.fromArray(DOUBLES, values, i);
+            acc = acc.blend(v, v.lt(acc));
+        }
+        double result = acc.reduceLanes(VectorOperators.MIN);
+        for (; i < to; i++) {
+            final double v = values[i];
+            result = v < result ? v : result;
+        }
+        return result == 0.0 ? ScalarKernels.firstZero(values, from) : result;
+    }
+
+    static double max(double[] values, int from, int to) {
+        DoubleVector acc = DoubleVector.broadcast(DOUBLES, Double.NEGATIVE_INFINITY);
+        final int bound = from + DOUBLES.loopBound(to - from);
+        int i = from;
+        for (; i < bound; i += DOUBLES.length()) {
+            final DoubleVector v = DoubleVector.fromArray(DOUBLES, values, i);
+            acc = acc.blend(v, v.compare(VectorOperators.GT, acc));
+        }
+        double result = acc.reduceLanes(VectorOperators.MAX);
+        for (; i < to; i++) {
+            final double v = values[i];
+            result = v > result ? v : result;
+        }
+        return result == 0.0 ? ScalarKernels.firstZero(values, from) : result;
+    }
+
+    static long[] minMax(int[] values, int from, int to) {
+        int min = values[from];
+        int max = min;
+        int i = from;
+        final int bound = from + INTS.loopBound(to - from);
+        if (bound > from) {
+            IntVector mins = IntVector.fromArray(INTS, values, from);
+            IntVector maxes = mins;
+            for (i += INTS.length(); i < bound; i += INTS.length()) {
+                final IntVector v = IntVector.fromArray(INTS, values, i);
+                mins = mins.min(v);
+                maxes = maxes.max(v);
+            }
+            min = mins.reduceLanes(VectorOperators.MIN);
+            max = maxes.reduceLanes(VectorOperators.MAX);
+        }
+        for (; i < to; i++) {
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+        }
+        return new long[]{min, max};
+    }
+
+    static long[] minMax(long[] values, int from, int to) {
+        long min = values[from];
+        long max = min;
+        int i = from;
+        final int bound = from + LONGS.loopBound(to - from);
+        if (bound > from) {
+            LongVector mins = LongVector.fromArray(LONGS, values, from);
+            LongVector maxes = mins;
+            for (i += LONGS.length(); i < bound; i += LONGS.length()) {
+                final LongVector v = LongVector.fromArray(LONGS, values, i);
+                mins = mins.min(v);
+                maxes = maxes.max(v);
+            }
+            min = mins.reduceLanes(VectorOperators.MIN);
+            max = maxes.reduceLanes(VectorOperators.MAX);
+        }
+        for (; i < to; i++) {
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+        }
+        return new long[]{min, max};
+    }
+
+    static double[] minMax(float[] values, int from, int to) {
+        FloatVector mins = FloatVector.broadcast(FLOATS, Float.POSITIVE_INFINITY);
+        FloatVector maxes = FloatVector.broadcast(FLOATS, Float.NEGATIVE_INFINITY);
+        final int bound = from + FLOATS.loopBound(to - from);
+        int i = from;
+        for (; i < bound; i += FLOATS.length()) {
+            final FloatVector v = FloatVector.fromArray(FLOATS, values, i);
+            mins = mins.blend(v, v.lt(mins));
+            maxes = maxes.blend(v, v.compare(VectorOperators.GT, maxes));
+        }
+        float min = mins.reduceLanes(VectorOperators.MIN);
+        float max = maxes.reduceLanes(VectorOperators.MAX);
+        for (; i < to; i++) {
+            final float v = values[i];
+            min = v < min ? v : min;
+            max = v > max ? v : max;
+        }
+        return new double[]{min, max};
+    }
+
+    static double[] minMax(double[] values, int from, int to) {
+        DoubleVector mins = DoubleVector.broadcast(DOUBLES, Double.POSITIVE_INFINITY);
+        DoubleVector maxes = DoubleVector.broadcast(DOUBLES, Double.NEGATIVE_INFINITY);
+        final int bound = from + DOUBLES.loopBound(to - from);
+        int i = from;
+        for (; i < bound; i += DOUBLES.length()) {
+            final DoubleVector v = DoubleVector.fromArray(DOUBLES, values, i);
+            mins = mins.blend(v, v.lt(mins));
+            maxes = maxes.blend(v, v.compare(VectorOperators.GT, maxes));
+        }
+        double min = mins.reduceLanes(VectorOperators.MIN);
+        double max = maxes.reduceLanes(VectorOperators.MAX);
+        for (; i < to; i++) {
+            final double v = values[i];
+            min = v < min ? v : min;
+            max = v > max ? v : max;
+        }
+        return new double[]{min, max};
+    }
+
+    static void distances(double x, double y, double[] xs, double[] ys, double[] out,
+                          int from, int to) {
+        final int bound = from + DOUBLES.loopBound(to - from);
+        int i = from;
+        for (; i < bound; i += DOUBLES.length()) {
+            final DoubleVector xDiff = DoubleVector.fromArray(DOUBLES, xs, i).sub(x);
+            final DoubleVector yDiff = DoubleVector.fromArray(DOUBLES, ys, i).sub(y);
+            xDiff.mul(xDiff).add(yDiff.mul(yDiff)).sqrt().intoArray(out, i);
+        }
+        ScalarKernels.distances(x, y, xs, ys, out, i, to);
+    }
+
+    static void distances(double x, double y, double z, double[] xs, double[] ys, double[] zs,
+                          double[] out, int from, int to) {
+        final int bound = from + DOUBLES.loopBound(to - from);
+        int i = from;
+        for (; i < bound; i += DOUBLES.length()) {
+            final DoubleVector xDiff = DoubleVector.fromArray(DOUBLES, xs, i).sub(x);
+            final DoubleVector yDiff = DoubleVector.fromArray(DOUBLES, ys, i).sub(y);
+            final DoubleVector zDiff = DoubleVector.fromArray(DOUBLES, zs, i).sub(z);
+            xDiff.mul(xDiff).add(yDiff.mul(yDiff)).add(zDiff.mul(zDiff)).sqrt()
+                .intoArray(out, i);
+        }
+        ScalarKernels.distances(x, y, z, xs, ys, zs, out, i, to);
+    }
+
+    static void coerce(double[] values, double lower, double upper, double[] out,
+                       int from, int to) {
+        final int bound = from + DOUBLES.loopBound(to - from);
+        int i = from;
+        for (; i < bound; i += DOUBLES.length()) {
+            coerce(DoubleVector.fromArray(DOUBLES, values, i), lower, upper).intoArray(out, i);
+        }
+        ScalarKernels.coerce(values, lower, upper, out, i, to);
+    }
+
+    static void normalize(double[] values, double lower, double upper, double[] out,
+                          int from, int to) {
+        final double span = upper - lower;
+        final int bound = from + DOUBLES.loopBound(to - from);
+        int i = from;
+        for (; i < bound; i += DOUBLES.length()) {
+            coerce(DoubleVector.fromArray(DOUBLES, values, i), lower, upper)
+                .sub(lower).div(span).intoArray(out, i);
+        }
+        ScalarKernels.normalize(values, lower, upper, out, i, to);
+    }
+
+    /**
+     * Clamps each lane to {@code [lower, upper]}. Every lane starts at {@code upper}, so NaN lanes,
+     * which fail both comparisons, end up there, the same as the scalar version.
+     */
+    private static DoubleVector coerce(DoubleVector v, double lower, double upper) {
+        final VectorMask<Double> inside = v.compare(VectorOperators.LE, upper);
+        final VectorMask<Double> below = v.lt(lower);
+        return DoubleVector.broadcast(DOUBLES, upper).blend(v, inside).blend(lower, below);
+    }
+}
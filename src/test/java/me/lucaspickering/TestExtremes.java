@@ -0,0 +1,89 @@
+package me.lucaspickering;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+import me.lucaspickering.utils.DoubleExtremes;
+import me.lucaspickering.utils.IntExtremes;
+import me.lucaspickering.utils.MathFuncs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestExtremes {
+
+    @Test
+    public void testIntExtremes() {
+        final IntExtremes extremes = IntExtremes.of(IntStream.of(4, -3, 7, -3, 7, 2));
+        assertEquals(6L, extremes.count());
+        assertEquals(-3, extremes.min());
+        assertEquals(1L, extremes.minIndex());
+        assertEquals(7, extremes.max());
+        assertEquals(2L, extremes.maxIndex());
+    }
+
+    @Test
+    public void testParallel() {
+        // Parallel streams should give the same indices as the sequential versions
+        final Random random = new Random(0);
+        final int[] ints = random.ints(100000, 0, 1000).toArray();
+        final IntExtremes intExtremes = IntExtremes.of(Arrays.stream(ints).parallel());
+        assertEquals(MathFuncs.argMin(ints), intExtremes.minIndex());
+        assertEquals(MathFuncs.argMax(ints), intExtremes.maxIndex());
+        assertEquals(ints.length, intExtremes.count());
+
+        final double[] doubles = random.doubles(100000).toArray();
+        doubles[0] = Double.NaN;
+        final DoubleExtremes doubleExtremes = DoubleExtremes.of(Arrays.stream(doubles).parallel());
+        assertEquals(MathFuncs.argMin(doubles), doubleExtremes.minIndex());
+        assertEquals(MathFuncs.argMax(doubles), doubleExtremes.maxIndex());
+    }
+
+    @Test
+    public void testDoubleNaN() {
+        final DoubleExtremes extremes = DoubleExtremes.of(DoubleStream.of(Double.NaN, 2.0, -1.0));
+        assertEquals(-1.0, extremes.min(), 0.0);
+        assertEquals(2L, extremes.minIndex());
+        assertEquals(2.0, extremes.max(), 0.0);
+        assertEquals(1L, extremes.maxIndex());
+
+        final DoubleExtremes allNaN = DoubleExtremes.of(DoubleStream.of(Double.NaN, Double.NaN));
+        assertTrue(Double.isNaN(allNaN.min()));
+        assertEquals(0L, allNaN.minIndex());
+    }
+
+    @Test
+    public void testCollector() {
+        final List<String> words = Arrays.asList("ccc", "a", "bb", "dddd", "e");
+        final IntExtremes extremes = words.stream()
+            .collect(IntExtremes.collector(String::length));
+        assertEquals("a", words.get((int) extremes.minIndex()));
+        assertEquals("dddd", words.get((int) extremes.maxIndex()));
+
+        final DoubleExtremes negated = words.parallelStream()
+            .collect(DoubleExtremes.collector(w -> -w.length()));
+        assertEquals(3L, negated.minIndex());
+        assertEquals(1L, negated.maxIndex());
+    }
+
+    @Test
+    public void testMerge() {
+        final IntExtremes left = IntExtremes.of(IntStream.of(5, 6));
+        final IntExtremes right = IntExtremes.of(IntStream.of(9, 1, 9));
+        left.merge(new IntExtremes());
+        left.merge(right);
+        assertEquals(5L, left.count());
+        assertEquals(3L, left.minIndex());
+        assertEquals(2L, left.maxIndex());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testEmptyFailure() {
+        new DoubleExtremes().min();
+    }
+}
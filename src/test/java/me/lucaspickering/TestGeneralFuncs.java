@@ -3,13 +3,19 @@ package me.lucaspickering;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 
 import me.lucaspickering.utils.GeneralFuncs;
 import me.lucaspickering.utils.Pair;
+import me.lucaspickering.utils.random.ParallelRandom;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -64,6 +70,70 @@ public class TestGeneralFuncs {
         GeneralFuncs.randomFromCollection(random, new ArrayList<>());
     }
 
+    @Test
+    public void testRandomFromCollectionNoRandomAccess() {
+        // Make sure the iterator path works for collections without random access
+        final Random random = new Random();
+
+        final int size = 10;
+        final Collection<Integer> coll = new LinkedList<>();
+        for (int i = 0; i < size; i++) {
+            coll.add(i);
+        }
+
+        final Set<Integer> seen = new HashSet<>();
+        for (int i = 0; i < 500; i++) {
+            final int randomInt = GeneralFuncs.randomFromCollection(random, coll);
+            assertTrue("Should be in range [0, 9]", 0 <= randomInt && randomInt < size);
+            seen.add(randomInt);
+        }
+        assertEquals("Every element should be reachable", size, seen.size());
+    }
+
+    @Test
+    public void testRandomFromArray() {
+        final Random random = new Random();
+        final Integer[] array = {0, 1, 2, 3, 4};
+        final int randomInt = GeneralFuncs.randomFromArray(random, array);
+        assertTrue("Should be in range [0, 4]", 0 <= randomInt && randomInt < array.length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRandomFromArrayFailure() {
+        GeneralFuncs.randomFromArray(new Random(), new Integer[0]);
+    }
+
+    @Test
+    public void testRandomSubset() {
+        final Random random = new Random();
+
+        final int size = 20;
+        final List<Integer> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+
+        // Try random access, iterator-only, and array inputs, with a few different sizes
+        for (int k : new int[]{0, 1, 7, size}) {
+            final List<List<Integer>> subsets = Arrays.asList(
+                GeneralFuncs.randomSubset(random, list, k),
+                GeneralFuncs.randomSubset(random, new LinkedList<>(list), k),
+                GeneralFuncs.randomSubset(random, list.toArray(new Integer[size]), k));
+            for (List<Integer> subset : subsets) {
+                assertEquals("Subset should have k elements", k, subset.size());
+                assertEquals("Subset elements should be distinct",
+                             k, new HashSet<>(subset).size());
+                assertTrue("Subset should come from the collection", list.containsAll(subset));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRandomSubsetFailure() {
+        // Test that randomSubset fails when asking for too many elements
+        GeneralFuncs.randomSubset(new Random(), Arrays.asList(1, 2, 3), 4);
+    }
+
     @Test
     public void testRandomFromCollectionWeighted() {
         // Test normal functionality of GeneralFuncs.randomFromCollectionWeighted
@@ -119,6 +189,29 @@ public class TestGeneralFuncs {
         }
     }
 
+    @Test
+    public void testApplySlop() {
+        final int slop = 3;
+        final int[] values = new int[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+
+        GeneralFuncs.applySlop(new Random(), values, slop);
+        for (int i = 0; i < values.length; i++) {
+            assertTrue("Should be within the slop value", Math.abs(values[i] - i) <= slop);
+        }
+
+        final int[] first = new int[1000];
+        final int[] second = new int[1000];
+        GeneralFuncs.parallelApplySlop(new ParallelRandom(5L), first, slop);
+        GeneralFuncs.parallelApplySlop(new ParallelRandom(5L), second, slop);
+        assertArrayEquals("Same seed should give the same output", first, second);
+        for (int value : first) {
+            assertTrue("Should be within the slop value", Math.abs(value) <= slop);
+        }
+    }
+
     @Test
     public void testTimed() {
         final long time = GeneralFuncs.timed(() -> {
@@ -132,4 +225,40 @@ public class TestGeneralFuncs {
         assertTrue("Execution time should be >=0", rv.first() >= 0);
         assertEquals("Incorrect return value", 5, (long) rv.second());
     }
+
+    @Test
+    public void testMinMaxBy() {
+        final List<String> words = Arrays.asList("ccc", "a", "bb", "dddd", "e");
+        assertEquals("a", GeneralFuncs.minByInt(words, String::length)); // First of the ties
+        assertEquals("dddd", GeneralFuncs.maxByInt(words, String::length));
+        assertEquals("dddd", GeneralFuncs.minByDouble(words, w -> -w.length()));
+
+        // NaN keys are skipped
+        final List<Double> values = Arrays.asList(Double.NaN, 2.0, -1.0, Double.NaN);
+        assertEquals(-1.0, GeneralFuncs.minByDouble(values, v -> v), 0.0);
+        assertEquals(2.0, GeneralFuncs.maxByDouble(values, v -> v), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMinByFailure() {
+        GeneralFuncs.minByInt(new ArrayList<String>(), String::length);
+    }
+
+    @Test
+    public void testTopKBy() {
+        final List<String> words = Arrays.asList("ccc", "a", "bb", "dddd", "e", "ff");
+        assertEquals(Arrays.asList("dddd", "ccc", "bb"),
+                     GeneralFuncs.topKByInt(words, 3, String::length));
+        assertEquals(Arrays.asList("a", "e", "bb"),
+                     GeneralFuncs.bottomKByInt(words, 3, String::length));
+        assertEquals(Arrays.asList("a", "e"),
+                     GeneralFuncs.topKByDouble(words, 2, w -> -w.length()));
+        assertEquals(words.size(), GeneralFuncs.bottomKByDouble(words, 100, String::length).size());
+        assertTrue(GeneralFuncs.topKByInt(words, 0, String::length).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTopKByFailure() {
+        GeneralFuncs.topKByInt(Arrays.asList("a"), -1, String::length);
+    }
 }
@@ -0,0 +1,165 @@
+package me.lucaspickering;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import me.lucaspickering.utils.Point2;
+import me.lucaspickering.utils.Point2Buffer;
+import me.lucaspickering.utils.spatial.KdTree2;
+import me.lucaspickering.utils.spatial.QueryResult;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestKdTree2 {
+
+    @Test
+    public void testEmpty() {
+        final KdTree2 tree = new KdTree2(Collections.emptyList());
+        final QueryResult result = new QueryResult();
+        assertEquals(0, tree.size());
+        assertEquals(-1, tree.nearest(Point2.ZERO));
+        assertEquals(0, tree.nearest(Point2.ZERO, 3, result));
+        assertEquals(0, tree.withinRadius(Point2.ZERO, 1.0, result));
+        assertEquals(0, tree.withinBox(-1.0, -1.0, 1.0, 1.0, result));
+    }
+
+    @Test
+    public void testSmall() {
+        final List<Point2> points = Arrays.asList(new Point2(0.0, 0.0), new Point2(1.0, 0.0),
+                                                  new Point2(0.0, 2.0), new Point2(5.0, 5.0));
+        final KdTree2 tree = new KdTree2(points);
+        final QueryResult result = new QueryResult(0);
+        assertEquals(1, tree.nearest(0.9, 0.1));
+        assertEquals(3, tree.nearest(new Point2(100.0, 100.0)));
+
+        assertEquals(4, tree.nearest(0.0, 0.0, 10, result));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, result.toIndexArray());
+        assertEquals(1.0, result.distance(1), 0.0);
+        assertEquals(4.0, result.squaredDistance(2), 0.0);
+
+        assertEquals(3, tree.withinRadius(Point2.ZERO, 2.0, result));
+        result.sortByDistance();
+        assertArrayEquals(new int[]{0, 1, 2}, result.toIndexArray());
+
+        assertEquals(2, tree.withinBox(new Point2(-1.0, -1.0), new Point2(1.0, 1.0), result));
+        final int[] inBox = result.toIndexArray();
+        Arrays.sort(inBox);
+        assertArrayEquals(new int[]{0, 1}, inBox);
+        assertTrue(Double.isNaN(result.squaredDistance(0)));
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        // Big enough to be built in parallel, with plenty of duplicate coordinates
+        final Random random = new Random(0);
+        final int n = 50000;
+        final double[] xs = new double[n];
+        final double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = random.nextInt(1000);
+            ys[i] = random.nextDouble() * 1000;
+        }
+        final KdTree2 tree = new KdTree2(xs, ys);
+        assertEquals(n, tree.size());
+
+        final QueryResult result = new QueryResult();
+        for (int q = 0; q < 200; q++) {
+            final double x = random.nextDouble() * 1100 - 50;
+            final double y = random.nextDouble() * 1100 - 50;
+            final double[] distances = new double[n];
+            for (int i = 0; i < n; i++) {
+                distances[i] = (xs[i] - x) * (xs[i] - x) + (ys[i] - y) * (ys[i] - y);
+            }
+            final double[] sorted = distances.clone();
+            Arrays.sort(sorted);
+
+            assertEquals(sorted[0], distances[tree.nearest(x, y)], 0.0);
+
+            final int k = 1 + random.nextInt(20);
+            assertEquals(k, tree.nearest(x, y, k, result));
+            for (int i = 0; i < k; i++) {
+                assertEquals(sorted[i], result.squaredDistance(i), 0.0);
+                assertEquals(sorted[i], distances[result.index(i)], 0.0);
+            }
+
+            final double radius = random.nextDouble() * 30;
+            int expected = 0;
+            for (double distance : distances) {
+                if (distance <= radius * radius) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, tree.withinRadius(x, y, radius, result));
+            for (int i = 0; i < result.size(); i++) {
+                assertTrue(distances[result.index(i)] <= radius * radius);
+            }
+
+            final double maxX = x + random.nextDouble() * 40;
+            final double maxY = y + random.nextDouble() * 40;
+            expected = 0;
+            for (int i = 0; i < n; i++) {
+                if (xs[i] >= x && xs[i] <= maxX && ys[i] >= y && ys[i] <= maxY) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, tree.withinBox(x, y, maxX, maxY, result));
+        }
+    }
+
+    @Test
+    public void testBuffer() {
+        final Point2Buffer buffer = new Point2Buffer();
+        final List<Point2> points = new ArrayList<>();
+        final Random random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            final Point2 p = new Point2(random.nextGaussian(), random.nextGaussian());
+            buffer.add(p);
+            points.add(p);
+        }
+        final KdTree2 fromBuffer = new KdTree2(buffer);
+        final KdTree2 fromList = new KdTree2(points);
+        final QueryResult fromBufferResult = new QueryResult();
+        final QueryResult fromListResult = new QueryResult();
+        fromBuffer.nearest(Point2.ZERO, 10, fromBufferResult);
+        fromList.nearest(Point2.ZERO, 10, fromListResult);
+        assertArrayEquals(fromListResult.toIndexArray(), fromBufferResult.toIndexArray());
+
+        // The tree keeps its own copy of the points
+        buffer.scale(100.0);
+        fromBuffer.nearest(Point2.ZERO, 10, fromBufferResult);
+        assertArrayEquals(fromListResult.toIndexArray(), fromBufferResult.toIndexArray());
+    }
+
+    @Test
+    public void testAllSamePoint() {
+        final double[] xs = new double[100];
+        final double[] ys = new double[100];
+        Arrays.fill(xs, 1.0);
+        final KdTree2 tree = new KdTree2(xs, ys);
+        final QueryResult result = new QueryResult();
+        assertEquals(100, tree.withinRadius(1.0, 0.0, 0.0, result));
+        assertEquals(5, tree.nearest(0.0, 0.0, 5, result));
+        assertEquals(1.0, result.squaredDistance(4), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNaNFailure() {
+        new KdTree2(new double[]{0.0, Double.NaN}, new double[]{0.0, 0.0});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLengthFailure() {
+        new KdTree2(new double[2], new double[3]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRadiusFailure() {
+        new KdTree2(new double[1], new double[1]).withinRadius(0.0, 0.0, -1.0, new QueryResult());
+    }
+}
@@ -0,0 +1,115 @@
+package me.lucaspickering;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import me.lucaspickering.utils.OffHeapPoint3Store;
+import me.lucaspickering.utils.Point3;
+import me.lucaspickering.utils.Point3Buffer;
+import me.lucaspickering.utils.spatial.KdTree3;
+import me.lucaspickering.utils.spatial.QueryResult;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class TestKdTree3 {
+
+    @Test
+    public void testMatchesBruteForce() {
+        final Random random = new Random(0);
+        final int n = 40000;
+        final Point3Buffer points = new Point3Buffer(n);
+        for (int i = 0; i < n; i++) {
+            points.add(random.nextInt(100), random.nextDouble() * 100, random.nextGaussian() * 30);
+        }
+        final KdTree3 tree = new KdTree3(points);
+        assertEquals(n, tree.size());
+
+        final QueryResult result = new QueryResult();
+        final double[] distances = new double[n];
+        for (int q = 0; q < 200; q++) {
+            final Point3 p = new Point3(random.nextDouble() * 100, random.nextDouble() * 100,
+                                        random.nextGaussian() * 30);
+            points.distancesTo(p, distances);
+            for (int i = 0; i < n; i++) {
+                distances[i] *= distances[i];
+            }
+            final double[] sorted = distances.clone();
+            Arrays.sort(sorted);
+
+            assertEquals(sorted[0], distances[tree.nearest(p)], 1e-9);
+
+            final int k = 1 + random.nextInt(20);
+            assertEquals(k, tree.nearest(p, k, result));
+            for (int i = 0; i < k; i++) {
+                assertEquals(sorted[i], result.squaredDistance(i), 1e-9);
+            }
+
+            final double radius = random.nextDouble() * 10;
+            int expected = 0;
+            for (double distance : distances) {
+                if (distance <= radius * radius) {
+                    expected++;
+                }
+            }
+            // Squared distances from the tree and sqrt-then-square ones can differ in the last bit
+            final int found = tree.withinRadius(p, radius, result);
+            assertEquals(expected, found, 1);
+
+            final Point3 max = new Point3(p.x() + 10, p.y() + 10, p.z() + 10);
+            expected = 0;
+            for (int i = 0; i < n; i++) {
+                if (points.x(i) >= p.x() && points.x(i) <= max.x()
+                    && points.y(i) >= p.y() && points.y(i) <= max.y()
+                    && points.z(i) >= p.z() && points.z(i) <= max.z()) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, tree.withinBox(p, max, result));
+        }
+    }
+
+    @Test
+    public void testOffHeapStore() {
+        final Random random = new Random(1);
+        final Point3Buffer buffer = new Point3Buffer();
+        final OffHeapPoint3Store store =
+            OffHeapPoint3Store.allocate(500, OffHeapPoint3Store.Precision.DOUBLE);
+        for (int i = 0; i < 500; i++) {
+            final Point3 p = new Point3(random.nextDouble(), random.nextDouble(),
+                                        random.nextDouble());
+            buffer.add(p);
+            store.add(p);
+        }
+        final QueryResult fromBuffer = new QueryResult();
+        final QueryResult fromStore = new QueryResult();
+        final Point3 center = new Point3(0.5, 0.5, 0.5);
+        new KdTree3(buffer).withinRadius(center, 0.3, fromBuffer);
+        new KdTree3(store).withinRadius(center, 0.3, fromStore);
+        fromBuffer.sortByDistance();
+        fromStore.sortByDistance();
+        assertArrayEquals(fromBuffer.toIndexArray(), fromStore.toIndexArray());
+    }
+
+    @Test
+    public void testArrays() {
+        final KdTree3 tree = new KdTree3(new double[]{0.0, 1.0, 2.0}, new double[]{0.0, 1.0, 2.0},
+                                         new double[]{0.0, 1.0, 2.0});
+        assertEquals(2, tree.nearest(5.0, 5.0, 5.0));
+        final QueryResult result = new QueryResult();
+        assertEquals(2, tree.nearest(0.0, 0.0, 0.0, 2, result));
+        assertArrayEquals(new int[]{0, 1}, result.toIndexArray());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCountFailure() {
+        new KdTree3(new double[1], new double[1], new double[1])
+            .nearest(0.0, 0.0, 0.0, -1, new QueryResult());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLengthFailure() {
+        new KdTree3(new double[2], new double[2], new double[3]);
+    }
+}
@@ -0,0 +1,281 @@
+package me.lucaspickering;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import me.lucaspickering.utils.MathFuncs;
+import me.lucaspickering.utils.Pair;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestMathFuncs {
+
+    @Test
+    public void testMinMax() {
+        assertEquals(-3, MathFuncs.min(4, -3, 7, 0, 2));
+        assertEquals(7, MathFuncs.max(4, -3, 7, 0, 2));
+        assertEquals(-3L, MathFuncs.min(4L, -3L, 7L));
+        assertEquals(7L, MathFuncs.max(4L, -3L, 7L));
+        assertEquals(-3f, MathFuncs.min(4f, -3f, 7f), 0f);
+        assertEquals(7.0, MathFuncs.max(4.0, -3.0, 7.0), 0.0);
+
+        final Pair<Integer, Integer> ints = MathFuncs.minMax(5, 1, 9, 3, 3, 8, 2);
+        assertEquals(1, (int) ints.first());
+        assertEquals(9, (int) ints.second());
+        final Pair<Double, Double> single = MathFuncs.minMax(4.5);
+        assertEquals(4.5, single.first(), 0.0);
+        assertEquals(4.5, single.second(), 0.0);
+    }
+
+    @Test
+    public void testMinMaxLarge() {
+        // Big enough to be split up and run in parallel
+        final Random random = new Random(0);
+        final int[] ints = new int[1000003];
+        final double[] doubles = new double[ints.length];
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = random.nextInt();
+            doubles[i] = random.nextGaussian();
+        }
+        ints[777777] = Integer.MIN_VALUE;
+        ints[3] = Integer.MAX_VALUE;
+        doubles[ints.length - 1] = 100.0;
+        doubles[123456] = Double.NaN; // Should be ignored
+
+        final Pair<Integer, Integer> intExtremes = MathFuncs.minMax(ints);
+        assertEquals(Integer.MIN_VALUE, (int) intExtremes.first());
+        assertEquals(Integer.MAX_VALUE, (int) intExtremes.second());
+
+        double min = Double.POSITIVE_INFINITY;
+        for (double value : doubles) {
+            if (value < min) {
+                min = value;
+            }
+        }
+        assertEquals(min, MathFuncs.min(doubles), 0.0);
+        assertEquals(100.0, MathFuncs.max(doubles), 0.0);
+        assertEquals(min, MathFuncs.minMax(doubles).first(), 0.0);
+    }
+
+    @Test
+    public void testMinMaxSlice() {
+        final long[] values = {-100L, 5L, 3L, 8L, 1L, 100L};
+        final Pair<Long, Long> extremes = MathFuncs.minMax(values, 1, 4);
+        assertEquals(1L, (long) extremes.first());
+        assertEquals(8L, (long) extremes.second());
+    }
+
+    @Test
+    public void testMinMaxNaN() {
+        // NaN is only returned if it comes first, the same as the original min and max
+        assertTrue(Float.isNaN(MathFuncs.minMax(Float.NaN, 1f, 2f).first()));
+        assertTrue(Double.isNaN(MathFuncs.max(Double.NaN, 1.0, 2.0)));
+        assertEquals(1.0, MathFuncs.min(2.0, Double.NaN, 1.0), 0.0);
+    }
+
+    @Test
+    public void testMinMaxSignedZero() {
+        // Ties go to the first value, the same as the original min and max
+        assertEquals(0.0, MathFuncs.min(0.0, -0.0), 0.0);
+        assertTrue(1.0 / MathFuncs.min(0.0, -0.0) > 0.0);
+        assertTrue(1.0 / MathFuncs.min(-0.0, 0.0) < 0.0);
+        assertTrue(1.0 / MathFuncs.max(-0.0, 0.0) < 0.0);
+        assertTrue(1f / MathFuncs.min(0f, -0f) > 0f);
+
+        // The same once the array is big enough to be split up and run in parallel
+        final double[] doubles = new double[1 << 20];
+        Arrays.fill(doubles, doubles.length / 2, doubles.length, -0.0);
+        assertTrue(1.0 / MathFuncs.min(doubles) > 0.0);
+        assertTrue(1.0 / MathFuncs.max(doubles) > 0.0);
+    }
+
+    @Test
+    public void testMinMaxLargeNaN() {
+        // A NaN at the start of a slice other than the first should still be skipped
+        final double[] doubles = new double[1 << 20];
+        doubles[doubles.length / 2] = Double.NaN;
+        doubles[doubles.length / 2 + 1] = -1.0;
+        doubles[doubles.length / 2 + 2] = 1.0;
+        assertEquals(-1.0, MathFuncs.min(doubles), 0.0);
+        assertEquals(1.0, MathFuncs.max(doubles), 0.0);
+
+        doubles[0] = Double.NaN;
+        assertTrue(Double.isNaN(MathFuncs.min(doubles)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyFailure() {
+        MathFuncs.minMax(new int[0]);
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void testSliceFailure() {
+        MathFuncs.minMax(new double[5], 3, 3);
+    }
+
+    @Test
+    public void testArgMinMax() {
+        assertEquals(1, MathFuncs.argMin(4, -3, 7, -3, 2)); // Ties go to the first index
+        assertEquals(2, MathFuncs.argMax(4, -3, 7, 7, 2));
+        assertEquals(0, MathFuncs.argMin(5L));
+        assertEquals(2, MathFuncs.argMax(1f, 2f, 3f));
+
+        // NaN is skipped, unless it's all there is
+        assertEquals(2, MathFuncs.argMin(Double.NaN, 3.0, 1.0, Double.NaN));
+        assertEquals(1, MathFuncs.argMax(Double.NaN, 3.0, 1.0, Double.NaN));
+        assertEquals(0, MathFuncs.argMin(Float.NaN, Float.NaN));
+
+        // The slice index is relative to the whole array
+        final long[] values = {-100L, 5L, 3L, 8L, 1L, 100L};
+        assertEquals(4, MathFuncs.argMin(values, 1, 4));
+        assertEquals(3, MathFuncs.argMax(values, 1, 4));
+    }
+
+    @Test
+    public void testArgMinMaxParallel() {
+        // Big enough to be split up, with ties and NaNs spread across the pieces
+        final Random random = new Random(0);
+        final double[] values = new double[1 << 20];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(10) == 0 ? Double.NaN : random.nextInt(1000);
+        }
+        values[0] = Double.NaN;
+        int firstMin = -1;
+        int firstMax = -1;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == 0.0 && firstMin < 0) {
+                firstMin = i;
+            }
+            if (values[i] == 999.0 && firstMax < 0) {
+                firstMax = i;
+            }
+        }
+        assertEquals(firstMin, MathFuncs.argMin(values));
+        assertEquals(firstMax, MathFuncs.argMax(values));
+
+        final int[] ints = new int[1 << 20];
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = random.nextInt(1000);
+        }
+        ints[700000] = -1;
+        ints[900000] = -1;
+        assertEquals(700000, MathFuncs.argMin(ints));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testArgMinEmptyFailure() {
+        MathFuncs.argMin(new float[0]);
+    }
+
+    @Test
+    public void testKthSmallest() {
+        final Random random = new Random(0);
+        // Small, just over the insertion sort cutoff, and large enough for the parallel step.
+        // Few distinct values, to exercise the duplicate handling.
+        for (int n : new int[]{1, 17, 1000, 300000}) {
+            for (int distinct : new int[]{3, Integer.MAX_VALUE}) {
+                final double[] values = new double[n];
+                for (int i = 0; i < n; i++) {
+                    values[i] = random.nextInt(distinct);
+                }
+                final double[] sorted = values.clone();
+                Arrays.sort(sorted);
+                for (int k : new int[]{0, n / 3, n / 2, n - 1}) {
+                    final double[] copy = values.clone();
+                    assertEquals(sorted[k], MathFuncs.kthSmallest(copy, k), 0.0);
+                    assertPartitioned(copy, k);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testKthSmallestSlice() {
+        final int[] values = {100, 9, 3, 7, 1, 5, -100};
+        assertEquals(5, MathFuncs.kthSmallest(values, 1, 5, 2));
+        assertEquals(5, values[3]);
+        assertEquals(100, values[0]); // Outside the slice
+        assertEquals(-100, values[6]);
+    }
+
+    @Test
+    public void testKthSmallestNaN() {
+        final float[] values = {Float.NaN, 3f, 1f, Float.NaN, 2f};
+        assertEquals(1f, MathFuncs.kthSmallest(values.clone(), 0), 0f);
+        assertEquals(3f, MathFuncs.kthSmallest(values.clone(), 2), 0f);
+        assertTrue(Float.isNaN(MathFuncs.kthSmallest(values.clone(), 3)));
+
+        final double[] large = new Random(0).doubles(200000).toArray();
+        for (int i = 0; i < large.length; i += 3) {
+            large[i] = Double.NaN;
+        }
+        final double[] sorted = large.clone();
+        Arrays.sort(sorted);
+        assertEquals(sorted[100000], MathFuncs.kthSmallest(large.clone(), 100000), 0.0);
+        assertTrue(Double.isNaN(MathFuncs.kthSmallest(large, 150000)));
+    }
+
+    @Test
+    public void testMedian() {
+        assertEquals(3.0, MathFuncs.median(new int[]{5, 1, 3}), 0.0);
+        assertEquals(2.5, MathFuncs.median(new long[]{4L, 1L, 3L, 2L}), 0.0);
+        assertEquals(Integer.MAX_VALUE - 0.5,
+                     MathFuncs.median(new int[]{Integer.MAX_VALUE, Integer.MAX_VALUE - 1}), 0.0);
+        assertEquals(1.5, MathFuncs.median(new double[]{2.0, Double.NaN, 1.0, 0.0}), 0.0);
+
+        final double[] values = new Random(0).doubles(100000).toArray();
+        final double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        assertEquals((sorted[49999] + sorted[50000]) / 2.0, MathFuncs.median(values), 1e-15);
+    }
+
+    @Test
+    public void testTopK() {
+        final Random random = new Random(0);
+        final int[] values = new int[10000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(500);
+        }
+        final int[] original = values.clone();
+
+        // Compare against a stable sort of the indices
+        final Integer[] indices = new Integer[values.length];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        Arrays.sort(indices, (a, b) -> Integer.compare(values[a], values[b]));
+        final int[] bottom = MathFuncs.bottomK(values, 50);
+        for (int i = 0; i < bottom.length; i++) {
+            assertEquals((int) indices[i], bottom[i]);
+        }
+        Arrays.sort(indices, (a, b) -> Integer.compare(values[b], values[a]));
+        final int[] top = MathFuncs.topK(values, 50);
+        for (int i = 0; i < top.length; i++) {
+            assertEquals((int) indices[i], top[i]);
+        }
+        assertArrayEquals(original, values); // Shouldn't be modified
+
+        // NaN counts as the largest
+        assertArrayEquals(new int[]{1, 2, 0},
+                          MathFuncs.topK(new double[]{1.0, Double.NaN, 5.0}, 5));
+        assertArrayEquals(new int[0], MathFuncs.bottomK(new long[]{1L, 2L}, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testKthSmallestRankFailure() {
+        MathFuncs.kthSmallest(new double[3], 3);
+    }
+
+    private static void assertPartitioned(double[] values, int k) {
+        for (int i = 0; i < k; i++) {
+            assertTrue(values[i] <= values[k]);
+        }
+        for (int i = k + 1; i < values.length; i++) {
+            assertTrue(values[i] >= values[k]);
+        }
+    }
+}
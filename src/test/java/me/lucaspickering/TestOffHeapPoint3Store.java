@@ -0,0 +1,179 @@
+package me.lucaspickering;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import me.lucaspickering.utils.OffHeapPoint3Store;
+import me.lucaspickering.utils.OffHeapPoint3Store.Precision;
+import me.lucaspickering.utils.Point3;
+import me.lucaspickering.utils.Point3Buffer;
+import me.lucaspickering.utils.Point3Store;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestOffHeapPoint3Store {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testAllocate() {
+        final OffHeapPoint3Store store = OffHeapPoint3Store.allocate(100, Precision.DOUBLE);
+        assertTrue(store.isEmpty());
+        assertEquals(100, store.capacity());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, store.add(i, -i, 0.1 * i));
+        }
+        assertEquals(100, store.size());
+        assertEquals(new Point3(42.0, -42.0, 0.1 * 42), store.get(42));
+
+        store.set(3, new Point3(0.5, 1.5, 2.5));
+        assertEquals(2.5, store.z(3), 0.0);
+    }
+
+    @Test
+    public void testMatchesBuffer() {
+        // The same operations on the heap and off it should give exactly the same points
+        final Random random = new Random(0);
+        final Point3Buffer buffer = new Point3Buffer();
+        final OffHeapPoint3Store store = OffHeapPoint3Store.allocate(1000, Precision.DOUBLE);
+        for (int i = 0; i < 1000; i++) {
+            final Point3 p = new Point3(random.nextDouble(), random.nextDouble(),
+                                        random.nextDouble());
+            buffer.add(p);
+            store.add(p);
+        }
+        for (Point3Store points : new Point3Store[]{buffer, store}) {
+            points.translate(1.0, -2.0, 0.5);
+            points.scale(3.0);
+            points.view(7).translate(1.0, 1.0, 1.0);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(buffer.get(i), store.get(i));
+        }
+
+        final Point3 origin = new Point3(1.0, 2.0, 3.0);
+        final double[] expected = new double[1000];
+        final double[] actual = new double[1000];
+        buffer.distancesTo(origin, expected);
+        store.distancesTo(origin, actual);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(expected[i], actual[i], 0.0);
+        }
+
+        final double sum = store.parallelStream().mapToDouble(view -> view.x()).sum();
+        assertEquals(buffer.stream().mapToDouble(view -> view.x()).sum(), sum, 1e-9);
+    }
+
+    @Test
+    public void testFloatPrecision() {
+        final OffHeapPoint3Store store = OffHeapPoint3Store.allocate(1, Precision.FLOAT);
+        store.add(0.1, 0.2, 0.3);
+        assertEquals((double) 0.1f, store.x(0), 0.0);
+        assertEquals((double) 0.3f, store.z(0), 0.0);
+        assertEquals(Precision.FLOAT, store.precision());
+    }
+
+    @Test
+    public void testReopen() throws IOException {
+        final Path path = folder.getRoot().toPath().resolve("points.p3");
+        final Point3Buffer expected = new Point3Buffer();
+        final Random random = new Random(1);
+        try (OffHeapPoint3Store store = OffHeapPoint3Store.create(path, 500, Precision.FLOAT)) {
+            for (int i = 0; i < 300; i++) {
+                final float x = random.nextFloat();
+                final float y = random.nextFloat();
+                final float z = random.nextFloat();
+                store.add(x, y, z);
+                expected.add(x, y, z);
+            }
+        }
+        assertEquals(32L + 500L * 3 * Float.BYTES, Files.size(path));
+
+        try (OffHeapPoint3Store store = OffHeapPoint3Store.open(path, false)) {
+            assertEquals(Precision.FLOAT, store.precision());
+            assertEquals(500, store.capacity());
+            assertEquals(300, store.size());
+            for (int i = 0; i < 300; i++) {
+                assertEquals(expected.get(i), store.get(i));
+            }
+            store.add(1.0, 2.0, 3.0);
+        }
+
+        try (OffHeapPoint3Store store = OffHeapPoint3Store.open(path, true)) {
+            assertEquals(301, store.size());
+            assertEquals(new Point3(1.0, 2.0, 3.0), store.get(300));
+        }
+    }
+
+    @Test
+    public void testFileLayout() throws IOException {
+        final Path path = folder.getRoot().toPath().resolve("layout.p3");
+        try (OffHeapPoint3Store store = OffHeapPoint3Store.create(path, 2, Precision.DOUBLE)) {
+            store.add(1.0, 2.0, 3.0);
+        }
+        final ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(path))
+            .order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals('P', bytes.get(0));
+        assertEquals('3', bytes.get(1));
+        assertEquals('P', bytes.get(2));
+        assertEquals('T', bytes.get(3));
+        assertEquals(1, bytes.get(4));
+        assertEquals(Double.BYTES, bytes.get(5));
+        assertEquals(2L, bytes.getLong(8));
+        assertEquals(1L, bytes.getLong(16));
+        assertEquals(1.0, bytes.getDouble(32), 0.0);
+        assertEquals(3.0, bytes.getDouble(48), 0.0);
+    }
+
+    @Test
+    public void testAddAll() {
+        final Point3Buffer buffer = new Point3Buffer();
+        buffer.add(1.0, 2.0, 3.0);
+        buffer.add(4.0, 5.0, 6.0);
+        final OffHeapPoint3Store store = OffHeapPoint3Store.allocate(3, Precision.DOUBLE);
+        store.add(0.0, 0.0, 0.0);
+        store.addAll(buffer);
+        assertEquals(3, store.size());
+        assertEquals(new Point3(4.0, 5.0, 6.0), store.get(2));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFullFailure() {
+        final OffHeapPoint3Store store = OffHeapPoint3Store.allocate(1, Precision.DOUBLE);
+        store.add(0.0, 0.0, 0.0);
+        store.add(0.0, 0.0, 0.0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testIndexFailure() {
+        final OffHeapPoint3Store store = OffHeapPoint3Store.allocate(10, Precision.DOUBLE);
+        store.add(0.0, 0.0, 0.0);
+        store.x(1);
+    }
+
+    @Test(expected = ReadOnlyBufferException.class)
+    public void testReadOnlyFailure() throws IOException {
+        final Path path = folder.getRoot().toPath().resolve("readonly.p3");
+        OffHeapPoint3Store.create(path, 1, Precision.DOUBLE).close();
+        try (OffHeapPoint3Store store = OffHeapPoint3Store.open(path, true)) {
+            store.add(0.0, 0.0, 0.0);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpenInvalidFailure() throws IOException {
+        final Path path = folder.getRoot().toPath().resolve("invalid.p3");
+        Files.write(path, new byte[64]);
+        OffHeapPoint3Store.open(path, true);
+    }
+}
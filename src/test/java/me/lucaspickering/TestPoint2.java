@@ -2,6 +2,8 @@ package me.lucaspickering;
 
 import org.junit.Test;
 
+import java.util.Random;
+
 import me.lucaspickering.utils.Point2;
 import static org.junit.Assert.assertEquals;
 
@@ -49,4 +51,28 @@ public class TestPoint2 {
         assertEquals(1.0, p1.distanceTo(p3), 0.0000001);
         assertEquals(Math.sqrt(2.0), p2.distanceTo(p3), 0.0000001);
     }
+
+    @Test
+    public void testDistancesTo() {
+        final Point2 p = new Point2(1.0, -2.0);
+        final Random random = new Random(0);
+        final int n = 101; // Not a multiple of any vector length, to cover the tail
+        final double[] xs = new double[n];
+        final double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = random.nextGaussian() * 10.0;
+            ys[i] = random.nextGaussian() * 10.0;
+        }
+
+        final double[] out = new double[n];
+        p.distancesTo(xs, ys, out);
+        for (int i = 0; i < n; i++) {
+            assertEquals(p.distanceTo(new Point2(xs[i], ys[i])), out[i], 0.0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDistancesToLengthFailure() {
+        Point2.ZERO.distancesTo(new double[3], new double[2], new double[3]);
+    }
 }
@@ -0,0 +1,159 @@
+package me.lucaspickering;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import me.lucaspickering.utils.Point2;
+import me.lucaspickering.utils.Point2Buffer;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestPoint2Buffer {
+
+    @Test
+    public void testAddAndGet() {
+        final Point2Buffer buffer = new Point2Buffer(0);
+        assertTrue(buffer.isEmpty());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, buffer.add(i, -i));
+        }
+        assertEquals(100, buffer.size());
+        assertEquals(new Point2(42.0, -42.0), buffer.get(42));
+        assertEquals(7.0, buffer.x(7), 0.0);
+        assertEquals(-7.0, buffer.y(7), 0.0);
+
+        buffer.set(3, new Point2(0.5, 1.5));
+        assertEquals(new Point2(0.5, 1.5), buffer.get(3));
+
+        buffer.clear();
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void testBulkOperations() {
+        final List<Point2> points = Arrays.asList(new Point2(1.0, 1.0), new Point2(-2.0, 0.5));
+        final Point2Buffer buffer = new Point2Buffer(points);
+
+        buffer.translate(new Point2(1.0, -1.0));
+        assertEquals(new Point2(2.0, 0.0), buffer.get(0));
+        assertEquals(new Point2(-1.0, -0.5), buffer.get(1));
+
+        buffer.scale(2.0);
+        assertEquals(new Point2(4.0, 0.0), buffer.get(0));
+        assertEquals(new Point2(-2.0, -1.0), buffer.get(1));
+
+        final Point2Buffer other = new Point2Buffer(points);
+        buffer.plus(other);
+        assertEquals(new Point2(5.0, 1.0), buffer.get(0));
+        buffer.minus(other);
+        assertEquals(new Point2(4.0, 0.0), buffer.get(0));
+        buffer.plusScaled(other, 0.5);
+        assertEquals(new Point2(4.5, 0.5), buffer.get(0));
+        assertEquals(new Point2(-3.0, -0.75), buffer.get(1));
+    }
+
+    @Test
+    public void testDistancesTo() {
+        final Random random = new Random(0);
+        final Point2Buffer buffer = new Point2Buffer();
+        for (int i = 0; i < 101; i++) {
+            buffer.add(random.nextDouble(), random.nextDouble());
+        }
+        final Point2 p = new Point2(0.5, -1.0);
+        final double[] out = new double[buffer.size() + 1];
+        buffer.distancesTo(p, out);
+        for (int i = 0; i < buffer.size(); i++) {
+            assertEquals(p.distanceTo(buffer.get(i)), out[i], 0.0);
+        }
+        assertEquals(0.0, out[buffer.size()], 0.0);
+    }
+
+    @Test
+    public void testView() {
+        final Point2Buffer buffer = new Point2Buffer();
+        buffer.add(1.0, 2.0);
+        buffer.add(3.0, 4.0);
+
+        final Point2Buffer.View view = buffer.view(0);
+        assertEquals(0, view.index());
+        assertEquals(new Point2(1.0, 2.0), view.toPoint2());
+        view.translate(1.0, 1.0);
+        assertEquals(new Point2(2.0, 3.0), buffer.get(0));
+
+        view.moveTo(1).set(0.0, 0.0);
+        assertEquals(new Point2(0.0, 0.0), buffer.get(1));
+        assertEquals(Math.sqrt(13.0), view.distanceTo(buffer.get(0)), 0.0);
+    }
+
+    @Test
+    public void testStream() {
+        final int n = 100000;
+        final Point2Buffer buffer = new Point2Buffer(n);
+        for (int i = 0; i < n; i++) {
+            buffer.add(i, 2 * i);
+        }
+        final double sum = buffer.parallelStream().mapToDouble(Point2Buffer.View::y).sum();
+        assertEquals((double) n * (n - 1), sum, 0.0);
+
+        // Views are reused, so writes from the pipeline land in the buffer
+        buffer.parallelStream().forEach(view -> view.set(view.y(), view.x()));
+        for (int i = 0; i < n; i += 997) {
+            assertEquals(new Point2(2 * i, i), buffer.get(i));
+        }
+
+        final List<Point2> copies = buffer.stream()
+            .limit(3)
+            .map(Point2Buffer.View::toPoint2)
+            .collect(Collectors.toList());
+        assertEquals(Arrays.asList(new Point2(0, 0), new Point2(2, 1), new Point2(4, 2)), copies);
+    }
+
+    @Test
+    public void testSpliterator() {
+        final Point2Buffer buffer = new Point2Buffer();
+        for (int i = 0; i < 10; i++) {
+            buffer.add(i, i);
+        }
+        final Spliterator<Point2Buffer.View> right = buffer.spliterator();
+        assertTrue(right.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+        final Spliterator<Point2Buffer.View> left = right.trySplit();
+        assertNotNull(left);
+        assertEquals(5L, left.estimateSize());
+        assertEquals(5L, right.estimateSize());
+        assertTrue(left.tryAdvance(view -> assertEquals(0, view.index())));
+        assertTrue(right.tryAdvance(view -> assertEquals(5, view.index())));
+
+        final Spliterator<Point2Buffer.View> single = new Point2Buffer().spliterator();
+        assertEquals(null, single.trySplit());
+        assertFalse(single.tryAdvance(view -> {
+        }));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testIndexFailure() {
+        final Point2Buffer buffer = new Point2Buffer();
+        buffer.add(0.0, 0.0);
+        buffer.view(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSizeMismatchFailure() {
+        final Point2Buffer buffer = new Point2Buffer();
+        buffer.add(0.0, 0.0);
+        buffer.plus(new Point2Buffer());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDistancesToOutputFailure() {
+        final Point2Buffer buffer = new Point2Buffer();
+        buffer.add(0.0, 0.0);
+        buffer.distancesTo(Point2.ZERO, new double[0]);
+    }
+}
@@ -2,6 +2,8 @@ package me.lucaspickering;
 
 import org.junit.Test;
 
+import java.util.Random;
+
 import me.lucaspickering.utils.Point2;
 import me.lucaspickering.utils.Point3;
 
@@ -61,4 +63,30 @@ public class TestPoint3 {
         assertEquals(Math.sqrt(2.0), p1.distanceTo(p4), 0.0000001);
         assertEquals(Math.sqrt(3.0), p4.distanceTo(p5), 0.0000001);
     }
+
+    @Test
+    public void testDistancesTo() {
+        final Point3 p = new Point3(1.0, -2.0, 0.5);
+        final Random random = new Random(0);
+        final int n = 101; // Not a multiple of any vector length, to cover the tail
+        final double[] xs = new double[n];
+        final double[] ys = new double[n];
+        final double[] zs = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = random.nextGaussian() * 10.0;
+            ys[i] = random.nextGaussian() * 10.0;
+            zs[i] = random.nextGaussian() * 10.0;
+        }
+
+        final double[] out = new double[n];
+        p.distancesTo(xs, ys, zs, out);
+        for (int i = 0; i < n; i++) {
+            assertEquals(p.distanceTo(new Point3(xs[i], ys[i], zs[i])), out[i], 0.0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDistancesToLengthFailure() {
+        Point3.ZERO.distancesTo(new double[3], new double[3], new double[3], new double[2]);
+    }
 }
@@ -0,0 +1,90 @@
+package me.lucaspickering;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import me.lucaspickering.utils.Point3;
+import me.lucaspickering.utils.Point3Buffer;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestPoint3Buffer {
+
+    @Test
+    public void testAddAndGet() {
+        final Point3Buffer buffer = new Point3Buffer(0);
+        assertTrue(buffer.isEmpty());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, buffer.add(i, -i, 2 * i));
+        }
+        assertEquals(100, buffer.size());
+        assertEquals(new Point3(42.0, -42.0, 84.0), buffer.get(42));
+        assertEquals(14.0, buffer.z(7), 0.0);
+
+        buffer.set(3, new Point3(0.5, 1.5, 2.5));
+        assertEquals(new Point3(0.5, 1.5, 2.5), buffer.get(3));
+    }
+
+    @Test
+    public void testBulkOperations() {
+        final List<Point3> points = Arrays.asList(new Point3(1.0, 1.0, 1.0),
+                                                  new Point3(-2.0, 0.5, 3.0));
+        final Point3Buffer buffer = new Point3Buffer(points);
+
+        buffer.translate(new Point3(1.0, -1.0, 0.5));
+        assertEquals(new Point3(2.0, 0.0, 1.5), buffer.get(0));
+
+        buffer.scale(2.0);
+        assertEquals(new Point3(-2.0, -1.0, 7.0), buffer.get(1));
+
+        final Point3Buffer other = new Point3Buffer(points);
+        buffer.plus(other);
+        assertEquals(new Point3(5.0, 1.0, 4.0), buffer.get(0));
+        buffer.minus(other);
+        assertEquals(new Point3(4.0, 0.0, 3.0), buffer.get(0));
+        buffer.plusScaled(other, 0.5);
+        assertEquals(new Point3(4.5, 0.5, 3.5), buffer.get(0));
+    }
+
+    @Test
+    public void testDistancesTo() {
+        final Random random = new Random(0);
+        final Point3Buffer buffer = new Point3Buffer();
+        for (int i = 0; i < 101; i++) {
+            buffer.add(random.nextDouble(), random.nextDouble(), random.nextDouble());
+        }
+        final Point3 p = new Point3(0.5, -1.0, 2.0);
+        final double[] out = new double[buffer.size()];
+        buffer.distancesTo(p, out);
+        for (int i = 0; i < buffer.size(); i++) {
+            assertEquals(p.distanceTo(buffer.get(i)), out[i], 0.0);
+        }
+    }
+
+    @Test
+    public void testViewAndStream() {
+        final int n = 100000;
+        final Point3Buffer buffer = new Point3Buffer(n);
+        for (int i = 0; i < n; i++) {
+            buffer.add(i, 0.0, 1.0);
+        }
+        final Point3Buffer.View view = buffer.view(1);
+        view.translate(0.0, 1.0, 1.0);
+        assertEquals(new Point3(1.0, 1.0, 2.0), view.toPoint3());
+
+        buffer.parallelStream().forEach(v -> v.set(v.x(), v.x(), v.z()));
+        final double sum = buffer.parallelStream().mapToDouble(Point3Buffer.View::y).sum();
+        assertEquals((double) n * (n - 1) / 2, sum, 0.0);
+        assertEquals(2.0, buffer.z(1), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSizeMismatchFailure() {
+        final Point3Buffer buffer = new Point3Buffer();
+        buffer.add(0.0, 0.0, 0.0);
+        buffer.minus(new Point3Buffer());
+    }
+}
@@ -0,0 +1,187 @@
+package me.lucaspickering;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import me.lucaspickering.utils.QuantileSketch;
+import me.lucaspickering.utils.range.DoubleRange;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestQuantileSketch {
+
+    private static final int N = 100000;
+    // Far looser than the typical error, so that the tests don't flake
+    private static final double RANK_TOLERANCE = 0.02;
+
+    @Test
+    public void testEmpty() {
+        final QuantileSketch sketch = new QuantileSketch();
+        assertTrue(sketch.isEmpty());
+        assertEquals(0L, sketch.count());
+        assertEquals(0, sketch.retained());
+        assertEquals(QuantileSketch.DEFAULT_K, sketch.k());
+    }
+
+    @Test
+    public void testSmallIsExact() {
+        // Until the first compaction, every value is kept
+        final QuantileSketch sketch = new QuantileSketch();
+        for (int i = 1; i <= 5; i++) {
+            sketch.add(i);
+        }
+        assertEquals(5L, sketch.count());
+        assertEquals(5, sketch.retained());
+        assertEquals(1.0, sketch.min(), 0.0);
+        assertEquals(5.0, sketch.max(), 0.0);
+        assertEquals(1.0, sketch.quantile(0.0), 0.0);
+        assertEquals(3.0, sketch.quantile(0.5), 0.0);
+        assertEquals(5.0, sketch.quantile(1.0), 0.0);
+        assertEquals(0.6, sketch.rank(3.0), 1e-12);
+    }
+
+    @Test
+    public void testAccuracy() {
+        final QuantileSketch sketch = new QuantileSketch(QuantileSketch.DEFAULT_K, 0L);
+        sketch.addAll(shuffledRanks(N, new Random(0)));
+        assertEquals(N, sketch.count());
+        assertEquals(0.0, sketch.min(), 0.0);
+        assertEquals(N - 1, sketch.max(), 0.0);
+        assertTrue(sketch.retained() < 4 * QuantileSketch.DEFAULT_K);
+
+        for (double q : new double[]{0.01, 0.25, 0.5, 0.75, 0.95, 0.99}) {
+            assertEquals(q, sketch.quantile(q) / N, RANK_TOLERANCE);
+            assertEquals(q, sketch.rank(q * N), RANK_TOLERANCE);
+        }
+
+        final double[] qs = sketch.quantiles(0.1, 0.5, 0.9);
+        assertEquals(sketch.quantile(0.5), qs[1], 0.0);
+        assertTrue(qs[0] <= qs[1] && qs[1] <= qs[2]);
+    }
+
+    @Test
+    public void testMerge() {
+        final double[] values = shuffledRanks(N, new Random(1));
+        final QuantileSketch merged = new QuantileSketch(QuantileSketch.DEFAULT_K, 1L);
+        final int[] splits = {0, 0, 10, 30000, 99999, N};
+        for (int i = 1; i < splits.length; i++) {
+            final QuantileSketch shard = new QuantileSketch(QuantileSketch.DEFAULT_K, i);
+            for (int j = splits[i - 1]; j < splits[i]; j++) {
+                shard.add(values[j]);
+            }
+            merged.merge(shard);
+        }
+        assertEquals(N, merged.count());
+        assertEquals(0.0, merged.min(), 0.0);
+        assertEquals(N - 1, merged.max(), 0.0);
+        assertTrue(merged.retained() < 4 * QuantileSketch.DEFAULT_K);
+        for (double q : new double[]{0.05, 0.5, 0.95, 0.99}) {
+            assertEquals(q, merged.quantile(q) / N, RANK_TOLERANCE);
+        }
+    }
+
+    @Test
+    public void testSerialization() {
+        final QuantileSketch sketch = new QuantileSketch(64, 2L);
+        sketch.addAll(new Random(2).doubles(N).toArray());
+
+        final ByteBuffer buffer = sketch.toByteBuffer();
+        assertEquals(sketch.serializedSize(), buffer.remaining());
+        final QuantileSketch copy = QuantileSketch.readFrom(buffer);
+        assertFalse(buffer.hasRemaining());
+
+        assertEquals(sketch.k(), copy.k());
+        assertEquals(sketch.count(), copy.count());
+        assertEquals(sketch.retained(), copy.retained());
+        assertEquals(sketch.min(), copy.min(), 0.0);
+        assertEquals(sketch.max(), copy.max(), 0.0);
+        final double[] qs = {0.0, 0.1, 0.5, 0.9, 0.999, 1.0};
+        assertArrayEquals(sketch.quantiles(qs), copy.quantiles(qs), 0.0);
+
+        // The copy is a working sketch in its own right
+        copy.add(2.0);
+        assertEquals(2.0, copy.max(), 0.0);
+    }
+
+    @Test
+    public void testToDoubleRange() {
+        final QuantileSketch sketch = new QuantileSketch();
+        sketch.addAll(shuffledRanks(N, new Random(3)));
+        final DoubleRange range = sketch.toDoubleRange(0.05, 0.95);
+        assertEquals(0.05, range.lower() / N, RANK_TOLERANCE);
+        assertEquals(0.95, range.upper() / N, RANK_TOLERANCE);
+
+        final DoubleRange full = sketch.toDoubleRange(0.0, 1.0);
+        assertEquals(0.0, full.lower(), 0.0);
+        assertEquals(N - 1, full.upper(), 0.0);
+    }
+
+    @Test
+    public void testNaNIgnored() {
+        final QuantileSketch sketch = new QuantileSketch();
+        sketch.add(Double.NaN);
+        sketch.add(1.0);
+        sketch.add(Double.NaN);
+        assertEquals(1L, sketch.count());
+        assertEquals(1.0, sketch.quantile(0.5), 0.0);
+    }
+
+    @Test
+    public void testReset() {
+        final QuantileSketch sketch = new QuantileSketch();
+        sketch.addAll(shuffledRanks(1000, new Random(4)));
+        sketch.reset();
+        assertTrue(sketch.isEmpty());
+        assertEquals(0, sketch.retained());
+        sketch.add(7.0);
+        assertEquals(7.0, sketch.quantile(0.5), 0.0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testEmptyQuantileFailure() {
+        new QuantileSketch().quantile(0.5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testQuantileRangeFailure() {
+        final QuantileSketch sketch = new QuantileSketch();
+        sketch.add(1.0);
+        sketch.quantile(1.5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testKFailure() {
+        new QuantileSketch(QuantileSketch.MIN_K - 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMergeKFailure() {
+        new QuantileSketch(100).merge(new QuantileSketch(200));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReadVersionFailure() {
+        final ByteBuffer buffer = new QuantileSketch().toByteBuffer();
+        buffer.put(0, (byte) 99);
+        QuantileSketch.readFrom(buffer);
+    }
+
+    private static double[] shuffledRanks(int n, Random random) {
+        final double[] rv = new double[n];
+        for (int i = 0; i < n; i++) {
+            rv[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1);
+            final double tmp = rv[i];
+            rv[i] = rv[j];
+            rv[j] = tmp;
+        }
+        return rv;
+    }
+}
@@ -0,0 +1,216 @@
+package me.lucaspickering;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import me.lucaspickering.utils.Point2;
+import me.lucaspickering.utils.spatial.QueryResult;
+import me.lucaspickering.utils.spatial.SpatialHash2;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestSpatialHash2 {
+
+    @Test
+    public void testPutMoveRemove() {
+        final SpatialHash2 hash = new SpatialHash2(1.0, 10);
+        final QueryResult result = new QueryResult();
+        assertEquals(0, hash.size());
+        assertTrue(hash.put(3, new Point2(0.5, 0.5)));
+        assertTrue(hash.put(4, 2.5, 0.5));
+        assertEquals(2, hash.size());
+        assertTrue(hash.contains(3));
+        assertFalse(hash.contains(5));
+
+        assertEquals(1, hash.withinRadius(0.0, 0.0, 1.0, result));
+        assertEquals(3, result.index(0));
+        assertEquals(0.5, result.squaredDistance(0), 0.0);
+
+        // Move within the same cell, then to a different one
+        assertFalse(hash.put(3, 0.9, 0.1));
+        assertEquals(0.9, hash.x(3), 0.0);
+        assertEquals(1, hash.withinRadius(Point2.ZERO, 1.0, result));
+        assertFalse(hash.put(3, -5.0, -5.0));
+        assertEquals(0, hash.withinRadius(Point2.ZERO, 1.0, result));
+        assertEquals(1, hash.withinRadius(-5.0, -5.0, 0.0, result));
+        assertEquals(2, hash.size());
+
+        assertTrue(hash.remove(3));
+        assertFalse(hash.remove(3));
+        assertEquals(1, hash.size());
+        assertEquals(0, hash.withinRadius(-5.0, -5.0, 1.0, result));
+        assertEquals(1, hash.withinRadius(2.0, 0.0, 1.0, result));
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        final Random random = new Random(0);
+        final int n = 5000;
+        final SpatialHash2 hash = new SpatialHash2(5.0, n, 4);
+        final double[] xs = new double[n];
+        final double[] ys = new double[n];
+        final QueryResult result = new QueryResult();
+        for (int step = 0; step < 5; step++) {
+            // Move everything, some of them a long way, and some not at all
+            for (int id = 0; id < n; id++) {
+                if (step == 0 || random.nextInt(4) != 0) {
+                    xs[id] = random.nextDouble() * 200 - 100;
+                    ys[id] = random.nextDouble() * 200 - 100;
+                    hash.put(id, xs[id], ys[id]);
+                }
+            }
+            assertEquals(n, hash.size());
+
+            for (int q = 0; q < 50; q++) {
+                final double x = random.nextDouble() * 220 - 110;
+                final double y = random.nextDouble() * 220 - 110;
+                // Mostly small radii, plus some covering the whole space
+                final double radius = q % 10 == 0 ? 500.0 : random.nextDouble() * 12;
+                hash.withinRadius(x, y, radius, result);
+                assertArrayEquals(bruteForce(xs, ys, x, y, radius), sortedIndices(result));
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentUpdates() throws Exception {
+        final int threads = 4;
+        final int perThread = 2000;
+        final int hoppers = 50;
+        final int n = threads * perThread + hoppers;
+        final SpatialHash2 hash = new SpatialHash2(2.0, n);
+        final double[] xs = new double[n];
+        final double[] ys = new double[n];
+        final AtomicBoolean done = new AtomicBoolean();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads + 3);
+        try {
+            final List<Future<?>> movers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int first = t * perThread;
+                movers.add(executor.submit(() -> {
+                    // Each thread owns its own entities, and random walks them
+                    final Random random = new Random(first);
+                    for (int step = 0; step < 50; step++) {
+                        for (int id = first; id < first + perThread; id++) {
+                            xs[id] += random.nextGaussian();
+                            ys[id] += random.nextGaussian();
+                            hash.put(id, xs[id], ys[id]);
+                        }
+                    }
+                }));
+            }
+            // Hoppers jump back and forth between two cells, but never leave the origin's radius
+            final int firstHopper = threads * perThread;
+            for (int id = firstHopper; id < n; id++) {
+                hash.put(id, 0.5, 0.5);
+            }
+            final Future<?> hopper = executor.submit(() -> {
+                for (int step = 0; !done.get(); step++) {
+                    for (int id = firstHopper; id < n; id++) {
+                        final double offset = (id + step) % 2 == 0 ? 0.5 : -0.5;
+                        hash.put(id, offset, offset);
+                    }
+                }
+            });
+            final List<Future<?>> queriers = new ArrayList<>();
+            for (int t = 0; t < 2; t++) {
+                queriers.add(executor.submit(() -> {
+                    final QueryResult result = new QueryResult();
+                    final Random random = new Random();
+                    while (!done.get()) {
+                        hash.withinRadius(random.nextGaussian() * 5, random.nextGaussian() * 5,
+                                          3.0, result);
+                        final boolean[] found = new boolean[n];
+                        for (int i = 0; i < result.size(); i++) {
+                            assertTrue(result.squaredDistance(i) <= 9.0);
+                            assertFalse("Found twice", found[result.index(i)]);
+                            found[result.index(i)] = true;
+                        }
+
+                        // Every hopper is always in range, so each must be found exactly once
+                        hash.withinRadius(0.0, 0.0, 3.0, result);
+                        final int[] counts = new int[n];
+                        for (int i = 0; i < result.size(); i++) {
+                            counts[result.index(i)]++;
+                        }
+                        for (int id = firstHopper; id < n; id++) {
+                            assertEquals("Hopper " + id, 1, counts[id]);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> mover : movers) {
+                mover.get();
+            }
+            done.set(true);
+            hopper.get();
+            for (Future<?> querier : queriers) {
+                querier.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+
+        // Once everything has settled, the hash should agree with the positions exactly
+        for (int id = threads * perThread; id < n; id++) {
+            xs[id] = hash.x(id);
+            ys[id] = hash.y(id);
+        }
+        assertEquals(n, hash.size());
+        final QueryResult result = new QueryResult();
+        for (double x = -20; x <= 20; x += 4) {
+            hash.withinRadius(x, -x, 6.0, result);
+            assertArrayEquals(bruteForce(xs, ys, x, -x, 6.0), sortedIndices(result));
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testIdFailure() {
+        new SpatialHash2(1.0, 10).put(10, 0.0, 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNaNFailure() {
+        new SpatialHash2(1.0, 10).put(0, Double.NaN, 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCellSizeFailure() {
+        new SpatialHash2(0.0, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAbsentFailure() {
+        new SpatialHash2(1.0, 10).x(0);
+    }
+
+    private static int[] bruteForce(double[] xs, double[] ys, double x, double y, double radius) {
+        final List<Integer> rv = new ArrayList<>();
+        for (int i = 0; i < xs.length; i++) {
+            final double xDiff = xs[i] - x;
+            final double yDiff = ys[i] - y;
+            if (xDiff * xDiff + yDiff * yDiff <= radius * radius) {
+                rv.add(i);
+            }
+        }
+        return rv.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int[] sortedIndices(QueryResult result) {
+        final int[] rv = result.toIndexArray();
+        Arrays.sort(rv);
+        return rv;
+    }
+}
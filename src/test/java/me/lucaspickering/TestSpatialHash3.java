@@ -0,0 +1,74 @@
+package me.lucaspickering;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import me.lucaspickering.utils.Point3;
+import me.lucaspickering.utils.spatial.QueryResult;
+import me.lucaspickering.utils.spatial.SpatialHash3;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestSpatialHash3 {
+
+    @Test
+    public void testPutMoveRemove() {
+        final SpatialHash3 hash = new SpatialHash3(1.0, 4);
+        final QueryResult result = new QueryResult();
+        assertTrue(hash.put(0, new Point3(0.5, 0.5, 0.5)));
+        assertTrue(hash.put(1, 0.5, 0.5, 5.5));
+        assertEquals(1, hash.withinRadius(Point3.ZERO, 1.0, result));
+        assertEquals(0, result.index(0));
+
+        assertFalse(hash.put(0, 0.5, 0.5, 4.0));
+        assertEquals(5.5, hash.z(1), 0.0);
+        assertEquals(2, hash.withinRadius(0.5, 0.5, 5.0, 1.0, result));
+        result.sortByDistance();
+        assertEquals(1, result.index(0));
+        assertEquals(1.0, result.squaredDistance(1), 0.0);
+
+        assertTrue(hash.remove(1));
+        assertEquals(1, hash.size());
+        assertEquals(1, hash.withinRadius(0.5, 0.5, 5.0, 1.0, result));
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        final Random random = new Random(0);
+        final int n = 4000;
+        final SpatialHash3 hash = new SpatialHash3(4.0, n);
+        final Point3[] points = new Point3[n];
+        for (int id = 0; id < n; id++) {
+            points[id] = new Point3(random.nextDouble() * 60, random.nextDouble() * 60,
+                                    random.nextDouble() * 60);
+            hash.put(id, points[id]);
+        }
+        final QueryResult result = new QueryResult();
+        for (int q = 0; q < 100; q++) {
+            final Point3 p = new Point3(random.nextDouble() * 60, random.nextDouble() * 60,
+                                        random.nextDouble() * 60);
+            final double radius = q % 10 == 0 ? 1000.0 : random.nextDouble() * 10;
+            hash.withinRadius(p, radius, result);
+            final int[] actual = result.toIndexArray();
+            Arrays.sort(actual);
+            final int[] expected = IntStream.range(0, n)
+                .filter(id -> {
+                    final double dx = points[id].x() - p.x();
+                    final double dy = points[id].y() - p.y();
+                    final double dz = points[id].z() - p.z();
+                    return dx * dx + dy * dy + dz * dz <= radius * radius;
+                })
+                .toArray();
+            assertEquals(Arrays.toString(expected), Arrays.toString(actual));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRadiusFailure() {
+        new SpatialHash3(1.0, 1).withinRadius(0.0, 0.0, 0.0, Double.NaN, new QueryResult());
+    }
+}
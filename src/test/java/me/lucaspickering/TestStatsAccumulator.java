@@ -0,0 +1,196 @@
+package me.lucaspickering;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+import me.lucaspickering.utils.StatsAccumulator;
+import me.lucaspickering.utils.range.DoubleRange;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestStatsAccumulator {
+
+    @Test
+    public void testEmpty() {
+        final StatsAccumulator acc = new StatsAccumulator();
+        assertEquals(0L, acc.count());
+        assertEquals(Double.POSITIVE_INFINITY, acc.min(), 0.0);
+        assertEquals(Double.NEGATIVE_INFINITY, acc.max(), 0.0);
+        assertEquals(0.0, acc.sum(), 0.0);
+        assertEquals(0.0, acc.mean(), 0.0);
+        assertEquals(0.0, acc.variance(), 0.0);
+        assertEquals(0.0, acc.sampleVariance(), 0.0);
+    }
+
+    @Test
+    public void testAdd() {
+        final StatsAccumulator acc = new StatsAccumulator();
+        for (double value : new double[]{2.0, 4.0, 4.0, 4.0, 5.0, 5.0, 7.0, 9.0}) {
+            acc.add(value);
+        }
+        assertEquals(8L, acc.count());
+        assertEquals(2.0, acc.min(), 0.0);
+        assertEquals(9.0, acc.max(), 0.0);
+        assertEquals(40.0, acc.sum(), 0.0);
+        assertEquals(5.0, acc.mean(), 1e-12);
+        assertEquals(4.0, acc.variance(), 1e-12);
+        assertEquals(2.0, acc.standardDeviation(), 1e-12);
+        assertEquals(32.0 / 7.0, acc.sampleVariance(), 1e-12);
+    }
+
+    @Test
+    public void testAddAllMatchesAdd() {
+        final Random random = new Random(0);
+        final double[] values = new double[1001];
+        final int[] ints = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            ints[i] = random.nextInt(2000) - 1000;
+            values[i] = ints[i] + random.nextDouble();
+        }
+
+        final StatsAccumulator oneAtATime = new StatsAccumulator();
+        Arrays.stream(values, 100, 900).forEach(oneAtATime);
+        final StatsAccumulator slice = new StatsAccumulator();
+        slice.addAll(values, 100, 900);
+        assertSame(oneAtATime, slice);
+
+        final StatsAccumulator intOneAtATime = new StatsAccumulator();
+        Arrays.stream(ints).forEach(intOneAtATime::add);
+        final StatsAccumulator intSlice = new StatsAccumulator();
+        intSlice.addAll(ints);
+        assertSame(intOneAtATime, intSlice);
+    }
+
+    @Test
+    public void testMerge() {
+        final Random random = new Random(0);
+        final double[] values = random.doubles(10000, -50.0, 150.0).toArray();
+        final StatsAccumulator expected = StatsAccumulator.of(values);
+
+        // Split at a few uneven points, including empty pieces
+        final StatsAccumulator merged = new StatsAccumulator();
+        final int[] splits = {0, 0, 17, 5000, 9999, 10000, 10000};
+        for (int i = 1; i < splits.length; i++) {
+            final StatsAccumulator part = new StatsAccumulator();
+            part.addAll(values, splits[i - 1], splits[i]);
+            merged.merge(part);
+        }
+        assertSame(expected, merged);
+
+        assertSame(expected, StatsAccumulator.of(DoubleStream.of(values).parallel()));
+    }
+
+    @Test
+    public void testCollector() {
+        final List<String> words = Arrays.asList("a", "bb", "ccc", "dddd");
+        final StatsAccumulator acc = words.parallelStream()
+            .collect(StatsAccumulator.collector(String::length));
+        assertEquals(4L, acc.count());
+        assertEquals(2.5, acc.mean(), 1e-12);
+        assertEquals(1.25, acc.variance(), 1e-12);
+
+        final StatsAccumulator ints = StatsAccumulator.of(IntStream.rangeClosed(1, 100));
+        assertEquals(5050.0, ints.sum(), 0.0);
+        assertEquals(50.5, ints.mean(), 1e-12);
+    }
+
+    @Test
+    public void testLargeOffset() {
+        // The naive sum of squares loses everything here, Welford shouldn't
+        final StatsAccumulator acc = new StatsAccumulator();
+        for (double value : new double[]{1e9 + 4, 1e9 + 7, 1e9 + 13, 1e9 + 16}) {
+            acc.add(value);
+        }
+        assertEquals(22.5, acc.variance(), 1e-6);
+        assertEquals(22.5, StatsAccumulator.of(1e9 + 4, 1e9 + 7, 1e9 + 13, 1e9 + 16).variance(),
+                     1e-6);
+    }
+
+    @Test
+    public void testCompensatedSum() {
+        // 1 + 1e100 + 1 - 1e100 loses both ones with a plain sum
+        final double[] values = {1.0, 1e100, 1.0, -1e100};
+        final StatsAccumulator plain = new StatsAccumulator();
+        final StatsAccumulator compensated = new StatsAccumulator(true);
+        for (double value : values) {
+            plain.add(value);
+            compensated.add(value);
+        }
+        assertEquals(0.0, plain.sum(), 0.0);
+        assertEquals(2.0, compensated.sum(), 0.0);
+        assertTrue(compensated.isCompensated());
+
+        final StatsAccumulator slice = new StatsAccumulator(true);
+        slice.addAll(values);
+        assertEquals(2.0, slice.sum(), 0.0);
+
+        // Summing 0.1 many times drifts with a plain sum
+        final StatsAccumulator tenths = new StatsAccumulator(true);
+        for (int i = 0; i < 1000000; i++) {
+            tenths.add(0.1);
+        }
+        assertEquals(100000.0, tenths.sum(), 1e-9);
+    }
+
+    @Test
+    public void testCompensatedStreams() {
+        // Each part of a parallel stream should get a compensated accumulator too
+        final double[] values = new double[400000];
+        for (int i = 0; i < values.length; i += 4) {
+            values[i] = 1.0;
+            values[i + 1] = 1e100;
+            values[i + 2] = 1.0;
+            values[i + 3] = -1e100;
+        }
+        final StatsAccumulator stream = StatsAccumulator.of(DoubleStream.of(values).parallel(),
+                                                            true);
+        assertTrue(stream.isCompensated());
+        assertEquals(200000.0, stream.sum(), 0.0);
+        assertFalse(StatsAccumulator.of(DoubleStream.of(values)).isCompensated());
+
+        final StatsAccumulator collected = Arrays.stream(values).boxed().parallel()
+            .collect(StatsAccumulator.collector(Double::doubleValue, true));
+        assertTrue(collected.isCompensated());
+        assertEquals(200000.0, collected.sum(), 0.0);
+
+        final StatsAccumulator ints = StatsAccumulator.of(IntStream.range(0, 1000).parallel(),
+                                                          true);
+        assertTrue(ints.isCompensated());
+        assertEquals(499500.0, ints.sum(), 0.0);
+    }
+
+    @Test
+    public void testToDoubleRange() {
+        final DoubleRange range = StatsAccumulator.of(3.0, -1.5, 2.0).toDoubleRange();
+        assertEquals(-1.5, range.lower(), 0.0);
+        assertEquals(3.0, range.upper(), 0.0);
+        assertTrue(range.contains(3.0));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testToDoubleRangeFailure() {
+        new StatsAccumulator().toDoubleRange();
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void testSliceFailure() {
+        new StatsAccumulator().addAll(new double[3], 2, 4);
+    }
+
+    private static void assertSame(StatsAccumulator expected, StatsAccumulator actual) {
+        final double delta = 1e-9 * Math.max(1.0, Math.abs(expected.sum()));
+        assertEquals(expected.count(), actual.count());
+        assertEquals(expected.min(), actual.min(), 0.0);
+        assertEquals(expected.max(), actual.max(), 0.0);
+        assertEquals(expected.sum(), actual.sum(), delta);
+        assertEquals(expected.mean(), actual.mean(), 1e-9);
+        assertEquals(expected.variance(), actual.variance(), 1e-9 * expected.variance());
+    }
+}
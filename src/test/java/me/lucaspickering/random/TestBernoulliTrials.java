@@ -0,0 +1,78 @@
+package me.lucaspickering.random;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import me.lucaspickering.utils.random.BernoulliTrials;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestBernoulliTrials {
+
+    @Test
+    public void testTrials() {
+        final Random random = new Random(0);
+        final int n = 1000000;
+
+        // Try both the skipping path and the per-trial path
+        for (double p : new double[]{0.001, 0.05, 0.5}) {
+            final BitSet bits = BernoulliTrials.trials(random, n, p);
+            assertEquals(n * p, bits.cardinality(), n * p * 0.05);
+            assertTrue("No bits past n should be set", bits.length() <= n);
+        }
+
+        assertEquals(0, BernoulliTrials.trials(random, 100, 0.0).cardinality());
+        assertEquals(0, BernoulliTrials.trials(random, 100, -1.0).cardinality());
+        assertEquals(100, BernoulliTrials.trials(random, 100, 1.0).cardinality());
+        assertEquals(100, BernoulliTrials.trials(random, 100, 2.0).cardinality());
+    }
+
+    @Test
+    public void testSuccesses() {
+        final Random random = new Random(0);
+        final int[] indices = BernoulliTrials.successes(random, 100000, 0.01);
+        assertEquals(1000, indices.length, 100);
+        for (int i = 1; i < indices.length; i++) {
+            assertTrue("Indices should be ascending", indices[i - 1] < indices[i]);
+        }
+    }
+
+    @Test
+    public void testPerTrialProbabilities() {
+        final Random random = new Random(0);
+        final int n = 200000;
+
+        // The first half has one probability, the second half another
+        final double[] probabilities = new double[n];
+        for (int i = 0; i < n; i++) {
+            probabilities[i] = i < n / 2 ? 0.002 : 0.02;
+        }
+
+        final int[] indices = BernoulliTrials.successes(random, probabilities);
+        int lowCount = 0;
+        for (int index : indices) {
+            if (index < n / 2) {
+                lowCount++;
+            }
+        }
+        assertEquals(n / 2 * 0.002, lowCount, 40);
+        assertEquals(n / 2 * 0.02, indices.length - lowCount, 200);
+    }
+
+    @Test
+    public void testFillPreservesTrailingBits() {
+        // Bits at or after n should be left alone, bits before it should be overwritten
+        final long[] mask = {-1L, -1L};
+        BernoulliTrials.fill(new Random(), 70, 0.0, mask);
+        assertEquals(0L, mask[0]);
+        assertEquals(-1L << 6, mask[1]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaskFailure() {
+        BernoulliTrials.fill(new Random(), 65, 0.5, new long[1]);
+    }
+}
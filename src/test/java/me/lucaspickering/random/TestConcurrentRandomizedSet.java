@@ -0,0 +1,56 @@
+package me.lucaspickering.random;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import me.lucaspickering.utils.random.ConcurrentRandomizedSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestConcurrentRandomizedSet {
+
+    @Test
+    public void testRandomElement() {
+        final Random random = new Random(0);
+        final ConcurrentRandomizedSet<Integer> set = new ConcurrentRandomizedSet<>(8);
+        for (int i = 0; i < 20; i++) {
+            set.add(i);
+        }
+        assertEquals(20, set.size());
+
+        // Stripes have different sizes, but every element should be equally likely
+        final int[] counts = new int[20];
+        final int trials = 200000;
+        for (int i = 0; i < trials; i++) {
+            counts[set.randomElement(random)]++;
+        }
+        for (int count : counts) {
+            assertEquals(trials / 20.0, count, trials / 20.0 * 0.05);
+        }
+    }
+
+    @Test
+    public void testConcurrentRemoveRandom() {
+        final ConcurrentRandomizedSet<Integer> set = new ConcurrentRandomizedSet<>();
+        IntStream.range(0, 100000).parallel().forEach(set::add);
+        assertEquals(100000, set.size());
+
+        // Drain the set from many threads, and make sure no element is handed out twice
+        final Set<Integer> removed = ConcurrentHashMap.newKeySet();
+        IntStream.range(0, 100000).parallel().forEach(i -> {
+            assertTrue(removed.add(set.removeRandom(new Random(i))));
+        });
+        assertTrue(set.isEmpty());
+        assertEquals(100000, removed.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRemoveRandomEmptyFailure() {
+        new ConcurrentRandomizedSet<>().removeRandom(new Random());
+    }
+}
@@ -0,0 +1,155 @@
+package me.lucaspickering.random;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import me.lucaspickering.utils.random.Distributions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestDistributions {
+
+    @Test
+    public void testBinomial() {
+        final Random random = new Random(0);
+        final int samples = 100000;
+
+        // Cover both the inversion path and the rejection path, on both sides of p = 0.5
+        final long[] trials = {20, 1000, 1000000};
+        final double[] probabilities = {0.1, 0.3, 0.5, 0.9};
+        for (long n : trials) {
+            for (double p : probabilities) {
+                double sum = 0.0;
+                double sumSquares = 0.0;
+                for (int i = 0; i < samples; i++) {
+                    final long k = Distributions.binomial(random, n, p);
+                    assertTrue(k >= 0 && k <= n);
+                    sum += k;
+                    sumSquares += (double) k * k;
+                }
+                final double mean = sum / samples;
+                final double variance = sumSquares / samples - mean * mean;
+                final double expectedVariance = n * p * (1 - p);
+                assertEquals(n * p, mean, 5 * Math.sqrt(expectedVariance / samples));
+                assertEquals(expectedVariance, variance, expectedVariance * 0.05);
+            }
+        }
+
+        assertEquals(0, Distributions.binomial(random, 0, 0.5));
+        assertEquals(0, Distributions.binomial(random, 100, 0.0));
+        assertEquals(100, Distributions.binomial(random, 100, 1.0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBinomialProbabilityFailure() {
+        Distributions.binomial(new Random(), 10, 1.5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBinomialTrialsFailure() {
+        Distributions.binomial(new Random(), -1, 0.5);
+    }
+
+    @Test
+    public void testMultinomial() {
+        final Random random = new Random(0);
+        final List<Integer> list = Arrays.asList(1, 0, 2, 3, 4);
+        final long n = 10000000L;
+        final long[] counts = Distributions.multinomial(random, list, i -> i, n);
+
+        assertEquals(list.size(), counts.length);
+        assertEquals(n, Arrays.stream(counts).sum());
+        assertEquals(0, counts[1]); // Zero weight should never be drawn
+        for (int i = 0; i < list.size(); i++) {
+            final double expected = n * list.get(i) / 10.0;
+            assertEquals(expected, counts[i], Math.max(1.0, expected * 0.01));
+        }
+
+        // No draws should give all zeros, even with no positive weights
+        assertEquals(0, Arrays.stream(Distributions.multinomial(random, 0, new double[2])).sum());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMultinomialNoWeightFailure() {
+        Distributions.multinomial(new Random(), 10, new double[]{0.0, 0.0});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMultinomialNegativeWeightFailure() {
+        Distributions.multinomial(new Random(), 10, new double[]{1.0, -1.0});
+    }
+
+    @Test
+    public void testGaussian() {
+        final Random random = new Random(0);
+        final double[] values = new double[1000000];
+        Distributions.fillGaussian(random, values, 5.0, 2.0);
+        assertMoments(values, 5.0, 4.0);
+
+        // Check the tails, which come from the slow paths of the ziggurat
+        int beyond = 0;
+        for (double value : values) {
+            if (Math.abs(value - 5.0) > 2.0 * 3.0) {
+                beyond++;
+            }
+        }
+        assertEquals(0.0027 * values.length, beyond, 0.0027 * values.length * 0.1);
+    }
+
+    @Test
+    public void testExponential() {
+        final Random random = new Random(0);
+        final double[] values = new double[1000000];
+        Distributions.fillExponential(random, values, 0.5);
+        assertMoments(values, 2.0, 4.0);
+
+        int beyond = 0;
+        for (double value : values) {
+            assertTrue(value >= 0.0);
+            if (value > 2.0 * 8.0) {
+                beyond++;
+            }
+        }
+        assertEquals(Math.exp(-8.0) * values.length, beyond, Math.exp(-8.0) * values.length * 0.2);
+    }
+
+    @Test
+    public void testPoisson() {
+        final Random random = new Random(0);
+        final long[] values = new long[200000];
+
+        // Cover both the inversion path and the rejection path
+        for (double mean : new double[]{0.5, 5.0, 50.0, 1000000.0}) {
+            Distributions.fillPoisson(random, values, mean);
+            final double[] doubles = new double[values.length];
+            for (int i = 0; i < values.length; i++) {
+                assertTrue(values[i] >= 0);
+                doubles[i] = values[i];
+            }
+            assertMoments(doubles, mean, mean);
+        }
+        assertEquals(0, Distributions.poisson(random, 0.0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPoissonMeanFailure() {
+        Distributions.poisson(new Random(), -1.0);
+    }
+
+    private static void assertMoments(double[] values, double mean, double variance) {
+        double sum = 0.0;
+        double sumSquares = 0.0;
+        for (double value : values) {
+            sum += value;
+            sumSquares += value * value;
+        }
+        final double actualMean = sum / values.length;
+        final double actualVariance = sumSquares / values.length - actualMean * actualMean;
+        assertEquals(mean, actualMean, 5 * Math.sqrt(variance / values.length));
+        assertEquals(variance, actualVariance, variance * 0.02);
+    }
+}
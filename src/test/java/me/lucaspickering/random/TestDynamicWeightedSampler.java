@@ -0,0 +1,120 @@
+package me.lucaspickering.random;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import me.lucaspickering.utils.random.DynamicWeightedSampler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestDynamicWeightedSampler {
+
+    @Test
+    public void testNext() {
+        final Random random = new Random(0);
+        final DynamicWeightedSampler<String> sampler =
+            new DynamicWeightedSampler<>(Arrays.asList("a", "b", "c"), (e) -> 1.0);
+        assertEquals(3, sampler.size());
+        assertEquals(3.0, sampler.totalWeight(), 0.0);
+
+        // Change the weights so that a never gets chosen and c gets chosen 3x as often as b
+        sampler.setWeight(0, 0.0);
+        sampler.setWeight(2, 3.0);
+        assertEquals(4.0, sampler.totalWeight(), 0.0);
+
+        final int iterations = 40000;
+        final int[] counts = new int[3];
+        for (int i = 0; i < iterations; i++) {
+            counts[sampler.nextIndex(random)]++;
+        }
+        assertEquals("Zero weight should never be chosen", 0, counts[0]);
+        assertEquals(iterations * 0.25, counts[1], iterations * 0.01);
+        assertEquals(iterations * 0.75, counts[2], iterations * 0.01);
+    }
+
+    @Test
+    public void testAddRemove() {
+        final Random random = new Random(0);
+        final DynamicWeightedSampler<Integer> sampler = new DynamicWeightedSampler<>(0);
+
+        // Add enough to force the sampler to grow a few times
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, sampler.add(i, i));
+        }
+        assertEquals(100, sampler.size());
+        assertEquals(4950.0, sampler.totalWeight(), 0.0);
+
+        // Removing should move the last element into the removed index
+        assertEquals(10, (int) sampler.remove(10));
+        assertEquals(99, sampler.size());
+        assertEquals(99, (int) sampler.get(10));
+        assertEquals(99.0, sampler.getWeight(10), 0.0);
+        assertEquals(4940.0, sampler.totalWeight(), 0.0);
+
+        // Remove everything but one element and make sure it's the only thing chosen
+        while (sampler.size() > 1) {
+            sampler.remove(0);
+        }
+        final int remaining = sampler.get(0);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(remaining, (int) sampler.next(random));
+        }
+    }
+
+    @Test
+    public void testManyUpdates() {
+        final Random random = new Random(0);
+        final int n = 1000;
+        final DynamicWeightedSampler<Integer> sampler = new DynamicWeightedSampler<>();
+        for (int i = 0; i < n; i++) {
+            sampler.add(i, random.nextDouble());
+        }
+
+        // Lots of updates to awkward values, then leave a run of zero weights at the end
+        for (int i = 0; i < 100000; i++) {
+            sampler.setWeight(random.nextInt(n), random.nextDouble() * 1e6);
+        }
+        double expectedTotal = 0.0;
+        for (int i = 0; i < n; i++) {
+            sampler.setWeight(i, i < n - 10 ? 0.1 * (i % 7) + 1e-3 : 0.0);
+            expectedTotal += sampler.getWeight(i);
+        }
+        assertEquals(expectedTotal, sampler.totalWeight(), 1e-9);
+        for (int i = 0; i < 100000; i++) {
+            assertTrue("Zero weight should never be chosen",
+                       sampler.getWeight(sampler.nextIndex(random)) > 0.0);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAllWeightsRemovedFailure() {
+        final DynamicWeightedSampler<Integer> sampler = new DynamicWeightedSampler<>();
+        sampler.add(1, 0.1);
+        sampler.add(2, 0.2);
+        sampler.add(3, 0.7);
+        for (int i = 0; i < 3; i++) {
+            sampler.setWeight(i, 0.0);
+        }
+        sampler.next(new Random());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNoPositiveWeightsFailure() {
+        final DynamicWeightedSampler<Integer> sampler = new DynamicWeightedSampler<>();
+        sampler.add(1, 0.0);
+        sampler.next(new Random());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeWeightFailure() {
+        new DynamicWeightedSampler<>().add(1, -1.0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testIndexFailure() {
+        new DynamicWeightedSampler<>().setWeight(0, 1.0);
+    }
+}
@@ -0,0 +1,82 @@
+package me.lucaspickering.random;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import me.lucaspickering.utils.random.ParallelRandom;
+import me.lucaspickering.utils.random.Xoroshiro128PlusPlus;
+import me.lucaspickering.utils.range.IntRange;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class TestParallelRandom {
+
+    @Test
+    public void testForEachDeterministic() {
+        final ParallelRandom random = new ParallelRandom(1234L, 100);
+        final IntRange range = new IntRange(0, 1000);
+        final int size = 10007;
+
+        // Run with a few different amounts of threads, the output should always be the same
+        int[] expected = null;
+        for (int threads : new int[]{1, 2, 7}) {
+            final ForkJoinPool pool = new ForkJoinPool(threads);
+            final int[] output = new int[size];
+            random.forEach(pool, size, (i, r) -> output[i] = range.randomIn(r));
+            pool.shutdown();
+
+            if (expected == null) {
+                expected = output;
+            } else {
+                assertArrayEquals("Output should not depend on thread count", expected, output);
+            }
+        }
+    }
+
+    @Test
+    public void testStreamDeterministic() {
+        final ParallelRandom random = new ParallelRandom(99L, 64);
+        final List<Double> first = random.stream(5000, (i, r) -> r.nextDouble())
+            .collect(Collectors.toList());
+        final List<Double> second = random.stream(5000, (i, r) -> r.nextDouble())
+            .sequential()
+            .collect(Collectors.toList());
+        assertEquals(5000, first.size());
+        assertEquals("Parallel and sequential should match", first, second);
+
+        // Different seeds should give different output
+        final List<Double> other = new ParallelRandom(100L, 64)
+            .stream(5000, (i, r) -> r.nextDouble())
+            .collect(Collectors.toList());
+        assertNotEquals(first, other);
+    }
+
+    @Test
+    public void testBlocksIndependent() {
+        final ParallelRandom random = new ParallelRandom(0L);
+        assertEquals(random.blockSource(3).nextLong(), random.blockSource(3).nextLong());
+        assertNotEquals(random.blockSource(3).nextLong(), random.blockSource(4).nextLong());
+    }
+
+    @Test
+    public void testSplit() {
+        final Xoroshiro128PlusPlus parent = new Xoroshiro128PlusPlus(5L);
+        final Xoroshiro128PlusPlus copy = new Xoroshiro128PlusPlus(5L);
+        final Xoroshiro128PlusPlus child = parent.split();
+
+        // The child should start where the parent was, and the parent should have moved on
+        final long childValue = child.nextLong();
+        assertEquals(copy.nextLong(), childValue);
+        assertNotEquals(childValue, parent.nextLong());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBlockSizeFailure() {
+        new ParallelRandom(0L, 0);
+    }
+}
@@ -0,0 +1,98 @@
+package me.lucaspickering.random;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import me.lucaspickering.utils.GeneralFuncs;
+import me.lucaspickering.utils.random.Pcg64;
+import me.lucaspickering.utils.random.RandomSource;
+import me.lucaspickering.utils.random.SplitMix64;
+import me.lucaspickering.utils.random.Xoroshiro128PlusPlus;
+import me.lucaspickering.utils.range.IntRange;
+import me.lucaspickering.utils.range.Range;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestRandomSource {
+
+    private static List<RandomSource> generators(long seed) {
+        return Arrays.asList(new SplitMix64(seed), new Xoroshiro128PlusPlus(seed), new Pcg64(seed));
+    }
+
+    @Test
+    public void testKnownOutput() {
+        // Reference values from the SplitMix64 paper's C implementation
+        final SplitMix64 random = new SplitMix64(1234567L);
+        assertEquals(6457827717110365317L, random.nextLong());
+        assertEquals(3203168211198807973L, random.nextLong());
+    }
+
+    @Test
+    public void testSeeding() {
+        final List<RandomSource> first = generators(42L);
+        final List<RandomSource> second = generators(42L);
+        for (int i = 0; i < first.size(); i++) {
+            final RandomSource a = first.get(i);
+            final RandomSource b = second.get(i);
+            for (int j = 0; j < 100; j++) {
+                assertEquals("Same seed should give the same sequence", a.nextLong(), b.nextLong());
+            }
+
+            // Re-seeding should restart the sequence
+            a.setSeed(7L);
+            b.setSeed(7L);
+            assertEquals(a.nextLong(), b.nextLong());
+        }
+
+        assertNotEquals(new Xoroshiro128PlusPlus(1L).nextLong(),
+                        new Xoroshiro128PlusPlus(2L).nextLong());
+    }
+
+    @Test
+    public void testBounds() {
+        final int iterations = 10000;
+        for (RandomSource random : generators(0L)) {
+            final int[] counts = new int[6];
+            for (int i = 0; i < iterations; i++) {
+                counts[random.nextInt(counts.length)]++;
+
+                final double d = random.nextDouble();
+                assertTrue("Should be in range [0, 1)", 0.0 <= d && d < 1.0);
+                final float f = random.nextFloat();
+                assertTrue("Should be in range [0, 1)", 0.0f <= f && f < 1.0f);
+            }
+            for (int count : counts) {
+                assertEquals(iterations / 6.0, count, iterations * 0.02);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBoundFailure() {
+        new Xoroshiro128PlusPlus().nextInt(0);
+    }
+
+    @Test
+    public void testOverloads() {
+        // A RandomSource should work both through the Random overloads and its own
+        final RandomSource source = new Xoroshiro128PlusPlus(0L);
+        final Random random = source;
+        final List<Integer> list = Arrays.asList(0, 1, 2, 3, 4);
+        final Range<Integer> range = new IntRange(10, Range.BoundType.EXCLUSIVE,
+                                                  15, Range.BoundType.INCLUSIVE);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(list.contains(GeneralFuncs.randomFromCollection(source, list)));
+            assertTrue(list.contains(GeneralFuncs.randomFromCollection(random, list)));
+            assertTrue(Math.abs(GeneralFuncs.randomSlop(source, i, 3) - i) <= 3);
+            assertTrue(range.contains(range.randomIn(source)));
+            assertTrue(range.contains(range.randomIn(random)));
+        }
+        assertTrue(GeneralFuncs.weightedChance(source, 1f));
+    }
+}
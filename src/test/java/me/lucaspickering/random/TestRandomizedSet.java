@@ -0,0 +1,95 @@
+package me.lucaspickering.random;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+
+import me.lucaspickering.utils.GeneralFuncs;
+import me.lucaspickering.utils.random.RandomizedSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestRandomizedSet {
+
+    @Test
+    public void testAddRemove() {
+        final RandomizedSet<String> set = new RandomizedSet<>();
+        assertTrue(set.add("a"));
+        assertTrue(set.add("b"));
+        assertTrue(set.add("c"));
+        assertFalse(set.add("b"));
+        assertEquals(3, set.size());
+
+        assertTrue(set.remove("a"));
+        assertFalse(set.remove("a"));
+        assertFalse(set.contains("a"));
+        assertTrue(set.contains("b"));
+        assertTrue(set.contains("c"));
+        assertEquals(new HashSet<>(Arrays.asList("b", "c")), set);
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        final RandomizedSet<Integer> set = new RandomizedSet<>(Arrays.asList(1, 2, 3, 4, 5, 6));
+        final Set<Integer> visited = new HashSet<>();
+        for (Iterator<Integer> iter = set.iterator(); iter.hasNext(); ) {
+            final int i = iter.next();
+            visited.add(i);
+            if (i % 2 == 0) {
+                iter.remove();
+            }
+        }
+
+        // Removing moves elements around, but every element should still be visited once
+        assertEquals(6, visited.size());
+        assertEquals(new HashSet<>(Arrays.asList(1, 3, 5)), set);
+    }
+
+    @Test
+    public void testRandomElement() {
+        final Random random = new Random(0);
+        final RandomizedSet<Integer> set = new RandomizedSet<>(Arrays.asList(0, 1, 2, 3, 4));
+        set.remove(2);
+
+        final int[] counts = new int[5];
+        final int trials = 100000;
+        for (int i = 0; i < trials; i++) {
+            counts[set.randomElement(random)]++;
+        }
+        assertEquals(0, counts[2]);
+        for (int i : new int[]{0, 1, 3, 4}) {
+            assertEquals(trials / 4.0, counts[i], trials * 0.01);
+        }
+
+        // GeneralFuncs should be able to pick from it too
+        assertTrue(set.contains(GeneralFuncs.randomFromCollection(random, set)));
+    }
+
+    @Test
+    public void testRemoveRandom() {
+        final Random random = new Random(0);
+        final RandomizedSet<Integer> set = new RandomizedSet<>();
+        for (int i = 0; i < 1000; i++) {
+            set.add(i);
+        }
+
+        final Set<Integer> removed = new HashSet<>();
+        while (!set.isEmpty()) {
+            final int i = set.removeRandom(random);
+            assertFalse(set.contains(i));
+            assertTrue(removed.add(i));
+        }
+        assertEquals(1000, removed.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRandomElementEmptyFailure() {
+        new RandomizedSet<>().randomElement(new Random());
+    }
+}
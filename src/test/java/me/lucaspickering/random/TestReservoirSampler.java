@@ -0,0 +1,105 @@
+package me.lucaspickering.random;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import me.lucaspickering.utils.random.ReservoirSampler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestReservoirSampler {
+
+    @Test
+    public void testSample() {
+        final Random random = new Random(0);
+        final int n = 100;
+        final int k = 10;
+        final int iterations = 5000;
+
+        // Every element should be chosen about k/n of the time
+        final int[] counts = new int[n];
+        for (int i = 0; i < iterations; i++) {
+            final List<Integer> sample =
+                ReservoirSampler.sample(random, IntStream.range(0, n).iterator(), k);
+            assertEquals("Sample should have k elements", k, sample.size());
+            assertEquals("Sample should be distinct", k, new HashSet<>(sample).size());
+            for (int e : sample) {
+                counts[e]++;
+            }
+        }
+        final double expected = iterations * (double) k / n;
+        for (int count : counts) {
+            assertEquals(expected, count, expected * 0.25);
+        }
+    }
+
+    @Test
+    public void testSampleSmallInput() {
+        // If there are fewer than k elements, we should get all of them back
+        final List<Integer> sample =
+            ReservoirSampler.sample(new Random(), IntStream.range(0, 5).iterator(), 10);
+        assertEquals(5, sample.size());
+        assertEquals(IntStream.range(0, 5).boxed().collect(Collectors.toSet()),
+                     new HashSet<>(sample));
+    }
+
+    @Test
+    public void testSampleParallel() {
+        final Random random = new Random(0);
+        final int n = 100000;
+        final int k = 50;
+        final List<Integer> sample =
+            ReservoirSampler.sample(random, IntStream.range(0, n).boxed().parallel(), k);
+        assertEquals("Sample should have k elements", k, sample.size());
+        assertEquals("Sample should be distinct", k, new HashSet<>(sample).size());
+        for (int e : sample) {
+            assertTrue("Sample should come from the stream", 0 <= e && e < n);
+        }
+    }
+
+    @Test
+    public void testSampleWeighted() {
+        final Random random = new Random(0);
+        final int iterations = 2000;
+
+        // Element 0 has no weight, element 1 has almost all of it
+        int heavyCount = 0;
+        for (int i = 0; i < iterations; i++) {
+            final List<Integer> sample = ReservoirSampler.sampleWeighted(
+                random, IntStream.range(0, 50).iterator(), 5,
+                (e) -> e == 0 ? 0.0 : e == 1 ? 1000.0 : 1.0);
+            assertEquals("Sample should have k elements", 5, sample.size());
+            assertEquals("Sample should be distinct", 5, new HashSet<>(sample).size());
+            assertFalse("Zero weight should never be chosen", sample.contains(0));
+            if (sample.contains(1)) {
+                heavyCount++;
+            }
+        }
+        assertTrue("Heavy element should almost always be chosen", heavyCount > iterations * 0.95);
+    }
+
+    @Test
+    public void testSampleWeightedParallel() {
+        final Random random = new Random(0);
+        final List<Integer> sample = ReservoirSampler.sampleWeighted(
+            random, IntStream.range(0, 100000).boxed().parallel(), 20,
+            (e) -> e % 2 == 0 ? 0.0 : 1.0);
+        assertEquals("Sample should have k elements", 20, sample.size());
+        assertEquals("Sample should be distinct", 20, new HashSet<>(sample).size());
+        for (int e : sample) {
+            assertTrue("Zero weight should never be chosen", e % 2 == 1);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeSizeFailure() {
+        ReservoirSampler.sample(new Random(), IntStream.range(0, 5).iterator(), -1);
+    }
+}
@@ -0,0 +1,101 @@
+package me.lucaspickering.random;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import me.lucaspickering.utils.random.ParallelRandom;
+import me.lucaspickering.utils.random.Shuffles;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class TestShuffles {
+
+    @Test
+    public void testShuffle() {
+        final Random random = new Random(0);
+        final int[] sorted = IntStream.range(0, 1000).toArray();
+
+        final int[] ints = sorted.clone();
+        Shuffles.shuffle(random, ints);
+        assertFalse(Arrays.equals(sorted, ints));
+        Arrays.sort(ints);
+        assertArrayEquals(sorted, ints);
+
+        final Integer[] boxed = IntStream.range(0, 1000).boxed().toArray(Integer[]::new);
+        Shuffles.shuffle(random, boxed);
+        Arrays.sort(boxed);
+        assertArrayEquals(IntStream.range(0, 1000).boxed().toArray(), boxed);
+    }
+
+    @Test
+    public void testShuffleSlice() {
+        final Random random = new Random(0);
+        final long[] array = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        for (int i = 0; i < 100; i++) {
+            Shuffles.shuffle(random, array, 2, 8);
+            assertEquals(0, array[0]);
+            assertEquals(1, array[1]);
+            assertEquals(8, array[8]);
+            assertEquals(9, array[9]);
+        }
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void testShuffleSliceFailure() {
+        Shuffles.shuffle(new Random(), new double[5], 3, 6);
+    }
+
+    @Test
+    public void testShuffleUniform() {
+        final Random random = new Random(0);
+        final Map<String, Integer> counts = new HashMap<>();
+        final int trials = 60000;
+        for (int i = 0; i < trials; i++) {
+            final int[] array = {0, 1, 2};
+            Shuffles.shuffle(random, array);
+            counts.merge(Arrays.toString(array), 1, Integer::sum);
+        }
+        assertEquals(6, counts.size());
+        for (int count : counts.values()) {
+            assertEquals(trials / 6.0, count, trials / 6.0 * 0.05);
+        }
+    }
+
+    @Test
+    public void testParallelShuffle() {
+        final int[] sorted = IntStream.range(0, 100000).toArray();
+        final int[] first = sorted.clone();
+        final int[] second = sorted.clone();
+        Shuffles.parallelShuffle(new ParallelRandom(42L, 1000), first);
+        Shuffles.parallelShuffle(new ParallelRandom(42L, 1000), second);
+
+        // The same seed should always give the same order
+        assertArrayEquals(first, second);
+        assertFalse(Arrays.equals(sorted, first));
+        Arrays.sort(first);
+        assertArrayEquals(sorted, first);
+    }
+
+    @Test
+    public void testParallelShuffleUniform() {
+        // With tiny blocks, almost all of the work is done by merges, including one uneven merge
+        final Map<String, Integer> counts = new HashMap<>();
+        final int trials = 120000;
+        for (int seed = 0; seed < trials; seed++) {
+            final Integer[] array = {0, 1, 2, 3, 4};
+            Shuffles.parallelShuffle(new ParallelRandom(seed, 2), array);
+            counts.merge(Arrays.toString(array), 1, Integer::sum);
+        }
+        assertEquals(120, counts.size());
+        for (int count : counts.values()) {
+            assertEquals(trials / 120.0, count, trials / 120.0 * 0.15);
+        }
+    }
+}
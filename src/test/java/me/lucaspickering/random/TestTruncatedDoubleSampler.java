@@ -0,0 +1,92 @@
+package me.lucaspickering.random;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import me.lucaspickering.utils.random.ParallelRandom;
+import me.lucaspickering.utils.random.TruncatedDoubleSampler;
+import me.lucaspickering.utils.range.DoubleRange;
+import me.lucaspickering.utils.range.Range;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestTruncatedDoubleSampler {
+
+    @Test
+    public void testGaussian() {
+        final Random random = new Random(0);
+        final TruncatedDoubleSampler sampler = TruncatedDoubleSampler.gaussian(0.0, 1.0, 1.0, 2.0);
+        final double[] values = new double[100000];
+        sampler.fill(random, values);
+
+        // Mean of a truncated normal is (pdf(a) - pdf(b)) / (cdf(b) - cdf(a))
+        final double expected = (0.24197072451914337 - 0.05399096651318806) /
+                                (0.9772498680518208 - 0.8413447460685429);
+        assertEquals(expected, mean(values, 1.0, 2.0), 0.005);
+    }
+
+    @Test
+    public void testGaussianTails() {
+        final Random random = new Random(0);
+        final double[] values = new double[100000];
+
+        // Far enough out that the CDF is tiny, but not zero. For a bound a standard deviations
+        // out, the mean is about a + 1/a - 2/a^3 standard deviations out.
+        TruncatedDoubleSampler.gaussian(10.0, 2.0, 30.0, Double.POSITIVE_INFINITY)
+            .fill(random, values);
+        assertEquals(10.0 + 2.0 * (10.0 + 0.1 - 0.002),
+                     mean(values, 30.0, Double.POSITIVE_INFINITY), 0.002);
+
+        // Far enough out that the CDF underflows, on both sides
+        TruncatedDoubleSampler.gaussian(0.0, 1.0, Double.NEGATIVE_INFINITY, -50.0)
+            .fill(random, values);
+        assertEquals(-50.0 - 1.0 / 50.0, mean(values, Double.NEGATIVE_INFINITY, -50.0), 0.001);
+        TruncatedDoubleSampler.gaussian(0.0, 1.0, 50.0, 51.0).fill(random, values);
+        assertEquals(50.0 + 1.0 / 50.0, mean(values, 50.0, 51.0), 0.001);
+    }
+
+    @Test
+    public void testExponential() {
+        final Random random = new Random(0);
+        final DoubleRange range = new DoubleRange(2.0, Range.BoundType.EXCLUSIVE,
+                                                  5.0, Range.BoundType.INCLUSIVE);
+        final double[] values = new double[100000];
+        range.exponentialSampler(1.0).fill(random, values);
+
+        final double tail = Math.exp(-3.0);
+        final double expected = 2.0 + (1.0 - 4.0 * tail) / (1.0 - tail);
+        assertEquals(expected, mean(values, Math.nextUp(2.0), 5.0), 0.01);
+    }
+
+    @Test
+    public void testParallelFill() {
+        final TruncatedDoubleSampler sampler =
+            new DoubleRange(-1.0, 1.0).gaussianSampler(0.0, 1.0);
+        final double[] first = new double[10000];
+        final double[] second = new double[10000];
+        sampler.parallelFill(new ParallelRandom(42L, 100), first);
+        sampler.parallelFill(new ParallelRandom(42L, 100), second);
+        assertArrayEquals(first, second, 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyRangeFailure() {
+        new DoubleRange(1.0, Range.BoundType.EXCLUSIVE, 1.0, Range.BoundType.INCLUSIVE)
+            .gaussianSampler(0.0, 1.0);
+    }
+
+    /**
+     * Checks that every value is in the given bounds, and gets their mean.
+     */
+    private static double mean(double[] values, double lower, double upper) {
+        double sum = 0.0;
+        for (double value : values) {
+            assertTrue("Value out of range: " + value, value >= lower && value <= upper);
+            sum += value;
+        }
+        return sum / values.length;
+    }
+}
@@ -0,0 +1,79 @@
+package me.lucaspickering.random;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import me.lucaspickering.utils.random.TruncatedIntSampler;
+import me.lucaspickering.utils.range.IntRange;
+import me.lucaspickering.utils.range.Range;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestTruncatedIntSampler {
+
+    @Test
+    public void testPoisson() {
+        final Random random = new Random(0);
+        final TruncatedIntSampler sampler = TruncatedIntSampler.poisson(5.0, 3, 6);
+        final int trials = 100000;
+        final int[] counts = new int[7];
+        for (int i = 0; i < trials; i++) {
+            counts[sampler.next(random)]++;
+        }
+
+        // Relative probabilities of 3, 4, 5 and 6 for a mean of 5 are 5^k / k!
+        final double[] weights = {125.0 / 6, 625.0 / 24, 3125.0 / 120, 15625.0 / 720};
+        double total = 0.0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        for (int k = 3; k <= 6; k++) {
+            assertEquals(trials * weights[k - 3] / total, counts[k], trials * 0.01);
+        }
+        assertEquals(0, counts[0] + counts[1] + counts[2]);
+    }
+
+    @Test
+    public void testBinomialTail() {
+        final Random random = new Random(0);
+        final IntRange range = new IntRange(79, Range.BoundType.EXCLUSIVE,
+                                            200, Range.BoundType.INCLUSIVE);
+        final int[] values = new int[100000];
+        range.binomialSampler(100, 0.5).fill(random, values);
+
+        // Each value is about 4 times as likely as the next, so 80 should be about 3/4 of them
+        int atLower = 0;
+        for (int value : values) {
+            assertTrue(value >= 80 && value <= 100);
+            if (value == 80) {
+                atLower++;
+            }
+        }
+        assertEquals(0.753 * values.length, atLower, values.length * 0.01);
+    }
+
+    @Test
+    public void testExclusiveBounds() {
+        final Random random = new Random(0);
+        final TruncatedIntSampler sampler =
+            new IntRange(3, Range.BoundType.EXCLUSIVE, 6, Range.BoundType.EXCLUSIVE)
+                .poissonSampler(100.0);
+        for (int i = 0; i < 1000; i++) {
+            final int value = sampler.next(random);
+            assertTrue(value == 4 || value == 5);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoProbabilityFailure() {
+        TruncatedIntSampler.binomial(10, 0.0, 1, 5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyRangeFailure() {
+        new IntRange(3, Range.BoundType.EXCLUSIVE, 4, Range.BoundType.EXCLUSIVE)
+            .poissonSampler(1.0);
+    }
+}
@@ -0,0 +1,80 @@
+package me.lucaspickering.random;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import me.lucaspickering.utils.random.ParallelRandom;
+import me.lucaspickering.utils.random.UniformIntSampler;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestUniformIntSampler {
+
+    @Test
+    public void testDistribution() {
+        final Random random = new Random(0);
+        final UniformIntSampler sampler = new UniformIntSampler(-3, 7);
+        final int[] values = new int[70000];
+        sampler.fill(random, values);
+
+        final int[] counts = new int[7];
+        for (int value : values) {
+            assertTrue("Should be in range [-3, 3]", -3 <= value && value <= 3);
+            counts[value + 3]++;
+        }
+        for (int count : counts) {
+            assertEquals(10000, count, 400);
+        }
+    }
+
+    @Test
+    public void testFullRange() {
+        // A span of 2^32 covers every int, and shouldn't overflow
+        final Random random = new Random(0);
+        final UniformIntSampler sampler = new UniformIntSampler(Integer.MIN_VALUE, 1L << 32);
+        boolean sawNegative = false;
+        boolean sawPositive = false;
+        for (int i = 0; i < 100; i++) {
+            final int value = sampler.next(random);
+            sawNegative |= value < 0;
+            sawPositive |= value > 0;
+        }
+        assertTrue(sawNegative && sawPositive);
+
+        // Span of 1 should always give the lower bound
+        assertEquals(5, new UniformIntSampler(5, 1).next(random));
+    }
+
+    @Test
+    public void testParallelFill() {
+        final UniformIntSampler sampler = new UniformIntSampler(0, 100);
+        final int[] first = new int[50000];
+        final int[] second = new int[50000];
+        sampler.parallelFill(new ParallelRandom(3L, 1000), first);
+        sampler.parallelFill(new ParallelRandom(3L, 1000), second);
+        assertArrayEquals("Same seed should give the same output", first, second);
+        for (int value : first) {
+            assertTrue("Should be in range [0, 99]", 0 <= value && value < 100);
+        }
+    }
+
+    @Test
+    public void testInts() {
+        assertEquals(25, new UniformIntSampler(0, 10).ints(new Random(), 25)
+            .filter(i -> 0 <= i && i < 10)
+            .count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSpanFailure() {
+        new UniformIntSampler(0, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOverflowFailure() {
+        new UniformIntSampler(Integer.MAX_VALUE, 2);
+    }
+}
@@ -0,0 +1,101 @@
+package me.lucaspickering.random;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import me.lucaspickering.utils.random.WeightedSampler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestWeightedSampler {
+
+    @Test
+    public void testNext() {
+        final Random random = new Random(0);
+        final List<Integer> coll = Arrays.asList(0, 1, 2, 3);
+        final WeightedSampler<Integer> sampler = new WeightedSampler<>(coll, (e) -> e);
+
+        // 0 has no weight, so it should be dropped entirely
+        assertEquals(3, sampler.size());
+
+        // Draw a bunch of times and make sure the distribution is roughly proportional
+        final int iterations = 60000;
+        final int[] counts = new int[coll.size()];
+        for (int i = 0; i < iterations; i++) {
+            counts[sampler.next(random)]++;
+        }
+        assertEquals("Zero weight should never be chosen", 0, counts[0]);
+        assertEquals(iterations / 6.0, counts[1], iterations * 0.01);
+        assertEquals(iterations / 3.0, counts[2], iterations * 0.01);
+        assertEquals(iterations / 2.0, counts[3], iterations * 0.01);
+    }
+
+    @Test
+    public void testDoubleWeights() {
+        final Random random = new Random(0);
+        final List<String> coll = Arrays.asList("a", "b");
+        final WeightedSampler<String> sampler =
+            new WeightedSampler<>(coll, (e) -> e.equals("a") ? 0.25 : 0.75);
+
+        final int iterations = 40000;
+        int aCount = 0;
+        for (int i = 0; i < iterations; i++) {
+            if (sampler.next(random).equals("a")) {
+                aCount++;
+            }
+        }
+        assertEquals(iterations * 0.25, aCount, iterations * 0.01);
+    }
+
+    @Test
+    public void testHugeWeights() {
+        // Each weight times the element count overflows, but the total doesn't
+        final Random random = new Random(0);
+        final WeightedSampler<String> sampler = new WeightedSampler<>(
+            Arrays.asList("a", "b"), (e) -> e.equals("a") ? 1.2e308 : 0.4e308);
+
+        final int iterations = 40000;
+        int aCount = 0;
+        for (int i = 0; i < iterations; i++) {
+            if (sampler.next(random).equals("a")) {
+                aCount++;
+            }
+        }
+        assertEquals(iterations * 0.75, aCount, iterations * 0.01);
+    }
+
+    @Test
+    public void testSingleElement() {
+        final Random random = new Random();
+        final WeightedSampler<Integer> sampler =
+            new WeightedSampler<>(Arrays.asList(5, 6), (e) -> e == 5 ? 0 : 1000);
+        for (int i = 0; i < 100; i++) {
+            assertTrue("Only positive weight should be chosen", sampler.next(random) == 6);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyFailure() {
+        new WeightedSampler<>(new ArrayList<Integer>(), (e) -> 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoPositiveWeightsFailure() {
+        new WeightedSampler<>(Arrays.asList(1, 2, 3), (e) -> 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNaNWeightFailure() {
+        new WeightedSampler<>(Arrays.asList(1, 2, 3), (e) -> Double.NaN);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInfiniteTotalWeightFailure() {
+        new WeightedSampler<>(Arrays.asList(1, 2), (e) -> 1e308);
+    }
+}
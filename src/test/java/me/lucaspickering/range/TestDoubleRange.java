@@ -4,6 +4,7 @@ import org.junit.Test;
 
 import java.util.Random;
 
+import me.lucaspickering.utils.random.ParallelRandom;
 import me.lucaspickering.utils.range.DoubleRange;
 import me.lucaspickering.utils.range.Range;
 
@@ -112,6 +113,25 @@ public class TestDoubleRange {
         }
     }
 
+    @Test
+    public void testFill() {
+        final Random random = new Random();
+        final DoubleRange range = new DoubleRange(10.0, Range.BoundType.EXCLUSIVE,
+                                                  15.0, Range.BoundType.INCLUSIVE);
+        final double[] values = new double[1000];
+        range.fill(random, values);
+        for (double value : values) {
+            assertTrue("Random value should be in the range", range.contains(value));
+        }
+
+        range.parallelFill(new ParallelRandom(0L), values);
+        for (double value : values) {
+            assertTrue("Random value should be in the range", range.contains(value));
+        }
+
+        assertEquals(100, range.doubles(random, 100).filter(range::contains).count());
+    }
+
     @Test
     public void testMapTo() {
         Range<Double> fromRange;
@@ -125,4 +145,39 @@ public class TestDoubleRange {
         assertEquals("Should map to the maximum", fromRange.mapTo(20.0, toRange), 200.0, 0.0);
         assertEquals("Should map to the maximum", fromRange.mapTo(21.0, toRange), 200.0, 0.0);
     }
+
+    @Test
+    public void testBatchCoerceAndNormalize() {
+        final DoubleRange range = new DoubleRange(-1.0, 2.0);
+        final Random random = new Random(0);
+        final double[] values = new double[101];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextGaussian() * 3.0;
+        }
+        values[7] = Double.NaN;
+        values[8] = Double.NEGATIVE_INFINITY;
+        values[9] = Double.POSITIVE_INFINITY;
+
+        // The batch versions should match the one-at-a-time versions exactly
+        final double[] out = new double[values.length];
+        range.coerce(values, out);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(range.coerce(values[i]), out[i], 0.0);
+        }
+        range.normalize(values, out);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(range.normalize(values[i]), out[i], 0.0);
+        }
+
+        // Writing over the input should work too
+        range.coerce(values, values);
+        for (double value : values) {
+            assertTrue(range.contains(value));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchOutputFailure() {
+        new DoubleRange(0.0, 1.0).normalize(new double[3], new double[2]);
+    }
 }
@@ -4,6 +4,7 @@ import org.junit.Test;
 
 import java.util.Random;
 
+import me.lucaspickering.utils.random.ParallelRandom;
 import me.lucaspickering.utils.range.IntRange;
 import me.lucaspickering.utils.range.Range;
 
@@ -112,6 +113,31 @@ public class TestIntRange {
         }
     }
 
+    @Test
+    public void testFill() {
+        final Random random = new Random();
+        final IntRange range = new IntRange(10, Range.BoundType.EXCLUSIVE,
+                                            15, Range.BoundType.INCLUSIVE);
+        final int[] values = new int[1000];
+        range.fill(random, values);
+        for (int value : values) {
+            assertTrue("Random value should be in the range", range.contains(value));
+        }
+
+        range.parallelFill(new ParallelRandom(0L), values);
+        for (int value : values) {
+            assertTrue("Random value should be in the range", range.contains(value));
+        }
+
+        assertEquals(100, range.ints(random, 100).filter(range::contains).count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFillEmptyFailure() {
+        new IntRange(10, Range.BoundType.EXCLUSIVE, 11, Range.BoundType.EXCLUSIVE)
+            .fill(new Random(), new int[1]);
+    }
+
     @Test
     public void testMapTo() {
         Range<Integer> fromRange;
@@ -0,0 +1,55 @@
+package me.lucaspickering.timing;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import me.lucaspickering.utils.GeneralFuncs;
+import me.lucaspickering.utils.timing.Benchmark;
+import me.lucaspickering.utils.timing.BenchmarkResult;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestBenchmark {
+
+    @Test
+    public void testRun() {
+        // Make sure every op actually gets run
+        final AtomicInteger calls = new AtomicInteger();
+        final BenchmarkResult result = new Benchmark(2, 5, 100).run(blackhole -> {
+            blackhole.consume(calls.incrementAndGet());
+        });
+        assertEquals(700, calls.get());
+        assertEquals(5, result.sampleCount());
+
+        assertTrue(result.mean() >= 0.0);
+        assertTrue(result.stddev() >= 0.0);
+        assertTrue(result.min() <= result.percentile(50.0));
+        assertTrue(result.percentile(50.0) <= result.max());
+        assertEquals(result.max(), result.percentile(100.0), 0.0);
+        assertTrue("Allocation shouldn't be measured", Double.isNaN(result.allocatedBytesPerOp()));
+    }
+
+    @Test
+    public void testAllocation() {
+        final BenchmarkResult result = new Benchmark(5, 5, 1000, true).run(() -> new long[128]);
+        final double allocated = result.allocatedBytesPerOp();
+        // Not every JVM supports this, but if it does, it should have seen the arrays
+        assertTrue(Double.isNaN(allocated) || allocated >= 128 * 8);
+    }
+
+    @Test
+    public void testTimed() {
+        final int[] calls = new int[1];
+        final BenchmarkResult result = GeneralFuncs.timed(new Benchmark(0, 3, 10),
+                                                          () -> ++calls[0]);
+        assertEquals(3, result.sampleCount());
+        assertEquals(30, calls[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIterationsFailure() {
+        new Benchmark(0, 0, 1);
+    }
+}
@@ -0,0 +1,108 @@
+package me.lucaspickering.timing;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import me.lucaspickering.utils.GeneralFuncs;
+import me.lucaspickering.utils.timing.LatencyHistogram;
+import me.lucaspickering.utils.timing.LatencyRecorder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestLatencyRecorder {
+
+    @Test
+    public void testPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100000; i++) {
+            histogram.record(i);
+        }
+        assertEquals(100000, histogram.count());
+        assertEquals(1, histogram.min());
+        assertEquals(100000, histogram.max());
+        assertEquals(50000.5, histogram.mean(), 0.0);
+
+        // Percentiles should be within 1% of the exact answer
+        assertEquals(50000, histogram.p50(), 500);
+        assertEquals(99000, histogram.p99(), 990);
+        assertEquals(99900, histogram.p999(), 999);
+        assertEquals(100000, histogram.valueAtPercentile(100.0));
+
+        // Small values should be exact
+        final LatencyHistogram small = new LatencyHistogram();
+        small.record(3);
+        small.record(7);
+        assertEquals(3, small.valueAtPercentile(50.0));
+        assertEquals(7, small.valueAtPercentile(100.0));
+    }
+
+    @Test
+    public void testClamp() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(0, histogram.min());
+        assertEquals(LatencyHistogram.MAX_TRACKABLE, histogram.max());
+        assertEquals(LatencyHistogram.MAX_TRACKABLE, histogram.valueAtPercentile(100.0));
+    }
+
+    @Test
+    public void testMergeAndReset() {
+        final LatencyHistogram a = new LatencyHistogram();
+        final LatencyHistogram b = new LatencyHistogram();
+        a.record(10);
+        b.record(20);
+        b.record(30);
+        a.merge(b);
+        assertEquals(3, a.count());
+        assertEquals(10, a.min());
+        assertEquals(30, a.max());
+        assertEquals(20, a.p50());
+
+        a.reset();
+        assertEquals(0, a.count());
+        assertEquals(0, a.p99());
+    }
+
+    @Test
+    public void testConcurrentRecording() throws InterruptedException {
+        final LatencyRecorder recorder = new LatencyRecorder(4);
+        final int threadCount = 8;
+        final int perThread = 10000;
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            final Thread thread = new Thread(() -> {
+                for (int i = 1; i <= perThread; i++) {
+                    recorder.record(i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        final LatencyHistogram snapshot = recorder.snapshot();
+        assertEquals(threadCount * perThread, snapshot.count());
+        assertEquals(1, snapshot.min());
+        assertEquals(perThread, snapshot.max());
+
+        recorder.reset();
+        assertEquals(0, recorder.snapshot().count());
+    }
+
+    @Test
+    public void testTimed() {
+        final LatencyRecorder recorder = new LatencyRecorder();
+        final long time = GeneralFuncs.timed(recorder, () -> {
+        });
+        assertTrue("Execution time should be >=0", time >= 0);
+        assertEquals(5, (int) GeneralFuncs.timedValue(recorder, () -> 5));
+        assertEquals(2, recorder.snapshot().count());
+    }
+}
@@ -0,0 +1,235 @@
+package me.lucaspickering.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks {@link ArrayKernels} against {@link ScalarKernels}, bit for bit. This lives in the
+ * utils package because {@link ScalarKernels} is package-private.
+ *
+ * In the normal build, {@link ArrayKernels} is the Java 8 version, so this is trivial. The
+ * {@code vector} profile runs it again against the multi-release jar with the
+ * {@code jdk.incubator.vector} module added, where it checks the Vector API kernels.
+ */
+public class TestArrayKernels {
+
+    // Enough sizes to cover an empty vector loop, a tail of every length, and many full vectors
+    private static final int MAX_SIZE = 80;
+
+    @Test
+    public void testVectorized() {
+        if (Boolean.getBoolean("lp.expectVectorized")) {
+            assertTrue("Vector kernels should be in use", ArrayKernels.isVectorized());
+        }
+    }
+
+    @Test
+    public void testMinMax() {
+        final Random random = new Random(0);
+        for (int size = 1; size <= MAX_SIZE; size++) {
+            final int[] ints = new int[size + 2];
+            final long[] longs = new long[size + 2];
+            final float[] floats = new float[size + 2];
+            final double[] doubles = new double[size + 2];
+            for (int i = 0; i < ints.length; i++) {
+                ints[i] = random.nextInt();
+                longs[i] = random.nextLong();
+                floats[i] = (float) random.nextGaussian();
+                doubles[i] = random.nextGaussian();
+            }
+
+            // Slices that start and end at different offsets
+            for (int from = 0; from <= 2; from++) {
+                final int to = from + size;
+                assertArrayEquals(ScalarKernels.minMax(ints, from, to),
+                                  ArrayKernels.minMax(ints, from, to));
+                assertArrayEquals(ScalarKernels.minMax(longs, from, to),
+                                  ArrayKernels.minMax(longs, from, to));
+                assertBitsEqual(ScalarKernels.minMax(floats, from, to),
+                                ArrayKernels.minMax(floats, from, to));
+                assertBitsEqual(ScalarKernels.minMax(doubles, from, to),
+                                ArrayKernels.minMax(doubles, from, to));
+
+                assertEquals(ScalarKernels.min(ints, from, to), ArrayKernels.min(ints, from, to));
+                assertEquals(ScalarKernels.max(ints, from, to), ArrayKernels.max(ints, from, to));
+                assertEquals(ScalarKernels.min(longs, from, to),
+                             ArrayKernels.min(longs, from, to));
+                assertEquals(ScalarKernels.max(longs, from, to),
+                             ArrayKernels.max(longs, from, to));
+                assertBitsEqual(ScalarKernels.min(floats, from, to),
+                                ArrayKernels.min(floats, from, to));
+                assertBitsEqual(ScalarKernels.max(floats, from, to),
+                                ArrayKernels.max(floats, from, to));
+                assertBitsEqual(ScalarKernels.min(doubles, from, to),
+                                ArrayKernels.min(doubles, from, to));
+                assertBitsEqual(ScalarKernels.max(doubles, from, to),
+                                ArrayKernels.max(doubles, from, to));
+            }
+        }
+    }
+
+    @Test
+    public void testMinMaxSpecialValues() {
+        final Random random = new Random(1);
+        final double[] specials = {Double.NaN, Double.POSITIVE_INFINITY,
+                                   Double.NEGATIVE_INFINITY, Double.MAX_VALUE, -Double.MIN_VALUE};
+        for (int size = 1; size <= MAX_SIZE; size++) {
+            final double[] doubles = new double[size];
+            final float[] floats = new float[size];
+            for (int trial = 0; trial < 20; trial++) {
+                for (int i = 0; i < size; i++) {
+                    doubles[i] = random.nextInt(4) == 0
+                                 ? specials[random.nextInt(specials.length)]
+                                 : random.nextGaussian();
+                    floats[i] = (float) doubles[i];
+                }
+                assertBitsEqual(ScalarKernels.minMax(doubles, 0, size),
+                                ArrayKernels.minMax(doubles, 0, size));
+                assertBitsEqual(ScalarKernels.minMax(floats, 0, size),
+                                ArrayKernels.minMax(floats, 0, size));
+                assertSingleExtremes(doubles, floats);
+            }
+
+            // All NaN
+            Arrays.fill(doubles, Double.NaN);
+            Arrays.fill(floats, Float.NaN);
+            assertBitsEqual(ScalarKernels.minMax(doubles, 0, size),
+                            ArrayKernels.minMax(doubles, 0, size));
+            assertSingleExtremes(doubles, floats);
+            assertBitsEqual(Double.POSITIVE_INFINITY, ArrayKernels.min(doubles, 0, size));
+            assertBitsEqual(Double.NEGATIVE_INFINITY, ArrayKernels.max(doubles, 0, size));
+        }
+    }
+
+    @Test
+    public void testMinMaxSignedZero() {
+        final Random random = new Random(4);
+        final double[] choices = {0.0, -0.0, 0.0, -0.0, Double.NaN, 1.0};
+        for (int size = 1; size <= MAX_SIZE; size++) {
+            final double[] doubles = new double[size];
+            final float[] floats = new float[size];
+            for (int trial = 0; trial < 20; trial++) {
+                // Mostly zeros of either sign, with some NaN and positive values mixed in
+                for (int i = 0; i < size; i++) {
+                    doubles[i] = choices[random.nextInt(choices.length)];
+                    floats[i] = (float) doubles[i];
+                }
+                assertSingleExtremes(doubles, floats);
+
+                // Ties go to the first value, the same as a plain left-to-right scan
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for (double value : doubles) {
+                    min = value < min ? value : min;
+                    max = value > max ? value : max;
+                }
+                assertBitsEqual(min, ScalarKernels.min(doubles, 0, size));
+                assertBitsEqual(max, ScalarKernels.max(doubles, 0, size));
+            }
+        }
+    }
+
+    @Test
+    public void testDistances() {
+        final Random random = new Random(2);
+        for (int size = 0; size <= MAX_SIZE; size++) {
+            final double[] xs = new double[size];
+            final double[] ys = new double[size];
+            final double[] zs = new double[size];
+            for (int i = 0; i < size; i++) {
+                xs[i] = random.nextGaussian() * 1e3;
+                ys[i] = random.nextGaussian() * 1e-3;
+                zs[i] = random.nextGaussian();
+            }
+            if (size > 3) {
+                xs[3] = Double.NaN;
+                ys[1] = Double.POSITIVE_INFINITY;
+            }
+
+            final double[] expected = new double[size];
+            final double[] actual = new double[size];
+            ScalarKernels.distances(0.5, -2.0, xs, ys, expected, 0, size);
+            ArrayKernels.distances(0.5, -2.0, xs, ys, actual, 0, size);
+            assertBitsEqual(expected, actual);
+
+            ScalarKernels.distances(0.5, -2.0, 7.0, xs, ys, zs, expected, 0, size);
+            ArrayKernels.distances(0.5, -2.0, 7.0, xs, ys, zs, actual, 0, size);
+            assertBitsEqual(expected, actual);
+        }
+    }
+
+    @Test
+    public void testCoerceNormalize() {
+        final Random random = new Random(3);
+        for (int size = 0; size <= MAX_SIZE; size++) {
+            final double[] values = new double[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = random.nextGaussian();
+            }
+            if (size > 2) {
+                values[0] = Double.NaN;
+                values[1] = Double.NEGATIVE_INFINITY;
+                values[2] = -0.0;
+            }
+
+            final double[] expected = new double[size];
+            final double[] actual = new double[size];
+            ScalarKernels.coerce(values, -0.5, 0.75, expected, 0, size);
+            ArrayKernels.coerce(values, -0.5, 0.75, actual, 0, size);
+            assertBitsEqual(expected, actual);
+
+            ScalarKernels.normalize(values, -0.5, 0.75, expected, 0, size);
+            ArrayKernels.normalize(values, -0.5, 0.75, actual, 0, size);
+            assertBitsEqual(expected, actual);
+
+            // In place
+            final double[] inPlace = values.clone();
+            ArrayKernels.normalize(inPlace, -0.5, 0.75, inPlace, 0, size);
+            assertBitsEqual(expected, inPlace);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptySliceFailure() {
+        ArrayKernels.min(new int[3], 2, 2);
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void testSliceOutOfBoundsFailure() {
+        ArrayKernels.minMax(new double[3], 1, 4);
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void testShortOutputFailure() {
+        ArrayKernels.coerce(new double[4], 0.0, 1.0, new double[3], 0, 4);
+    }
+
+    private static void assertSingleExtremes(double[] doubles, float[] floats) {
+        assertBitsEqual(ScalarKernels.min(doubles, 0, doubles.length),
+                        ArrayKernels.min(doubles, 0, doubles.length));
+        assertBitsEqual(ScalarKernels.max(doubles, 0, doubles.length),
+                        ArrayKernels.max(doubles, 0, doubles.length));
+        assertBitsEqual(ScalarKernels.min(floats, 0, floats.length),
+                        ArrayKernels.min(floats, 0, floats.length));
+        assertBitsEqual(ScalarKernels.max(floats, 0, floats.length),
+                        ArrayKernels.max(floats, 0, floats.length));
+    }
+
+    private static void assertBitsEqual(double expected, double actual) {
+        assertEquals(Double.doubleToLongBits(expected), Double.doubleToLongBits(actual));
+    }
+
+    private static void assertBitsEqual(double[] expected, double[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("Index " + i, Double.doubleToLongBits(expected[i]),
+                         Double.doubleToLongBits(actual[i]));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package me.lucaspickering.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import me.lucaspickering.utils.OffHeapPoint3Store.Precision;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that {@link OffHeapPoint3Store} gives the same results when its points are split across
+ * many small chunks as when they all fit in one. This lives in the utils package because the
+ * chunk size can only be set through the package-private factories.
+ */
+public class TestOffHeapPoint3StoreChunks {
+
+    // 8 points per chunk, so every test crosses several chunk boundaries
+    private static final int CHUNK_SHIFT = 3;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testMatchesSingleChunk() {
+        // A partial last chunk, and a capacity that exactly fills the last chunk
+        for (int capacity : new int[]{37, 32}) {
+            for (Precision precision : Precision.values()) {
+                final OffHeapPoint3Store expected = OffHeapPoint3Store.allocate(capacity,
+                                                                                precision);
+                final OffHeapPoint3Store actual = OffHeapPoint3Store.allocate(capacity, precision,
+                                                                              CHUNK_SHIFT);
+                fill(expected, capacity - 5, new Random(capacity));
+                fill(actual, capacity - 5, new Random(capacity));
+                assertStoresEqual(expected, actual);
+
+                // addAll copies across the boundary into the last chunk
+                final Point3Buffer tail = new Point3Buffer();
+                for (int i = 0; i < 5; i++) {
+                    tail.add(i, -i, 0.5 * i);
+                }
+                expected.addAll(tail);
+                actual.addAll(tail);
+                assertStoresEqual(expected, actual);
+
+                // Writes on either side of a boundary
+                for (OffHeapPoint3Store store : new OffHeapPoint3Store[]{expected, actual}) {
+                    store.set(7, 1.25, 2.5, 3.75);
+                    store.view(8).set(-1.25, -2.5, -3.75);
+                    store.view(15).translate(0.5, 0.5, 0.5);
+                    store.translate(1.0, -2.0, 0.5);
+                    store.scale(3.0);
+                }
+                assertStoresEqual(expected, actual);
+                assertEquals(new Point3(3 * 2.25, 3 * 0.5, 3 * 4.25), actual.get(7));
+                assertEquals(new Point3(3 * -0.25, 3 * -4.5, 3 * -3.25), actual.get(8));
+
+                final Point3 origin = new Point3(1.0, 2.0, 3.0);
+                final double[] expectedDistances = new double[capacity];
+                final double[] actualDistances = new double[capacity];
+                expected.distancesTo(origin, expectedDistances);
+                actual.distancesTo(origin, actualDistances);
+                for (int i = 0; i < capacity; i++) {
+                    assertEquals("Index " + i, expectedDistances[i], actualDistances[i], 0.0);
+                }
+
+                final double sum = actual.parallelStream().mapToDouble(view -> view.z()).sum();
+                assertEquals(expected.stream().mapToDouble(view -> view.z()).sum(), sum, 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testReopen() throws IOException {
+        for (Precision precision : Precision.values()) {
+            final Path path = folder.getRoot().toPath().resolve(precision + ".p3");
+            final OffHeapPoint3Store expected = OffHeapPoint3Store.allocate(50, precision);
+            fill(expected, 30, new Random(2));
+            try (OffHeapPoint3Store store = OffHeapPoint3Store.create(path, 50, precision,
+                                                                      CHUNK_SHIFT)) {
+                fill(store, 30, new Random(2));
+            }
+            // The chunk size doesn't change the file
+            assertEquals(32L + 50L * 3 * precision.bytes(), Files.size(path));
+
+            // Reopen with no chunking, and with a different chunk size than it was written with
+            try (OffHeapPoint3Store store = OffHeapPoint3Store.open(path, false)) {
+                assertStoresEqual(expected, store);
+            }
+            try (OffHeapPoint3Store store = OffHeapPoint3Store.open(path, false, CHUNK_SHIFT - 1)) {
+                assertStoresEqual(expected, store);
+                store.add(1.0, 2.0, 3.0);
+                store.set(24, 4.0, 5.0, 6.0);
+                store.translate(0.5, 0.5, 0.5);
+            }
+            expected.add(1.0, 2.0, 3.0);
+            expected.set(24, 4.0, 5.0, 6.0);
+            expected.translate(0.5, 0.5, 0.5);
+
+            try (OffHeapPoint3Store store = OffHeapPoint3Store.open(path, true, CHUNK_SHIFT)) {
+                assertEquals(31, store.size());
+                assertStoresEqual(expected, store);
+            }
+        }
+    }
+
+    @Test
+    public void testSinglePointChunks() {
+        final OffHeapPoint3Store store = OffHeapPoint3Store.allocate(3, Precision.DOUBLE, 0);
+        store.add(1.0, 2.0, 3.0);
+        store.add(4.0, 5.0, 6.0);
+        store.scale(2.0);
+        assertEquals(new Point3(8.0, 10.0, 12.0), store.get(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testChunkShiftFailure() {
+        OffHeapPoint3Store.allocate(1, Precision.DOUBLE, OffHeapPoint3Store.MAX_CHUNK_SHIFT + 1);
+    }
+
+    private static void fill(OffHeapPoint3Store store, int count, Random random) {
+        for (int i = 0; i < count; i++) {
+            store.add(random.nextGaussian(), random.nextGaussian(), random.nextGaussian());
+        }
+    }
+
+    private static void assertStoresEqual(OffHeapPoint3Store expected, OffHeapPoint3Store actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals("Index " + i, expected.get(i), actual.get(i));
+        }
+    }
+}